@@ -0,0 +1,251 @@
+package org.basex.build;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class writes the table, texts and attribute values of a new database with separate
+ * threads. Table entries are assembled by the parsing thread and passed on in batches.
+ * A second thread inlines numbers and compresses texts and attribute values, and a third
+ * thread writes the values to the heap files and the completed entries to the table.
+ * All threads are connected by bounded queues.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class BuildPipeline extends OutputStream {
+  /** Number of table entries in a batch. */
+  private static final int ENTRIES = 1 << 12;
+  /** Maximum number of queued batches. */
+  private static final int QUEUE = 8;
+  /** Marker for the last batch. */
+  private static final Batch END = new Batch();
+
+  /** Batches with values to be packed. */
+  private final BlockingQueue<Batch> packQueue = new ArrayBlockingQueue<>(QUEUE);
+  /** Batches to be written. */
+  private final BlockingQueue<Batch> writeQueue = new ArrayBlockingQueue<>(QUEUE);
+  /** Packing thread. */
+  private final Thread packer;
+  /** Writing thread. */
+  private final Thread writer;
+  /** Error that occurred in one of the threads. */
+  private volatile Throwable error;
+  /** Current batch ({@code null} if the pipeline has been finished). */
+  private Batch batch = new Batch();
+
+  /**
+   * Constructor.
+   * @param table output stream for the table
+   * @param texts output stream for texts
+   * @param values output stream for attribute values
+   * @param xcomp compressor for texts
+   * @param vcomp compressor for attribute values
+   */
+  BuildPipeline(final DataOutput table, final DataOutput texts, final DataOutput values,
+      final TextCompressor xcomp, final TextCompressor vcomp) {
+
+    packer = new Thread() {
+      @Override
+      public void run() {
+        try {
+          for(Batch b; (b = packQueue.take()) != END;) {
+            b.pack(xcomp, vcomp);
+            put(writeQueue, b);
+          }
+          put(writeQueue, END);
+        } catch(final Throwable th) {
+          fail(th);
+        }
+      }
+    };
+    writer = new Thread() {
+      @Override
+      public void run() {
+        try {
+          for(Batch b; (b = writeQueue.take()) != END;) b.write(table, texts, values);
+        } catch(final Throwable th) {
+          fail(th);
+        }
+      }
+    };
+    packer.setDaemon(true);
+    writer.setDaemon(true);
+    packer.start();
+    writer.start();
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    final Batch bt = batch;
+    bt.entries[bt.size++] = (byte) b;
+    // batches contain complete table entries
+    if(bt.size == bt.entries.length) {
+      put(packQueue, bt);
+      batch = new Batch();
+    }
+  }
+
+  /**
+   * Registers a text or attribute value. The value will be stored, and its reference will be
+   * written to the next five bytes of the current table entry.
+   * @param value value
+   * @param text text or attribute value
+   */
+  void value(final byte[] value, final boolean text) {
+    batch.add(value, text);
+  }
+
+  /**
+   * Passes on the remaining entries and waits until all entries have been written.
+   * @throws IOException I/O exception
+   */
+  void finish() throws IOException {
+    if(batch.size > 0) put(packQueue, batch);
+    put(packQueue, END);
+    batch = null;
+    try {
+      packer.join();
+      writer.join();
+    } catch(final InterruptedException ex) {
+      throw new IOException(ex);
+    }
+    check();
+  }
+
+  /**
+   * Stops all threads if the pipeline has not been finished.
+   */
+  @Override
+  public void close() {
+    if(batch == null) return;
+    batch = null;
+    packer.interrupt();
+    writer.interrupt();
+  }
+
+  /**
+   * Adds a batch to the specified queue. Throws an exception if another thread has failed.
+   * @param queue queue
+   * @param b batch
+   * @throws IOException I/O exception
+   */
+  private void put(final BlockingQueue<Batch> queue, final Batch b) throws IOException {
+    try {
+      while(!queue.offer(b, 100, TimeUnit.MILLISECONDS)) check();
+    } catch(final InterruptedException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  /**
+   * Registers the first error and stops all threads.
+   * @param th error
+   */
+  private void fail(final Throwable th) {
+    if(th instanceof InterruptedException) return;
+    if(error == null) error = th;
+    packer.interrupt();
+    writer.interrupt();
+  }
+
+  /**
+   * Throws an exception if one of the threads has failed.
+   * @throws IOException I/O exception
+   */
+  private void check() throws IOException {
+    final Throwable th = error;
+    if(th instanceof IOException) throw (IOException) th;
+    if(th instanceof RuntimeException) throw (RuntimeException) th;
+    if(th instanceof Error) throw (Error) th;
+    if(th != null) throw new IOException(th);
+  }
+
+  /**
+   * Batch of table entries.
+   */
+  private static final class Batch {
+    /** Table entries. */
+    private final byte[] entries = new byte[ENTRIES << IO.NODEPOWER];
+    /** Offsets of the value references in the table entries. */
+    private final IntList offsets = new IntList();
+    /** Values (replaced with packed values or {@code null} for inlined numbers). */
+    private final TokenList values = new TokenList();
+    /** Text or attribute flags. */
+    private final BoolList texts = new BoolList();
+    /** Value references (without heap offsets). */
+    private long[] refs;
+    /** Number of bytes. */
+    private int size;
+
+    /**
+     * Adds a value.
+     * @param value value
+     * @param text text or attribute value
+     */
+    private void add(final byte[] value, final boolean text) {
+      offsets.add(size);
+      values.add(value);
+      texts.add(text);
+    }
+
+    /**
+     * Inlines numbers and compresses all other values.
+     * @param xcomp compressor for texts
+     * @param vcomp compressor for attribute values
+     */
+    private void pack(final TextCompressor xcomp, final TextCompressor vcomp) {
+      final int vs = values.size();
+      refs = new long[vs];
+      for(int v = 0; v < vs; v++) {
+        final byte[] value = values.get(v);
+        // inline integer value
+        final long n = Token.toSimpleInt(value);
+        if(n != Integer.MIN_VALUE) {
+          refs[v] = n | IO.OFFNUM;
+          values.set(v, null);
+        } else {
+          final byte[] val = (texts.get(v) ? xcomp : vcomp).pack(value);
+          if(val != value) refs[v] = IO.OFFCOMP;
+          values.set(v, val);
+        }
+      }
+    }
+
+    /**
+     * Writes the values and the completed table entries.
+     * @param table output stream for the table
+     * @param xout output stream for texts
+     * @param vout output stream for attribute values
+     * @throws IOException I/O exception
+     */
+    private void write(final DataOutput table, final DataOutput xout, final DataOutput vout)
+        throws IOException {
+
+      final byte[] e = entries;
+      final int vs = values.size();
+      for(int v = 0; v < vs; v++) {
+        long ref = refs[v];
+        final byte[] val = values.get(v);
+        if(val != null) {
+          final DataOutput store = texts.get(v) ? xout : vout;
+          ref |= store.size();
+          store.writeToken(val);
+        }
+        final int o = offsets.get(v);
+        e[o]     = (byte) (ref >>> 32);
+        e[o + 1] = (byte) (ref >>> 24);
+        e[o + 2] = (byte) (ref >>> 16);
+        e[o + 3] = (byte) (ref >>> 8);
+        e[o + 4] = (byte) ref;
+      }
+      table.write(e, 0, size);
+    }
+  }
+}
@@ -4,12 +4,14 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.*;
 import java.util.zip.*;
 
 import org.basex.core.*;
 import org.basex.core.MainOptions.MainParser;
 import org.basex.core.cmd.*;
+import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.*;
 import org.basex.util.*;
@@ -25,6 +27,8 @@ import org.basex.util.list.*;
 public final class DirParser extends Parser {
   /** Number of skipped files to log. */
   private static final int SKIPLOG = 10;
+  /** Maximum size of files that are parsed in parallel. */
+  private static final long PARALLEL = 1 << 24;
   /** Skipped files. */
   private final StringList skipped = new StringList();
   /** File pattern. */
@@ -55,6 +59,12 @@ public final class DirParser extends Parser {
   private Parser parser;
   /** Element counter. */
   private int c;
+  /** Thread pool for parsing files in parallel ({@code null} if files are parsed sequentially). */
+  private ExecutorService pool;
+  /** Maximum number of files that are parsed in parallel. */
+  private int window;
+  /** Files that are parsed in parallel (in document order). */
+  private final ArrayDeque<ParsedFile> parsed = new ArrayDeque<>();
 
   /**
    * Constructor.
@@ -97,7 +107,23 @@ public final class DirParser extends Parser {
   public void parse(final Builder build) throws IOException {
     build.meta.filesize = 0;
     build.meta.original = original;
-    parse(build, source);
+
+    // parse files in parallel, and add them to the database in document order
+    final int threads = options.threads();
+    if(threads > 1 && !rawParser) {
+      pool = Executors.newFixedThreadPool(threads);
+      window = threads << 1;
+    }
+    try {
+      parse(build, source);
+      add(build, 0);
+    } finally {
+      if(pool != null) {
+        pool.shutdownNow();
+        pool = null;
+      }
+      parsed.clear();
+    }
   }
 
   /**
@@ -204,7 +230,27 @@ public final class DirParser extends Parser {
         if(rawPath != null) {
           Store.store(source.inputSource(), new IOFile(rawPath, targ + name));
         }
+      } else if(pool != null && source instanceof IOFile && l <= PARALLEL) {
+        // parse file in parallel
+        final IO in = source;
+        final String trg = targ;
+        parsed.add(new ParsedFile(in.path(), pool.submit(new Callable<Data>() {
+          @Override
+          public Data call() throws IOException {
+            try {
+              return MemBuilder.build("", Parser.singleParser(in, options, trg));
+            } catch(final IOException ex) {
+              if(!skipCorrupt) throw ex;
+              Util.debug(ex);
+              return null;
+            }
+          }
+        })));
+        add(builder, window);
       } else {
+        // add files that have been parsed in parallel
+        add(builder, 0);
+
         // store input as XML
         boolean ok = true;
         IO in = source;
@@ -237,6 +283,79 @@ public final class DirParser extends Parser {
     }
   }
 
+  /**
+   * Adds files that have been parsed in parallel to the database.
+   * @param builder builder instance
+   * @param max maximum number of files that will not be added yet
+   * @throws IOException I/O exception
+   */
+  private void add(final Builder builder, final int max) throws IOException {
+    while(parsed.size() > max) {
+      final ParsedFile pf = parsed.poll();
+      final Data data;
+      try {
+        data = pf.data.get();
+      } catch(final InterruptedException ex) {
+        throw new IOException(ex);
+      } catch(final ExecutionException ex) {
+        final Throwable th = ex.getCause();
+        if(th instanceof IOException) throw (IOException) th;
+        if(th instanceof RuntimeException) throw (RuntimeException) th;
+        throw new IOException(th);
+      }
+      if(data != null) add(builder, data);
+      else skipped.add(pf.path);
+      if(Prop.debug && (++c & 0x3FF) == 0) Util.err(";");
+    }
+  }
+
+  /**
+   * Adds the nodes of a parsed file to the database.
+   * @param builder builder instance
+   * @param data parsed file
+   * @throws IOException I/O exception
+   */
+  private static void add(final Builder builder, final Data data) throws IOException {
+    // pre values of the last descendants of all opened elements
+    final IntList ends = new IntList();
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size;) {
+      while(!ends.isEmpty() && ends.peek() == pre) {
+        ends.pop();
+        builder.closeElem();
+      }
+      final int kind = data.kind(pre);
+      if(kind == Data.ELEM) {
+        final Atts atts = new Atts();
+        final int as = pre + data.attSize(pre, kind), end = pre + data.size(pre, kind);
+        for(int a = pre + 1; a < as; a++) {
+          atts.add(data.name(a, Data.ATTR), data.text(a, false));
+        }
+        final byte[] name = data.name(pre, kind);
+        final Atts nsp = data.namespaces(pre);
+        if(as == end) {
+          builder.emptyElem(name, atts, nsp);
+        } else {
+          builder.openElem(name, atts, nsp);
+          ends.push(end);
+        }
+        pre = as;
+      } else {
+        final byte[] value = data.text(pre, true);
+        if(kind == Data.DOC) builder.openDoc(value);
+        else if(kind == Data.TEXT) builder.text(value);
+        else if(kind == Data.COMM) builder.comment(value);
+        else builder.pi(value);
+        pre++;
+      }
+    }
+    while(!ends.isEmpty()) {
+      ends.pop();
+      builder.closeElem();
+    }
+    builder.closeDoc();
+  }
+
   @Override
   public String info() {
     final TokenBuilder tb = new TokenBuilder();
@@ -270,4 +389,24 @@ public final class DirParser extends Parser {
   public void close() throws IOException {
     if(parser != null) parser.close();
   }
+
+  /**
+   * File that is parsed in parallel.
+   */
+  private static final class ParsedFile {
+    /** Path to the file. */
+    private final String path;
+    /** Parsed file ({@code null} if the file is corrupt and has been skipped). */
+    private final Future<Data> data;
+
+    /**
+     * Constructor.
+     * @param path path to the file
+     * @param data parsed file
+     */
+    private ParsedFile(final String path, final Future<Data> data) {
+      this.path = path;
+      this.data = data;
+    }
+  }
 }
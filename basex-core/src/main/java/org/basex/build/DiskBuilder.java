@@ -23,7 +23,7 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public final class DiskBuilder extends Builder {
-  /** Database table. */
+  /** Database table (or pipeline). */
   private DataOutput tout;
   /** Database texts. */
   private DataOutput xout;
@@ -31,9 +31,17 @@ public final class DiskBuilder extends Builder {
   private DataOutput vout;
   /** Output stream for temporary values. */
   private DataOutput sout;
+  /** Compressor for texts. */
+  private TextCompressor xcomp;
+  /** Compressor for attribute values. */
+  private TextCompressor vcomp;
+  /** Pipeline for writing the table and values ({@code null} if a single thread is used). */
+  private BuildPipeline pipeline;
 
   /** Static options. */
   private final StaticOptions sopts;
+  /** Main options. */
+  private final MainOptions opts;
   /** Debug counter. */
   private int c;
 
@@ -48,6 +56,7 @@ public final class DiskBuilder extends Builder {
       final MainOptions opts) {
     super(name, parser);
     this.sopts = sopts;
+    this.opts = opts;
     meta = new MetaData(dbName, opts, sopts);
   }
 
@@ -68,15 +77,30 @@ public final class DiskBuilder extends Builder {
 
     elemNames = new Names(meta);
     attrNames = new Names(meta);
+    path.init(meta.pathlists);
+    DataOutput table = null;
     try {
       try {
-        tout = new DataOutput(new TableOutput(meta, DATATBL));
+        table = new DataOutput(new TableOutput(meta, DATATBL));
         xout = new DataOutput(meta.dbfile(DATATXT), bs);
         vout = new DataOutput(meta.dbfile(DATAATV), bs);
         sout = new DataOutput(meta.dbfile(DATATMP), bs);
+        xcomp = new TextCompressor(meta.dbfile(DATATXT + 'd'), meta.textdictionary);
+        vcomp = new TextCompressor(meta.dbfile(DATAATV + 'd'), meta.textdictionary);
+        // parse input, and compress and write values with separate threads
+        if(opts.threads() > 1) {
+          pipeline = new BuildPipeline(table, xout, vout, xcomp, vcomp);
+          tout = new DataOutput(pipeline);
+        } else {
+          tout = table;
+        }
         parse();
+        if(pipeline != null) pipeline.finish();
+        xcomp.write();
+        vcomp.write();
       } finally {
-        if(tout != null) tout.close();
+        if(pipeline != null) pipeline.close();
+        if(table != null) table.close();
         if(xout != null) xout.close();
         if(vout != null) vout.close();
         if(sout != null) sout.close();
@@ -165,6 +189,12 @@ public final class DiskBuilder extends Builder {
    * @throws IOException I/O exception
    */
   private long textRef(final byte[] value, final boolean text) throws IOException {
+    // value will be stored by the pipeline
+    if(pipeline != null) {
+      pipeline.value(value, text);
+      return 0;
+    }
+
     // inline integer value
     final long v = Token.toSimpleInt(value);
     if(v != Integer.MIN_VALUE) return v | IO.OFFNUM;
@@ -172,7 +202,7 @@ public final class DiskBuilder extends Builder {
     // store text to heap file
     final DataOutput store = text ? xout : vout;
     final long off = store.size();
-    final byte[] val = Compress.pack(value);
+    final byte[] val = (text ? xcomp : vcomp).pack(value);
     store.writeToken(val);
     return val == value ? off : off | IO.OFFCOMP;
   }
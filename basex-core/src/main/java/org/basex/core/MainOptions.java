@@ -22,6 +22,14 @@ public final class MainOptions extends Options {
   public static final BooleanOption MAINMEM = new BooleanOption("MAINMEM", false);
   /** Flag for closing a database after creating it. */
   public static final BooleanOption CREATEONLY = new BooleanOption("CREATEONLY", false);
+  /** Flag for memory-mapped read access to database files. */
+  public static final BooleanOption MMAP = new BooleanOption("MMAP", false);
+  /** Flag for compressing the pages of the database table. */
+  public static final BooleanOption COMPRESSTABLE = new BooleanOption("COMPRESSTABLE", false);
+  /** Flag for compressing texts and attribute values with a trained dictionary. */
+  public static final BooleanOption TEXTDICTIONARY = new BooleanOption("TEXTDICTIONARY", false);
+  /** Number of threads for building databases and indexes (0: all available processors). */
+  public static final NumberOption BUILDTHREADS = new NumberOption("BUILDTHREADS", 1);
 
   // Parsing
 
@@ -79,8 +87,14 @@ public final class MainOptions extends Options {
   public static final BooleanOption ATTRINDEX = new BooleanOption("ATTRINDEX", true);
   /** Flag for creating a token index. */
   public static final BooleanOption TOKENINDEX = new BooleanOption("TOKENINDEX", false);
+  /** Flag for creating a trigram index. */
+  public static final BooleanOption TRIGRAMINDEX = new BooleanOption("TRIGRAMINDEX", false);
   /** Flag for creating a full-text index. */
   public static final BooleanOption FTINDEX = new BooleanOption("FTINDEX", false);
+  /** Flag for creating typed range indexes for numbers and dates. */
+  public static final BooleanOption RANGEINDEX = new BooleanOption("RANGEINDEX", false);
+  /** Flag for storing the nodes of each path of the path index. */
+  public static final BooleanOption PATHLISTS = new BooleanOption("PATHLISTS", false);
 
   /** Text index: names to include. */
   public static final StringOption TEXTINCLUDE = new StringOption("TEXTINCLUDE", "");
@@ -101,6 +115,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption AUTOOPTIMIZE = new BooleanOption("AUTOOPTIMIZE", false);
   /** Index split size. */
   public static final NumberOption SPLITSIZE = new NumberOption("SPLITSIZE", 0);
+  /** Percentage of main memory for temporary index structures (if no split size is set). */
+  public static final NumberOption INDEXMEMORY = new NumberOption("INDEXMEMORY", 25);
 
   // Full-Text
 
@@ -127,6 +143,8 @@ public final class MainOptions extends Options {
   public static final NumberOption INLINELIMIT = new NumberOption("INLINELIMIT", 100);
   /** Flag for tail-call optimization. */
   public static final NumberOption TAILCALLS = new NumberOption("TAILCALLS", 256);
+  /** Flag for evaluating the return clauses of FLWOR expressions in parallel. */
+  public static final BooleanOption PARALLELFLWOR = new BooleanOption("PARALLELFLWOR", false);
   /** Favor global database when opening resources. */
   public static final BooleanOption DEFAULTDB = new BooleanOption("DEFAULTDB", false);
   /** Forces database creation for unknown documents. */
@@ -222,6 +240,15 @@ public final class MainOptions extends Options {
     }
   }
 
+  /**
+   * Returns the number of threads that will be used for building databases and indexes.
+   * @return number of threads
+   */
+  public int threads() {
+    final int threads = get(BUILDTHREADS);
+    return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+  }
+
   /**
    * Creates a new options instance with whitespace chopping turned off.
    * @return main options
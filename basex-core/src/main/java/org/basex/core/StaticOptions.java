@@ -3,6 +3,7 @@ package org.basex.core;
 import java.util.*;
 
 import org.basex.io.*;
+import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.options.*;
 
@@ -38,6 +39,12 @@ public final class StaticOptions extends Options {
   public static final BooleanOption FAIRLOCK = new BooleanOption("FAIRLOCK", false);
   /** Timeout (seconds) for remembering result of asynchronous queries. */
   public static final NumberOption CACHETIMEOUT = new NumberOption("CACHETIMEOUT", 3600);
+  /** Size of the buffer pool (MB), which is shared by all opened database files. */
+  public static final NumberOption BUFFERPOOL = new NumberOption("BUFFERPOOL", 32);
+  /** Number of worker threads for parallel query evaluation (0: number of processors). */
+  public static final NumberOption WORKERS = new NumberOption("WORKERS", 0);
+  /** Maximum number of worker threads assigned to a single job (0: no limit). */
+  public static final NumberOption JOBWORKERS = new NumberOption("JOBWORKERS", 0);
 
   /** Comment: written to options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -119,6 +126,7 @@ public final class StaticOptions extends Options {
     Prop.language = get(LANG);
     Prop.langkeys = get(LANGKEYS);
     Prop.debug = get(DEBUG);
+    BufferPool.size(get(BUFFERPOOL));
     final String ph = get(PROXYHOST);
     if(!ph.isEmpty()) {
       Prop.setSystem("http.proxyHost", ph);
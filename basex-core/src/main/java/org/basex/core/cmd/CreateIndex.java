@@ -37,12 +37,17 @@ public final class CreateIndex extends ACreate {
     if(ci == CmdIndex.TEXT) {
       type = IndexType.TEXT;
       data.meta.createtext = true;
+      data.meta.rangeindex = options.get(MainOptions.RANGEINDEX);
     } else if(ci == CmdIndex.ATTRIBUTE) {
       type = IndexType.ATTRIBUTE;
       data.meta.createattr = true;
+      data.meta.rangeindex = options.get(MainOptions.RANGEINDEX);
     } else if(ci == CmdIndex.TOKEN) {
       type = IndexType.TOKEN;
       data.meta.createtoken = true;
+    } else if(ci == CmdIndex.TRIGRAM) {
+      type = IndexType.TRIGRAM;
+      data.meta.createtrigram = true;
     } else if(ci == CmdIndex.FULLTEXT) {
       type = IndexType.FULLTEXT;
       data.meta.createft = true;
@@ -56,6 +61,8 @@ public final class CreateIndex extends ACreate {
     }
     data.meta.names(type, options);
     data.meta.splitsize = options.get(MainOptions.SPLITSIZE);
+    data.meta.threads = options.threads();
+    data.meta.indexmemory = options.get(MainOptions.INDEXMEMORY);
 
     return update(data, new Code() {
       @Override
@@ -81,6 +88,7 @@ public final class CreateIndex extends ACreate {
     if(data.meta.createtext) create(IndexType.TEXT, data, cmd);
     if(data.meta.createattr) create(IndexType.ATTRIBUTE, data, cmd);
     if(data.meta.createtoken) create(IndexType.TOKEN, data, cmd);
+    if(data.meta.createtrigram) create(IndexType.TRIGRAM, data, cmd);
     if(data.meta.createft) create(IndexType.FULLTEXT, data, cmd);
   }
 
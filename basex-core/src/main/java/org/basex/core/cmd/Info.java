@@ -6,6 +6,7 @@ import java.io.*;
 
 import org.basex.core.*;
 import org.basex.core.users.*;
+import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.options.*;
 
@@ -46,6 +47,9 @@ public final class Info extends AInfo {
 
     final User user = context.user();
     info(tb, USED_MEM, Performance.getMemory());
+    info(tb, BUFFER_POOL, BufferPool.info());
+    info(tb, INDEX_SPLITS, context.splits);
+    info(tb, WORKER_POOL, context.jobs.workers.info());
 
     if(user.has(Perm.ADMIN)) {
       final StaticOptions sopts = context.soptions;
@@ -8,6 +8,7 @@ import org.basex.core.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.ft.*;
 import org.basex.index.stats.*;
 import org.basex.util.list.*;
 
@@ -47,6 +48,13 @@ public final class Optimize extends ACreate {
           data.meta.autooptimize = autooptimize;
           data.meta.dirty = true;
         }
+        // reassign path lists flag; rebuild structural indexes if lists are requested
+        final boolean pathlists = options.get(MainOptions.PATHLISTS);
+        if(pathlists != data.meta.pathlists) {
+          if(pathlists) data.meta.uptodate = false;
+          data.meta.pathlists = pathlists;
+          data.meta.dirty = true;
+        }
         optimize(data, Optimize.this);
         return info(DB_OPTIMIZED_X, meta.name, jc().performance);
       }
@@ -108,7 +116,7 @@ public final class Optimize extends ACreate {
     // initialize structural indexes
     final MetaData meta = data.meta;
     if(!meta.uptodate) {
-      data.paths.init();
+      data.paths.init(meta.pathlists);
       data.elemNames.init();
       data.attrNames.init();
       meta.dirty = true;
@@ -160,7 +168,10 @@ public final class Optimize extends ACreate {
     optimize(IndexType.TEXT, data, meta.createtext, enforceText, cmd);
     optimize(IndexType.ATTRIBUTE, data, meta.createattr, enforceAttr, cmd);
     optimize(IndexType.TOKEN, data, meta.createtoken, enforceToken, cmd);
-    optimize(IndexType.FULLTEXT, data, meta.createft, enforceFt, cmd);
+    optimize(IndexType.TRIGRAM, data, meta.createtrigram, false, cmd);
+    // merge incremental updates of the full-text index
+    final boolean ftUpdated = data.ftIndex instanceof FTIndex && ((FTIndex) data.ftIndex).updated();
+    optimize(IndexType.FULLTEXT, data, meta.createft, enforceFt || ftUpdated, cmd);
   }
 
   /**
@@ -199,6 +210,7 @@ public final class Optimize extends ACreate {
       if(data.meta.textindex) optimize(IndexType.TEXT, data, true, true, null);
       if(data.meta.attrindex) optimize(IndexType.ATTRIBUTE, data, true, true, null);
       if(data.meta.tokenindex) optimize(IndexType.TOKEN, data, true, true, null);
+      if(data.meta.ftindex) optimize(IndexType.FULLTEXT, data, true, true, null);
     }
   }
 }
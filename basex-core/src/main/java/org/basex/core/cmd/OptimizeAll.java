@@ -6,6 +6,7 @@ import java.io.*;
 
 import org.basex.build.*;
 import org.basex.core.*;
+import org.basex.core.locks.*;
 import org.basex.core.parse.*;
 import org.basex.core.parse.Commands.*;
 import org.basex.core.users.*;
@@ -14,6 +15,7 @@ import org.basex.io.*;
 import org.basex.io.serial.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.util.*;
 import org.basex.util.list.*;
 
 /**
@@ -21,6 +23,9 @@ import org.basex.util.list.*;
  * the currently opened database. This effectively eliminates all fragmentation
  * and can lead to significant space savings after updates.
  *
+ * The new database instance is built while the database is locked for reading. The database
+ * is only locked for writing while the original instance is replaced.
+ *
  * @author BaseX Team 2005-17, BSD License
  * @author Leo Woerteler
  */
@@ -35,11 +40,32 @@ public final class OptimizeAll extends ACreate {
   @Override
   protected boolean run() {
     final Data data = context.data();
+    final byte[] meta = data.meta.serialize();
+
+    // build new database instance while the original database can still be read
+    final String tmpName;
+    try {
+      tmpName = build(data, context, options, this);
+    } catch(final IOException ex) {
+      return error(Util.message(ex));
+    }
+
+    // replace original database, or rebuild it if it has been updated in the meantime
+    context.locking.upgrade();
+    if(data.closed()) {
+      // database has been closed or dropped in the meantime: discard the copy
+      DropDB.drop(tmpName, context.soptions);
+      context.closeDB();
+      return error(DB_NOT_FOUND_X, data.meta.name);
+    }
+    final boolean swap = Token.eq(meta, data.meta.serialize());
+    if(!swap) DropDB.drop(tmpName, context.soptions);
     if(!update(data, new Code() {
       @Override
       boolean run() throws IOException {
         try {
-          optimizeAll(data, context, options, OptimizeAll.this);
+          if(swap) replace(data, tmpName, context);
+          else optimizeAll(data, context, options, OptimizeAll.this);
           return true;
         } finally {
           context.closeDB();
@@ -57,6 +83,12 @@ public final class OptimizeAll extends ACreate {
     return true;
   }
 
+  @Override
+  public void addLocks() {
+    // write lock will be assigned when the database is replaced
+    jc().locks.reads.add(Locking.CONTEXT);
+  }
+
   @Override
   public boolean stoppable() {
     // database will be closed after optimize call
@@ -81,19 +113,38 @@ public final class OptimizeAll extends ACreate {
   public static void optimizeAll(final Data data, final Context context,
       final MainOptions options, final OptimizeAll cmd) throws IOException {
 
+    // check if database is also pinned by other users
+    if(context.datas.pins(data.meta.name) > 1) {
+      throw new BaseXException(DB_PINNED_X, data.meta.name);
+    }
+    replace(data, build(data, context, options, cmd), context);
+  }
+
+  /**
+   * Creates a copy of a database with optimized data structures.
+   * The original database will not be changed.
+   * @param data disk data
+   * @param context database context
+   * @param options main options
+   * @param cmd command reference or {@code null}
+   * @return name of the temporary database
+   * @throws IOException I/O Exception during index rebuild
+   * @throws BaseXException database exception
+   */
+  private static String build(final Data data, final Context context,
+      final MainOptions options, final OptimizeAll cmd) throws IOException {
+
     if(data.inMemory()) throw new BaseXException(NO_MAINMEM);
 
     final DiskData odata = (DiskData) data;
     final MetaData ometa = odata.meta;
-
-    // check if database is also pinned by other users
     final String name = ometa.name;
-    if(context.datas.pins(name) > 1) throw new BaseXException(DB_PINNED_X, name);
 
     // adopt original index options
     options.set(MainOptions.TEXTINDEX, ometa.textindex);
     options.set(MainOptions.ATTRINDEX, ometa.attrindex);
     options.set(MainOptions.TOKENINDEX, ometa.tokenindex);
+    options.set(MainOptions.TRIGRAMINDEX, ometa.trigramindex);
     options.set(MainOptions.FTINDEX, ometa.ftindex);
     options.set(MainOptions.TEXTINCLUDE, ometa.textinclude);
     options.set(MainOptions.ATTRINCLUDE, ometa.attrinclude);
@@ -108,6 +159,9 @@ public final class OptimizeAll extends ACreate {
     // adopt original index options
     options.set(MainOptions.MAXLEN, ometa.maxlen);
     options.set(MainOptions.MAXCATS, ometa.maxcats);
+    options.set(MainOptions.PATHLISTS, ometa.pathlists);
+    // adopt original storage options
+    options.set(MainOptions.MMAP, ometa.mmap);
 
     // build database and index structures
     final StaticOptions sopts = context.soptions;
@@ -123,13 +177,13 @@ public final class OptimizeAll extends ACreate {
     } finally {
       if(cmd != null) cmd.popJob();
     }
-    Close.close(odata, context);
 
     // adopt original meta data, create new index structures
     final MetaData nmeta = ndata.meta;
     nmeta.createtext = ometa.createtext;
     nmeta.createattr = ometa.createattr;
     nmeta.createtoken = ometa.createtoken;
+    nmeta.createtrigram = ometa.createtrigram;
     nmeta.createft = ometa.createft;
     nmeta.original = ometa.original;
     nmeta.filesize = ometa.filesize;
@@ -144,10 +198,31 @@ public final class OptimizeAll extends ACreate {
     } finally {
       ndata.close();
     }
+    return tmpName;
+  }
+
+  /**
+   * Closes a database and replaces it with an optimized copy.
+   * @param data disk data
+   * @param tmpName name of the temporary database
+   * @param context database context
+   * @throws BaseXException database exception
+   */
+  private static void replace(final Data data, final String tmpName, final Context context)
+      throws BaseXException {
+
+    final MetaData ometa = data.meta;
+    final String name = ometa.name;
+    final StaticOptions sopts = context.soptions;
+    if(context.datas.pins(name) > 1) {
+      DropDB.drop(tmpName, sopts);
+      throw new BaseXException(DB_PINNED_X, name);
+    }
+    Close.close(data, context);
 
     // move binary files
     final IOFile bin = ometa.binaries();
-    if(bin.exists()) bin.rename(nmeta.binaries());
+    if(bin.exists()) bin.rename(new IOFile(sopts.dbPath(tmpName), IO.RAW));
 
     // drop old database, rename temporary database
     if(!DropDB.drop(name, sopts)) throw new BaseXException(DB_NOT_DROPPED_X, name);
@@ -1,5 +1,7 @@
 package org.basex.core.jobs;
 
+import java.util.concurrent.atomic.*;
+
 import org.basex.core.*;
 import org.basex.core.locks.*;
 import org.basex.query.*;
@@ -25,6 +27,10 @@ public final class JobContext {
   public Context context;
   /** Registered locks. */
   public final Locks locks = new Locks();
+  /** Number of worker threads assigned to the job. */
+  public final AtomicInteger workers = new AtomicInteger();
+  /** Number of queued worker tasks. */
+  public final AtomicInteger tasks = new AtomicInteger();
 
   /** Root job. */
   private final Job job;
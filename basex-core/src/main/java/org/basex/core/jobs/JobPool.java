@@ -21,6 +21,8 @@ public final class JobPool {
   public final Map<String, JobResult> results = new ConcurrentHashMap<>();
   /** Timer tasks. */
   public final Map<String, JobTask> tasks = new ConcurrentHashMap<>();
+  /** Worker threads for parallel query evaluation. */
+  public final JobWorkers workers;
 
   /** Timer. */
   final Timer timer = new Timer(true);
@@ -33,6 +35,7 @@ public final class JobPool {
    */
   public JobPool(final StaticOptions sopts) {
     timeout = sopts.get(StaticOptions.CACHETIMEOUT) * 1000L;
+    workers = new JobWorkers(sopts);
   }
 
   /**
@@ -60,6 +63,7 @@ public final class JobPool {
     timer.cancel();
     for(final Job job : active.values()) job.stop();
     while(!active.isEmpty()) Performance.sleep(1);
+    workers.close();
   }
 
   /**
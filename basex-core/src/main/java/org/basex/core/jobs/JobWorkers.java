@@ -0,0 +1,180 @@
+package org.basex.core.jobs;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.core.*;
+import org.basex.util.*;
+
+/**
+ * Worker threads, which are shared by all jobs, for evaluating parts of queries in parallel.
+ * The number of workers that can be assigned to a single job is limited.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class JobWorkers {
+  /** Work-stealing pool. */
+  private final ForkJoinPool pool;
+  /** Maximum number of workers per job. */
+  private final int quota;
+
+  /**
+   * Constructor.
+   * @param sopts static options
+   */
+  JobWorkers(final StaticOptions sopts) {
+    final int threads = sopts.get(StaticOptions.WORKERS);
+    pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    final int par = pool.getParallelism(), max = sopts.get(StaticOptions.JOBWORKERS);
+    quota = max > 0 ? Math.min(max, par) : par;
+  }
+
+  /**
+   * Returns the number of worker threads.
+   * @return number of threads
+   */
+  public int parallelism() {
+    return pool.getParallelism();
+  }
+
+  /**
+   * Returns the number of worker threads that have been started.
+   * @return number of threads
+   */
+  public int poolSize() {
+    return pool.getPoolSize();
+  }
+
+  /**
+   * Returns the estimated number of worker threads that are currently processing tasks.
+   * @return number of threads
+   */
+  public int activeThreads() {
+    return pool.getActiveThreadCount();
+  }
+
+  /**
+   * Returns the estimated number of tasks that are queued, but not yet processed.
+   * @return number of tasks
+   */
+  public long queuedTasks() {
+    return pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount();
+  }
+
+  /**
+   * Returns information on the worker threads, which are shared by all jobs.
+   * @return info string
+   */
+  public String info() {
+    return Util.info("% (started: %, active: %, queued tasks: %)", parallelism(), poolSize(),
+        activeThreads(), queuedTasks());
+  }
+
+  /**
+   * Reserves workers for a job. At least one worker will be assigned. If a single worker is
+   * assigned, the tasks will be processed by the calling thread, which is not counted against
+   * the quota of the job.
+   * @param jc job context
+   * @param max maximum number of requested workers
+   * @return number of assigned workers
+   */
+  public int reserve(final JobContext jc, final int max) {
+    while(true) {
+      final int used = jc.workers.get(), w = Math.min(max, quota - used);
+      if(w <= 1) return 1;
+      if(jc.workers.compareAndSet(used, used + w)) return w;
+    }
+  }
+
+  /**
+   * Releases reserved workers.
+   * @param jc job context
+   * @param workers number of workers (see {@link #reserve(JobContext, int)})
+   */
+  public void release(final JobContext jc, final int workers) {
+    if(workers > 1) jc.workers.addAndGet(-workers);
+  }
+
+  /**
+   * Processes tasks with the specified number of workers. Tasks are assigned to the workers in
+   * ascending order. If a single worker is specified, all tasks will be processed by the
+   * calling thread.
+   * @param jc job context
+   * @param workers number of workers (see {@link #reserve(JobContext, int)})
+   * @param tasks number of tasks
+   * @param worker worker
+   */
+  public void run(final JobContext jc, final int workers, final int tasks, final Worker worker) {
+    final AtomicInteger next = new AtomicInteger(), started = new AtomicInteger();
+    jc.tasks.addAndGet(tasks);
+    try {
+      if(workers == 1) {
+        process(jc, 0, next, started, tasks, worker);
+        return;
+      }
+      final ArrayList<RecursiveAction> actions = new ArrayList<>(workers);
+      for(int w = 0; w < workers; w++) {
+        final int wrk = w;
+        actions.add(new RecursiveAction() {
+          @Override
+          protected void compute() {
+            process(jc, wrk, next, started, tasks, worker);
+          }
+        });
+      }
+      if(ForkJoinTask.inForkJoinPool()) {
+        ForkJoinTask.invokeAll(actions);
+      } else {
+        pool.invoke(new RecursiveAction() {
+          @Override
+          protected void compute() {
+            invokeAll(actions);
+          }
+        });
+      }
+    } finally {
+      // remove skipped tasks from the queue
+      jc.tasks.addAndGet(started.get() - tasks);
+    }
+  }
+
+  /**
+   * Processes tasks until all tasks have been assigned, or until a task returns {@code false}.
+   * @param jc job context
+   * @param w worker index
+   * @param next index of next task
+   * @param started number of started tasks
+   * @param tasks number of tasks
+   * @param worker worker
+   */
+  private static void process(final JobContext jc, final int w, final AtomicInteger next,
+      final AtomicInteger started, final int tasks, final Worker worker) {
+    for(int t; (t = next.getAndIncrement()) < tasks;) {
+      started.incrementAndGet();
+      jc.tasks.decrementAndGet();
+      if(!worker.run(w, t)) next.set(tasks);
+    }
+  }
+
+  /**
+   * Stops all worker threads.
+   */
+  void close() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * Worker, which processes a single task.
+   */
+  public interface Worker {
+    /**
+     * Processes a task.
+     * @param w index of the worker ({@code 0} to number of workers - 1)
+     * @param t index of the task
+     * @return {@code false} if the remaining tasks are to be skipped
+     */
+    boolean run(int w, int t);
+  }
+}
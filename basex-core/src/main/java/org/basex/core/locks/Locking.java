@@ -143,6 +143,24 @@ public final class Locking {
     }
   }
 
+  /**
+   * Converts the read locks of the current thread to write locks. All locks are released and
+   * reacquired: jobs that have been queued in the meantime may be executed before the write
+   * locks are assigned, so the caller needs to check if the locked resources have been changed.
+   */
+  public void upgrade() {
+    final Locks locks = locked.get(Thread.currentThread().getId());
+    release();
+    locks.writes.add(locks.reads);
+    locks.writes.finish(null);
+    locks.reads.reset();
+    try {
+      acquire(locks);
+    } catch(final InterruptedException ex) {
+      throw Util.notExpected("Thread was interrupted: %", ex);
+    }
+  }
+
   /**
    * Removes locks for the specified job, all in reverse order.
    */
@@ -98,6 +98,8 @@ public abstract class Data {
   public ValueIndex attrIndex;
   /** Token index. */
   public ValueIndex tokenIndex;
+  /** Trigram index. */
+  public ValueIndex trigramIndex;
   /** Full-text index. */
   public ValueIndex ftIndex;
 
@@ -210,6 +212,7 @@ public abstract class Data {
       case TEXT:      return textIndex;
       case ATTRIBUTE: return attrIndex;
       case TOKEN:     return tokenIndex;
+      case TRIGRAM:   return trigramIndex;
       case FULLTEXT:  return ftIndex;
       case PATH:      return paths;
       default:        throw Util.notExpected();
@@ -372,6 +375,16 @@ public abstract class Data {
     return table.read2(pre, 1) & 0x7FFF;
   }
 
+  /**
+   * Returns an instance for scanning the table entries in ascending order.
+   * Kinds and name ids can be read via {@code read1(pre, 0) & 0x07} and
+   * {@code read2(pre, 1) & 0x7FFF}.
+   * @return table scan
+   */
+  public final TableScan scan() {
+    return table.scan();
+  }
+
   /**
    * Returns the name of an element, attribute or processing instruction.
    * @param pre pre value
@@ -1059,6 +1072,7 @@ public abstract class Data {
       if(meta.textindex) textIndex.delete(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.delete(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.delete(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.ftindex) ftIndex.delete(new ValueCache(pre, size, IndexType.FULLTEXT, this));
       if(id != -1) idmap.delete(pre, id, -size);
     }
   }
@@ -1077,6 +1091,7 @@ public abstract class Data {
       if(meta.textindex) textIndex.add(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.add(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.add(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.ftindex) ftIndex.add(new ValueCache(pre, size, IndexType.FULLTEXT, this));
     }
   }
 
@@ -12,9 +12,9 @@ public interface DataText {
   // META DATA ====================================================================================
 
   /** Database version; older version cannot open these instances. */
-  String STORAGE = "8.6";
+  String STORAGE = "8.6.5";
   /** Index version; older version cannot open indexes of these instances. */
-  String ISTORAGE = "8.6";
+  String ISTORAGE = "8.6.5";
 
   /** Database version. */
   String DBSTR = "STORAGE";
@@ -36,14 +36,26 @@ public interface DataText {
   String DBUPDIDX = "UPDINDEX";
   /** Automatic optimization. */
   String DBAUTOOPT = "AUTOOPT";
+  /** Memory mapping. */
+  String DBMMAP = "MMAP";
+  /** Compressed table. */
+  String DBCOMPTBL = "COMPRESSTABLE";
+  /** Text dictionary. */
+  String DBTXTDICT = "TEXTDICTIONARY";
   /** Text index. */
   String DBTXTIDX = "TXTINDEX";
   /** Attribute index. */
   String DBATVIDX = "ATVINDEX";
   /** Token index. */
   String DBTOKIDX = "TOKINDEX";
+  /** Trigram index. */
+  String DBTRIIDX = "TRIINDEX";
   /** Full-text index. */
   String DBFTXIDX = "FTXINDEX";
+  /** Typed range indexes. */
+  String DBRNGIDX = "RANGEINDEX";
+  /** Node lists of the path index. */
+  String DBPTHLST = "PATHLISTS";
   /** Text index: names. */
   String DBTXTINC = "TXTINC";
   /** Attribute index: names. */
@@ -82,6 +94,8 @@ public interface DataText {
   String DBCRTATV = "CRTATV";
   /** Recreate token index. */
   String DBCRTTOK = "CRTTOK";
+  /** Recreate trigram index. */
+  String DBCRTTRI = "CRTTRI";
   /** Recreate full-text index. */
   String DBCRTFTX = "CRTFTX";
 
@@ -113,6 +127,8 @@ public interface DataText {
   String DATAATV = "atv";
   /** Database - Token index. */
   String DATATOK = "tok";
+  /** Database - Trigram index. */
+  String DATATRI = "tri";
   /** Database - Full-text index. */
   String DATAFTX = "ftx";
   /** Database - Stopword list. */
@@ -121,6 +137,8 @@ public interface DataText {
   String DATAUPD = "upd";
   /** Database - Document path index. */
   String DATAPTH = "pth";
+  /** Database - Node lists of the path index. */
+  String DATAPTL = "ptl";
   /** Database - ID->PRE mapping. */
   String DATAIDP = "idp";
 
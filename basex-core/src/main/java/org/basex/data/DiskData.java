@@ -13,6 +13,7 @@ import org.basex.index.*;
 import org.basex.index.ft.*;
 import org.basex.index.name.*;
 import org.basex.index.path.*;
+import org.basex.index.trigram.*;
 import org.basex.index.value.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
@@ -34,6 +35,10 @@ public final class DiskData extends Data {
   private DataAccess texts;
   /** Values access file. */
   private DataAccess values;
+  /** Compressor for texts. */
+  private TextCompressor xcomp;
+  /** Compressor for attribute values. */
+  private TextCompressor vcomp;
 
   /**
    * Default constructor, called from {@link Open#open}.
@@ -70,6 +75,7 @@ public final class DiskData extends Data {
       if(meta.attrindex) attrIndex = new DiskValues(this, IndexType.ATTRIBUTE);
       if(meta.tokenindex) tokenIndex = new DiskValues(this, IndexType.TOKEN);
     }
+    if(meta.trigramindex) trigramIndex = new TrigramIndex(this);
     if(meta.ftindex) ftIndex = new FTIndex(this);
   }
 
@@ -101,8 +107,10 @@ public final class DiskData extends Data {
    */
   private void init() throws IOException {
     table = new TableDiskAccess(meta, false);
-    texts = new DataAccess(meta.dbfile(DATATXT));
-    values = new DataAccess(meta.dbfile(DATAATV));
+    texts = new DataAccess(meta.dbfile(DATATXT), meta.mmap);
+    values = new DataAccess(meta.dbfile(DATAATV), meta.mmap);
+    xcomp = new TextCompressor(meta.dbfile(DATATXT + 'd'), meta.textdictionary);
+    vcomp = new TextCompressor(meta.dbfile(DATAATV + 'd'), meta.textdictionary);
   }
 
   /**
@@ -127,6 +135,8 @@ public final class DiskData extends Data {
       out.write(0);
     }
     if(meta.updindex) idmap.write(meta.dbfile(DATAIDP));
+    xcomp.write();
+    vcomp.write();
     meta.dirty = false;
   }
 
@@ -142,6 +152,7 @@ public final class DiskData extends Data {
       close(IndexType.TEXT);
       close(IndexType.ATTRIBUTE);
       close(IndexType.TOKEN);
+      close(IndexType.TRIGRAM);
       close(IndexType.FULLTEXT);
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -168,6 +179,7 @@ public final class DiskData extends Data {
     final IndexBuilder ib;
     switch(type) {
       case TEXT: case ATTRIBUTE: case TOKEN: ib = new DiskValuesBuilder(this, type); break;
+      case TRIGRAM: ib = new TrigramBuilder(this); break;
       case FULLTEXT: ib = new FTBuilder(this); break;
       default: throw Util.notExpected();
     }
@@ -197,6 +209,7 @@ public final class DiskData extends Data {
       case TEXT:      textIndex = index; break;
       case ATTRIBUTE: attrIndex = index; break;
       case TOKEN:     tokenIndex = index; break;
+      case TRIGRAM:   trigramIndex = index; break;
       case FULLTEXT:  ftIndex = index; break;
       default:        break;
     }
@@ -239,6 +252,7 @@ public final class DiskData extends Data {
         values.flush();
         if(textIndex != null) textIndex.flush();
         if(attrIndex != null) attrIndex.flush();
+        if(ftIndex != null) ftIndex.flush();
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -268,9 +282,10 @@ public final class DiskData extends Data {
     final long o = textRef(pre);
     if(number(o)) return numDigits((int) o);
     final DataAccess da = text ? texts : values;
-    final int l = da.readNum(o & IO.OFFCOMP - 1);
+    final long p = o & IO.OFFCOMP - 1;
+    final int l = da.readNumAt(p);
     // compressed: next number contains number of compressed bytes
-    return compressed(o) ? da.readNum() : l;
+    return compressed(o) ? da.readNumAt(p + Num.length(l)) : l;
   }
 
   /**
@@ -280,8 +295,8 @@ public final class DiskData extends Data {
    * @return text
    */
   private byte[] txt(final long off, final boolean text) {
-    final byte[] txt = (text ? texts : values).readToken(off & IO.OFFCOMP - 1);
-    return compressed(off) ? Compress.unpack(txt) : txt;
+    final byte[] txt = (text ? texts : values).readTokenAt(off & IO.OFFCOMP - 1);
+    return compressed(off) ? (text ? xcomp : vcomp).unpack(txt) : txt;
   }
 
   /**
@@ -336,7 +351,7 @@ public final class DiskData extends Data {
       textRef(pre, v | IO.OFFNUM);
     } else {
       // otherwise, try to compress new value
-      final byte[] val = Compress.pack(value);
+      final byte[] val = (kind == ATTR ? vcomp : xcomp).pack(value);
 
       // choose inserting position
       final long off;
@@ -366,7 +381,7 @@ public final class DiskData extends Data {
     // store text to heap file
     final DataAccess store = text ? texts : values;
     final long off = store.length();
-    final byte[] val = Compress.pack(value);
+    final byte[] val = (text ? xcomp : vcomp).pack(value);
     store.writeToken(off, val);
     return val == value ? off : off | IO.OFFCOMP;
   }
@@ -12,6 +12,7 @@ import org.basex.core.cmd.*;
 import org.basex.index.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.ArrayOutput;
 import org.basex.io.out.DataOutput;
 import org.basex.util.*;
 import org.basex.util.ft.*;
@@ -44,13 +45,25 @@ public final class MetaData {
   public boolean attrindex;
   /** Indicates if a token index exists. */
   public boolean tokenindex;
+  /** Indicates if a trigram index exists. */
+  public boolean trigramindex;
   /** Indicates if a full-text index exists. */
   public boolean ftindex;
+  /** Indicates if typed range indexes are created for the text and attribute index. */
+  public boolean rangeindex;
+  /** Indicates if the nodes of each path of the path index are stored. */
+  public boolean pathlists;
 
   /** Flag for activated automatic index update. */
   public boolean updindex;
   /** Flag for automatic index updating. */
   public boolean autooptimize;
+  /** Flag for memory-mapped read access. */
+  public boolean mmap;
+  /** Flag for compressed table pages. */
+  public boolean compresstable;
+  /** Flag for dictionary-compressed texts and attribute values. */
+  public boolean textdictionary;
 
   /** Indicates if the text index is to be recreated. */
   public boolean createtext;
@@ -58,6 +71,8 @@ public final class MetaData {
   public boolean createattr;
   /** Indicates if the token index is to be recreated. */
   public boolean createtoken;
+  /** Indicates if the trigram index is to be recreated. */
+  public boolean createtrigram;
   /** Indicates if the full-text index is to be recreated. */
   public boolean createft;
   /** Text index: names to include. */
@@ -84,6 +99,10 @@ public final class MetaData {
   public int maxlen;
   /** Split size for creating indexes. */
   public int splitsize;
+  /** Number of threads for creating indexes (not stored on disk). */
+  public int threads;
+  /** Percentage of main memory for temporary index structures (not stored on disk). */
+  public int indexmemory;
 
   /** Language of full-text search index. */
   public Language language;
@@ -127,12 +146,18 @@ public final class MetaData {
     createtext = options.get(MainOptions.TEXTINDEX);
     createattr = options.get(MainOptions.ATTRINDEX);
     createtoken = options.get(MainOptions.TOKENINDEX);
+    createtrigram = options.get(MainOptions.TRIGRAMINDEX);
     createft = options.get(MainOptions.FTINDEX);
     diacritics = options.get(MainOptions.DIACRITICS);
     stemming = options.get(MainOptions.STEMMING);
     casesens = options.get(MainOptions.CASESENS);
     updindex = options.get(MainOptions.UPDINDEX);
     autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
+    mmap = options.get(MainOptions.MMAP);
+    compresstable = options.get(MainOptions.COMPRESSTABLE);
+    textdictionary = options.get(MainOptions.TEXTDICTIONARY);
+    rangeindex = options.get(MainOptions.RANGEINDEX);
+    pathlists = options.get(MainOptions.PATHLISTS);
     maxlen = options.get(MainOptions.MAXLEN);
     maxcats = options.get(MainOptions.MAXCATS);
     stopwords = options.get(MainOptions.STOPWORDS);
@@ -142,6 +167,8 @@ public final class MetaData {
     tokeninclude = options.get(MainOptions.TOKENINCLUDE);
     ftinclude = options.get(MainOptions.FTINCLUDE);
     splitsize = options.get(MainOptions.SPLITSIZE);
+    threads = options.threads();
+    indexmemory = options.get(MainOptions.INDEXMEMORY);
   }
 
   // STATIC METHODS ===============================================================================
@@ -291,11 +318,23 @@ public final class MetaData {
       case TEXT:      return textindex;
       case ATTRIBUTE: return attrindex;
       case TOKEN:     return tokenindex;
+      case TRIGRAM:   return trigramindex;
       case FULLTEXT:  return ftindex;
       default:        throw Util.notExpected();
     }
   }
 
+  /**
+   * Returns if a typed range index exists for the specified index type.
+   * Range indexes are not maintained by incremental index updates.
+   * @param type index type
+   * @return result of check
+   */
+  public boolean ranges(final IndexType type) {
+    return rangeindex && !updindex &&
+      (type == IndexType.TEXT ? textindex : type == IndexType.ATTRIBUTE && attrindex);
+  }
+
   /**
    * Sets availability of the specified index.
    * @param type index type
@@ -306,6 +345,7 @@ public final class MetaData {
       case TEXT:      textindex = exists; break;
       case ATTRIBUTE: attrindex = exists; break;
       case TOKEN:     tokenindex = exists; break;
+      case TRIGRAM:   trigramindex = exists; break;
       case FULLTEXT:  ftindex = exists; break;
       default:        throw Util.notExpected();
     }
@@ -321,6 +361,7 @@ public final class MetaData {
       case TEXT:      return textinclude;
       case ATTRIBUTE: return attrinclude;
       case TOKEN:     return tokeninclude;
+      case TRIGRAM:   return "";
       case FULLTEXT:  return ftinclude;
       default:        throw Util.notExpected();
     }
@@ -336,6 +377,7 @@ public final class MetaData {
       case TEXT:      textinclude = options.get(MainOptions.TEXTINCLUDE); break;
       case ATTRIBUTE: attrinclude = options.get(MainOptions.ATTRINCLUDE); break;
       case TOKEN:     tokeninclude = options.get(MainOptions.TOKENINCLUDE); break;
+      case TRIGRAM:   break;
       case FULLTEXT:  ftinclude = options.get(MainOptions.FTINCLUDE); break;
       default:        throw Util.notExpected();
     }
@@ -374,10 +416,16 @@ public final class MetaData {
         else if(k.equals(DBFTDC))     diacritics   = toBool(v);
         else if(k.equals(DBUPDIDX))   updindex     = toBool(v);
         else if(k.equals(DBAUTOOPT))  autooptimize = toBool(v);
+        else if(k.equals(DBMMAP))     mmap         = toBool(v);
+        else if(k.equals(DBCOMPTBL))  compresstable = toBool(v);
+        else if(k.equals(DBTXTDICT))  textdictionary = toBool(v);
         else if(k.equals(DBTXTIDX))   textindex    = toBool(v);
         else if(k.equals(DBATVIDX))   attrindex    = toBool(v);
         else if(k.equals(DBTOKIDX))   tokenindex   = toBool(v);
+        else if(k.equals(DBTRIIDX))   trigramindex = toBool(v);
         else if(k.equals(DBFTXIDX))   ftindex      = toBool(v);
+        else if(k.equals(DBRNGIDX))   rangeindex   = toBool(v);
+        else if(k.equals(DBPTHLST))   pathlists    = toBool(v);
         else if(k.equals(DBTXTINC))   textinclude  = v;
         else if(k.equals(DBATVINC))   attrinclude  = v;
         else if(k.equals(DBTOKINC))   tokeninclude = v;
@@ -386,6 +434,7 @@ public final class MetaData {
         else if(k.equals(DBCRTTXT))   createtext   = toBool(v);
         else if(k.equals(DBCRTATV))   createattr   = toBool(v);
         else if(k.equals(DBCRTTOK))   createtoken  = toBool(v);
+        else if(k.equals(DBCRTTRI))   createtrigram = toBool(v);
         else if(k.equals(DBCRTFTX))   createft     = toBool(v);
         else if(k.equals(DBWCIDX))    wcindex      = toBool(v);
         else if(k.equals(DBFTST))     stemming     = toBool(v);
@@ -402,6 +451,11 @@ public final class MetaData {
     // check version of database indexes
     oldindex = !istorage.equals(ISTORAGE) &&
         new Version(istorage).compareTo(new Version(ISTORAGE)) > 0;
+    // legacy (8.6 -> 8.6.5): full-text index of updatable database contains pre values
+    if(ftindex && updindex && new Version(istorage).compareTo(new Version("8.6.5")) < 0) {
+      ftindex = false;
+      oldindex = true;
+    }
     corrupt = dbfile(DATAUPD).exists();
     // deactivate full-text index if obsolete trie structure was used
     if(wcindex) ftindex = false;
@@ -422,10 +476,16 @@ public final class MetaData {
     writeInfo(out, DBSIZE,     size);
     writeInfo(out, DBUPDIDX,   updindex);
     writeInfo(out, DBAUTOOPT,  autooptimize);
+    writeInfo(out, DBMMAP,     mmap);
+    writeInfo(out, DBCOMPTBL,  compresstable);
+    writeInfo(out, DBTXTDICT,  textdictionary);
     writeInfo(out, DBTXTIDX,   textindex);
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBTOKIDX,   tokenindex);
+    writeInfo(out, DBTRIIDX,   trigramindex);
     writeInfo(out, DBFTXIDX,   ftindex);
+    writeInfo(out, DBRNGIDX,   rangeindex);
+    writeInfo(out, DBPTHLST,   pathlists);
     writeInfo(out, DBTXTINC,   textinclude);
     writeInfo(out, DBATVINC,   attrinclude);
     writeInfo(out, DBTOKINC,   tokeninclude);
@@ -434,6 +494,7 @@ public final class MetaData {
     writeInfo(out, DBCRTTXT,   createtext);
     writeInfo(out, DBCRTATV,   createattr);
     writeInfo(out, DBCRTTOK,   createtoken);
+    writeInfo(out, DBCRTTRI,   createtrigram);
     writeInfo(out, DBCRTFTX,   createft);
     writeInfo(out, DBFTST,     stemming);
     writeInfo(out, DBFTCS,     casesens);
@@ -447,6 +508,21 @@ public final class MetaData {
     out.write(0);
   }
 
+  /**
+   * Returns the serialized meta data. Can be used to check if a database or its options
+   * have been changed.
+   * @return serialized meta data
+   */
+  public byte[] serialize() {
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput out = new DataOutput(ao)) {
+      write(out);
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
+    }
+    return ao.finish();
+  }
+
   /**
    * Notifies the meta structures of an update and invalidates the indexes.
    */
@@ -455,12 +531,14 @@ public final class MetaData {
     time = System.currentTimeMillis();
     uptodate = false;
     dirty = true;
+    // the trigram index is not updatable
+    trigramindex = false;
     if(!updindex) {
       textindex = false;
       attrindex = false;
       tokenindex = false;
+      ftindex = false;
     }
-    ftindex = false;
   }
 
   /**
@@ -80,6 +80,11 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.tokenindex; }
   },
   /** Property. */
+  TRIGRAMINDEX(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.trigramindex; }
+  },
+  /** Property. */
   FTINDEX(true) {
     @Override
     public Boolean value(final MetaData meta) { return meta.ftindex; }
@@ -130,6 +135,16 @@ public enum MetaProp {
     public String value(final MetaData meta) { return meta.stopwords; }
   },
   /** Property. */
+  RANGEINDEX(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.rangeindex; }
+  },
+  /** Property. */
+  PATHLISTS(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.pathlists; }
+  },
+  /** Property. */
   UPDINDEX(true) {
     @Override
     public Boolean value(final MetaData meta) { return meta.updindex; }
@@ -140,6 +155,21 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.autooptimize; }
   },
   /** Property. */
+  MMAP(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.mmap; }
+  },
+  /** Property. */
+  COMPRESSTABLE(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.compresstable; }
+  },
+  /** Property. */
+  TEXTDICTIONARY(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.textdictionary; }
+  },
+  /** Property. */
   MAXCATS(true) {
     @Override
     public Integer value(final MetaData meta) { return meta.maxcats; }
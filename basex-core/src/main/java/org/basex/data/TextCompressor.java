@@ -0,0 +1,355 @@
+package org.basex.data;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class compresses and decompresses texts and attribute values with a dictionary
+ * that is trained for a single database.
+ *
+ * While a database is built, the first values are compressed via {@link Compress} and
+ * collected as sample. As soon as the sample is large enough, the dictionary is created
+ * from the most frequent byte sequences of the sample. All subsequent values are compressed
+ * with an LZ77 variant, in which repeated byte sequences are replaced with references to
+ * the dictionary or to previous occurrences in the same value. Each value can still be
+ * decompressed on its own, so random access via text references is not affected.
+ *
+ * Compressed values start with the length of the original value, followed by a byte with
+ * the lowest bit set. Values compressed via {@link Compress} are distinguished by an
+ * unset bit.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class TextCompressor {
+  /** Marker for dictionary-compressed values. */
+  private static final int DICT = 1;
+  /** Number of sampled bytes required to train the dictionary. */
+  private static final int SAMPLE = 1 << 18;
+  /** Maximum size of the dictionary (offsets should fit into 2 bytes). */
+  private static final int MAXSIZE = (1 << 14) - 1024;
+  /** Length of byte sequences that are counted while training the dictionary. */
+  private static final int GRAM = 6;
+  /** Maximum length of a dictionary segment. */
+  private static final int SEGMENT = 32;
+  /** Minimum length of a repeated byte sequence. */
+  private static final int MINMATCH = 4;
+  /** Maximum number of dictionary positions that are checked for a match. */
+  private static final int DEPTH = 16;
+  /** Maximum length of values for which all positions are checked for a match. */
+  private static final int SHORT = 64;
+  /** Number of bits used for hashing byte sequences. */
+  private static final int HASHBITS = 14;
+
+  /** Dictionary file. */
+  private final IOFile file;
+  /** Collected values ({@code null} if no dictionary will be trained). */
+  private TokenList sample;
+  /** Number of sampled bytes. */
+  private int sampled;
+  /** Dictionary ({@code null} if no dictionary exists). */
+  private byte[] dict;
+  /** Last dictionary positions of hashed byte sequences (plus one). */
+  private int[] head;
+  /** Previous dictionary positions of hashed byte sequences (plus one). */
+  private int[] chain;
+  /** Indicates if the dictionary has not been written to disk yet. */
+  private boolean dirty;
+
+  /**
+   * Constructor. Reads the dictionary from disk if it exists.
+   * @param file dictionary file
+   * @param train train dictionary if it does not exist yet
+   * @throws IOException I/O exception
+   */
+  public TextCompressor(final IOFile file, final boolean train) throws IOException {
+    this.file = file;
+    if(file.exists()) {
+      try(DataInput in = new DataInput(file)) {
+        init(in.readToken());
+      }
+    } else if(train) {
+      sample = new TokenList();
+    }
+  }
+
+  /**
+   * Writes a new dictionary to disk if it has not been written yet.
+   * @throws IOException I/O exception
+   */
+  public void write() throws IOException {
+    if(!dirty) return;
+    try(DataOutput out = new DataOutput(file)) {
+      out.writeToken(dict);
+    }
+    dirty = false;
+  }
+
+  /**
+   * Returns the size of the dictionary.
+   * @return size (0 if no dictionary exists)
+   */
+  public int size() {
+    return dict == null ? 0 : dict.length;
+  }
+
+  /**
+   * Compresses the specified value. Returns the original value if the compressed value
+   * is not shorter.
+   * @param value value
+   * @return compressed or original value
+   */
+  public byte[] pack(final byte[] value) {
+    if(sample != null) {
+      sample.add(value);
+      sampled += value.length;
+      if(sampled >= SAMPLE) {
+        init(train(sample));
+        sample = null;
+        dirty = true;
+        // write dictionary before the first value compressed with it is stored
+        try {
+          write();
+        } catch(final IOException ex) {
+          // dictionary will be written again when the meta data is flushed
+          Util.stack(ex);
+        }
+      }
+    }
+
+    final byte[] packed = Compress.pack(value);
+    if(dict == null) return packed;
+    final byte[] dp = packDict(value);
+    return dp != null && dp.length < packed.length ? dp : packed;
+  }
+
+  /**
+   * Decompresses the specified value.
+   * @param value compressed value
+   * @return original value
+   */
+  public byte[] unpack(final byte[] value) {
+    return (value[Num.length(value, 0)] & DICT) != 0 ? unpackDict(value) : Compress.unpack(value);
+  }
+
+  // PRIVATE METHODS ==========================================================
+
+  /**
+   * Assigns the dictionary and indexes its byte sequences.
+   * @param bytes dictionary
+   */
+  private void init(final byte[] bytes) {
+    dict = bytes;
+    final int dl = bytes.length;
+    head = new int[1 << HASHBITS];
+    chain = new int[Math.max(0, dl - MINMATCH + 1)];
+    for(int d = 0; d + MINMATCH <= dl; d++) {
+      final int h = hash(bytes, d);
+      chain[d] = head[h];
+      head[h] = d + 1;
+    }
+  }
+
+  /**
+   * Compresses a value with the dictionary.
+   * @param value value
+   * @return compressed value or {@code null}
+   */
+  private byte[] packDict(final byte[] value) {
+    final int vl = value.length;
+    if(vl < MINMATCH) return null;
+
+    final byte[] d = dict;
+    final int dl = d.length;
+    final byte[] packed = new byte[Num.length(vl) + 1 + vl + (vl >>> 1) + 10];
+    int pl = Num.set(packed, vl, 0);
+    packed[pl++] = DICT;
+
+    // positions of byte sequences in long values (plus one)
+    final int[] local = vl > SHORT ? new int[1 << HASHBITS] : null;
+    int anchor = 0, pos = 0;
+    while(pos + MINMATCH <= vl) {
+      final int h = hash(value, pos);
+      // find longest match in the value: check all positions of short values
+      int ml = 0, dist = 0;
+      for(int lc = local != null ? local[h] - 1 : 0; lc >= 0 && lc < pos;
+          lc = local != null ? -1 : lc + 1) {
+        int m = 0;
+        while(pos + m < vl && value[lc + m] == value[pos + m]) m++;
+        if(m > ml) {
+          ml = m;
+          dist = pos - lc;
+        }
+      }
+      int depth = DEPTH;
+      for(int dc = head[h] - 1; dc >= 0 && depth-- > 0; dc = chain[dc] - 1) {
+        // matches may continue from the dictionary into the value
+        int m = 0;
+        for(int v = dc; pos + m < vl && (v < dl ? d[v] : value[v - dl]) == value[pos + m]; v++) {
+          m++;
+        }
+        if(m > ml) {
+          ml = m;
+          dist = dl - dc + pos;
+        }
+      }
+      if(local != null) local[h] = pos + 1;
+
+      if(ml >= MINMATCH) {
+        if(pl + 15 + pos - anchor > packed.length) return null;
+        pl += Num.set(packed, pos - anchor, pl);
+        System.arraycopy(value, anchor, packed, pl, pos - anchor);
+        pl += pos - anchor;
+        pl += Num.set(packed, ml, pl);
+        pl += Num.set(packed, dist, pl);
+        pos += ml;
+        anchor = pos;
+      } else {
+        pos++;
+      }
+    }
+    if(pl + 5 + vl - anchor > packed.length) return null;
+    pl += Num.set(packed, vl - anchor, pl);
+    System.arraycopy(value, anchor, packed, pl, vl - anchor);
+    pl += vl - anchor;
+    return pl < vl ? Arrays.copyOf(packed, pl) : null;
+  }
+
+  /**
+   * Decompresses a value that has been compressed with the dictionary.
+   * @param packed compressed value
+   * @return original value
+   */
+  private byte[] unpackDict(final byte[] packed) {
+    final byte[] d = dict;
+    final int dl = d.length, pl = packed.length;
+    final byte[] value = new byte[Num.get(packed, 0)];
+    int pos = Num.length(packed, 0) + 1, vl = 0;
+    while(true) {
+      final int ll = Num.get(packed, pos);
+      pos += Num.length(packed, pos);
+      System.arraycopy(packed, pos, value, vl, ll);
+      pos += ll;
+      vl += ll;
+      if(pos == pl) break;
+      final int ml = Num.get(packed, pos);
+      pos += Num.length(packed, pos);
+      final int dist = Num.get(packed, pos);
+      pos += Num.length(packed, pos);
+      // sequences may start in the dictionary and overlap: copy single bytes
+      final int start = vl - dist;
+      for(int m = 0; m < ml; m++) {
+        final int s = start + m;
+        value[vl + m] = s < 0 ? d[dl + s] : value[s];
+      }
+      vl += ml;
+    }
+    return value;
+  }
+
+  /**
+   * Creates a dictionary from the most frequent byte sequences of the specified sample.
+   * All values are split into segments. Segments are chosen in the order of their scores,
+   * which are based on the frequencies of the contained byte sequences. If a segment has been
+   * chosen, the frequencies of its byte sequences are reset in order to avoid redundancy,
+   * and the scores of the remaining segments are lazily updated.
+   * @param tokens sample
+   * @return dictionary
+   */
+  private static byte[] train(final TokenList tokens) {
+    // count byte sequences
+    final int[] counts = new int[1 << 20];
+    for(final byte[] token : tokens) {
+      for(int t = 0; t + GRAM <= token.length; t++) counts[gram(token, t)]++;
+    }
+
+    // score segments
+    final IntList toks = new IntList(), starts = new IntList();
+    final PriorityQueue<Long> cands = new PriorityQueue<>(11, Collections.reverseOrder());
+    final int ts = tokens.size();
+    for(int t = 0; t < ts; t++) {
+      final byte[] token = tokens.get(t);
+      for(int s = 0; s + GRAM <= token.length; s += SEGMENT) {
+        final int score = score(token, s, counts);
+        if(score > 0) {
+          cands.add((long) score << 32 | toks.size());
+          toks.add(t);
+          starts.add(s);
+        }
+      }
+    }
+
+    // choose segments with highest scores
+    final TokenList segments = new TokenList();
+    int size = 0;
+    while(size < MAXSIZE && !cands.isEmpty()) {
+      final long cand = cands.poll();
+      final int i = (int) cand;
+      final byte[] token = tokens.get(toks.get(i));
+      final int s = starts.get(i), e = Math.min(s + SEGMENT, token.length);
+      // score may have decreased: reinsert segment if it is lower than the next score
+      final int score = score(token, s, counts);
+      final Long next = cands.peek();
+      if(next != null && score < next >>> 32) {
+        if(score > 0) cands.add((long) score << 32 | i);
+        continue;
+      }
+      // skip segments with unique byte sequences
+      if(score <= e - s - GRAM + 1) break;
+
+      for(int t = s; t + GRAM <= e; t++) counts[gram(token, t)] = 0;
+      final int l = Math.min(e - s, MAXSIZE - size);
+      segments.add(Arrays.copyOfRange(token, s, s + l));
+      size += l;
+    }
+
+    // store most frequent segments at the end (shorter distances)
+    final ByteList dict = new ByteList(size);
+    for(int s = segments.size() - 1; s >= 0; s--) dict.add(segments.get(s));
+    return dict.finish();
+  }
+
+  /**
+   * Computes the score of a segment.
+   * @param token token
+   * @param start start of the segment
+   * @param counts frequencies of byte sequences
+   * @return score
+   */
+  private static int score(final byte[] token, final int start, final int[] counts) {
+    final int end = Math.min(start + SEGMENT, token.length);
+    int score = 0;
+    for(int t = start; t + GRAM <= end; t++) score += counts[gram(token, t)];
+    return score;
+  }
+
+  /**
+   * Computes a hash value for the byte sequence used for training.
+   * @param bytes bytes
+   * @param pos position
+   * @return hash value
+   */
+  private static int gram(final byte[] bytes, final int pos) {
+    int h = 0;
+    for(int g = 0; g < GRAM; g++) h = h * 31 + bytes[pos + g];
+    return h * 0x9E3779B1 >>> 12;
+  }
+
+  /**
+   * Computes a hash value for the byte sequence at the specified position.
+   * @param bytes bytes
+   * @param pos position
+   * @return hash value
+   */
+  private static int hash(final byte[] bytes, final int pos) {
+    final int v = ((bytes[pos] & 0xFF) << 24) + ((bytes[pos + 1] & 0xFF) << 16) +
+        ((bytes[pos + 2] & 0xFF) << 8) + (bytes[pos + 3] & 0xFF);
+    return v * 0x9E3779B1 >>> 32 - HASHBITS;
+  }
+}
@@ -3,6 +3,9 @@ package org.basex.index;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.core.*;
 import org.basex.core.jobs.*;
@@ -29,11 +32,15 @@ public abstract class IndexBuilder extends Job {
   protected final IndexType type;
   /** Text node flag. */
   protected final boolean text;
+  /** Number of threads. */
+  protected final int threads;
 
   /** Number of index operations to perform before writing a partial index to disk. */
   private final int splitSize;
-  /** Maximum memory to consume. */
-  private final long maxMem = (long) (Runtime.getRuntime().maxMemory() * 0.8);
+  /** Maximum memory to be consumed by the temporary index structures of a single thread. */
+  private final long maxMem;
+  /** Maximum heap usage (fallback if the memory consumption is underestimated). */
+  private final long maxHeap = (long) (Runtime.getRuntime().maxMemory() * 0.8);
 
   /** Names and namespace uri of element or attributes to include. */
   private final IndexNames includeNames;
@@ -44,8 +51,14 @@ public abstract class IndexBuilder extends Job {
   protected long count;
   /** Number of partial index structures. */
   protected int splits;
-  /** Threshold for freeing memory when estimating main memory consumption. */
+  /** Time for merging partial indexes (nanoseconds). */
+  private long merging;
+  /** Threshold for freeing memory when checking the heap usage. */
   private int gcCount;
+  /** Indicates if the last split was enforced by the heap usage. */
+  private boolean heapSplit;
+  /** Number of pre values that have been processed by parallel threads. */
+  private final AtomicInteger processed = new AtomicInteger();
 
   /**
    * Constructor.
@@ -59,9 +72,10 @@ public abstract class IndexBuilder extends Job {
     size = data.meta.size;
     includeNames = new IndexNames(type, data);
     text = type == IndexType.TEXT || type == IndexType.FULLTEXT;
-
-    // run garbage collection if memory maximum is already reached
-    if(Performance.memory() >= maxMem) clean();
+    // use multiple threads for large databases
+    threads = Math.max(1, Math.min(data.meta.threads, size >>> 16));
+    maxMem = (long) (Runtime.getRuntime().maxMemory() / 100.0d *
+        Math.max(1, Math.min(100, data.meta.indexmemory)) / threads);
   }
 
   /**
@@ -86,23 +100,88 @@ public abstract class IndexBuilder extends Job {
    * @return result of check
    */
   protected final boolean indexEntry() {
-    return data.kind(pre) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(pre, text);
+    return indexEntry(pre);
+  }
+
+  /**
+   * Checks if the specified entry should be indexed.
+   * @param pr pre value
+   * @return result of check
+   */
+  protected final boolean indexEntry(final int pr) {
+    return data.kind(pr) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(pr, text);
+  }
+
+  /**
+   * Registers pre values that have been processed by parallel threads.
+   * @param pres number of pre values
+   */
+  protected final void processed(final int pres) {
+    processed.addAndGet(pres);
+  }
+
+  /**
+   * Waits until all tasks have been completed. If a task fails, the remaining tasks will be
+   * stopped, and the exception will be thrown.
+   * @param futures futures of the submitted tasks
+   * @throws IOException I/O exception
+   */
+  protected final void complete(final List<? extends Future<?>> futures) throws IOException {
+    try {
+      for(final Future<?> future : futures) result(future);
+    } catch(final IOException | RuntimeException | Error ex) {
+      stop();
+      for(final Future<?> future : futures) {
+        try {
+          future.get();
+        } catch(final InterruptedException | ExecutionException e) {
+          Util.debug(e);
+        }
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Returns the result of a task that has been submitted to a thread pool.
+   * @param <T> result type
+   * @param future future
+   * @return result
+   * @throws IOException I/O exception
+   */
+  protected static <T> T result(final Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch(final InterruptedException ex) {
+      throw new IOException(ex);
+    } catch(final ExecutionException ex) {
+      final Throwable th = ex.getCause();
+      if(th instanceof IOException) throw (IOException) th;
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      if(th instanceof Error) throw (Error) th;
+      throw new IOException(th);
+    }
   }
 
   /**
    * Decides whether in-memory temporary index structures are so large
-   * that we must flush them to disk before continuing.
+   * that we must flush them to disk before continuing. If no split size has been specified,
+   * the estimated memory consumption of the structures is compared with the memory budget,
+   * which is a fraction of the maximum heap size. As a fallback, the heap usage is checked.
+   * @param memory estimated memory consumption of the structures (in bytes)
    * @return true if structures shall be flushed to disk
    * @throws IOException I/O Exception
    */
-  protected final boolean splitRequired() throws IOException {
-    // checks if a fixed split size has been specified
+  protected final boolean splitRequired(final long memory) throws IOException {
+    heapSplit = false;
     final boolean split;
     if(splitSize > 0) {
       split = count >= (splits + 1L) * splitSize;
+    } else if(memory >= maxMem) {
+      split = true;
     } else {
-      // if not, estimate how much main memory is left
-      split = Performance.memory() >= maxMem;
+      // estimate how much main memory is left
+      split = Performance.memory() >= maxHeap;
       // stop operation if index splitting degenerates
       int gc = gcCount;
       if(split) {
@@ -112,27 +191,43 @@ public abstract class IndexBuilder extends Job {
         gc = Math.max(-1, gc - 1);
       }
       gcCount = gc;
+      heapSplit = split;
     }
     if(split && Prop.debug) Util.err("|");
     return split;
   }
 
   /**
-   * Performs memory cleanup after writing partial memory if necessary.
+   * Performs memory cleanup after writing a partial index if the split was enforced by the
+   * heap usage.
    */
   protected final void clean() {
-    if(splitSize <= 0) Performance.gc(2);
+    if(heapSplit) Performance.gc(2);
+  }
+
+  /**
+   * Registers the time for merging partial indexes.
+   * @param start start time (nanoseconds)
+   */
+  protected final void merged(final long start) {
+    merging = System.nanoTime() - start;
   }
 
   /**
    * Prints some final debugging information.
    */
   protected final void finishIndex() {
+    final Context ctx = jc().context;
+    if(ctx != null) ctx.splits.add(splits, merging);
     if(!Prop.debug) return;
 
     final StringBuilder sb = new StringBuilder();
     sb.append(' ').append((count / 10000) / 100.0d).append(" M operations, ");
     sb.append(perf).append(" (").append(Performance.getMemory()).append(").");
+    if(splits > 0) {
+      sb.append(' ').append(splits).append(" partial indexes, merged in ");
+      sb.append(merging / 1000000).append(" ms.");
+    }
     if(splits > 1 && splitSize <= 0) {
       sb.append(" Recommended ").append(MainOptions.SPLITSIZE.name()).append(": ");
       sb.append((int) Math.ceil(((double) count / splits) / splitFactor())).append('.');
@@ -160,7 +255,7 @@ public abstract class IndexBuilder extends Job {
 
   @Override
   public final double progressInfo() {
-    return pre / (size + (splits > 0 ? size / 50.0d : 0.0d));
+    return Math.max(pre, processed.get()) / (size + (splits > 0 ? size / 50.0d : 0.0d));
   }
 
   @Override
@@ -169,6 +264,7 @@ public abstract class IndexBuilder extends Job {
       case TEXT: return INDEX_TEXTS_D;
       case ATTRIBUTE: return INDEX_ATTRIBUTES_D;
       case TOKEN: return INDEX_TOKENS_D;
+      case TRIGRAM: return INDEX_TRIGRAMS_D;
       case FULLTEXT: return INDEX_FULLTEXT_D;
       default: throw Util.notExpected();
     }
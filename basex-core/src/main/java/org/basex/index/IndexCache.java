@@ -9,19 +9,28 @@ import org.basex.util.*;
 
 /**
  * This class caches sizes and offsets from index results.
+ * The entries are distributed to several stripes, which are locked independently. Entries are
+ * referenced softly, and the number of entries per stripe is limited.
  *
  * @author BaseX Team 2005-17, BSD License
  * @author Dimitar Popov
  */
 public final class IndexCache {
-  /** Queue used to collect unused keys. */
-  private final ReferenceQueue<IndexEntry> queue = new ReferenceQueue<>();
-  /** Read-write lock. */
-  private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock(true);
-  /** Hash table buckets. */
-  private BucketEntry[] buckets = new BucketEntry[Array.CAPACITY];
-  /** Number of entries in the cache. */
-  private int size;
+  /** Number of bits used for addressing stripes. */
+  private static final int BITS = 4;
+  /** Maximum number of entries per stripe. */
+  static final int MAXSIZE = 1 << 14;
+
+  /** Stripes. */
+  private final Stripe[] stripes = new Stripe[1 << BITS];
+
+  /**
+   * Constructor.
+   */
+  public IndexCache() {
+    final int sl = stripes.length;
+    for(int s = 0; s < sl; s++) stripes[s] = new Stripe();
+  }
 
   /**
    * Gets cached entry for the specified key.
@@ -30,21 +39,7 @@ public final class IndexCache {
    */
   public IndexEntry get(final byte[] key) {
     final int hash = hash(key);
-    rwl.readLock().lock();
-
-    try {
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry e = buckets[i];
-      while(e != null) {
-        final IndexEntry entry = e.get();
-        if(entry != null && e.hash == hash && eq(entry.key, key)) return entry;
-        e = e.next;
-      }
-    } finally {
-      rwl.readLock().unlock();
-    }
-
-    return null;
+    return stripe(hash).get(key, hash);
   }
 
   /**
@@ -57,31 +52,7 @@ public final class IndexCache {
    */
   public IndexEntry add(final byte[] key, final int count, final long offset) {
     final int hash = hash(key);
-    rwl.writeLock().lock();
-
-    try {
-      purge();
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry current = buckets[i], prev = current;
-      while(current != null) {
-        final BucketEntry next = current.next;
-        final IndexEntry entry = current.get();
-        if(entry == null) {
-          delete(i, current, prev, next);
-        } else if(current.hash == hash && eq(entry.key, key)) {
-          update(entry, count, offset);
-          return entry;
-        }
-        prev = current;
-        current = next;
-      }
-
-      final IndexEntry entry = new IndexEntry(key, count, offset);
-      add(i, hash, entry);
-      return entry;
-    } finally {
-      rwl.writeLock().unlock();
-    }
+    return stripe(hash).add(key, hash, count, offset);
   }
 
   /**
@@ -90,117 +61,227 @@ public final class IndexCache {
    */
   public void delete(final byte[] key) {
     final int hash = hash(key);
-    rwl.writeLock().lock();
-
-    try {
-      purge();
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry e = buckets[i], prev = e;
-      while(e != null) {
-        final BucketEntry next = e.next;
-        final IndexEntry entry = e.get();
-        if(entry == null) {
-          delete(i, e, prev, next);
-        } else if(e.hash == hash && eq(entry.key, key)) {
-          delete(i, e, prev, next);
-          break;
-        }
-        prev = e;
-        e = next;
-      }
-    } finally {
-      rwl.writeLock().unlock();
-    }
+    stripe(hash).delete(key, hash);
   }
 
   /**
-   * Purges stale entries from the cache.
+   * Returns the number of cached entries.
+   * @return number of entries
    */
-  private void purge() {
-    for(Object x; (x = queue.poll()) != null;) {
-      final BucketEntry e = (BucketEntry) x;
-      final int i = indexFor(e.hash, buckets.length);
-      BucketEntry prev = buckets[i], p = prev;
-      while(p != null) {
-        final BucketEntry next = p.next;
-        if(p == e) {
-          delete(i, e, prev, next);
-          break;
-        }
-        prev = p;
-        p = next;
-      }
-    }
+  int size() {
+    int size = 0;
+    for(final Stripe stripe : stripes) size += stripe.size();
+    return size;
   }
 
   /**
-   * Add a new index entry to the bucket with the specified index.
-   * @param i bucket index
-   * @param hash hash of the new index key
-   * @param entry index entry
+   * Returns the stripe for the specified hash code. The upper bits of the scrambled hash code
+   * are used, as the lower bits are used to address buckets.
+   * @param hash hash code
+   * @return stripe
    */
-  private void add(final int i, final int hash, final IndexEntry entry) {
-    buckets[i] = new BucketEntry(hash, buckets[i], entry, queue);
-    if(++size == buckets.length) rehash();
+  private Stripe stripe(final int hash) {
+    return stripes[hash * 0x9E3779B9 >>> Integer.SIZE - BITS];
   }
 
   /**
-   * Update an existing index entry.
-   * @param entry index entry to update
-   * @param size new size
-   * @param offset new offset
+   * Returns buckets index for a hash code.
+   * @param h hash code
+   * @param n number of available buckets
+   * @return index of a buckets
    */
-  private static void update(final IndexEntry entry, final int size, final long offset) {
-    entry.size = size;
-    entry.offset = offset;
+  private static int indexFor(final int h, final int n) {
+    return h & n - 1;
   }
 
   /**
-   * Deletes a cached entry from the buckets with the specified index.
-   * @param i buckets index
-   * @param e cached entry to delete
-   * @param p previous cache entry
-   * @param n next cache entry
+   * Stripe of the cache, which is locked independently.
    */
-  private void delete(final int i, final BucketEntry e, final BucketEntry p, final BucketEntry n) {
-    if(p == e) buckets[i] = n;
-    else p.next = n;
-    e.next = null;
-    --size;
-  }
+  private static final class Stripe {
+    /** Queue used to collect unused keys. */
+    private final ReferenceQueue<IndexEntry> queue = new ReferenceQueue<>();
+    /** Read-write lock. */
+    private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock(true);
+    /** Hash table buckets. */
+    private BucketEntry[] buckets = new BucketEntry[Array.CAPACITY];
+    /** Number of entries in the stripe. */
+    private int size;
+    /** Index of the next bucket to be evicted if the maximum size is exceeded. */
+    private int hand;
 
-  /**
-   * Resizes the hash table.
-   */
-  private void rehash() {
-    purge();
-
-    final int s = size << 1;
-    final BucketEntry[] tmp = new BucketEntry[s];
-
-    final int l = buckets.length;
-    for(int i = 0; i < l; ++i) {
-      BucketEntry e = buckets[i];
-      buckets[i] = null;
-      while(e != null) {
-        final BucketEntry next = e.next;
-        final int p = indexFor(e.hash, tmp.length);
-        e.next = tmp[p];
-        tmp[p] = e;
-        e = next;
+    /**
+     * Gets cached entry for the specified key.
+     * @param key key
+     * @param hash hash code of the key
+     * @return cached entry or {@code null} if the entry is stale
+     */
+    IndexEntry get(final byte[] key, final int hash) {
+      rwl.readLock().lock();
+      try {
+        final int i = indexFor(hash, buckets.length);
+        BucketEntry e = buckets[i];
+        while(e != null) {
+          final IndexEntry entry = e.get();
+          if(entry != null && e.hash == hash && eq(entry.key, key)) return entry;
+          e = e.next;
+        }
+      } finally {
+        rwl.readLock().unlock();
       }
+      return null;
     }
-    buckets = tmp;
-  }
 
-  /**
-   * Returns buckets index for a hash code.
-   * @param h hash code
-   * @param n number of available buckets
-   * @return index of a buckets
-   */
-  private static int indexFor(final int h, final int n) {
-    return h & n - 1;
+    /**
+     * Adds a new cache entry. If an entry with the specified key already exists,
+     * it will be updated.
+     * @param key key
+     * @param hash hash code of the key
+     * @param count number of index hits
+     * @param offset offset to id list
+     * @return cache entry
+     */
+    IndexEntry add(final byte[] key, final int hash, final int count, final long offset) {
+      rwl.writeLock().lock();
+      try {
+        purge();
+        final int i = indexFor(hash, buckets.length);
+        BucketEntry current = buckets[i], prev = current;
+        while(current != null) {
+          final BucketEntry next = current.next;
+          final IndexEntry entry = current.get();
+          if(entry == null) {
+            delete(i, current, prev, next);
+          } else if(current.hash == hash && eq(entry.key, key)) {
+            entry.size = count;
+            entry.offset = offset;
+            return entry;
+          }
+          prev = current;
+          current = next;
+        }
+
+        final IndexEntry entry = new IndexEntry(key, count, offset);
+        buckets[i] = new BucketEntry(hash, buckets[i], entry, queue);
+        if(++size == buckets.length) rehash();
+        if(size > MAXSIZE) evict();
+        return entry;
+      } finally {
+        rwl.writeLock().unlock();
+      }
+    }
+
+    /**
+     * Deletes a cached entry.
+     * @param key key
+     * @param hash hash code of the key
+     */
+    void delete(final byte[] key, final int hash) {
+      rwl.writeLock().lock();
+      try {
+        purge();
+        final int i = indexFor(hash, buckets.length);
+        BucketEntry e = buckets[i], prev = e;
+        while(e != null) {
+          final BucketEntry next = e.next;
+          final IndexEntry entry = e.get();
+          if(entry == null) {
+            delete(i, e, prev, next);
+          } else if(e.hash == hash && eq(entry.key, key)) {
+            delete(i, e, prev, next);
+            break;
+          }
+          prev = e;
+          e = next;
+        }
+      } finally {
+        rwl.writeLock().unlock();
+      }
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return number of entries
+     */
+    int size() {
+      rwl.readLock().lock();
+      try {
+        return size;
+      } finally {
+        rwl.readLock().unlock();
+      }
+    }
+
+    /**
+     * Purges stale entries from the stripe.
+     */
+    private void purge() {
+      for(Object x; (x = queue.poll()) != null;) {
+        final BucketEntry e = (BucketEntry) x;
+        final int i = indexFor(e.hash, buckets.length);
+        BucketEntry prev = buckets[i], p = prev;
+        while(p != null) {
+          final BucketEntry next = p.next;
+          if(p == e) {
+            delete(i, e, prev, next);
+            break;
+          }
+          prev = p;
+          p = next;
+        }
+      }
+    }
+
+    /**
+     * Evicts the entries of single buckets until the maximum size is not exceeded anymore.
+     * The evicted buckets are chosen in a round-robin manner.
+     */
+    private void evict() {
+      final int bl = buckets.length;
+      while(size > MAXSIZE) {
+        final int i = hand++ & bl - 1;
+        for(BucketEntry e = buckets[i]; e != null; e = e.next) --size;
+        buckets[i] = null;
+      }
+    }
+
+    /**
+     * Deletes a cached entry from the buckets with the specified index.
+     * @param i buckets index
+     * @param e cached entry to delete
+     * @param p previous cache entry
+     * @param n next cache entry
+     */
+    private void delete(final int i, final BucketEntry e, final BucketEntry p,
+        final BucketEntry n) {
+      if(p == e) buckets[i] = n;
+      else p.next = n;
+      e.next = null;
+      --size;
+    }
+
+    /**
+     * Resizes the hash table.
+     */
+    private void rehash() {
+      purge();
+
+      final int s = size << 1;
+      final BucketEntry[] tmp = new BucketEntry[s];
+
+      final int l = buckets.length;
+      for(int i = 0; i < l; ++i) {
+        BucketEntry e = buckets[i];
+        buckets[i] = null;
+        while(e != null) {
+          final BucketEntry next = e.next;
+          final int p = indexFor(e.hash, tmp.length);
+          e.next = tmp[p];
+          tmp[p] = e;
+          e = next;
+        }
+      }
+      buckets = tmp;
+    }
   }
 
   /**
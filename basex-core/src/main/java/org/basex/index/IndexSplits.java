@@ -0,0 +1,34 @@
+package org.basex.index;
+
+import java.util.concurrent.atomic.*;
+
+import org.basex.util.*;
+
+/**
+ * Statistics on the partial indexes that have been written and merged by the index builders
+ * of a database context.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class IndexSplits {
+  /** Number of partial indexes that have been written. */
+  private final AtomicLong splits = new AtomicLong();
+  /** Time for merging partial indexes (nanoseconds). */
+  private final AtomicLong merging = new AtomicLong();
+
+  /**
+   * Registers the partial indexes of a finished build.
+   * @param count number of partial indexes
+   * @param time time for merging the partial indexes (nanoseconds)
+   */
+  void add(final int count, final long time) {
+    splits.addAndGet(count);
+    merging.addAndGet(time);
+  }
+
+  @Override
+  public String toString() {
+    return Util.info("% (% ms)", splits.get(), merging.get() / 1000000);
+  }
+}
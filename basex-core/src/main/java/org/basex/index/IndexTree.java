@@ -15,6 +15,10 @@ import org.basex.util.list.*;
 public class IndexTree {
   /** Factor for resize. */
   protected static final double FACTOR = 1.2;
+  /** Estimated memory consumption of a tree node and its key (in bytes, without key length). */
+  private static final int NODE = 48;
+  /** Estimated memory consumption of an array and its reference (in bytes). */
+  protected static final int ARRAY = 24;
 
   /** Keys saved in the tree. */
   public final TokenList keys = new TokenList(FACTOR);
@@ -34,6 +38,10 @@ public class IndexTree {
   private final boolean tokenize;
   /** Tree root node. */
   private int root = -1;
+  /** Estimated memory consumption of the id lists (in bytes). */
+  protected long idMemory;
+  /** Estimated memory consumption of the tree nodes and keys (in bytes). */
+  private long keyMemory;
 
   /**
    * Constructor.
@@ -111,6 +119,14 @@ public class IndexTree {
     return ids.size();
   }
 
+  /**
+   * Returns the estimated main memory consumption of the tree.
+   * @return number of bytes
+   */
+  public long memory() {
+    return keyMemory + idMemory;
+  }
+
   /**
    * Initializes the index iterator.
    * will be removed to save memory.
@@ -160,6 +176,7 @@ public class IndexTree {
     byte[] vs = Num.newNum(id);
     if(tokenize) vs = Num.add(vs, pos);
     ids.add(vs);
+    idMemory += vs.length + ARRAY;
   }
 
   /**
@@ -169,10 +186,11 @@ public class IndexTree {
    * @param n id list to append to
    */
   private void addIds(final int id, final int pos, final int n) {
-    byte[] vs = ids.get(n);
-    vs = Num.add(vs, id);
+    final byte[] old = ids.get(n);
+    byte[] vs = Num.add(old, id);
     if(tokenize) vs = Num.add(vs, pos);
     ids.set(n, vs);
+    idMemory += vs.length - old.length;
   }
 
   /**
@@ -192,6 +210,7 @@ public class IndexTree {
     tree.add(par); // parent node
     mod.add(false);
     keys.add(key);
+    keyMemory += key.length + NODE;
     addNewIds(id, pos);
     if(!exist) maps.put(Num.num(keys.size() - 1), ids.size() - 1);
     return mod.size() - 1;
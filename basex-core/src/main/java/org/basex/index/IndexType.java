@@ -21,6 +21,8 @@ public enum IndexType {
   ATTRIBUTE,
   /** Token index. */
   TOKEN,
+  /** Trigram index. */
+  TRIGRAM,
   /** Full-text index. */
   FULLTEXT;
 
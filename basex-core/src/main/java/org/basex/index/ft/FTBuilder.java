@@ -5,6 +5,8 @@ import static org.basex.data.DataText.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
@@ -16,17 +18,15 @@ import org.basex.util.list.*;
 
 /**
  * This class contains common methods for full-text index builders.
+ * If multiple threads are available, disjoint ranges of pre values are tokenized in parallel,
+ * and the resulting partial indexes are merged.
  *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  */
 public final class FTBuilder extends IndexBuilder {
-  /** Value trees. */
-  private final FTIndexTrees tree;
-  /** Word parser. */
-  private final FTLexer lexer;
-  /** Number of indexed tokens. */
-  private long ntok;
+  /** Full-text options. */
+  private final FTOpt fto;
 
   /**
    * Constructor.
@@ -35,22 +35,28 @@ public final class FTBuilder extends IndexBuilder {
    */
   public FTBuilder(final Data data) throws IOException {
     super(data, IndexType.FULLTEXT);
-    final MetaData meta = data.meta;
-    tree = new FTIndexTrees(data.meta.maxlen);
+    fto = options(data, new StopWords(data, data.meta.stopwords));
+    if(!Tokenizer.supportFor(fto.ln))
+      throw new BaseXException(NO_TOKENIZER_X, fto.ln);
+    if(data.meta.stemming && !Stemmer.supportFor(fto.ln))
+      throw new BaseXException(NO_STEMMER_X, fto.ln);
+  }
 
+  /**
+   * Returns the full-text options of a database.
+   * @param data data reference
+   * @param sw stop words
+   * @return options
+   */
+  static FTOpt options(final Data data, final StopWords sw) {
+    final MetaData meta = data.meta;
     final FTOpt fto = new FTOpt();
     fto.set(FTFlag.DC, meta.diacritics);
     fto.set(FTFlag.ST, meta.stemming);
     fto.cs = meta.casesens ? FTCase.SENSITIVE : FTCase.INSENSITIVE;
-    fto.sw = new StopWords(data, meta.stopwords);
-    fto.ln = data.meta.language;
-
-    if(!Tokenizer.supportFor(fto.ln))
-      throw new BaseXException(NO_TOKENIZER_X, fto.ln);
-    if(meta.stemming && !Stemmer.supportFor(fto.ln))
-      throw new BaseXException(NO_STEMMER_X, fto.ln);
-
-    lexer = new FTLexer(fto);
+    fto.sw = sw;
+    fto.ln = meta.language;
+    return fto;
   }
 
   @Override
@@ -58,34 +64,52 @@ public final class FTBuilder extends IndexBuilder {
     Util.debug(detailedInfo());
 
     try {
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(!indexEntry()) continue;
-
-        // current lexer position
-        final StopWords sw = lexer.ftOpt().sw;
-        lexer.init(data.text(pre, true));
-        int pos = -1;
-        while(lexer.hasNext()) {
-          final byte[] tok = lexer.nextToken();
-          ++pos;
-          // skip too long and stopword tokens
-          if(tok.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(tok))) {
-            // check if main memory is exhausted
-            if((ntok++ & 0xFFFF) == 0 && splitRequired()) {
-              writeIndex(true);
-              clean();
+      if(threads > 1) {
+        buildParallel();
+      } else {
+        final FTIndexTrees tree = new FTIndexTrees(data.meta.maxlen);
+        final FTLexer lexer = new FTLexer(fto);
+        final StopWords sw = fto.sw;
+        long ntok = 0;
+        for(pre = 0; pre < size; ++pre) {
+          if((pre & 0x0FFF) == 0) check();
+          if(!indexEntry()) continue;
+
+          // current lexer position
+          lexer.init(data.text(pre, true));
+          int pos = -1;
+          while(lexer.hasNext()) {
+            final byte[] tok = lexer.nextToken();
+            ++pos;
+            // skip too long and stopword tokens
+            if(tok.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(tok))) {
+              // check if main memory is exhausted
+              if((ntok++ & 0xFFFF) == 0 && splitRequired(tree.memory())) {
+                final int split = split();
+                writeIndex(tree, split, split);
+                clean();
+              }
+              tree.index(tok, id(pre), pos, splits);
+              count++;
             }
-            tree.index(tok, pre, pos, splits);
-            count++;
           }
         }
-      }
 
-      // finalize partial or all index structures
-      write(splits > 0);
+        // finalize partial or all index structures
+        if(splits > 0) {
+          final int split = split();
+          writeIndex(tree, split, split);
+          final IntList files = new IntList(splits);
+          for(int s = 0; s < splits; s++) files.add(s);
+          merge(files);
+        } else {
+          writeIndex(tree, 0, -1);
+        }
+      }
 
       finishIndex();
+      // discard incremental updates of a previous index
+      data.meta.dbfile(DATAFTX + 'u').delete();
       return new FTIndex(data);
 
     } catch(final Throwable th) {
@@ -96,14 +120,126 @@ public final class FTBuilder extends IndexBuilder {
   }
 
   /**
-   * Writes the index data to disk.
-   * @param partial write partial index
+   * Tokenizes disjoint ranges of pre values in parallel. The results of all threads are
+   * written as partial indexes and merged afterwards.
+   * @throws IOException I/O exception
+   */
+  private void buildParallel() throws IOException {
+    final ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      final ArrayList<Future<IntList>> futures = new ArrayList<>(threads);
+      for(int t = 0; t < threads; t++) {
+        final int start = (int) ((long) size * t / threads);
+        final int end = (int) ((long) size * (t + 1) / threads);
+        futures.add(pool.submit(new Callable<IntList>() {
+          @Override
+          public IntList call() throws IOException {
+            return index(start, end);
+          }
+        }));
+      }
+      complete(futures);
+      pre = size;
+
+      // merge partial indexes in the order of their pre values
+      final IntList files = new IntList();
+      for(final Future<IntList> future : futures) files.add(result(future).finish());
+      if(files.isEmpty()) {
+        writeIndex(new FTIndexTrees(data.meta.maxlen), 0, -1);
+      } else {
+        merge(files);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Indexes the specified range of pre values and writes the results as partial indexes.
+   * Called by parallel threads.
+   * @param start first pre value
+   * @param end last pre value (exclusive)
+   * @return ids of the written partial indexes
    * @throws IOException I/O exception
    */
-  private void write(final boolean partial) throws IOException {
-    writeIndex(partial);
-    if(!partial) return;
+  private IntList index(final int start, final int end) throws IOException {
+    final FTLexer lexer = new FTLexer(fto);
+    final StopWords sw = fto.sw;
+    final int maxlen = data.meta.maxlen;
+    final FTIndexTrees trees = new FTIndexTrees(maxlen);
+    final IntList files = new IntList();
+    // number of tokens that have not been registered yet, number of tokens in the trees
+    long cnt = 0, indexed = 0;
+    for(int p = start; p < end; p++) {
+      if((p - start & 0x0FFF) == 0 && p != start) {
+        checkStop();
+        processed(0x1000);
+        // check if main memory is exhausted
+        final boolean split;
+        synchronized(this) {
+          count += cnt;
+          split = splitRequired(trees.memory());
+        }
+        cnt = 0;
+        if(split && indexed > 0) {
+          final int id = split();
+          writeIndex(trees, files.size(), id);
+          files.add(id);
+          indexed = 0;
+          clean();
+        }
+      }
+      if(!indexEntry(p)) continue;
+
+      lexer.init(data.text(p, true));
+      int pos = -1;
+      while(lexer.hasNext()) {
+        final byte[] tok = lexer.nextToken();
+        ++pos;
+        // skip too long and stopword tokens
+        if(tok.length <= maxlen && (sw.isEmpty() || !sw.contains(tok))) {
+          trees.index(tok, id(p), pos, files.size());
+          cnt++;
+          indexed++;
+        }
+      }
+    }
+    synchronized(this) {
+      count += cnt;
+    }
+    if(indexed > 0) {
+      final int id = split();
+      writeIndex(trees, files.size(), id);
+      files.add(id);
+    }
+    return files;
+  }
 
+  /**
+   * Returns the value to be stored in the index for the specified pre value.
+   * If the index is updatable, ids will be stored.
+   * @param pr pre value
+   * @return pre value or id
+   */
+  private int id(final int pr) {
+    return data.meta.updindex ? data.id(pr) : pr;
+  }
+
+  /**
+   * Returns a new split id.
+   * @return split id
+   */
+  private synchronized int split() {
+    return splits++;
+  }
+
+  /**
+   * Merges partial indexes.
+   * @param files ids of the partial indexes, sorted by their pre values
+   * @throws IOException I/O exception
+   */
+  private void merge(final IntList files) throws IOException {
+    final long start = System.nanoTime();
     // merges temporary index files
     try(DataOutput outX = new DataOutput(data.meta.dbfile(DATAFTX + 'x'));
         DataOutput outY = new DataOutput(data.meta.dbfile(DATAFTX + 'y'));
@@ -112,8 +248,9 @@ public final class FTBuilder extends IndexBuilder {
       final IntList ind = new IntList();
 
       // open all temporary sorted lists
-      final FTList[] v = new FTList[splits];
-      for(int b = 0; b < splits; ++b) v[b] = new FTList(data, b);
+      final int fs = files.size();
+      final FTList[] v = new FTList[fs];
+      for(int b = 0; b < fs; ++b) v[b] = new FTList(data, files.get(b));
 
       final IntList il = new IntList();
       while(check(v)) {
@@ -121,7 +258,7 @@ public final class FTBuilder extends IndexBuilder {
         int m = 0;
         il.add(m);
         // find next token to write on disk
-        for(int i = 0; i < splits; ++i) {
+        for(int i = 0; i < fs; ++i) {
           if(m == i || v[i].tok.length == 0) continue;
           final int l = v[i].tok.length - v[m].tok.length;
           final int d = diff(v[m].tok, v[i].tok);
@@ -148,6 +285,7 @@ public final class FTBuilder extends IndexBuilder {
       }
       writeInd(outX, ind, ind.get(ind.size() - 2) + 1, (int) outY.size());
     }
+    merged(start);
   }
 
   /**
@@ -172,22 +310,26 @@ public final class FTBuilder extends IndexBuilder {
   }
 
   /**
-   * Writes the current index to disk.
-   * @param partial partial flag
+   * Writes index trees to disk.
+   * @param trees index trees
+   * @param index number of partial indexes that have already been written for the trees
+   * @param split id of a partial index, or {@code -1}
    * @throws IOException I/O exception
    */
-  private void writeIndex(final boolean partial) throws IOException {
-    final String name = DATAFTX + (partial ? splits : "");
+  private void writeIndex(final FTIndexTrees trees, final int index, final int split)
+      throws IOException {
+
+    final String name = DATAFTX + (split != -1 ? split : "");
     try(DataOutput outX = new DataOutput(data.meta.dbfile(name + 'x'));
         DataOutput outY = new DataOutput(data.meta.dbfile(name + 'y'));
         DataOutput outZ = new DataOutput(data.meta.dbfile(name + 'z'))) {
 
       final IntList ind = new IntList();
-      tree.init();
+      trees.init();
       long dr = 0;
       int tr = 0, j = 0;
-      while(tree.more(splits)) {
-        final FTIndexTree t = tree.nextTree();
+      while(trees.more(index)) {
+        final FTIndexTree t = trees.nextTree();
         t.next();
         final byte[] key = t.nextTok();
 
@@ -210,10 +352,7 @@ public final class FTBuilder extends IndexBuilder {
       }
       writeInd(outX, ind, ++j, tr);
     }
-    tree.initFT();
-
-    // increase split counter
-    splits++;
+    trees.initFT();
   }
 
   /**
@@ -6,6 +6,7 @@ import static org.basex.util.Token.*;
 import static org.basex.util.ft.FTFlag.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
@@ -46,6 +47,9 @@ import org.basex.util.similarity.*;
  *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
  * </ul>
  *
+ * <p>If the index is updatable, ids are stored instead of pre values, and updates are
+ * stored in an additional file with the suffix <b>u</b> (see {@link FTUpdates}).</p>
+ *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  */
@@ -70,6 +74,10 @@ public final class FTIndex extends ValueIndex {
   private final IndexCache cache = new IndexCache();
   /** Token positions. */
   private final int[] tp;
+  /** Incremental updates ({@code null} if the index is not updatable). */
+  private final FTUpdates updates;
+  /** Lexer for tokenizing updated texts (lazy instantiation). */
+  private FTLexer lexer;
 
   /**
    * Constructor, initializing the index structure.
@@ -100,6 +108,7 @@ public final class FTIndex extends ValueIndex {
       tp[p] = r;
     }
     tp[tl - 1] = (int) inY.length();
+    updates = data.meta.updindex ? new FTUpdates(data.meta.dbfile(DATAFTX + 'u')) : null;
   }
 
   @Override
@@ -111,7 +120,7 @@ public final class FTIndex extends ValueIndex {
     final FTOpt opt = ((FTLexer) it).ftOpt();
     if(opt.is(FZ) || opt.is(WC)) return Math.max(1, data.meta.size >> 4);
 
-    return entry(tok).size;
+    return entry(tok).size + (updates != null ? updates.size(tok) : 0);
   }
 
   @Override
@@ -128,7 +137,13 @@ public final class FTIndex extends ValueIndex {
 
     // return cached or new result
     final IndexEntry e = entry(tok);
-    return e.size > 0 ? iter(e.offset, e.size, inZ, tok) : FTIndexIterator.FTEMPTY;
+    if(updates == null) {
+      return e.size > 0 ? iter(e.offset, e.size, inZ, tok) : FTIndexIterator.FTEMPTY;
+    }
+    final IntList pr = new IntList(), ps = new IntList();
+    updates.add(tok, pr, ps);
+    return e.size == 0 ? iter(pr, ps, tok) : merge(e.offset, e.size, pr.isEmpty() ?
+      FTIndexIterator.FTEMPTY : iter(pr, ps, tok), tok);
   }
 
   /**
@@ -236,6 +251,7 @@ public final class FTIndex extends ValueIndex {
 
   @Override
   public synchronized void close() {
+    flush();
     inX.close();
     inY.close();
     inZ.close();
@@ -334,7 +350,40 @@ public final class FTIndex extends ValueIndex {
    * @return iterator
    */
   private synchronized IndexIterator fuzzy(final byte[] token, final int k) {
+    final IntList entries = similar(token, k);
+    final int es = entries.size();
+    if(updates != null) {
+      final IntList pr = new IntList(), ps = new IntList();
+      for(int e = 0; e < es; e += 2) {
+        final int p = entries.get(e), s = entries.get(e + 1);
+        read(pointer(p, s), size(p, s), pr, ps);
+      }
+      updates.filter(pr, ps);
+      for(final byte[] t : updates.tokens()) {
+        if(t != null && ls.similar(t, token, k)) updates.add(t, pr, ps);
+      }
+      return iter(pr, ps, token);
+    }
+
     FTIndexIterator it = FTIndexIterator.FTEMPTY;
+    for(int e = 0; e < es; e += 2) {
+      final int p = entries.get(e), s = entries.get(e + 1);
+      it = FTIndexIterator.union(iter(pointer(p, s), size(p, s), inZ, token), it);
+    }
+    return it;
+  }
+
+  /**
+   * Returns the index entries that are similar to the specified token.
+   * The sorted entries of each token length are traversed with a Levenshtein automaton;
+   * entries that start with a non-matching prefix are skipped via binary search.
+   * @param token token to look for
+   * @param k number of errors allowed
+   * @return pointers and lengths of the similar entries
+   */
+  private IntList similar(final byte[] token, final int k) {
+    final IntList entries = new IntList();
+    final LevenshteinAutomaton la = LevenshteinAutomaton.get(token, k);
     final int tokl = token.length, tl = tp.length;
     final int e = Math.min(tl - 1, tokl + k);
     int s = Math.max(1, tokl - k) - 1;
@@ -345,13 +394,13 @@ public final class FTIndex extends ValueIndex {
       int t = s + 1, r = -1;
       while(t < tl && r == -1) r = tp[t++];
       while(p < r) {
-        if(ls.similar(inY.readBytes(p, s), token, k)) {
-          it = FTIndexIterator.union(iter(pointer(p, s), size(p, s), inZ, token), it);
-        }
-        p += s + ENTRY;
+        final byte[] entry = inY.readBytes(p, s);
+        final int m = la != null ? la.match(entry) : ls.similar(entry, token, k) ? 0 : -1;
+        if(m == 0) entries.add(p).add(s);
+        p = m > 0 ? skip(entry, m, p, r, s) : p + s + ENTRY;
       }
     }
-    return it;
+    return entries;
   }
 
   /**
@@ -369,7 +418,7 @@ public final class FTIndex extends ValueIndex {
     final byte[] pref = wc.prefix();
     final int pl = pref.length, tl = tp.length;
     final int l = Math.min(tl - 1, wc.max());
-    for(int ti = pl; ti <= l; ti++) {
+    for(int ti = Math.max(pl, wc.min()); ti <= l; ti++) {
       int i = tp[ti];
       if(i == -1) continue;
       int c = ti + 1;
@@ -381,19 +430,172 @@ public final class FTIndex extends ValueIndex {
         final byte[] t = inY.readBytes(i, ti);
         if(!startsWith(t, pref)) break;
         if(wc.match(t)) {
-          inZ.cursor(pointer(i, ti));
-          final int s = size(i, ti);
-          for(int d = 0; d < s; d++) {
-            pr.add(inZ.readNum());
-            ps.add(inZ.readNum());
-          }
+          read(pointer(i, ti), size(i, ti), pr, ps);
+          i += ti + ENTRY;
+        } else {
+          final int m = wc.mismatch(t);
+          i = m > 0 ? skip(t, m, i, e, ti) : i + ti + ENTRY;
         }
-        i += ti + ENTRY;
       }
     }
+    if(updates == null) return iter(new FTCache(pr, ps), token);
+
+    updates.filter(pr, ps);
+    for(final byte[] t : updates.tokens()) {
+      if(t != null && wc.match(t)) updates.add(t, pr, ps);
+    }
+    return iter(pr, ps, token);
+  }
+
+  /**
+   * Skips all entries that start with the specified prefix.
+   * @param entry current entry
+   * @param length length of the prefix
+   * @param start position of the current entry
+   * @param end end position
+   * @param ti entry length
+   * @return position of the first entry that does not start with the prefix
+   */
+  private int skip(final byte[] entry, final int length, final int start, final int end,
+      final int ti) {
+    // compute smallest token that is greater than all tokens with the prefix
+    int l = length;
+    while(--l >= 0 && entry[l] == (byte) 0xFF);
+    if(l < 0) return end;
+    final byte[] next = Arrays.copyOf(entry, l + 1);
+    next[l]++;
+    return Math.min(end, find(next, start, end, ti));
+  }
+
+  /**
+   * Reads the id/pos entries of an index entry.
+   * @param off offset on entries
+   * @param size number of id/pos entries
+   * @param pr list for ids
+   * @param ps list for positions
+   */
+  private void read(final long off, final int size, final IntList pr, final IntList ps) {
+    inZ.cursor(off);
+    for(int c = 0; c < size; c++) {
+      pr.add(inZ.readNum());
+      ps.add(inZ.readNum());
+    }
+  }
+
+  /**
+   * Returns an iterator for the entries of an updatable index.
+   * @param pr ids (will be replaced with pre values)
+   * @param ps positions
+   * @param token index token
+   * @return iterator
+   */
+  private FTIndexIterator iter(final IntList pr, final IntList ps, final byte[] token) {
+    final int s = pr.size();
+    if(s == 0) return FTIndexIterator.FTEMPTY;
+    for(int i = 0; i < s; i++) pr.set(i, data.pre(pr.get(i)));
     return iter(new FTCache(pr, ps), token);
   }
 
+  /**
+   * Returns an iterator that merges the entries of the main index with the new entries of
+   * an updatable index. The entries of the main index are read on demand, and entries of
+   * deleted texts are skipped. As updates never change the relative order of existing nodes,
+   * the pre values of the main index entries are still sorted.
+   * @param off offset on entries
+   * @param size number of id/pos entries
+   * @param delta iterator for the new entries
+   * @param token index token
+   * @return iterator
+   */
+  private FTIndexIterator merge(final long off, final int size, final FTIndexIterator delta,
+      final byte[] token) {
+
+    final FTIndexIterator main = new FTIndexIterator() {
+      final FTMatches all = new FTMatches();
+      long o = off;
+      int pos, pre, c, id, ps;
+      boolean next = next();
+
+      @Override
+      public synchronized boolean more() {
+        if(!next) return false;
+        all.reset(pos);
+        pre = data.pre(id);
+        all.or(ps);
+        while((next = next()) && data.pre(id) == pre) all.or(ps);
+        return true;
+      }
+
+      /**
+       * Reads the next entry of a text that has not been deleted.
+       * @return result of check
+       */
+      private boolean next() {
+        while(c++ < size) {
+          id = inZ.readNumAt(o);
+          o += Num.length(id);
+          ps = inZ.readNumAt(o);
+          o += Num.length(ps);
+          if(!updates.deleted(id)) return true;
+        }
+        return false;
+      }
+
+      @Override
+      public synchronized FTMatches matches() {
+        return all;
+      }
+
+      @Override
+      public synchronized int pre() {
+        return pre;
+      }
+
+      @Override
+      public void pos(final int p) {
+        pos = p;
+      }
+
+      @Override
+      public synchronized int size() {
+        return size;
+      }
+    };
+
+    final FTIndexIterator it = FTIndexIterator.union(main, delta);
+    return new FTIndexIterator() {
+      @Override
+      public boolean more() {
+        return it.more();
+      }
+
+      @Override
+      public FTMatches matches() {
+        return it.matches();
+      }
+
+      @Override
+      public int pre() {
+        return it.pre();
+      }
+
+      @Override
+      public void pos(final int p) {
+        it.pos(p);
+      }
+
+      @Override
+      public int size() {
+        return it.size();
+      }
+
+      @Override
+      public String toString() {
+        return new TokenBuilder(token).add('(').addExt(size()).add("x)").toString();
+      }
+    };
+  }
+
   /**
    * Returns an iterator for an index entry.
    * @param off offset on entries
@@ -431,14 +633,26 @@ public final class FTIndex extends ValueIndex {
       public synchronized boolean more() {
         if(c == size) return false;
         all.reset(pos);
-        pre = ftc.pre.get(ftc.order[c]);
-        all.or(ftc.pos.get(ftc.order[c++]));
-        while(c < size && pre == ftc.pre.get(ftc.order[c])) {
-          all.or(ftc.pos.get(ftc.order[c++]));
-        }
+        pre = ftc.pre(c);
+        all.or(ftc.pos(c++));
+        while(c < size && pre == ftc.pre(c)) all.or(ftc.pos(c++));
         return true;
       }
 
+      @Override
+      public synchronized boolean skip(final int target) {
+        if(ftc.order != null) return super.skip(target);
+        // binary search for the first entry with an equal or larger pre value
+        int l = c, h = size - 1;
+        while(l <= h) {
+          final int m = l + h >>> 1;
+          if(ftc.pre.get(m) < target) l = m + 1;
+          else h = m - 1;
+        }
+        c = l;
+        return more();
+      }
+
       @Override
       public synchronized FTMatches matches() {
         return all;
@@ -470,7 +684,7 @@ public final class FTIndex extends ValueIndex {
    * Full-text cache.
    */
   private static final class FTCache {
-    /** Order. */
+    /** Order ({@code null} if the entries are already sorted). */
     private final int[] order;
     /** Pre values. */
     private final IntList pre;
@@ -484,24 +698,124 @@ public final class FTIndex extends ValueIndex {
      */
     private FTCache(final IntList pr, final IntList ps) {
       final int s = pr.size();
-      final double[] v = new double[s];
-      for(int i = 0; i < s; i++) v[i] = (long) pr.get(i) << 32 | ps.get(i);
-      order = Array.createOrder(v, true);
+      // entries of single index terms are sorted by pre values and positions
+      int i = 1;
+      while(i < s && (pr.get(i - 1) < pr.get(i) ||
+          pr.get(i - 1) == pr.get(i) && ps.get(i - 1) <= ps.get(i))) i++;
+      if(i < s) {
+        final long[] v = new long[s];
+        for(int j = 0; j < s; j++) v[j] = (long) pr.get(j) << 32 | ps.get(j);
+        order = Array.createOrder(v, true);
+      } else {
+        order = null;
+      }
       pre = pr;
       pos = ps;
     }
+
+    /**
+     * Returns the pre value of the specified entry.
+     * @param c index of the entry in the resulting order
+     * @return pre value
+     */
+    private int pre(final int c) {
+      return pre.get(order == null ? c : order[c]);
+    }
+
+    /**
+     * Returns the position of the specified entry.
+     * @param c index of the entry in the resulting order
+     * @return position
+     */
+    private int pos(final int c) {
+      return pos.get(order == null ? c : order[c]);
+    }
+  }
+
+  /**
+   * Indicates if the index has been incrementally updated.
+   * @return result of check
+   */
+  public synchronized boolean updated() {
+    return updates != null && updates.updated();
   }
 
   @Override
-  public void add(final ValueCache vc) {
-    throw Util.notExpected();
+  public synchronized void add(final ValueCache vc) {
+    if(updates == null) throw Util.notExpected();
+    for(final byte[] text : vc) {
+      final IntList ids = vc.ids(text);
+      final int is = ids.size();
+      int pos = -1;
+      for(final FTLexer lex = lexer().init(text); lex.hasNext();) {
+        final byte[] tok = lex.nextToken();
+        ++pos;
+        if(index(tok)) {
+          for(int i = 0; i < is; i++) updates.add(tok, ids.get(i), pos);
+        }
+      }
+    }
+    log();
   }
 
   @Override
-  public void delete(final ValueCache vc) {
-    throw Util.notExpected();
+  public synchronized void delete(final ValueCache vc) {
+    if(updates == null) throw Util.notExpected();
+    for(final byte[] text : vc) {
+      final IntList ids = vc.ids(text);
+      final int is = ids.size();
+      for(int i = 0; i < is; i++) updates.delete(ids.get(i));
+      for(final FTLexer lex = lexer().init(text); lex.hasNext();) {
+        final byte[] tok = lex.nextToken();
+        if(index(tok)) {
+          for(int i = 0; i < is; i++) updates.delete(tok, ids.get(i));
+        }
+      }
+    }
+    log();
   }
 
   @Override
-  public void flush() { }
+  public synchronized void flush() {
+    if(updates == null) return;
+    try {
+      updates.write();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  /**
+   * Persists the latest changes of the updatable index.
+   */
+  private void log() {
+    try {
+      updates.log();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  /**
+   * Returns a lexer with the full-text options of the database.
+   * @return lexer
+   */
+  private FTLexer lexer() {
+    if(lexer == null) {
+      final StopWords sw = new StopWords();
+      sw.comp(data);
+      lexer = new FTLexer(FTBuilder.options(data, sw));
+    }
+    return lexer;
+  }
+
+  /**
+   * Checks if the specified token is indexed (i.e., if it is no stop word and not too long).
+   * @param token token
+   * @return result of check
+   */
+  private boolean index(final byte[] token) {
+    final StopWords sw = lexer.ftOpt().sw;
+    return token.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(token));
+  }
 }
@@ -46,13 +46,17 @@ final class FTIndexTree extends IndexTree {
     if(os == keys.size()) {
       final int i = index > 0 ? maps.get(Num.num(n)) : n;
       if(poss.size() > i && poss.get(i) != null) {
-        poss.set(i, Num.add(poss.get(i), pos));
+        final byte[] old = poss.get(i), ps = Num.add(old, pos);
+        poss.set(i, ps);
         numpre.set(i, numpre.get(i) + 1);
+        idMemory += ps.length - old.length;
         return;
       }
     }
-    poss.add(Num.newNum(pos));
+    final byte[] ps = Num.newNum(pos);
+    poss.add(ps);
     numpre.add(1);
+    idMemory += ps.length + ARRAY + 4;
   }
 
   /**
@@ -63,6 +67,17 @@ final class FTIndexTree extends IndexTree {
     ids = new TokenList(FACTOR);
     numpre = new IntList(FACTOR);
     maps = new TokenIntMap();
+    idMemory = 0;
+  }
+
+  /**
+   * Returns the estimated main memory consumption of the id and position lists.
+   * The keys are not considered, as they will be kept when a partial index is written.
+   * @return number of bytes
+   */
+  @Override
+  public long memory() {
+    return idMemory;
   }
 
   /**
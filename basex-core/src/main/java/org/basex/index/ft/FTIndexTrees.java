@@ -35,6 +35,16 @@ final class FTIndexTrees {
     trees[tl].add(token, pre, pos, index);
   }
 
+  /**
+   * Returns the estimated main memory consumption of the full-text data.
+   * @return number of bytes
+   */
+  long memory() {
+    long mem = 0;
+    for(final FTIndexTree tree : trees) if(tree != null) mem += tree.memory();
+    return mem;
+  }
+
   /**
    * Initializes all trees for adding new full-text data.
    */
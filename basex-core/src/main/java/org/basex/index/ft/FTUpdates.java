@@ -0,0 +1,254 @@
+package org.basex.index.ft;
+
+import java.io.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This class stores incremental updates of the full-text index. Index entries of new texts are
+ * kept in main memory, and the ids of updated and deleted texts are registered as tombstones,
+ * which hide the obsolete entries of the main index. The updates are written to a separate
+ * index file and merged with the main index when the index is rebuilt.
+ *
+ * The index file contains the number and ids of the tombstones, the number of tokens, and
+ * the tokens with their interleaved ids and positions:
+ * {@code n, id1, ..., idn, t, (token, s, id1, pos1, ...) ...}
+ *
+ * The changes of each update are appended to the file as log records, which are replayed
+ * when the file is read. The file is compacted when the database is flushed:
+ * {@code (ADD, token, id, pos | REMOVE, token, id | DELETE, id) ...}
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class FTUpdates {
+  /** Log record: new index entry. */
+  private static final int ADD = 1;
+  /** Log record: removed index entry. */
+  private static final int REMOVE = 2;
+  /** Log record: tombstone. */
+  private static final int DELETE = 3;
+
+  /** Ids and positions of new tokens (interleaved). */
+  private final TokenObjMap<IntList> tokens = new TokenObjMap<>();
+  /** Ids of texts whose entries in the main index are obsolete. */
+  private final IntSet deleted = new IntSet();
+  /** Index file. */
+  private final IOFile file;
+  /** Log records that have not been written yet (record type, id, position). */
+  private final IntList log = new IntList();
+  /** Tokens of the log records that have not been written yet. */
+  private final TokenList logTokens = new TokenList();
+  /** Indicates if the index file needs to be compacted. */
+  private boolean dirty;
+
+  /**
+   * Constructor.
+   * @param file index file
+   * @throws IOException I/O exception
+   */
+  FTUpdates(final IOFile file) throws IOException {
+    this.file = file;
+    if(!file.exists()) return;
+
+    try(DataInput in = new DataInput(file)) {
+      for(final int id : in.readNums()) deleted.add(id);
+      for(int t = in.readNum(); t > 0; t--) {
+        final byte[] token = in.readToken();
+        tokens.put(token, new IntList(in.readNums()));
+      }
+      // replay log records
+      for(int r; (r = in.read()) > 0;) {
+        if(r == DELETE) {
+          delete(in.readNum());
+        } else {
+          final byte[] token = in.readToken();
+          final int id = in.readNum();
+          if(r == ADD) add(token, id, in.readNum());
+          else delete(token, id);
+        }
+      }
+    }
+    // replayed records are already stored: compact file with the next write
+    log.reset();
+    logTokens.reset();
+  }
+
+  /**
+   * Adds an index entry.
+   * @param token token
+   * @param id id
+   * @param pos position
+   */
+  void add(final byte[] token, final int id, final int pos) {
+    IntList list = tokens.get(token);
+    if(list == null) {
+      list = new IntList(2);
+      tokens.put(token, list);
+    }
+    list.add(id).add(pos);
+    log.add(ADD).add(id).add(pos);
+    logTokens.add(token);
+    dirty = true;
+  }
+
+  /**
+   * Deletes the index entries of a text.
+   * @param token token
+   * @param id id
+   */
+  void delete(final byte[] token, final int id) {
+    final IntList list = tokens.get(token);
+    if(list == null) return;
+    final int ls = list.size();
+    int s = 0;
+    for(int l = 0; l < ls; l += 2) {
+      if(list.get(l) == id) continue;
+      list.set(s++, list.get(l));
+      list.set(s++, list.get(l + 1));
+    }
+    list.size(s);
+    log.add(REMOVE).add(id);
+    logTokens.add(token);
+    dirty = true;
+  }
+
+  /**
+   * Invalidates all entries of the specified text in the main index.
+   * @param id id
+   */
+  void delete(final int id) {
+    deleted.add(id);
+    log.add(DELETE).add(id);
+    dirty = true;
+  }
+
+  /**
+   * Checks if the entries of the specified text in the main index are obsolete.
+   * @param id id
+   * @return result of check
+   */
+  boolean deleted(final int id) {
+    return deleted.contains(id);
+  }
+
+  /**
+   * Removes invalidated entries from the results of the main index.
+   * @param ids ids
+   * @param pos positions
+   */
+  void filter(final IntList ids, final IntList pos) {
+    if(deleted.isEmpty()) return;
+    final int is = ids.size();
+    int s = 0;
+    for(int i = 0; i < is; i++) {
+      final int id = ids.get(i);
+      if(deleted.contains(id)) continue;
+      ids.set(s, id);
+      pos.set(s++, pos.get(i));
+    }
+    ids.size(s);
+    pos.size(s);
+  }
+
+  /**
+   * Adds the new entries of the specified token to the results.
+   * @param token token
+   * @param ids ids
+   * @param pos positions
+   */
+  void add(final byte[] token, final IntList ids, final IntList pos) {
+    final IntList list = tokens.get(token);
+    if(list == null) return;
+    final int ls = list.size();
+    for(int l = 0; l < ls; l += 2) {
+      ids.add(list.get(l));
+      pos.add(list.get(l + 1));
+    }
+  }
+
+  /**
+   * Returns the number of new entries of the specified token.
+   * @param token token
+   * @return number of entries
+   */
+  int size(final byte[] token) {
+    final IntList list = tokens.get(token);
+    return list == null ? 0 : list.size() >> 1;
+  }
+
+  /**
+   * Returns all tokens with new entries.
+   * @return tokens
+   */
+  Iterable<byte[]> tokens() {
+    return tokens;
+  }
+
+  /**
+   * Indicates if the main index has been updated.
+   * @return result of check
+   */
+  boolean updated() {
+    if(!deleted.isEmpty()) return true;
+    for(final IntList list : tokens.values()) {
+      if(list != null && !list.isEmpty()) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Appends the log records of the latest changes to the index file.
+   * @throws IOException I/O exception
+   */
+  void log() throws IOException {
+    if(log.isEmpty()) return;
+    if(!file.exists()) {
+      write();
+      return;
+    }
+    try(DataOutput out = new DataOutput(new FileOutputStream(file.file(), true))) {
+      final int ls = log.size();
+      for(int l = 0, t = 0; l < ls;) {
+        final int r = log.get(l++);
+        out.write(r);
+        if(r != DELETE) out.writeToken(logTokens.get(t++));
+        out.writeNum(log.get(l++));
+        if(r == ADD) out.writeNum(log.get(l++));
+      }
+    }
+    log.reset();
+    logTokens.reset();
+  }
+
+  /**
+   * Writes the compacted updates to disk, or deletes the index file if no updates exist.
+   * @throws IOException I/O exception
+   */
+  void write() throws IOException {
+    if(!dirty) return;
+    if(updated()) {
+      try(DataOutput out = new DataOutput(file)) {
+        out.writeNums(deleted.toArray());
+        final TokenList keys = new TokenList();
+        for(final byte[] token : tokens) {
+          if(token != null && size(token) > 0) keys.add(token);
+        }
+        out.writeNum(keys.size());
+        for(final byte[] token : keys) {
+          out.writeToken(token);
+          out.writeNums(tokens.get(token).toArray());
+        }
+      }
+    } else {
+      file.delete();
+    }
+    log.reset();
+    logTokens.reset();
+    dirty = false;
+  }
+}
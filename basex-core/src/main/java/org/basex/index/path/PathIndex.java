@@ -1,5 +1,6 @@
 package org.basex.index.path;
 
+import static org.basex.data.DataText.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
@@ -10,6 +11,7 @@ import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
+import org.basex.io.*;
 import org.basex.io.in.DataInput;
 import org.basex.io.out.DataOutput;
 import org.basex.util.*;
@@ -19,6 +21,11 @@ import org.basex.util.list.*;
  * This class stores the path summary of a database.
  * It contains all unique location paths.
  *
+ * If {@link MetaData#pathlists} is enabled, the pre values of all nodes on a path are
+ * stored as well. The lists are written to a separate file, which is read when the lists
+ * are requested for the first time. They are only valid as long as the database is
+ * up-to-date, i.e., until the database is updated and optimized again.
+ *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  */
@@ -29,6 +36,12 @@ public final class PathIndex implements Index {
   private Data data;
   /** Root node. */
   private PathNode root;
+  /** Pre value of the next node to be indexed. */
+  private int pre;
+  /** Indicates if the pre values of the nodes are stored. */
+  private boolean lists;
+  /** Indicates if the node lists have been built, but not yet written. */
+  private boolean dirty;
 
   /**
    * Constructor.
@@ -66,6 +79,17 @@ public final class PathIndex implements Index {
   public void write(final DataOutput out) throws IOException {
     out.writeBool(root != null);
     if(root != null) root.write(out, data.meta);
+
+    // write new node lists, or delete obsolete lists
+    final IOFile file = data.meta.dbfile(DATAPTL);
+    if(dirty) {
+      try(DataOutput lout = new DataOutput(file)) {
+        root.writePres(lout);
+      }
+      dirty = false;
+    } else if(!valid()) {
+      file.delete();
+    }
   }
 
   /**
@@ -80,9 +104,20 @@ public final class PathIndex implements Index {
    * Initializes the index.
    */
   public void init() {
+    init(false);
+  }
+
+  /**
+   * Initializes the index.
+   * @param pres store the pre values of the nodes on each path
+   */
+  public void init(final boolean pres) {
     root = new PathNode();
     stack.clear();
     stack.add(root);
+    pre = 0;
+    lists = pres;
+    dirty = pres;
   }
 
   @Override
@@ -111,14 +146,19 @@ public final class PathIndex implements Index {
   public void index(final int name, final byte kind, final int level, final byte[] value,
       final MetaData meta) {
 
+    final PathNode node;
     if(level == 0) {
+      node = root;
       final Stats stats = root.stats;
       if(value != null) stats.add(value, meta);
       stats.count++;
     } else {
       while(level >= stack.size()) stack.add(null);
-      stack.set(level, stack.get(level - 1).index(name, kind, value, meta));
+      node = stack.get(level - 1).index(name, kind, value, meta);
+      stack.set(level, node);
     }
+    if(lists) node.add(pre);
+    pre++;
   }
 
   // Traverse Index ===========================================================
@@ -235,6 +275,49 @@ public final class PathIndex implements Index {
     return list;
   }
 
+  /**
+   * Checks if the node lists are available. If necessary, the lists will be read from disk.
+   * @return result of check
+   */
+  public synchronized boolean lists() {
+    if(!valid()) return false;
+    if(!lists && !data.inMemory()) {
+      final IOFile file = data.meta.dbfile(DATAPTL);
+      if(file.exists()) {
+        try(DataInput in = new DataInput(file)) {
+          root.readPres(in);
+          lists = true;
+        } catch(final IOException ex) {
+          Util.debug(ex);
+        }
+      }
+    }
+    return lists;
+  }
+
+  /**
+   * Returns an iterator for the pre values of all nodes on the specified paths.
+   * The pre values are returned in ascending order.
+   * Must only be called if {@link #lists()} returns {@code true}.
+   * @param nodes path nodes
+   * @return iterator
+   */
+  public static IndexIterator iter(final ArrayList<PathNode> nodes) {
+    final int ns = nodes.size();
+    if(ns == 1) return nodes.get(0).iter();
+    final IndexIterator[] iters = new IndexIterator[ns];
+    for(int n = 0; n < ns; n++) iters[n] = nodes.get(n).iter();
+    return IndexIterator.union(iters);
+  }
+
+  /**
+   * Checks if stored node lists are valid.
+   * @return result of check
+   */
+  private boolean valid() {
+    return data.meta.pathlists && data.meta.uptodate;
+  }
+
   // Info =====================================================================
 
   @Override
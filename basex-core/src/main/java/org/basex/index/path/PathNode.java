@@ -7,6 +7,7 @@ import java.util.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
+import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.io.in.DataInput;
 import org.basex.io.out.DataOutput;
@@ -29,6 +30,10 @@ public final class PathNode {
   public PathNode[] children;
   /** Node kind. */
   public final Stats stats;
+  /** Pre values of the nodes on this path, compressed and delta-encoded (can be {@code null}). */
+  byte[] pres;
+  /** Last pre value that has been added. */
+  private int last;
 
   /** Empty element flag,assigned during index construction.
    *  0: no empty elements;
@@ -158,6 +163,67 @@ public final class PathNode {
     for(final PathNode child : children) child.write(out, meta);
   }
 
+  /**
+   * Adds the pre value of a node on this path.
+   * @param pre pre value (larger than the last added value)
+   */
+  void add(final int pre) {
+    pres = pres == null ? Num.newNum(pre) : Num.add(pres, pre - last);
+    last = pre;
+  }
+
+  /**
+   * Recursively writes the pre values of this node and its descendants.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  void writePres(final DataOutput out) throws IOException {
+    out.writeToken(pres == null ? Token.EMPTY : Arrays.copyOf(pres, Num.size(pres)));
+    for(final PathNode child : children) child.writePres(out);
+  }
+
+  /**
+   * Recursively reads the pre values of this node and its descendants.
+   * @param in input stream
+   * @throws IOException I/O exception
+   */
+  void readPres(final DataInput in) throws IOException {
+    final byte[] token = in.readToken();
+    pres = token.length == 0 ? null : token;
+    for(final PathNode child : children) child.readPres(in);
+  }
+
+  /**
+   * Returns an iterator for the pre values of the nodes on this path.
+   * @return iterator
+   */
+  IndexIterator iter() {
+    if(pres == null) return IndexIterator.EMPTY;
+    final byte[] p = pres;
+    final int end = Num.size(p);
+    return new IndexIterator() {
+      int pos = 4, pre;
+
+      @Override
+      public boolean more() {
+        if(pos >= end) return false;
+        pre += Num.get(p, pos);
+        pos += Num.length(p, pos);
+        return true;
+      }
+
+      @Override
+      public int pre() {
+        return pre;
+      }
+
+      @Override
+      public int size() {
+        return stats.count;
+      }
+    };
+  }
+
   /**
    * Recursively adds the node and its descendants to the specified list.
    * @param nodes node list
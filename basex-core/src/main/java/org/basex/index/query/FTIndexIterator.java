@@ -8,7 +8,7 @@ import org.basex.query.util.ft.*;
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  */
-public abstract class FTIndexIterator implements IndexIterator {
+public abstract class FTIndexIterator extends IndexIterator {
   /** Empty iterator. */
   public static final FTIndexIterator FTEMPTY = new FTIndexIterator() {
     @Override
@@ -104,8 +104,15 @@ public abstract class FTIndexIterator implements IndexIterator {
       public boolean more() {
         int d = 0;
         while(true) {
-          if(d <= 0) ii1 = i1.more() ? i1 : null;
-          if(d >= 0) ii2 = i2.more() ? i2 : null;
+          // advance both iterators, or skip the results of the iterator with the smaller value
+          if(d < 0) {
+            ii1 = i1.skip(ii2.pre()) ? i1 : null;
+          } else if(d > 0) {
+            ii2 = i2.skip(ii1.pre()) ? i2 : null;
+          } else {
+            ii1 = i1.more() ? i1 : null;
+            ii2 = i2.more() ? i2 : null;
+          }
           if(ii1 == null || ii2 == null) return false;
           d = ii1.pre() - ii2.pre();
           if(d != 0) continue;
@@ -1,14 +1,16 @@
 package org.basex.index.query;
 
+import java.util.*;
+
 /**
  * Iterator for returning index results.
  *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  */
-public interface IndexIterator {
+public abstract class IndexIterator {
   /** Empty iterator. */
-  IndexIterator EMPTY = new IndexIterator() {
+  public static final IndexIterator EMPTY = new IndexIterator() {
     @Override
     public boolean more() { return false; }
     @Override
@@ -18,20 +20,155 @@ public interface IndexIterator {
   };
 
   /**
-   * Returns true if more results can be returned.
-   * @return size
+   * Advances to the next result.
+   * @return true if more results can be returned
    */
-  boolean more();
+  public abstract boolean more();
 
   /**
-   * Returns the next pre value.
+   * Returns the current pre value. Must only be called after {@link #more()} or
+   * {@link #skip(int)} has returned {@code true}. The iterator must not be advanced by this
+   * method: repeated calls return the same value.
    * @return result
    */
-  int pre();
+  public abstract int pre();
 
   /**
    * Returns an approximate number of index results.
    * @return result approximate number of results
    */
-  int size();
+  public abstract int size();
+
+  /**
+   * Advances to the next result that is equal to or greater than the specified pre value.
+   * Can be called instead of {@link #more()} if results are returned in ascending order.
+   * By default, results are skipped one by one; iterators with skip pointers can overwrite
+   * this method.
+   * @param pre pre value
+   * @return true if a result was found
+   */
+  public boolean skip(final int pre) {
+    while(more()) {
+      if(pre() >= pre) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Merges the results of several iterators, which return their pre values in ascending order.
+   * Duplicate pre values are returned only once.
+   * @param iters iterators
+   * @return iterator
+   */
+  public static IndexIterator union(final IndexIterator... iters) {
+    final int il = iters.length;
+    return new IndexIterator() {
+      /** Next pre values of the iterators ({@link Integer#MAX_VALUE}: no more results). */
+      int[] pres;
+      /** Current pre value ({@code -1}: no result has been returned yet). */
+      int pre = -1;
+
+      @Override
+      public boolean more() {
+        return skip(0);
+      }
+
+      @Override
+      public boolean skip(final int target) {
+        if(pres == null) {
+          pres = new int[il];
+          for(int i = 0; i < il; i++) pres[i] = next(iters[i], target);
+        } else {
+          // advance iterators that returned the current, or a smaller pre value
+          for(int i = 0; i < il; i++) {
+            if(pres[i] == pre || pres[i] < target) pres[i] = next(iters[i], target);
+          }
+        }
+        int min = Integer.MAX_VALUE;
+        for(final int p : pres) min = Math.min(min, p);
+        pre = min;
+        return min != Integer.MAX_VALUE;
+      }
+
+      @Override
+      public int pre() {
+        return pre;
+      }
+
+      @Override
+      public int size() {
+        long size = 0;
+        for(final IndexIterator iter : iters) size += iter.size();
+        return (int) Math.min(Integer.MAX_VALUE, size);
+      }
+
+      /**
+       * Returns the next pre value of an iterator that is equal to or greater than the target.
+       * @param iter iterator
+       * @param target target pre value
+       * @return pre value or {@link Integer#MAX_VALUE}
+       */
+      private int next(final IndexIterator iter, final int target) {
+        return iter.skip(target) ? iter.pre() : Integer.MAX_VALUE;
+      }
+    };
+  }
+
+  /**
+   * Intersects the results of several iterators, which return their pre values in ascending order.
+   * Iterators with smaller pre values are advanced via {@link #skip(int)}. The most selective
+   * iterator should be supplied first.
+   * @param iters iterators
+   * @return iterator
+   */
+  public static IndexIterator intersect(final IndexIterator... iters) {
+    final int il = iters.length;
+    final int[] pres = new int[il];
+    Arrays.fill(pres, -1);
+    return new IndexIterator() {
+      @Override
+      public boolean more() {
+        return iters[0].more() && align();
+      }
+
+      @Override
+      public boolean skip(final int target) {
+        return iters[0].skip(target) && align();
+      }
+
+      @Override
+      public int pre() {
+        return pres[0];
+      }
+
+      @Override
+      public int size() {
+        int size = Integer.MAX_VALUE;
+        for(final IndexIterator iter : iters) size = Math.min(size, iter.size());
+        return size;
+      }
+
+      /**
+       * Advances all iterators until they return the same pre value.
+       * @return true if a common pre value was found
+       */
+      private boolean align() {
+        pres[0] = iters[0].pre();
+        for(int i = 1; i < il;) {
+          if(pres[i] < pres[0]) {
+            if(!iters[i].skip(pres[0])) return false;
+            pres[i] = iters[i].pre();
+          }
+          if(pres[i] > pres[0]) {
+            if(!iters[0].skip(pres[i])) return false;
+            pres[0] = iters[0].pre();
+            i = 1;
+          } else {
+            i++;
+          }
+        }
+        return true;
+      }
+    };
+  }
 }
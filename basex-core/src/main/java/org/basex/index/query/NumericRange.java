@@ -5,6 +5,7 @@ import org.basex.util.*;
 
 /**
  * This class stores a numeric range for index access.
+ * Date ranges are represented by the numeric keys of their dates.
  *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
@@ -16,6 +17,8 @@ public final class NumericRange implements IndexToken {
   public final double min;
   /** Maximum value. */
   public final double max;
+  /** Date range. */
+  public final boolean date;
 
   /**
    * Constructor.
@@ -24,9 +27,22 @@ public final class NumericRange implements IndexToken {
    * @param max maximum value
    */
   public NumericRange(final IndexType type, final double min, final double max) {
+    this(type, min, max, false);
+  }
+
+  /**
+   * Constructor.
+   * @param type index type
+   * @param min minimum value
+   * @param max maximum value
+   * @param date date range
+   */
+  public NumericRange(final IndexType type, final double min, final double max,
+      final boolean date) {
     this.type = type;
     this.min = min;
     this.max = max;
+    this.date = date;
   }
 
   @Override
@@ -38,4 +54,58 @@ public final class NumericRange implements IndexToken {
   public byte[] get() {
     return Token.EMPTY;
   }
+
+  /**
+   * Returns the numeric key of a date. Only dates without timezone and with four-digit years
+   * ({@code YYYY-MM-DD}) are supported, as their order does not depend on the implicit timezone.
+   * @param value value
+   * @return key, or {@link Double#NaN} if the value is no supported date
+   */
+  public static double date(final byte[] value) {
+    if(value.length != 10 || value[4] != '-' || value[7] != '-') return Double.NaN;
+    final int y = digits(value, 0, 4), m = digits(value, 5, 7), d = digits(value, 8, 10);
+    if(y < 1 || m < 1 || m > 12 || d < 1) return Double.NaN;
+    final boolean leap = y % 4 == 0 && (y % 100 != 0 || y % 400 == 0);
+    final int days = m == 2 ? leap ? 29 : 28 : m == 4 || m == 6 || m == 9 || m == 11 ? 30 : 31;
+    return d > days ? Double.NaN : date(y, m, d);
+  }
+
+  /**
+   * Returns the numeric key of a date.
+   * @param year year
+   * @param month month (1-12)
+   * @param day day (1-31)
+   * @return key
+   */
+  public static double date(final long year, final long month, final long day) {
+    return (year << 9) + (month << 5) + day;
+  }
+
+  /**
+   * Returns the string representation of a date key.
+   * @param key key
+   * @return date string
+   */
+  public static String date(final double key) {
+    final long k = (long) key;
+    final long y = k >> 9, m = k >> 5 & 0xF, d = k & 0x1F;
+    return String.format("%04d-%02d-%02d", y, m, d);
+  }
+
+  /**
+   * Parses the specified digits.
+   * @param value value
+   * @param start start position
+   * @param end end position
+   * @return integer, or {@code -1} if a character is no digit
+   */
+  private static int digits(final byte[] value, final int start, final int end) {
+    int n = 0;
+    for(int v = start; v < end; v++) {
+      final int c = value[v] - '0';
+      if(c < 0 || c > 9) return -1;
+      n = n * 10 + c;
+    }
+    return n;
+  }
 }
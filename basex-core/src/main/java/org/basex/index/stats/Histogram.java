@@ -0,0 +1,145 @@
+package org.basex.index.stats;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+
+/**
+ * Equi-depth histogram for numeric values. While values are added, a random sample of
+ * limited size is maintained (reservoir sampling). The bucket bounds are computed from the
+ * sorted sample: each bucket contains approximately the same number of values.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class Histogram {
+  /** Maximum number of sampled values. */
+  private static final int SAMPLE = 256;
+  /** Maximum number of buckets. */
+  private static final int BUCKETS = 32;
+
+  /** Sampled values. */
+  private double[] sample;
+  /** Number of sampled values. */
+  private int size;
+  /** Number of added values. */
+  private long added;
+  /** State of the random number generator. */
+  private long seed = 0x5DEECE66DL;
+  /** Bucket bounds (lazy instantiation). */
+  private double[] bounds;
+
+  /**
+   * Constructor.
+   */
+  Histogram() {
+    sample = new double[8];
+  }
+
+  /**
+   * Constructor, specifying an input stream.
+   * @param in input stream
+   * @throws IOException I/O exception
+   */
+  Histogram(final DataInput in) throws IOException {
+    final int bl = in.readNum();
+    bounds = new double[bl];
+    for(int b = 0; b < bl; b++) bounds[b] = in.readDouble();
+  }
+
+  /**
+   * Writes the bucket bounds to the specified output stream.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  void write(final DataOutput out) throws IOException {
+    final double[] b = bounds();
+    out.writeNum(b.length);
+    for(final double d : b) out.writeDouble(d);
+  }
+
+  /**
+   * Adds a value.
+   * @param value value
+   */
+  void add(final double value) {
+    if(sample == null) return;
+    bounds = null;
+    if(size < SAMPLE) {
+      if(size == sample.length) sample = Arrays.copyOf(sample, size << 1);
+      sample[size++] = value;
+    } else {
+      // replace a sampled value with a probability of SAMPLE / added
+      seed ^= seed << 13;
+      seed ^= seed >>> 7;
+      seed ^= seed << 17;
+      final long r = (seed >>> 1) % (added + 1);
+      if(r < SAMPLE) sample[(int) r] = value;
+    }
+    added++;
+  }
+
+  /**
+   * Returns the estimated fraction of values that are located within the specified range.
+   * @param min minimum (inclusive)
+   * @param max maximum (inclusive)
+   * @return fraction (between {@code 0} and {@code 1})
+   */
+  double fraction(final double min, final double max) {
+    final double[] b = bounds();
+    if(b.length == 0) return 1;
+    return Math.max(0, atMost(b, max) - below(b, min));
+  }
+
+  /**
+   * Returns the fraction of values that are smaller than the specified value.
+   * @param b bucket bounds
+   * @param value value
+   * @return fraction
+   */
+  private static double below(final double[] b, final double value) {
+    final int bl = b.length - 1;
+    int i = 0;
+    while(i <= bl && b[i] < value) i++;
+    if(i == 0) return 0;
+    if(i > bl) return 1;
+    return (i - 1 + (value - b[i - 1]) / (b[i] - b[i - 1])) / bl;
+  }
+
+  /**
+   * Returns the fraction of values that are smaller than or equal to the specified value.
+   * @param b bucket bounds
+   * @param value value
+   * @return fraction
+   */
+  private static double atMost(final double[] b, final double value) {
+    final int bl = b.length - 1;
+    int i = bl;
+    while(i >= 0 && b[i] > value) i--;
+    if(i < 0) return 0;
+    if(i == bl) return 1;
+    return (i + (value - b[i]) / (b[i + 1] - b[i])) / bl;
+  }
+
+  /**
+   * Returns the bucket bounds. The bounds of the bucket {@code i} are stored at the positions
+   * {@code i} and {@code i + 1}.
+   * @return bounds
+   */
+  private double[] bounds() {
+    if(bounds == null) {
+      final double[] sorted = Arrays.copyOf(sample, size);
+      Arrays.sort(sorted);
+      final int bl = Math.min(BUCKETS, size - 1);
+      if(bl < 1) {
+        bounds = sorted;
+      } else {
+        bounds = new double[bl + 1];
+        for(int b = 0; b <= bl; b++) bounds[b] = sorted[(int) ((long) b * (size - 1) / bl)];
+      }
+    }
+    return bounds;
+  }
+}
@@ -0,0 +1,95 @@
+package org.basex.index.stats;
+
+import java.io.*;
+
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+
+/**
+ * HyperLogLog sketch for estimating the number of distinct values.
+ * The standard error of the estimate is approximately {@code 1.04 / sqrt(2^P)}, i.e., 3.3%.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class HyperLogLog {
+  /** Number of bits used for addressing registers. */
+  private static final int P = 10;
+  /** Number of registers. */
+  private static final int M = 1 << P;
+
+  /** Registers (maximum number of leading zeros, plus one). */
+  private final byte[] registers;
+
+  /**
+   * Constructor.
+   */
+  HyperLogLog() {
+    registers = new byte[M];
+  }
+
+  /**
+   * Constructor, specifying an input stream.
+   * @param in input stream
+   * @throws IOException I/O exception
+   */
+  HyperLogLog(final DataInput in) throws IOException {
+    registers = in.readToken();
+  }
+
+  /**
+   * Writes the registers to the specified output stream.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  void write(final DataOutput out) throws IOException {
+    out.writeToken(registers);
+  }
+
+  /**
+   * Adds a value.
+   * @param value value
+   */
+  void add(final byte[] value) {
+    final long h = hash(value);
+    final int r = (int) (h >>> Long.SIZE - P);
+    final byte rank = (byte) (Long.numberOfLeadingZeros(h << P | 1L << P - 1) + 1);
+    if(registers[r] < rank) registers[r] = rank;
+  }
+
+  /**
+   * Returns the estimated number of distinct values.
+   * @return number of distinct values
+   */
+  long count() {
+    double sum = 0;
+    int zeros = 0;
+    for(final byte r : registers) {
+      sum += 1.0 / (1L << r);
+      if(r == 0) zeros++;
+    }
+    double estimate = 0.7213 / (1 + 1.079 / M) * M * M / sum;
+    // small range correction
+    if(estimate <= 2.5 * M && zeros > 0) estimate = M * Math.log((double) M / zeros);
+    return Math.round(estimate);
+  }
+
+  /**
+   * Computes a 64-bit hash value (FNV-1a, followed by a finalization step).
+   * @param value value
+   * @return hash value
+   */
+  private static long hash(final byte[] value) {
+    long h = 0xcbf29ce484222325L;
+    for(final byte b : value) {
+      h ^= b & 0xFF;
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -6,6 +6,7 @@ import static org.basex.util.Token.*;
 import java.io.*;
 
 import org.basex.data.*;
+import org.basex.index.query.*;
 import org.basex.io.in.DataInput;
 import org.basex.io.out.DataOutput;
 import org.basex.util.hash.*;
@@ -30,12 +31,17 @@ public final class Stats {
 
   /** Leaf node flag. Indicates if all nodes only have a text node as child. */
   private boolean leaf;
+  /** Histogram of numeric values (can be {@code null}). */
+  private Histogram histogram;
+  /** Sketch for estimating distinct values if categories were given up (can be {@code null}). */
+  private HyperLogLog distinct;
 
   /**
    * Default constructor.
    */
   public Stats() {
     values = new TokenIntMap();
+    histogram = new Histogram();
     type = NONE;
     min = Double.MAX_VALUE;
     max = Double.MIN_VALUE;
@@ -64,11 +70,11 @@ public final class Stats {
    * @throws IOException I/O exception
    */
   public Stats(final DataInput in) throws IOException {
-    // 0x10 indicates format introduced with Version 7.1
-    final int t = in.readNum() & 0xF;
+    // 0x10 indicates format introduced with Version 7.1, 0x20 indicates histograms and sketches
+    final int f = in.readNum(), t = f & 0xF;
     type = (byte) t;
 
-    if(isInteger(t) || isDouble(t)) {
+    if(isNumeric(t) || isDate(t)) {
       min = in.readDouble();
       max = in.readDouble();
     }
@@ -79,6 +85,10 @@ public final class Stats {
     leaf = in.readBool();
     // legacy since version 7.1
     in.readDouble();
+    if((f & 0x20) != 0) {
+      if(in.readBool()) histogram = new Histogram(in);
+      if(in.readBool()) distinct = new HyperLogLog(in);
+    }
   }
 
   /**
@@ -93,13 +103,15 @@ public final class Stats {
         values = null;
       } else if(!isCategory(type)) {
         type = type == INTEGER ? INTEGER_CATEGORY :
-               type == DOUBLE ? DOUBLE_CATEGORY : STRING_CATEGORY;
+               type == DOUBLE ? DOUBLE_CATEGORY : type == DATE ? DATE_CATEGORY : STRING_CATEGORY;
       }
     }
 
-    // 0x10 indicates format introduced with Version 7.1
-    out.writeNum(type | 0x10);
-    if(isNumeric(type)) {
+    if(!isNumeric(type) && !isDate(type)) histogram = null;
+
+    // 0x10 indicates format introduced with Version 7.1, 0x20 indicates histograms and sketches
+    out.writeNum(type | 0x30);
+    if(isNumeric(type) || isDate(type)) {
       out.writeDouble(min);
       out.writeDouble(max);
     }
@@ -111,13 +123,47 @@ public final class Stats {
     out.writeBool(leaf);
     // legacy since version 7.1
     out.writeDouble(0);
+    out.writeBool(histogram != null);
+    if(histogram != null) histogram.write(out);
+    out.writeBool(distinct != null);
+    if(distinct != null) distinct.write(out);
+  }
+
+  /**
+   * Returns the number of distinct values.
+   * @return exact or estimated number of distinct values, or {@code -1} if it is unknown
+   */
+  public long distinct() {
+    return values != null ? values.size() : distinct != null ? Math.max(1, distinct.count()) : -1;
+  }
+
+  /**
+   * Returns the estimated number of numeric values within the specified range.
+   * If available, the estimate is based on the histogram. Otherwise, a uniform distribution
+   * of the values is assumed.
+   * @param mn minimum (inclusive)
+   * @param mx maximum (inclusive)
+   * @return estimated number of values
+   */
+  public int estimate(final double mn, final double mx) {
+    final double fraction;
+    if(mn > mx || mx < min || mn > max) {
+      fraction = 0;
+    } else if(histogram != null) {
+      fraction = histogram.fraction(mn, mx);
+    } else {
+      fraction = max > min ? (Math.min(mx, max) - Math.max(mn, min)) / (max - min) : 1;
+    }
+    return (int) Math.ceil(count * fraction);
   }
 
   /**
    * Adds a value. All values are first treated as integer values. If a value cannot be converted
    * to an integer, it is treated as double value. If conversion fails again, it is handled as
-   * string category. Next, all values are cached. As soon as their number exceeds a maximum,
-   * the cached values are skipped, and contents are treated as arbitrary strings.
+   * date (if no numbers have been added so far, and if the value is a date without timezone)
+   * or string category. The minimum and maximum of dates are stored as numeric date keys.
+   * Next, all values are cached. As soon as their number exceeds a maximum, the cached values
+   * are skipped, and contents are treated as arbitrary strings.
    * @param value value to be added
    * @param meta meta data
    */
@@ -138,18 +184,32 @@ public final class Stats {
         } else {
           if(min > d) min = d;
           if(max < d) max = d;
+          if(histogram != null) histogram.add(d);
         }
       }
       // try to save new value as double
       if(t == DOUBLE) {
         final double d = toDouble(value);
+        if(Double.isNaN(d)) {
+          t = min > max ? DATE : STRING;
+        } else {
+          if(min > d) min = d;
+          if(max < d) max = d;
+          if(histogram != null) histogram.add(d);
+        }
+      }
+      // try to save new value as date
+      if(t == DATE) {
+        final double d = NumericRange.date(value);
         if(Double.isNaN(d)) {
           t = STRING;
         } else {
           if(min > d) min = d;
           if(max < d) max = d;
+          if(histogram != null) histogram.add(d);
         }
       }
+      if(t == STRING) histogram = null;
     }
     type = t;
 
@@ -157,13 +217,23 @@ public final class Stats {
     if(values != null) {
       if(vl > meta.maxlen || vl > 0 && ws(value)) {
         // give up categories if string is too long or only consists of whitespaces
-        values = null;
+        giveUp();
       } else {
         values.put(value, Math.max(1, values.get(value) + 1));
         // give up categories if number of entries exceeds limit
-        if(values.size() > meta.maxcats) values = null;
+        if(values.size() > meta.maxcats) giveUp();
       }
     }
+    if(distinct != null) distinct.add(value);
+  }
+
+  /**
+   * Gives up categories. The distinct values will be estimated from now on.
+   */
+  private void giveUp() {
+    distinct = new HyperLogLog();
+    for(final byte[] value : values) distinct.add(value);
+    values = null;
   }
 
   @Override
@@ -173,6 +243,7 @@ public final class Stats {
       sb.append(", ");
       final int size = values != null ? values.size() : 0;
       if(size > 1) sb.append(size).append(" distinct ");
+      else if(distinct != null) sb.append('~').append(distinct()).append(" distinct ");
       sb.append(StatsType.toString(type));
       if(size != 1) sb.append('s');
       if(isNumeric(type)) {
@@ -24,6 +24,10 @@ public final class StatsType {
   public static final byte INTEGER_CATEGORY = 5;
   /** All distinct values are of type double. */
   public static final byte DOUBLE_CATEGORY = 6;
+  /** All values are dates without timezone. */
+  public static final byte DATE = 7;
+  /** All distinct values are dates without timezone. */
+  public static final byte DATE_CATEGORY = 8;
 
   /**
    * Indicates if no data exists.
@@ -62,12 +66,21 @@ public final class StatsType {
   }
 
   /**
-   * Indicates if the specified type is a string.
+   * Indicates if the specified type is a date.
+   * @param type type
+   * @return result of check
+   */
+  public static boolean isDate(final int type) {
+    return type == DATE || type == DATE_CATEGORY;
+  }
+
+  /**
+   * Indicates if the specified type is a string. Dates are treated as strings as well.
    * @param type type
    * @return result of check
    */
   public static boolean isString(final int type) {
-    return type == STRING || type == STRING_CATEGORY;
+    return type == STRING || type == STRING_CATEGORY || isDate(type);
   }
 
   /**
@@ -76,7 +89,8 @@ public final class StatsType {
    * @return result of check
    */
   public static boolean isCategory(final int type) {
-    return type == INTEGER_CATEGORY || type == DOUBLE_CATEGORY || type == STRING_CATEGORY;
+    return type == INTEGER_CATEGORY || type == DOUBLE_CATEGORY || type == STRING_CATEGORY ||
+        type == DATE_CATEGORY;
   }
 
   /**
@@ -85,7 +99,7 @@ public final class StatsType {
    * @return string
    */
   public static String toString(final int type) {
-    return isInteger(type) ? "integer" : isDouble(type) ? "double" : isString(type) ? "string" :
-      "none";
+    return isInteger(type) ? "integer" : isDouble(type) ? "double" : isDate(type) ? "date" :
+      isString(type) ? "string" : "none";
   }
 }
@@ -0,0 +1,242 @@
+package org.basex.index.trigram;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * <p>This class builds a trigram index for text nodes and attribute values and stores
+ * the result to disk. The keys of the index are all sequences of three bytes that occur in the
+ * UTF-8 representation of the indexed strings.</p>
+ *
+ * <p>The data is stored on disk in the following format:</p>
+ * <ul>
+ * <li> {@code DATATRI + 'l'}: contains the pre values of all text nodes and attribute values
+ *   that contain a trigram. The pre values of a trigram are stored in ascending order;
+ *   the differences between subsequent values are stored in the {@link Num} format.</li>
+ * <li> {@code DATATRI + 'r'}: contains the number of trigrams, followed by an entry for each
+ *   trigram, sorted by keys: the trigram (4 bytes), the offset to its pre values (5 bytes),
+ *   and the number of pre values (4 bytes).</li>
+ * </ul>
+ *
+ * <p>The index is built in main memory and not updated incrementally. If the temporary
+ * structures exceed the memory budget (see {@link #splitRequired}), partial indexes are written
+ * to disk and merged afterwards. A partial index {@code DATATRI + n + 't'} contains the number of
+ * trigrams, followed by an entry for each trigram, sorted by keys: the trigram, the number of
+ * pre values, the last pre value, and the compressed pre values, prefixed with their length
+ * (all values are stored in the {@link Num} format).</p>
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class TrigramBuilder extends IndexBuilder {
+  /** Estimated memory consumption of a trigram entry (in bytes, without its pre values). */
+  private static final int ENTRY = 64;
+
+  /** Trigrams, mapped to the positions of their entries. */
+  private IntMap ids = new IntMap();
+  /** Compressed pre value differences, prefixed with the number of occupied bytes. */
+  private byte[][] lists = new byte[64][];
+  /** Last pre value of each trigram. */
+  private int[] lasts = new int[64];
+  /** Number of pre values of each trigram. */
+  private int[] counts = new int[64];
+  /** Number of trigrams. */
+  private int entries;
+  /** Estimated memory consumption of the temporary structures (in bytes). */
+  private long memory;
+
+  /**
+   * Constructor.
+   * @param data data reference
+   */
+  public TrigramBuilder(final Data data) {
+    super(data, IndexType.TRIGRAM);
+  }
+
+  @Override
+  public TrigramIndex build() throws IOException {
+    Util.debug(detailedInfo());
+
+    try {
+      for(pre = 0; pre < size; pre++) {
+        if((pre & 0x0FFF) == 0) {
+          check();
+          // check if main memory is exhausted
+          if(splitRequired(memory)) {
+            write(splits++);
+            clean();
+          }
+        }
+        final int kind = data.kind(pre);
+        if(kind != Data.TEXT && kind != Data.ATTR) continue;
+        final byte[] value = data.text(pre, kind == Data.TEXT);
+        final int vl = value.length - 2;
+        for(int v = 0; v < vl; v++) index(TrigramIndex.trigram(value, v));
+      }
+      if(splits > 0) {
+        write(splits++);
+        merge();
+      } else {
+        write(-1);
+      }
+      finishIndex();
+      return new TrigramIndex(data);
+
+    } catch(final Throwable th) {
+      // drop index files
+      data.meta.drop(DATATRI + "\\d*[lrt]");
+      throw th;
+    }
+  }
+
+  /**
+   * Indexes a trigram for the current pre value.
+   * @param key trigram
+   */
+  private void index(final int key) {
+    final int i = ids.get(key);
+    if(i == Integer.MIN_VALUE) {
+      if(entries == lists.length) {
+        final int s = Array.newSize(entries);
+        lists = Array.copyOf(lists, s);
+        lasts = Arrays.copyOf(lasts, s);
+        counts = Arrays.copyOf(counts, s);
+      }
+      ids.put(key, entries);
+      final byte[] list = Num.newNum(pre);
+      lists[entries] = list;
+      lasts[entries] = pre;
+      counts[entries++] = 1;
+      memory += ENTRY + list.length;
+    } else if(lasts[i] != pre) {
+      // trigrams that occur several times in a string are indexed only once
+      final byte[] list = lists[i], tmp = Num.add(list, pre - lasts[i]);
+      lists[i] = tmp;
+      lasts[i] = pre;
+      counts[i]++;
+      memory += tmp.length - list.length;
+    }
+    count++;
+  }
+
+  /**
+   * Writes the index structures to disk. Partial indexes are written to a temporary file,
+   * and the structures are reset.
+   * @param split split id of a partial index, or {@code -1}
+   * @throws IOException I/O exception
+   */
+  private void write(final int split) throws IOException {
+    final int[] keys = ids.toArray();
+    Arrays.sort(keys);
+    if(split == -1) {
+      try(DataOutput outl = new DataOutput(data.meta.dbfile(DATATRI + 'l'));
+          DataOutput outr = new DataOutput(data.meta.dbfile(DATATRI + 'r'))) {
+        outr.write4(keys.length);
+        for(final int key : keys) {
+          final int i = ids.get(key);
+          outr.write4(key);
+          outr.write5(outl.size());
+          outr.write4(counts[i]);
+          final byte[] list = lists[i];
+          final int ls = Num.size(list);
+          for(int l = 4; l < ls; l++) outl.write(list[l]);
+          lists[i] = null;
+        }
+      }
+    } else {
+      try(DataOutput out = new DataOutput(data.meta.dbfile(DATATRI + split + 't'))) {
+        out.writeNum(keys.length);
+        for(final int key : keys) {
+          final int i = ids.get(key);
+          out.writeNum(key);
+          out.writeNum(counts[i]);
+          out.writeNum(lasts[i]);
+          final byte[] list = lists[i];
+          final int ls = Num.size(list);
+          out.writeNum(ls - 4);
+          for(int l = 4; l < ls; l++) out.write(list[l]);
+        }
+      }
+      ids = new IntMap();
+      lists = new byte[64][];
+      lasts = new int[64];
+      counts = new int[64];
+      entries = 0;
+      memory = 0;
+    }
+  }
+
+  /**
+   * Merges the partial indexes. The pre values of the partial indexes are disjoint and
+   * ascending, so the lists of a trigram can be concatenated.
+   * @throws IOException I/O exception
+   */
+  private void merge() throws IOException {
+    final long start = System.nanoTime();
+    final int sp = splits;
+    final TrigramMerger[] tm = new TrigramMerger[sp];
+    for(int i = 0; i < sp; i++) tm[i] = new TrigramMerger(data, i);
+
+    int keys = 0;
+    try(DataOutput outl = new DataOutput(data.meta.dbfile(DATATRI + 'l'));
+        DataOutput outr = new DataOutput(data.meta.dbfile(DATATRI + 'r'))) {
+      outr.write4(0);
+
+      final IntList ml = new IntList();
+      while(true) {
+        checkStop();
+
+        // find partial indexes with the smallest key
+        int min = -1;
+        for(int i = 0; i < sp; i++) {
+          if(tm[i].list == null) continue;
+          if(min == -1 || tm[i].key < tm[min].key) {
+            min = i;
+            ml.reset();
+          }
+          if(tm[i].key == tm[min].key) ml.add(i);
+        }
+        if(min == -1) break;
+
+        final int key = tm[min].key;
+        final long off = outl.size();
+        int count = 0, last = -1;
+        final int ms = ml.size();
+        for(int m = 0; m < ms; m++) {
+          final TrigramMerger t = tm[ml.get(m)];
+          final byte[] list = t.list;
+          int l = 0;
+          if(last != -1) {
+            // replace first (absolute) pre value with the difference to the previous list
+            outl.writeNum(Num.get(list, 0) - last);
+            l = Num.length(list, 0);
+          }
+          for(final int ll = list.length; l < ll; l++) outl.write(list[l]);
+          count += t.count;
+          last = t.last;
+          t.next();
+        }
+        outr.write4(key);
+        outr.write5(off);
+        outr.write4(count);
+        keys++;
+      }
+    }
+
+    // write number of trigrams to first position
+    try(DataAccess da = new DataAccess(data.meta.dbfile(DATATRI + 'r'))) {
+      da.write4(0, keys);
+    }
+    merged(start);
+  }
+}
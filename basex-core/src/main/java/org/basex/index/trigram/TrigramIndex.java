@@ -0,0 +1,275 @@
+package org.basex.index.trigram;
+
+import static org.basex.core.Text.*;
+import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.index.stats.*;
+import org.basex.index.value.*;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * This class provides access to a trigram index stored on disk.
+ * The data structure is described in the {@link TrigramBuilder} class.
+ * For a search string, the index returns the pre values of all text nodes and attribute values
+ * that contain all trigrams of the string. As the order of the trigrams is not considered,
+ * the results are candidates, which must be verified by the caller.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class TrigramIndex extends ValueIndex {
+  /** Size of an entry in the reference file: trigram, offset and number of pre values. */
+  private static final int ENTRY = 13;
+
+  /** Pre values. */
+  private final DataAccess idxl;
+  /** References. */
+  private final DataAccess idxr;
+  /** Number of trigrams. */
+  private final int size;
+
+  /**
+   * Constructor, initializing the index structure.
+   * @param data data reference
+   * @throws IOException I/O Exception
+   */
+  public TrigramIndex(final Data data) throws IOException {
+    super(data, IndexType.TRIGRAM);
+    idxl = new DataAccess(data.meta.dbfile(DATATRI + 'l'));
+    idxr = new DataAccess(data.meta.dbfile(DATATRI + 'r'));
+    size = idxr.read4At(0);
+  }
+
+  /**
+   * Returns the trigram at the specified position of a token.
+   * @param token token
+   * @param pos position
+   * @return trigram
+   */
+  static int trigram(final byte[] token, final int pos) {
+    return (token[pos] & 0xFF) << 16 | (token[pos + 1] & 0xFF) << 8 | token[pos + 2] & 0xFF;
+  }
+
+  @Override
+  public byte[] info(final MainOptions options) {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(LI_STRUCTURE).add(SORTED_LIST).add(NL);
+    final long l = idxl.length() + idxr.length();
+    tb.add(LI_SIZE).add(Performance.format(l, true)).add(NL);
+
+    final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
+    for(int i = 0; i < size; i++) {
+      final int count = count(i);
+      if(stats.adding(count)) stats.add(key(i), count);
+    }
+    stats.print(tb);
+    return tb.finish();
+  }
+
+  @Override
+  public EntryIterator entries(final IndexEntries entries) {
+    final byte[] prefix = entries.get();
+    return new EntryIterator() {
+      int i = -1;
+
+      @Override
+      public byte[] next() {
+        while(++i < size) {
+          final byte[] key = key(i);
+          if(startsWith(key, prefix)) return key;
+        }
+        return null;
+      }
+
+      @Override
+      public int count() {
+        return TrigramIndex.this.count(i);
+      }
+    };
+  }
+
+  @Override
+  public IndexIterator iter(final IndexToken token) {
+    final int[] keys = trigrams(token.get());
+    final int kl = keys.length;
+    if(kl == 0) return scan();
+
+    final IndexIterator[] iters = new IndexIterator[kl];
+    for(int k = 0; k < kl; k++) {
+      final int i = index(keys[k]);
+      if(i < 0) return IndexIterator.EMPTY;
+      iters[k] = iter(i);
+    }
+    if(kl == 1) return iters[0];
+
+    // start with the most selective trigram
+    Arrays.sort(iters, new Comparator<IndexIterator>() {
+      @Override
+      public int compare(final IndexIterator ii1, final IndexIterator ii2) {
+        return ii1.size() - ii2.size();
+      }
+    });
+    return IndexIterator.intersect(iters);
+  }
+
+  @Override
+  public int costs(final IndexToken token) {
+    final int[] keys = trigrams(token.get());
+    if(keys.length == 0) return -1;
+    int costs = Integer.MAX_VALUE;
+    for(final int key : keys) {
+      final int i = index(key);
+      if(i < 0) return 0;
+      costs = Math.min(costs, count(i));
+    }
+    return costs;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void add(final ValueCache vc) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public void delete(final ValueCache vc) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public void flush() { }
+
+  @Override
+  public boolean drop() {
+    return data.meta.drop(DATATRI + "[lr]");
+  }
+
+  @Override
+  public void close() {
+    idxl.close();
+    idxr.close();
+  }
+
+  /**
+   * Returns the distinct trigrams of the specified token.
+   * @param token token
+   * @return trigrams
+   */
+  private static int[] trigrams(final byte[] token) {
+    final IntSet set = new IntSet();
+    final int tl = token.length - 2;
+    for(int t = 0; t < tl; t++) set.add(trigram(token, t));
+    return set.toArray();
+  }
+
+  /**
+   * Returns the index of the specified trigram.
+   * @param key trigram
+   * @return index, or {@code -1} if the trigram is not found
+   */
+  private int index(final int key) {
+    int l = 0, h = size - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      final int k = idxr.read4At(4L + (long) m * ENTRY);
+      if(k < key) l = m + 1;
+      else if(k > key) h = m - 1;
+      else return m;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the trigram with the specified index.
+   * @param i index
+   * @return trigram
+   */
+  private byte[] key(final int i) {
+    final int k = idxr.read4At(4L + (long) i * ENTRY);
+    return new byte[] { (byte) (k >>> 16), (byte) (k >>> 8), (byte) k };
+  }
+
+  /**
+   * Returns the number of pre values of the trigram with the specified index.
+   * @param i index
+   * @return number of pre values
+   */
+  private int count(final int i) {
+    return idxr.read4At(4L + (long) i * ENTRY + 9);
+  }
+
+  /**
+   * Returns an iterator for the pre values of the trigram with the specified index.
+   * @param i index
+   * @return iterator
+   */
+  private IndexIterator iter(final int i) {
+    final long off = idxr.read5At(4L + (long) i * ENTRY + 4);
+    final long end = i + 1 < size ? idxr.read5At(4L + (long) (i + 1) * ENTRY + 4) :
+      idxl.length();
+    final byte[] list = idxl.readBytesAt(off, (int) (end - off));
+    final int count = count(i);
+
+    return new IndexIterator() {
+      int pos, pre;
+
+      @Override
+      public boolean more() {
+        if(pos == list.length) return false;
+        pre += Num.get(list, pos);
+        pos += Num.length(list, pos);
+        return true;
+      }
+
+      @Override
+      public int pre() {
+        return pre;
+      }
+
+      @Override
+      public int size() {
+        return count;
+      }
+    };
+  }
+
+  /**
+   * Returns an iterator for all pre values of the database.
+   * @return iterator
+   */
+  private IndexIterator scan() {
+    return new IndexIterator() {
+      final int sz = data.meta.size;
+      int pre = -1;
+
+      @Override
+      public boolean more() {
+        return ++pre < sz;
+      }
+
+      @Override
+      public int pre() {
+        return pre;
+      }
+
+      @Override
+      public int size() {
+        return sz;
+      }
+    };
+  }
+}
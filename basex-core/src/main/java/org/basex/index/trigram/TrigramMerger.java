@@ -0,0 +1,65 @@
+package org.basex.index.trigram;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+
+import org.basex.data.*;
+import org.basex.io.in.DataInput;
+
+/**
+ * This class provides data for merging partial trigram indexes.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class TrigramMerger {
+  /** Partial index. */
+  private final DataInput in;
+  /** File prefix. */
+  private final String pref;
+  /** Data reference. */
+  private final Data data;
+  /** Number of remaining entries. */
+  private int entries;
+
+  /** Current trigram. */
+  int key;
+  /** Number of pre values of the current trigram. */
+  int count;
+  /** Last pre value of the current trigram. */
+  int last;
+  /** Compressed pre values of the current trigram ({@code null} if the end of file is reached). */
+  byte[] list;
+
+  /**
+   * Constructor.
+   * @param data data reference
+   * @param i merge id
+   * @throws IOException I/O exception
+   */
+  TrigramMerger(final Data data, final int i) throws IOException {
+    pref = DATATRI + i;
+    in = new DataInput(data.meta.dbfile(pref + 't'));
+    entries = in.readNum();
+    this.data = data;
+    next();
+  }
+
+  /**
+   * Jumps to the next entry. {@link #list} will be {@code null} if the end of file is reached.
+   * @throws IOException I/O exception
+   */
+  void next() throws IOException {
+    if(entries-- == 0) {
+      list = null;
+      in.close();
+      data.meta.drop(pref + '.');
+    } else {
+      key = in.readNum();
+      count = in.readNum();
+      last = in.readNum();
+      list = in.readToken();
+    }
+  }
+}
@@ -12,6 +12,7 @@ import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
+import org.basex.io.*;
 import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
@@ -20,25 +21,34 @@ import org.basex.util.list.*;
 /**
  * This class provides access to attribute values and text contents stored on disk.
  * The data structure is described in the {@link DiskValuesBuilder} class.
+ * Index files are accessed via positional reads, which do not change the file cursors.
+ * Lookups can thus be performed by multiple threads in parallel.
  *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  */
 public class DiskValues extends ValueIndex {
+  /** Number of ids per block, which can be skipped via skip pointers. */
+  static final int BLOCK = 1 << 7;
+
   /** ID references. */
   final DataAccess idxr;
   /** ID lists. */
   final DataAccess idxl;
+  /** Typed range index ({@code null} if it does not exist). */
+  private final DataAccess idxn;
+  /** Skip pointers ({@code null} if they do not exist). */
+  private final DataAccess idxs;
   /** Cached index entries: mapping between keys and index entries. */
   final IndexCache cache = new IndexCache();
-  /** Cached texts: mapping between key positions in the reference file, and the indexed texts. */
+  /**
+   * Cached texts: mapping between key positions in the reference file, and the indexed texts.
+   * Accesses must be synchronized on the map.
+   */
   final IntObjMap<byte[]> ctext = new IntObjMap<>();
   /** Number of current index entries. */
   final AtomicInteger size = new AtomicInteger();
 
-  /** Synchronization object. */
-  private final Object monitor = new Object();
-
   /**
    * Constructor, initializing the index structure.
    * @param data data reference
@@ -61,6 +71,10 @@ public class DiskValues extends ValueIndex {
     super(data, type);
     idxl = new DataAccess(data.meta.dbfile(pref + 'l'));
     idxr = new DataAccess(data.meta.dbfile(pref + 'r'));
+    final IOFile file = data.meta.dbfile(pref + 'n');
+    idxn = type != IndexType.TOKEN && file.exists() ? new DataAccess(file) : null;
+    final IOFile skips = data.meta.dbfile(pref + 's');
+    idxs = type != IndexType.TOKEN && skips.exists() ? new DataAccess(skips) : null;
     size.set(idxl.read4());
   }
 
@@ -71,15 +85,14 @@ public class DiskValues extends ValueIndex {
     tb.add(LI_NAMES).add(data.meta.names(type)).add(NL);
 
     final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
-    synchronized(monitor) {
-      final long l = idxl.length() + idxr.length();
-      tb.add(LI_SIZE).add(Performance.format(l, true)).add(NL);
-      final int entries = size();
-      for(int index = 0; index < entries; index++) {
-        final long pos = idxr.read5(index * 5L);
-        final int count = idxl.readNum(pos);
-        if(stats.adding(count)) stats.add(key(idxl.readNum()), count);
-      }
+    final long l = idxl.length() + idxr.length() + (idxn != null ? idxn.length() : 0) +
+        (idxs != null ? idxs.length() : 0);
+    tb.add(LI_SIZE).add(Performance.format(l, true)).add(NL);
+    final int entries = size();
+    for(int index = 0; index < entries; index++) {
+      final Ids ids = new Ids(idxr.read5At(index * 5L));
+      final int count = ids.next();
+      if(stats.adding(count)) stats.add(key(ids), count);
     }
     stats.print(tb);
     return tb.finish();
@@ -93,29 +106,36 @@ public class DiskValues extends ValueIndex {
   @Override
   public final int costs(final IndexToken it) {
     if(it instanceof StringRange) return Math.max(1, data.meta.size / 10);
-    if(it instanceof NumericRange) return Math.max(1, data.meta.size / 3);
+    if(it instanceof NumericRange) {
+      final NumericRange nr = (NumericRange) it;
+      if(idxn != null) return rangeCosts(nr);
+      return nr.date ? -1 : Math.max(1, data.meta.size / 3);
+    }
     return entry(it.get()).size;
   }
 
   @Override
   public final IndexIterator iter(final IndexToken it) {
     if(it instanceof StringRange) return idRange((StringRange) it);
-    if(it instanceof NumericRange) return idRange((NumericRange) it);
+    if(it instanceof NumericRange) {
+      final NumericRange nr = (NumericRange) it;
+      return idxn != null ? typedRange(nr) : idRange(nr);
+    }
     final IndexEntry ie = entry(it.get());
     return iter(ie.size, ie.offset);
   }
 
   @Override
   public final boolean drop() {
-    return data.meta.drop(fileSuffix(type) + '.');
+    return data.meta.drop(fileSuffix(type) + "[lrns]");
   }
 
   @Override
   public final void close() {
-    synchronized(monitor) {
-      idxl.close();
-      idxr.close();
-    }
+    idxl.close();
+    idxr.close();
+    if(idxn != null) idxn.close();
+    if(idxs != null) idxs.close();
   }
 
   @Override
@@ -151,9 +171,16 @@ public class DiskValues extends ValueIndex {
     return id;
   }
 
+  /**
+   * Indicates if the ids of the index are pre values, which are stored in ascending order.
+   * @return result of check
+   */
+  protected boolean ordered() {
+    return true;
+  }
+
   /**
    * Binary search for key in the {@code idxr} reference file.
-   * <p><em>Important:</em> This method is thread-safe.</p>
    * @param key token to be found
    * @return index of the key, or (-(insertion point) - 1)
    */
@@ -163,7 +190,6 @@ public class DiskValues extends ValueIndex {
 
   /**
    * Binary search for key in the {@code #idxr} reference file.
-   * <p><em>Important:</em> This method is thread-safe.</p>
    * @param key token to be found
    * @param first begin of the search interval (inclusive)
    * @param last end of the search interval (exclusive)
@@ -171,15 +197,13 @@ public class DiskValues extends ValueIndex {
    */
   protected final int get(final byte[] key, final int first, final int last) {
     int l = first, h = last - 1;
-    synchronized(monitor) {
-      while(l <= h) {
-        final int m = l + h >>> 1;
-        final byte[] txt = indexEntry(m).key;
-        final int d = diff(txt, key);
-        if(d == 0) return m;
-        if(d < 0) l = m + 1;
-        else h = m - 1;
-      }
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      final byte[] txt = indexEntry(m).key;
+      final int d = diff(txt, key);
+      if(d == 0) return m;
+      if(d < 0) l = m + 1;
+      else h = m - 1;
     }
     return -(l + 1);
   }
@@ -188,7 +212,6 @@ public class DiskValues extends ValueIndex {
 
   /**
    * Returns an index entry.
-   * <p><em>Important:</em> This method is thread-safe.</p>
    * @param key key to be found or cached
    * @return cache entry
    */
@@ -199,17 +222,10 @@ public class DiskValues extends ValueIndex {
     final long index = get(key);
     if(index < 0) return new IndexEntry(key, 0, 0);
 
-    final int count;
-    final long offset;
-
-    synchronized(monitor) {
-      // get position in heap file
-      final long pos = idxr.read5(index * 5L);
-      count = idxl.readNum(pos);
-      offset = idxl.cursor();
-    }
-
-    return cache.add(key, count, offset);
+    // get position in heap file
+    final long pos = idxr.read5At(index * 5L);
+    final int count = idxl.readNumAt(pos);
+    return cache.add(key, count, pos + Num.length(count));
   }
 
   /**
@@ -250,12 +266,10 @@ public class DiskValues extends ValueIndex {
       @Override
       public byte[] next() {
         if(++ix < s) {
-          synchronized(monitor) {
-            final IndexEntry entry = indexEntry(ix);
-            if(startsWith(entry.key, prefix)) {
-              count = entry.size;
-              return entry.key;
-            }
+          final IndexEntry entry = indexEntry(ix);
+          if(startsWith(entry.key, prefix)) {
+            count = entry.size;
+            return entry.key;
           }
         }
         count = -1;
@@ -283,11 +297,9 @@ public class DiskValues extends ValueIndex {
       @Override
       public byte[] next() {
         if(++ix <= last) {
-          synchronized(monitor) {
-            final IndexEntry entry = indexEntry(ix);
-            count = entry.size;
-            return entry.key;
-          }
+          final IndexEntry entry = indexEntry(ix);
+          count = entry.size;
+          return entry.key;
         }
         count = -1;
         return null;
@@ -314,11 +326,9 @@ public class DiskValues extends ValueIndex {
       @Override
       public byte[] next() {
         if(--ix >= first) {
-          synchronized(monitor) {
-            final IndexEntry entry = indexEntry(ix);
-            count = entry.size;
-            return entry.key;
-          }
+          final IndexEntry entry = indexEntry(ix);
+          count = entry.size;
+          return entry.key;
         }
         count = -1;
         return null;
@@ -333,72 +343,74 @@ public class DiskValues extends ValueIndex {
 
   /**
    * Read a key at the given position.
-   * <p><em>Important:</em> This method is NOT thread-safe, since it is used in loops.</p>
    * @param index key position
    * @return index entry
    */
   private IndexEntry indexEntry(final int index) {
     // try the cache first
-    byte[] key = ctext.get(index);
+    byte[] key;
+    synchronized(ctext) {
+      key = ctext.get(index);
+    }
     if(key != null) {
       final IndexEntry entry = cache.get(key);
       if(entry != null) return entry;
     }
 
     // read text and cache result
-    final long pos = idxr.read5(index * 5L);
-    final int count = idxl.readNum(pos);
+    final long pos = idxr.read5At(index * 5L);
+    final Ids ids = new Ids(pos);
+    final int count = ids.next();
     if(key == null) {
-      key = key(idxl.readNum());
-      ctext.put(index, key);
+      key = key(ids);
+      synchronized(ctext) {
+        ctext.put(index, key);
+      }
     }
     return cache.add(key, count, pos + Num.length(count));
   }
 
   /**
    * Iterator method.
-   * <p><em>Important:</em> This method is thread-safe.</p>
    * @param sz number of values
    * @param offset offset
    * @return iterator
    */
   private IndexIterator iter(final int sz, final long offset) {
+    if(ordered()) return new Postings(sz, offset);
+
     final IntList pres = new IntList(sz);
-    synchronized(monitor) {
-      idxl.cursor(offset);
-      for(int i = 0, id = 0; i < sz; i++) {
-        id += idxl.readNum();
-        // pass over token position
-        if(type == IndexType.TOKEN) idxl.readNum();
-        pres.add(pre(id));
-      }
+    final Ids ids = new Ids(offset);
+    for(int i = 0, id = 0; i < sz; i++) {
+      id += ids.next();
+      // pass over token position
+      if(type == IndexType.TOKEN) ids.next();
+      pres.add(pre(id));
     }
     return iter(pres.sort());
   }
 
   /**
    * Performs a string-based range query.
-   * <p><em>Important:</em> This method is thread-safe.</p>
    * @param tok index term
    * @return results
    */
   private IndexIterator idRange(final StringRange tok) {
-    // check if min and max are positive integers with the same number of digits
     final IntList pres = new IntList();
-    synchronized(monitor) {
-      final int i = get(tok.min);
-      final int entries = size();
-      for(int index = i < 0 ? -i - 1 : tok.mni ? i : i + 1; index < entries; index++) {
-        final int count = idxl.readNum(idxr.read5(index * 5L));
-        int id = idxl.readNum();
-        // skip traversal if value is too large
-        final int diff = diff(key(id), tok.max);
-        if(diff > 0 || !tok.mxi && diff == 0) break;
-        // add pre values
-        for(int c = 0; c < count; c++) {
-          pres.add(pre(id));
-          id += idxl.readNum();
-        }
+    final int i = get(tok.min);
+    final int entries = size();
+    for(int index = i < 0 ? -i - 1 : tok.mni ? i : i + 1; index < entries; index++) {
+      final Ids ids = new Ids(idxr.read5At(index * 5L));
+      final int count = ids.next();
+      int id = ids.next();
+      // skip traversal if value is too large
+      final int diff = diff(key(id, ids), tok.max);
+      if(diff > 0 || !tok.mxi && diff == 0) break;
+      // add pre values
+      pres.add(pre(id));
+      for(int c = 1; c < count; c++) {
+        id += ids.next();
+        pres.add(pre(id));
       }
     }
     return iter(pres.sort());
@@ -406,7 +418,6 @@ public class DiskValues extends ValueIndex {
 
   /**
    * Performs a range query. All index values must be numeric.
-   * <p><em>Important:</em> This method is thread-safe.</p>
    * @param tok index term
    * @return results
    */
@@ -417,32 +428,86 @@ public class DiskValues extends ValueIndex {
     final boolean simple = len != 0 && min > 0 && (long) min == min && token(min).length == len;
 
     final IntList pres = new IntList();
-    synchronized(monitor) {
-      final int entries = size();
-      final boolean text = type == IndexType.TEXT;
-      for(int index = 0; index < entries; ++index) {
-        final int count = idxl.readNum(idxr.read5(index * 5L));
-        int id = idxl.readNum();
-        final int pre = pre(id);
-
-        final double v = data.textDbl(pre, text);
-        if(v >= min && v <= max) {
-          // value is in range
-          for(int c = 0; c < count; c++) {
-            pres.add(pre(id));
-            id += idxl.readNum();
-          }
-        } else if(simple && v > max && data.textLen(pre, text) == len) {
-          // if limits are integers, if min, max and current value have the same
-          // string length, and if current value is larger than max, test can be
-          // skipped, as all remaining values will be bigger
-          break;
+    final int entries = size();
+    final boolean text = type == IndexType.TEXT;
+    for(int index = 0; index < entries; ++index) {
+      final Ids ids = new Ids(idxr.read5At(index * 5L));
+      final int count = ids.next();
+      int id = ids.next();
+      final int pre = pre(id);
+
+      final double v = data.textDbl(pre, text);
+      if(v >= min && v <= max) {
+        // value is in range
+        pres.add(pre);
+        for(int c = 1; c < count; c++) {
+          id += ids.next();
+          pres.add(pre(id));
         }
+      } else if(simple && v > max && data.textLen(pre, text) == len) {
+        // if limits are integers, if min, max and current value have the same
+        // string length, and if current value is larger than max, test can be
+        // skipped, as all remaining values will be bigger
+        break;
+      }
+    }
+    return iter(pres.sort());
+  }
+
+  /**
+   * Performs a range query with the typed range index.
+   * @param tok index term
+   * @return results
+   */
+  private IndexIterator typedRange(final NumericRange tok) {
+    final IntList pres = new IntList();
+    final int end = rangePos(tok.max, tok.date, true);
+    for(int index = rangePos(tok.min, tok.date, false); index < end; index++) {
+      final Ids ids = new Ids(idxn.read5At(index * 13L + 16));
+      final int count = ids.next();
+      for(int c = 0, id = 0; c < count; c++) {
+        id += ids.next();
+        pres.add(pre(id));
       }
     }
     return iter(pres.sort());
   }
 
+  /**
+   * Returns the number of results of a range query with the typed range index.
+   * @param tok index term
+   * @return number of results
+   */
+  private int rangeCosts(final NumericRange tok) {
+    long costs = 0;
+    final int end = rangePos(tok.max, tok.date, true);
+    for(int index = rangePos(tok.min, tok.date, false); index < end; index++) {
+      costs += idxl.readNumAt(idxn.read5At(index * 13L + 16));
+    }
+    return (int) Math.min(Integer.MAX_VALUE, costs);
+  }
+
+  /**
+   * Binary search for a key in the typed range index.
+   * @param key key to be found
+   * @param date search in date keys
+   * @param after return position after the last entry that is equal to the key
+   * @return entry position
+   */
+  private int rangePos(final double key, final boolean date, final boolean after) {
+    final int nums = idxn.read4At(0);
+    int l = date ? nums : 0, h = (date ? nums + idxn.read4At(4) : nums) - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      final long pos = m * 13L + 8;
+      final double k = Double.longBitsToDouble(
+          (long) idxn.read4At(pos) << 32 | idxn.read4At(pos + 4) & 0xFFFFFFFFL);
+      if(after ? k <= key : k < key) l = m + 1;
+      else h = m - 1;
+    }
+    return l;
+  }
+
   /**
    * Returns an iterator for the specified id list.
    * @param pres pre values
@@ -461,14 +526,42 @@ public class DiskValues extends ValueIndex {
     };
   }
 
+  /**
+   * Returns the position of the skip table for the specified id list.
+   * @param offset offset to the first id of the list
+   * @return position, or {@code 0} if no skip table exists
+   */
+  private long skipTable(final long offset) {
+    if(idxs == null) return 0;
+    int l = 0, h = idxs.read4At(0) - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      final long pos = 4 + m * 10L, o = idxs.read5At(pos);
+      if(o == offset) return idxs.read5At(pos + 5);
+      if(o < offset) l = m + 1;
+      else h = m - 1;
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the key of an id list, considering tokenization.
+   * @param ids id list, positioned before the first id
+   * @return key token
+   */
+  private byte[] key(final Ids ids) {
+    return key(ids.next(), ids);
+  }
+
   /**
    * Returns the specified key, considering tokenization.
    * @param id id of key
+   * @param ids id list, positioned before the token position of the id
    * @return key token
    */
-  private byte[] key(final int id) {
+  private byte[] key(final int id, final Ids ids) {
     final byte[] text = data.text(pre(id), type == IndexType.TEXT);
-    return type == IndexType.TOKEN ? distinctTokens(text)[idxl.readNum()] : text;
+    return type == IndexType.TOKEN ? distinctTokens(text)[ids.next()] : text;
   }
 
   /**
@@ -482,18 +575,21 @@ public class DiskValues extends ValueIndex {
     tb.addExt(type).add(" INDEX, '").add(data.meta.name).add("':\n");
     final int entries = size();
     for(int index = 0; index < entries; index++) {
-      final long pos = idxr.read5(index * 5L);
-      final int count = idxl.readNum(pos);
-      int id = idxl.readNum();
+      final long pos = idxr.read5At(index * 5L);
+      final Ids ids = new Ids(pos);
+      final int count = ids.next();
+      int id = ids.next();
       tb.add("  ").addInt(index).add(". offset: ").addLong(pos);
       if(all) {
-        tb.add(", key: \"").add(key(id)).add('"');
+        tb.add(", key: \"").add(key(id, ids)).add('"');
         tb.add(", ids").add("/pres").add(": ").addInt(id).add('/').addInt(pre(id));
       } else {
         tb.add(", ids").add(": ").addInt(id);
+        if(type == IndexType.TOKEN) ids.next();
       }
       for(int c = 1; c < count; c++) {
-        id += idxl.readNum();
+        id += ids.next();
+        if(type == IndexType.TOKEN) ids.next();
         tb.add(",").addInt(id);
         if(all) tb.add('/').addInt(pre(id));
       }
@@ -507,6 +603,125 @@ public class DiskValues extends ValueIndex {
     return toString(false);
   }
 
+  /**
+   * Iterator over an id list, which is decoded on demand. It requires ids to be pre values.
+   * If skip pointers exist, they are used to pass over blocks of smaller pre values.
+   */
+  private final class Postings extends IndexIterator {
+    /** Number of ids. */
+    private final int size;
+    /** Offset to the first id. */
+    private final long offset;
+    /** Id list reader. */
+    private Ids ids;
+    /** Position of the skip table ({@code -1}: not requested yet, {@code 0}: none). */
+    private long table = -1;
+    /** Number of returned ids. */
+    private int count;
+    /** Current pre value. */
+    private int pre;
+
+    /**
+     * Constructor.
+     * @param size number of ids
+     * @param offset offset to the first id
+     */
+    Postings(final int size, final long offset) {
+      this.size = size;
+      this.offset = offset;
+      ids = new Ids(offset);
+    }
+
+    @Override
+    public boolean more() {
+      if(count == size) return false;
+      pre += ids.next();
+      // pass over token position
+      if(type == IndexType.TOKEN) ids.next();
+      count++;
+      return true;
+    }
+
+    @Override
+    public int pre() {
+      return pre;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public boolean skip(final int target) {
+      if(size - count > BLOCK && (count == 0 || pre < target)) {
+        if(table == -1) table = skipTable(offset);
+        if(table != 0) {
+          // find last block that is preceded by a smaller pre value
+          int l = 1, h = idxs.read4At(table), b = 0;
+          while(l <= h) {
+            final int m = l + h >>> 1;
+            if(idxs.read4At(table + 4 + (m - 1) * 9L) < target) {
+              b = m;
+              l = m + 1;
+            } else {
+              h = m - 1;
+            }
+          }
+          if(b * BLOCK > count) {
+            final long pos = table + 4 + (b - 1) * 9L;
+            pre = idxs.read4At(pos);
+            ids = new Ids(idxs.read5At(pos + 4));
+            count = b * BLOCK;
+          }
+        }
+      }
+      return super.skip(target);
+    }
+  }
+
+  /**
+   * Reader for the compressed numbers of an id list. Blocks of the id list file are fetched
+   * with positional reads, and the cursor is kept locally. Instances can be used by a single
+   * thread, but any number of readers can be used in parallel.
+   */
+  private final class Ids {
+    /** Block size for the first read operation. */
+    private static final int MINBLOCK = 1 << 5;
+    /** Current block. */
+    private byte[] block = EMPTY;
+    /** File position of the current block. */
+    private long start;
+    /** Offset in the current block. */
+    private int off;
+
+    /**
+     * Constructor.
+     * @param pos file position
+     */
+    Ids(final long pos) {
+      start = pos;
+    }
+
+    /**
+     * Returns the next number.
+     * @return number
+     */
+    int next() {
+      // fetch next block if the current one may end within the next number
+      final int bl = block.length;
+      if(off + 5 > bl && start + bl < idxl.length()) {
+        start += off;
+        off = 0;
+        final int size = Math.min(bl == 0 ? MINBLOCK : bl << 1, IO.BLOCKSIZE);
+        block = idxl.readBytesAt(start, (int) Math.min(size, idxl.length() - start));
+      }
+      final int n = Num.get(block, off);
+      off += Num.length(block, off);
+      return n;
+    }
+  }
+
   /**
    * Gets the file suffix for the specified index type.
    * @param type index type
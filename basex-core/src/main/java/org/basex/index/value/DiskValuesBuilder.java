@@ -3,9 +3,14 @@ package org.basex.index.value;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.io.*;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.util.*;
@@ -26,14 +31,34 @@ import org.basex.util.list.*;
  *   structure. Instead, they can be found by following the id references to
  *   the main table.
  * </li>
+ * <li> {@code DATATXT/ATV + 'n'}: typed range index, which is only created if
+ *   {@link MetaData#rangeindex} is enabled and if the index is not incremental. The first
+ *   8 bytes contain the number of numeric and date keys. The keys are stored in ascending order
+ *   in two sections: each entry consists of an 8-byte double value (numbers, or numeric keys of
+ *   dates) and a 5-byte reference to the id list of the key.</li>
+ * <li> {@code DATATXT/ATV + 's'}: skip pointers for id lists with more than
+ *   {@link DiskValues#BLOCK} entries, which are only created if the ids are pre values and if
+ *   the index is not incremental. The first 4 bytes contain the number of id lists with skip
+ *   pointers, followed by 5-byte references to these id lists and to their skip tables.
+ *   A skip table contains the number of blocks, followed by the last id before each
+ *   block (4 bytes) and the offset to the first id of the block (5 bytes).</li>
  * </ul>
  *
+ * <p>If multiple threads are available, the pre values are split into disjoint ranges, which
+ * are indexed in parallel. The partial indexes are merged afterwards; the id lists of the
+ * merged keys are sorted and compressed in parallel.</p>
+ *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  */
 public final class DiskValuesBuilder extends ValuesBuilder {
+  /** Maximum number of keys that are merged by a single task. */
+  private static final int MERGEKEYS = 1 << 12;
+
   /** Temporary value tree. */
   private IndexTree index;
+  /** Thread pool ({@code null} if a single thread is used). */
+  private ExecutorService pool;
 
   /**
    * Constructor.
@@ -50,57 +75,127 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     Util.debug(detailedInfo());
 
     try {
-      final boolean updindex = data.meta.updindex;
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(indexEntry()) {
-          final int id = updindex ? data.id(pre) : pre;
-          if(tokenize) {
-            int pos = 0;
-            for(final byte[] token : distinctTokens(data.text(pre, text))) {
-              index.add(token, id, pos++);
-              count++;
+      if(threads > 1) pool = Executors.newFixedThreadPool(threads);
+      final boolean merge;
+      if(pool != null) {
+        // index disjoint ranges of pre values in parallel, write all results as partial indexes
+        index = null;
+        final ArrayList<Future<Void>> futures = new ArrayList<>(threads);
+        for(int t = 0; t < threads; t++) {
+          final int start = (int) ((long) size * t / threads);
+          final int end = (int) ((long) size * (t + 1) / threads);
+          futures.add(pool.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+              index(start, end);
+              return null;
             }
-          } else if(data.textLen(pre, text) <= data.meta.maxlen) {
-            index.add(data.text(pre, text), id, 0);
-            count++;
-          }
+          }));
         }
-      }
-
-      writeIndex(splits > 0);
-      if(splits > 1) {
+        complete(futures);
+        pre = size;
+        merge = true;
+      } else {
+        for(pre = 0; pre < size; ++pre) {
+          if((pre & 0x0FFF) == 0) check();
+          index(index, pre);
+        }
+        writeIndex(index, splits > 0 ? split() : -1);
         index = null;
-        clean();
-        merge();
+        merge = splits > 1;
       }
 
+      if(merge) merge();
+      writeRanges();
+      writeSkips();
+
       finishIndex();
-      return updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
+      return data.meta.updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
 
     } catch(final Throwable th) {
       // drop index files
-      data.meta.drop(DiskValues.fileSuffix(type) + ".+");
+      data.meta.drop(DiskValues.fileSuffix(type) + "\\d*[lrtns]");
       throw th;
+    } finally {
+      if(pool != null) {
+        pool.shutdownNow();
+        pool = null;
+      }
     }
   }
 
+  /**
+   * Indexes the specified range of pre values and writes the result as partial index.
+   * Called by parallel threads.
+   * @param start first pre value
+   * @param end last pre value (exclusive)
+   * @throws IOException I/O exception
+   */
+  private void index(final int start, final int end) throws IOException {
+    IndexTree tree = new IndexTree(type);
+    long cnt = 0;
+    for(int p = start; p < end; p++) {
+      if((p - start & 0x0FFF) == 0 && p != start) {
+        checkStop();
+        processed(0x1000);
+        // check if main memory is exhausted
+        final boolean split;
+        synchronized(this) {
+          count += cnt;
+          split = splitRequired(tree.memory());
+        }
+        cnt = 0;
+        if(split) {
+          writeIndex(tree, split());
+          tree = new IndexTree(type);
+          clean();
+        }
+      }
+      cnt += index(tree, p);
+    }
+    synchronized(this) {
+      count += cnt;
+    }
+    writeIndex(tree, split());
+  }
+
+  /**
+   * Indexes the specified entry.
+   * @param tree index tree
+   * @param pr pre value
+   * @return number of added index entries
+   */
+  private int index(final IndexTree tree, final int pr) {
+    if(!indexEntry(pr)) return 0;
+    final int id = data.meta.updindex ? data.id(pr) : pr;
+    int c = 0;
+    if(tokenize) {
+      for(final byte[] token : distinctTokens(data.text(pr, text))) tree.add(token, id, c++);
+    } else if(data.textLen(pr, text) <= data.meta.maxlen) {
+      tree.add(data.text(pr, text), id, c++);
+    }
+    if(pool == null) count += c;
+    return c;
+  }
+
   @Override
   protected void check() throws IOException {
     super.check();
     // check if main memory is exhausted
-    if(splitRequired()) {
-      writeIndex(true);
+    if(splitRequired(index.memory())) {
+      writeIndex(index, split());
       index = new IndexTree(type);
       clean();
     }
   }
 
   /**
-   * Merges cached index files.
+   * Merges cached index files. The id lists of the merged keys are sorted and compressed
+   * by parallel threads if a thread pool is available.
    * @throws IOException I/O exception
    */
   private void merge() throws IOException {
+    final long start = System.nanoTime();
     final String f = DiskValues.fileSuffix(type);
     int entries = 0;
     try(DataOutput outL = new DataOutput(data.meta.dbfile(f + 'l'));
@@ -109,22 +204,25 @@ public final class DiskValuesBuilder extends ValuesBuilder {
 
       // initialize cached index iterators
       final IntList ml = new IntList();
-      final IntList id = new IntList(), pos = tokenize ? new IntList() : null;
-      final DiskValuesMerger[] vm = new DiskValuesMerger[splits];
-      for(int i = 0; i < splits; ++i) vm[i] = new DiskValuesMerger(data, type, i);
+      final int sp = splits;
+      final DiskValuesMerger[] vm = new DiskValuesMerger[sp];
+      for(int i = 0; i < sp; ++i) vm[i] = new DiskValuesMerger(data, type, i);
 
+      // merged keys, which will be written in the original order
+      final ArrayDeque<Future<Merged>> queue = new ArrayDeque<>();
+      ArrayList<byte[][]> keys = new ArrayList<>();
       // parse through all values
       while(true) {
         checkStop();
 
         // find first index which has not completely been parsed yet
         int min = -1;
-        while(++min < splits && vm[min].values.length == 0);
-        if(min == splits) break;
+        while(++min < sp && vm[min].values.length == 0);
+        if(min == sp) break;
 
         // find index entry with smallest key
         ml.reset();
-        for(int i = min; i < splits; ++i) {
+        for(int i = min; i < sp; ++i) {
           if(vm[i].values.length == 0) continue;
           final int d = diff(vm[min].key, vm[i].key);
           if(d < 0) continue;
@@ -135,49 +233,97 @@ public final class DiskValuesBuilder extends ValuesBuilder {
           ml.add(i);
         }
 
-        // parse through all values, cache and sort id values
+        // collect id lists of all partial indexes
         final int ms = ml.size();
+        final byte[][] values = new byte[ms][];
         for(int m = 0; m < ms; ++m) {
           final DiskValuesMerger t = vm[ml.get(m)];
-          final byte[] values = t.values;
-          final int vl = values.length;
-          for(int l = 4; l < vl; l += Num.length(values, l)) {
-            id.add(Num.get(values, l));
-            if(pos != null) {
-              l += Num.length(values, l);
-              pos.add(Num.get(values, l));
-            }
-          }
+          values[m] = t.values;
           t.next();
         }
-        // write final structure to disk
-        write(outL, outR, id, pos);
+        keys.add(values);
         ++entries;
+
+        if(keys.size() == MERGEKEYS) {
+          queue.add(merge(keys));
+          keys = new ArrayList<>();
+          // limit number of pending tasks
+          while(queue.size() > threads << 1) result(queue.poll()).write(outL, outR);
+        }
       }
+      queue.add(merge(keys));
+      while(!queue.isEmpty()) result(queue.poll()).write(outL, outR);
     }
 
     // write number of entries to first position
     try(DataAccess da = new DataAccess(data.meta.dbfile(f + 'l'))) {
       da.write4(entries);
     }
+    merged(start);
+  }
+
+  /**
+   * Merges the id lists of the specified keys.
+   * @param keys id lists of the partial indexes, grouped by keys
+   * @return future with the merged id lists
+   */
+  private Future<Merged> merge(final ArrayList<byte[][]> keys) {
+    final Callable<Merged> task = new Callable<Merged>() {
+      @Override
+      public Merged call() throws IOException {
+        final Merged merged = new Merged();
+        final IntList id = new IntList(), pos = tokenize ? new IntList() : null;
+        for(final byte[][] values : keys) {
+          // parse through all values, cache and sort id values
+          for(final byte[] vl : values) {
+            final int vs = vl.length;
+            for(int l = 4; l < vs; l += Num.length(vl, l)) {
+              id.add(Num.get(vl, l));
+              if(pos != null) {
+                l += Num.length(vl, l);
+                pos.add(Num.get(vl, l));
+              }
+            }
+          }
+          merged.offsets.add(merged.out.size());
+          write(merged.out, id, pos);
+        }
+        return merged;
+      }
+    };
+    if(pool != null) return pool.submit(task);
+
+    final FutureTask<Merged> ft = new FutureTask<>(task);
+    ft.run();
+    return ft;
+  }
+
+  /**
+   * Returns a new split id.
+   * @return split id
+   */
+  private synchronized int split() {
+    return splits++;
   }
 
   /**
-   * Writes the current index tree to disk.
-   * @param partial partial flag
+   * Writes an index tree to disk.
+   * @param tree index tree
+   * @param split split id of a partial index, or {@code -1}
    * @throws IOException I/O exception
    */
-  private void writeIndex(final boolean partial) throws IOException {
+  private void writeIndex(final IndexTree tree, final int split) throws IOException {
     // write id arrays and references
-    final String name = DiskValues.fileSuffix(type) + (partial ? splits : "");
+    final boolean partial = split != -1;
+    final String name = DiskValues.fileSuffix(type) + (partial ? split : "");
     try(DataOutput outL = new DataOutput(data.meta.dbfile(name + 'l'));
         DataOutput outR = new DataOutput(data.meta.dbfile(name + 'r'))) {
-      outL.write4(index.size());
+      outL.write4(tree.size());
 
       final IntList id = new IntList(), pos = tokenize ? new IntList() : null;
-      index.init();
-      while(index.more()) {
-        final byte[] values = index.ids.get(index.next());
+      tree.init();
+      while(tree.more()) {
+        final byte[] values = tree.ids.get(tree.next());
         final int vs = Num.size(values);
 
         if(partial) {
@@ -194,7 +340,8 @@ public final class DiskValuesBuilder extends ValuesBuilder {
             }
           }
           // write final structure to disk
-          write(outL, outR, id, pos);
+          outR.write5(outL.size());
+          write(outL, id, pos);
         }
       }
     }
@@ -202,24 +349,141 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     // temporarily write texts
     if(partial) {
       try(DataOutput outT = new DataOutput(data.meta.dbfile(name + 't'))) {
-        index.init();
-        while(index.more()) outT.writeToken(index.keys.get(index.next()));
+        tree.init();
+        while(tree.more()) outT.writeToken(tree.keys.get(tree.next()));
       }
     }
-    // increase split counter
-    splits++;
   }
 
   /**
-   * Writes the final value structure to disk.
+   * Writes the typed range index for all numeric and date keys, or deletes an existing index
+   * if no range index is requested.
+   * @throws IOException I/O exception
+   */
+  private void writeRanges() throws IOException {
+    final String f = DiskValues.fileSuffix(type);
+    final IOFile file = data.meta.dbfile(f + 'n');
+    if(tokenize || !data.meta.rangeindex || data.meta.updindex) {
+      file.delete();
+      return;
+    }
+
+    // collect keys and the offsets to their id lists
+    final LongList nums = new LongList(), numOffs = new LongList();
+    final LongList dates = new LongList(), dateOffs = new LongList();
+    final boolean text = type == IndexType.TEXT;
+    try(DataAccess idxl = new DataAccess(data.meta.dbfile(f + 'l'));
+        DataAccess idxr = new DataAccess(data.meta.dbfile(f + 'r'))) {
+      final int entries = idxl.read4();
+      for(int index = 0; index < entries; index++) {
+        if((index & 0xFFFF) == 0) checkStop();
+        final long pos = idxr.read5(index * 5L);
+        idxl.readNum(pos);
+        final byte[] value = data.text(idxl.readNum(), text);
+        double d = toDouble(value);
+        if(!Double.isNaN(d)) {
+          // normalize negative zero
+          nums.add(Double.doubleToLongBits(d + 0.0));
+          numOffs.add(pos);
+        } else {
+          d = NumericRange.date(value);
+          if(!Double.isNaN(d)) {
+            dates.add(Double.doubleToLongBits(d));
+            dateOffs.add(pos);
+          }
+        }
+      }
+    }
+
+    try(DataOutput out = new DataOutput(file)) {
+      out.write4(nums.size());
+      out.write4(dates.size());
+      writeRanges(out, nums, numOffs);
+      writeRanges(out, dates, dateOffs);
+    }
+  }
+
+  /**
+   * Writes skip pointers for all id lists that are larger than a single block, or deletes an
+   * existing file if no skip pointers can be created.
+   * @throws IOException I/O exception
+   */
+  private void writeSkips() throws IOException {
+    final String f = DiskValues.fileSuffix(type);
+    final IOFile file = data.meta.dbfile(f + 's');
+    if(tokenize || data.meta.updindex) {
+      file.delete();
+      return;
+    }
+
+    // offsets to the id lists and to the skip tables
+    final LongList lists = new LongList(), tables = new LongList();
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput skips = new DataOutput(ao);
+        DataAccess idxl = new DataAccess(data.meta.dbfile(f + 'l'));
+        DataAccess idxr = new DataAccess(data.meta.dbfile(f + 'r'))) {
+      final int entries = idxl.read4();
+      final int block = DiskValues.BLOCK;
+      for(int index = 0; index < entries; index++) {
+        if((index & 0xFFFF) == 0) checkStop();
+        final int count = idxl.readNum(idxr.read5(index * 5L));
+        if(count <= block) continue;
+
+        lists.add(idxl.cursor());
+        tables.add(skips.size());
+        skips.write4((count - 1) / block);
+        for(int c = 0, id = 0; c < count; c++) {
+          if(c % block == 0 && c != 0) {
+            skips.write4(id);
+            skips.write5(idxl.cursor());
+          }
+          id += idxl.readNum();
+        }
+      }
+    }
+
+    try(DataOutput out = new DataOutput(file)) {
+      final int ls = lists.size();
+      final long header = 4 + ls * 10L;
+      out.write4(ls);
+      for(int l = 0; l < ls; l++) {
+        out.write5(lists.get(l));
+        out.write5(header + tables.get(l));
+      }
+      out.write(ao.buffer(), 0, (int) ao.size());
+    }
+  }
+
+  /**
+   * Writes a section of the typed range index.
+   * @param out output stream
+   * @param keys keys (double values, encoded as bits)
+   * @param offsets offsets to the id lists
+   * @throws IOException I/O exception
+   */
+  private static void writeRanges(final DataOutput out, final LongList keys,
+      final LongList offsets) throws IOException {
+
+    final int ks = keys.size();
+    final double[] values = new double[ks];
+    for(int k = 0; k < ks; k++) values[k] = Double.longBitsToDouble(keys.get(k));
+    for(final int o : Array.createOrder(values, true)) {
+      final long bits = keys.get(o);
+      out.write4((int) (bits >>> 32));
+      out.write4((int) bits);
+      out.write5(offsets.get(o));
+    }
+  }
+
+  /**
+   * Writes the final id list of a key.
    * @param outL index values
-   * @param outR references
    * @param id ids
    * @param pos positions (can be {@code null})
    * @throws IOException I/O exception
    */
-  private void write(final DataOutput outL, final DataOutput outR, final IntList id,
-      final IntList pos) throws IOException {
+  private void write(final DataOutput outL, final IntList id, final IntList pos)
+      throws IOException {
 
     // sort values before writing
     int[] order = null;
@@ -232,7 +496,6 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     }
 
     final int is = id.size();
-    outR.write5(outL.size());
     outL.writeNum(is);
     for(int i = 0, old = 0; i < is; i++) {
       final int value = id.get(i);
@@ -243,4 +506,29 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     id.reset();
     if(pos != null) pos.reset();
   }
+
+  /**
+   * Merged id lists of several keys.
+   */
+  private static final class Merged {
+    /** Compressed id lists. */
+    private final ArrayOutput ao = new ArrayOutput();
+    /** Output stream for compressed id lists. */
+    private final DataOutput out = new DataOutput(ao);
+    /** Offsets to the id lists. */
+    private final LongList offsets = new LongList();
+
+    /**
+     * Writes the id lists and their references.
+     * @param outL index values
+     * @param outR references
+     * @throws IOException I/O exception
+     */
+    private void write(final DataOutput outL, final DataOutput outR) throws IOException {
+      final long base = outL.size();
+      final int os = offsets.size();
+      for(int o = 0; o < os; o++) outR.write5(base + offsets.get(o));
+      outL.write(ao.buffer(), 0, (int) out.size());
+    }
+  }
 }
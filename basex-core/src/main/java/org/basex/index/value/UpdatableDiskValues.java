@@ -33,6 +33,11 @@ public final class UpdatableDiskValues extends DiskValues {
     return data.pre(id);
   }
 
+  @Override
+  protected boolean ordered() {
+    return false;
+  }
+
   @Override
   public synchronized void add(final ValueCache values) {
     // create a sorted list of the new keys and update the old keys
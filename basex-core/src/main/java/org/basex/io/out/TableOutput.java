@@ -1,9 +1,11 @@
 package org.basex.io.out;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.data.*;
 import org.basex.io.*;
+import org.basex.io.random.*;
 
 /**
  * This class allows a blockwise output of the database table.
@@ -22,6 +24,8 @@ public final class TableOutput extends OutputStream {
   private final MetaData meta;
   /** Current filename. */
   private final String file;
+  /** Compressed pages ({@code null} if pages are stored uncompressed). */
+  private final CompressedPages compressed;
 
   /** Position inside buffer. */
   private int pos;
@@ -39,6 +43,7 @@ public final class TableOutput extends OutputStream {
     os = new FileOutputStream(md.dbfile(fn).file());
     meta = md;
     file = fn;
+    compressed = md.compresstable ? new CompressedPages() : null;
   }
 
   @Override
@@ -50,7 +55,15 @@ public final class TableOutput extends OutputStream {
   @Override
   public void flush() throws IOException {
     if(pos == 0) return;
-    os.write(buffer);
+    if(compressed != null) {
+      // clear remaining bytes of last page
+      Arrays.fill(buffer, pos, IO.BLOCKSIZE, (byte) 0);
+      final byte[] packed = CompressedPages.pack(buffer);
+      os.write(packed);
+      compressed.add(packed.length);
+    } else {
+      os.write(buffer);
+    }
     pages++;
     pos = 0;
   }
@@ -69,5 +82,6 @@ public final class TableOutput extends OutputStream {
       // max value indicates that regular page table is not stored on disk
       out.writeNum(empty ? 0 : Integer.MAX_VALUE);
     }
+    if(compressed != null) compressed.write(meta.dbfile(file + 'c'));
   }
 }
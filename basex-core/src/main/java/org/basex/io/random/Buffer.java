@@ -1,5 +1,9 @@
 package org.basex.io.random;
 
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
 import org.basex.io.*;
 
 /**
@@ -15,4 +19,43 @@ final class Buffer {
   long pos = -1;
   /** Dirty flag. */
   boolean dirty;
+
+  /** File that currently uses this buffer ({@code null} if buffer is unused). */
+  Buffers owner;
+  /** Number of pins (buffer will not be evicted as long as it is pinned). */
+  int pins;
+  /** Indicates if the buffer is being written back before it is evicted. */
+  boolean evicting;
+  /** Queue of the buffer pool that contains this buffer. */
+  int queue;
+  /** Previous buffer in the queue. */
+  Buffer prev;
+  /** Next buffer in the queue. */
+  Buffer next;
+
+  /**
+   * Reads a block from the specified file.
+   * Positional reads are used, because buffers may be written back by other threads.
+   * @param channel file channel
+   * @param off file offset
+   * @param len number of bytes to read
+   * @throws IOException I/O exception
+   */
+  void read(final FileChannel channel, final long off, final int len) throws IOException {
+    final ByteBuffer bb = ByteBuffer.wrap(data, 0, len);
+    while(bb.hasRemaining() && channel.read(bb, off + bb.position()) != -1);
+  }
+
+  /**
+   * Writes the block to the specified file and resets the dirty flag.
+   * @param channel file channel
+   * @param off file offset
+   * @param len number of bytes to write
+   * @throws IOException I/O exception
+   */
+  void write(final FileChannel channel, final long off, final int len) throws IOException {
+    final ByteBuffer bb = ByteBuffer.wrap(data, 0, len);
+    while(bb.hasRemaining()) channel.write(bb, off + bb.position());
+    dirty = false;
+  }
 }
@@ -0,0 +1,385 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.core.jobs.*;
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * This class provides a global pool of disk buffers, which is shared by all files.
+ * The pool is divided into segments, which are chosen by the hash of the file and the
+ * buffer position. Each segment has its own lock, its own queues and an equal share of
+ * the pool size. Buffers are evicted with a simplified 2Q strategy:
+ * <ul>
+ *   <li> New buffers are added to a FIFO queue ({@code in}).</li>
+ *   <li> Buffers that are requested again after they have been evicted from the FIFO queue
+ *        are added to an LRU queue ({@code main}).</li>
+ *   <li> Pinned buffers (i.e., the current buffers of all files) are never evicted.</li>
+ * </ul>
+ * All methods are synchronized via the segment instances. Dirty buffers are written back
+ * outside the lock: they remain assigned to their file until they have been written, and
+ * requests for them are blocked meanwhile (see {@link Buffers#cursor(long)}).
+ * If the maximum size is reduced, the pool shrinks as soon as buffers are released or evicted.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class BufferPool {
+  /** Number of segments (must be a power of two). */
+  static final int SEGMENTS = 1 << 4;
+  /** Segments of the pool. */
+  static final BufferPool[] POOL = new BufferPool[SEGMENTS];
+
+  static {
+    for(int s = 0; s < SEGMENTS; s++) POOL[s] = new BufferPool(s);
+  }
+
+  /** Queue of unused buffers. */
+  private static final int FREE = 0;
+  /** FIFO queue for buffers that have been requested once. */
+  private static final int IN = 1;
+  /** LRU queue for frequently requested buffers. */
+  private static final int MAIN = 2;
+
+  /** Unused buffers. */
+  private final BufferQueue free = new BufferQueue(FREE);
+  /** Buffers that have been requested once. */
+  private final BufferQueue in = new BufferQueue(IN);
+  /** Frequently requested buffers. */
+  private final BufferQueue main = new BufferQueue(MAIN);
+  /** Recently evicted buffers of the FIFO queue. */
+  private final ArrayDeque<Ghost> ghosts = new ArrayDeque<>();
+
+  /** Segment id. */
+  private final int id;
+  /** Maximum number of buffers. */
+  private int capacity = (1 << 13) / SEGMENTS;
+  /** Number of allocated buffers. */
+  private int size;
+  /** Number of buffer hits. */
+  private long hits;
+  /** Number of buffer misses. */
+  private long misses;
+  /** Number of evicted buffers. */
+  private long evictions;
+
+  /**
+   * Private constructor.
+   * @param id segment id
+   */
+  private BufferPool(final int id) {
+    this.id = id;
+  }
+
+  /**
+   * Assigns the maximum size of the buffer pool.
+   * @param mb size in megabytes
+   */
+  public static void size(final int mb) {
+    final int cap = (int) Math.max(1, Math.min(Integer.MAX_VALUE, ((long) mb << 20) /
+        IO.BLOCKSIZE / SEGMENTS));
+    for(final BufferPool bp : POOL) {
+      synchronized(bp) {
+        bp.capacity = cap;
+        bp.trim();
+      }
+    }
+  }
+
+  /**
+   * Returns information on the buffer pool.
+   * @return info string
+   */
+  public static String info() {
+    long sz = 0, cap = 0, hits = 0, misses = 0, evictions = 0;
+    for(final BufferPool bp : POOL) {
+      synchronized(bp) {
+        sz += bp.size;
+        cap += bp.capacity;
+        hits += bp.hits;
+        misses += bp.misses;
+        evictions += bp.evictions;
+      }
+    }
+    return Util.info("% / % (hits: %, misses: %, evictions: %)",
+        Performance.format(sz * IO.BLOCKSIZE), Performance.format(cap * IO.BLOCKSIZE),
+        hits, misses, evictions);
+  }
+
+  /**
+   * Returns the segment that manages the specified buffer of a file.
+   * @param owner file
+   * @param pos buffer position
+   * @return segment
+   */
+  static BufferPool segment(final Buffers owner, final long pos) {
+    return POOL[(int) ((pos + owner.hashCode()) * 0x9E3779B97F4A7C15L >>> 60)];
+  }
+
+  /**
+   * Returns the buffers of the specified file that are managed by this segment.
+   * @param owner file
+   * @return buffers
+   */
+  Buffers.Entries entries(final Buffers owner) {
+    return owner.entries[id];
+  }
+
+  /**
+   * Registers a hit for the specified buffer.
+   * @param buffer buffer
+   * @return buffer
+   */
+  Buffer hit(final Buffer buffer) {
+    hits++;
+    if(buffer.queue == MAIN) {
+      main.remove(buffer);
+      main.add(buffer);
+    }
+    return buffer;
+  }
+
+  /**
+   * Assigns a buffer for the specified file and position. If the maximum number of buffers
+   * has been reached, an unpinned buffer will be evicted. If all buffers are pinned,
+   * a new buffer will be created. If the evicted buffer is dirty, it will be returned
+   * without being assigned: it must be written back by the caller without holding the lock,
+   * and {@link #evicted(Buffer)} must be called afterwards.
+   * @param owner file
+   * @param pos buffer position
+   * @return buffer (contents must be filled by the caller), or dirty buffer to be written back
+   */
+  Buffer load(final Buffers owner, final long pos) {
+    Buffer bf = free.first;
+    if(bf != null) {
+      free.remove(bf);
+    } else {
+      while(size >= capacity) {
+        final Buffer ev = evict();
+        // all buffers are pinned: create new buffer
+        if(ev == null) break;
+        if(ev.evicting) return ev;
+        if(size == capacity) {
+          bf = ev;
+          break;
+        }
+        // maximum size has been reduced: discard buffer
+        size--;
+      }
+      if(bf == null) {
+        bf = new Buffer();
+        size++;
+      }
+    }
+    misses++;
+
+    final Long key = pos;
+    final Buffers.Entries entries = entries(owner);
+    bf.owner = owner;
+    bf.pos = pos;
+    bf.dirty = false;
+    entries.buffers.put(key, bf);
+    // buffers that have recently been evicted from the FIFO queue are moved to the main queue
+    if(entries.ghosts.remove(key)) main.add(bf);
+    else in.add(bf);
+    return bf;
+  }
+
+  /**
+   * Returns all buffers of the specified file that are managed by this segment to the list of
+   * unused buffers. Dirty buffers must have been written back before, as they are discarded.
+   * @param owner file
+   */
+  void release(final Buffers owner) {
+    final Buffers.Entries entries = entries(owner);
+    for(final Buffer bf : entries.buffers.values()) {
+      (bf.queue == IN ? in : main).remove(bf);
+      bf.owner = null;
+      bf.pos = -1;
+      bf.pins = 0;
+      free.add(bf);
+    }
+    entries.buffers.clear();
+    entries.ghosts.clear();
+    trim();
+  }
+
+  /**
+   * Completes the eviction of a buffer that has been written back, and wakes up all threads
+   * that are waiting for this buffer.
+   * @param buffer buffer returned by {@link #load(Buffers, long)}
+   */
+  void evicted(final Buffer buffer) {
+    buffer.evicting = false;
+    buffer.pins--;
+    remove(buffer);
+    buffer.owner = null;
+    buffer.pos = -1;
+    if(size > capacity) size--;
+    else free.add(buffer);
+    notifyAll();
+  }
+
+  /**
+   * Waits until a buffer has been written back.
+   * @throws JobException if the thread has been interrupted
+   */
+  void await() {
+    try {
+      wait();
+    } catch(final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new JobException(Text.INTERRUPTED);
+    }
+  }
+
+  /**
+   * Writes the specified buffer to disk if it is dirty.
+   * @param buffer buffer
+   */
+  static void write(final Buffer buffer) {
+    if(!buffer.dirty) return;
+    try {
+      buffer.owner.write(buffer);
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  /**
+   * Evicts an unpinned buffer. The buffer will be removed from the FIFO queue if this queue
+   * exceeds a quarter of the pool. Otherwise, the least recently used buffer will be chosen.
+   * Dirty buffers are pinned and marked, and their eviction is completed after they have
+   * been written back.
+   * @return buffer or {@code null} if all buffers are pinned
+   */
+  private Buffer evict() {
+    Buffer bf = in.size > capacity >>> 2 ? in.unpinned() : null;
+    if(bf == null) bf = main.unpinned();
+    if(bf == null) bf = in.unpinned();
+    if(bf == null) return null;
+
+    if(bf.dirty) {
+      bf.evicting = true;
+      bf.pins++;
+    } else {
+      remove(bf);
+    }
+    return bf;
+  }
+
+  /**
+   * Removes an evicted buffer from its file and from its queue.
+   * @param bf buffer
+   */
+  private void remove(final Buffer bf) {
+    final Buffers owner = bf.owner;
+    final Buffers.Entries entries = entries(owner);
+    final Long key = bf.pos;
+    entries.buffers.remove(key);
+    if(bf.queue == IN) {
+      // remember position of evicted buffer
+      entries.ghosts.add(key);
+      ghosts.add(new Ghost(owner, key));
+      if(ghosts.size() > capacity >>> 1) {
+        final Ghost g = ghosts.poll();
+        entries(g.owner).ghosts.remove(g.pos);
+      }
+      in.remove(bf);
+    } else {
+      main.remove(bf);
+    }
+    evictions++;
+  }
+
+  /**
+   * Discards unused buffers if the maximum size of the pool has been exceeded.
+   */
+  private void trim() {
+    for(Buffer bf; size > capacity && (bf = free.first) != null; size--) free.remove(bf);
+  }
+
+  /**
+   * Doubly linked queue of buffers.
+   */
+  private static final class BufferQueue {
+    /** Queue id. */
+    private final int id;
+    /** First (oldest) buffer. */
+    private Buffer first;
+    /** Last (newest) buffer. */
+    private Buffer last;
+    /** Number of buffers. */
+    private int size;
+
+    /**
+     * Constructor.
+     * @param id queue id
+     */
+    private BufferQueue(final int id) {
+      this.id = id;
+    }
+
+    /**
+     * Adds a buffer to the end of the queue.
+     * @param buffer buffer
+     */
+    private void add(final Buffer buffer) {
+      buffer.queue = id;
+      buffer.prev = last;
+      buffer.next = null;
+      if(last == null) first = buffer;
+      else last.next = buffer;
+      last = buffer;
+      size++;
+    }
+
+    /**
+     * Removes a buffer from the queue.
+     * @param buffer buffer
+     */
+    private void remove(final Buffer buffer) {
+      if(buffer.prev == null) first = buffer.next;
+      else buffer.prev.next = buffer.next;
+      if(buffer.next == null) last = buffer.prev;
+      else buffer.next.prev = buffer.prev;
+      buffer.prev = null;
+      buffer.next = null;
+      size--;
+    }
+
+    /**
+     * Returns the oldest unpinned buffer.
+     * @return buffer or {@code null}
+     */
+    private Buffer unpinned() {
+      for(Buffer bf = first; bf != null; bf = bf.next) {
+        if(bf.pins == 0) return bf;
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Position of an evicted buffer.
+   */
+  private static final class Ghost {
+    /** File. */
+    private final Buffers owner;
+    /** Buffer position. */
+    private final Long pos;
+
+    /**
+     * Constructor.
+     * @param owner file
+     * @param pos buffer position
+     */
+    private Ghost(final Buffers owner, final Long pos) {
+      this.owner = owner;
+      this.pos = pos;
+    }
+  }
+}
@@ -1,53 +1,183 @@
 package org.basex.io.random;
 
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.jobs.*;
+import org.basex.util.*;
+
 /**
- * This class provides a simple, clock-based buffer management.
+ * This class manages the buffers of a single file. Buffers are requested from the segments of
+ * the global {@link BufferPool}. The current buffer is pinned, i.e., it will not be evicted by
+ * other files.
  *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  */
-final class Buffers {
-  /** Number of buffers (must be 1 << n). */
-  private static final int BUFFERS = 1 << 4;
-  /** Buffers. */
-  private final Buffer[] buf = new Buffer[BUFFERS];
-  /** Current buffer offset. */
-  private int off;
+abstract class Buffers {
+  /** Buffers of this file, per segment of the buffer pool. */
+  final Entries[] entries = new Entries[BufferPool.SEGMENTS];
+  /** Current buffer ({@code null} if no buffer has been assigned, or if the file was closed). */
+  private Buffer current;
+  /** Closed flag. */
+  private boolean closed;
 
   /**
    * Constructor.
    */
   Buffers() {
-    for(int b = 0; b < BUFFERS; ++b) buf[b] = new Buffer();
+    for(int s = 0; s < BufferPool.SEGMENTS; s++) entries[s] = new Entries();
   }
 
   /**
-   * Returns all buffers.
-   * @return buffers
+   * Returns the current buffer.
+   * @return current buffer
+   * @throws RuntimeException if the file was closed
    */
-  Buffer[] all() {
-    return buf;
+  final Buffer current() {
+    final Buffer cur = current;
+    if(cur == null) throw closed();
+    return cur;
   }
 
   /**
-   * Returns the current buffer.
-   * @return current buffer
+   * Chooses the buffer for the specified position and pins it.
+   * Only the lock of the responsible segment of the buffer pool is acquired.
+   * If a dirty buffer needs to be evicted first, it is written back without holding the lock.
+   * Requests for buffers that are currently written back are blocked until the eviction has
+   * been completed. The previous buffer remains pinned until the new buffer has been assigned.
+   * @param pos buffer position
+   * @return {@code true} if the buffer is new and needs to be filled
+   * @throws JobException if the thread is interrupted while waiting for a buffer
+   * @throws RuntimeException if the file was closed
    */
-  Buffer current() {
-    return buf[off];
+  final boolean cursor(final long pos) {
+    if(closed) throw closed();
+    final Buffer cur = current;
+    if(cur != null && cur.pos == pos) return false;
+
+    final BufferPool pool = BufferPool.segment(this, pos);
+    final HashMap<Long, Buffer> buffers = pool.entries(this).buffers;
+    Buffer evicted = null;
+    boolean miss;
+    while(true) {
+      synchronized(pool) {
+        if(evicted != null) {
+          pool.evicted(evicted);
+          evicted = null;
+        }
+        Buffer bf = buffers.get(pos);
+        if(bf != null && bf.evicting) {
+          pool.await();
+          continue;
+        }
+        miss = bf == null;
+        bf = miss ? pool.load(this, pos) : pool.hit(bf);
+        if(!bf.evicting) {
+          bf.pins++;
+          current = bf;
+          break;
+        }
+        evicted = bf;
+      }
+      BufferPool.write(evicted);
+    }
+    if(cur != null) {
+      final BufferPool cp = BufferPool.segment(this, cur.pos);
+      synchronized(cp) {
+        cur.pins--;
+      }
+    }
+    return miss;
+  }
+
+  /**
+   * Writes all dirty buffers to disk. The buffers are collected and pinned while the segments
+   * of the buffer pool are locked, and they are written after the locks have been released.
+   * @throws IOException I/O exception
+   */
+  final void flush() throws IOException {
+    final ArrayList<Buffer> dirty = new ArrayList<>();
+    for(final BufferPool pool : BufferPool.POOL) {
+      final Entries ent = pool.entries(this);
+      synchronized(pool) {
+        while(ent.evicting()) pool.await();
+        for(final Buffer bf : ent.buffers.values()) {
+          if(bf.dirty) {
+            bf.pins++;
+            dirty.add(bf);
+          }
+        }
+      }
+    }
+    try {
+      for(final Buffer bf : dirty) write(bf);
+    } finally {
+      for(final Buffer bf : dirty) {
+        final BufferPool pool = BufferPool.segment(this, bf.pos);
+        synchronized(pool) {
+          bf.pins--;
+        }
+      }
+    }
   }
 
   /**
-   * Chooses a buffer and sets the offset.
-   * @param p buffer pointer
-   * @return true if cursor has changed
+   * Returns all buffers to the pool. Remaining dirty buffers are written back before,
+   * without holding the locks of the buffer pool.
    */
-  boolean cursor(final long p) {
-    final int o = off;
-    do {
-      if(buf[off].pos == p) return false;
-    } while((off = off + 1 & BUFFERS - 1) != o);
-    off = o + 1 & BUFFERS - 1;
-    return true;
+  final void close() {
+    try {
+      flush();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+    current = null;
+    closed = true;
+    for(final BufferPool pool : BufferPool.POOL) {
+      final Entries ent = pool.entries(this);
+      synchronized(pool) {
+        while(ent.evicting()) pool.await();
+        pool.release(this);
+      }
+    }
+  }
+
+  /**
+   * Returns an exception for accessing the buffers of a closed file.
+   * @return runtime exception
+   */
+  private static RuntimeException closed() {
+    return Util.notExpected("Buffers of a closed file are accessed.");
+  }
+
+  /**
+   * Writes the specified buffer to disk and resets its dirty flag.
+   * Must be thread-safe, as it may be called by other threads if the buffer is evicted.
+   * @param buffer buffer
+   * @throws IOException I/O exception
+   */
+  abstract void write(Buffer buffer) throws IOException;
+
+  /**
+   * Buffers of a file that are managed by a single segment of the buffer pool.
+   * All fields are guarded by the segment.
+   */
+  static final class Entries {
+    /** Buffers, indexed by their position. */
+    final HashMap<Long, Buffer> buffers = new HashMap<>();
+    /** Positions of recently evicted buffers. */
+    final HashSet<Long> ghosts = new HashSet<>();
+
+    /**
+     * Checks if buffers are currently written back by other threads.
+     * @return result of check
+     */
+    boolean evicting() {
+      for(final Buffer bf : buffers.values()) {
+        if(bf.evicting) return true;
+      }
+      return false;
+    }
   }
 }
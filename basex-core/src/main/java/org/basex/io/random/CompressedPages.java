@@ -0,0 +1,342 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+
+/**
+ * This class organizes the compressed pages of a database table.
+ *
+ * Pages are compressed in two steps:
+ * <ul>
+ *   <li> Each page is split into four columns of integers (bytes 0-3, 4-7, 8-11 and 12-15
+ *        of all entries). The difference of each value to its predecessor is stored as
+ *        compressed number (see {@link Num}). Consecutive distances, sizes and ids
+ *        will mostly result in small values.</li>
+ *   <li> The resulting bytes are packed with a simple LZ77 variant, which replaces repeated
+ *        byte sequences with references to previous occurrences.</li>
+ * </ul>
+ *
+ * Compressed pages are stored in slots of variable length. If an updated page does not
+ * fit into its original slot anymore, it is moved to the first unused slot that is large
+ * enough, or appended to the end of the file. Released slots are merged with adjacent unused
+ * slots. The directory of all slots is stored in a separate file; unused slots are not stored,
+ * as they are the gaps between the slots of all pages.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class CompressedPages {
+  /** Uncompressed page. */
+  private static final int RAW = 0;
+  /** Compressed page. */
+  private static final int PACKED = 1;
+  /** Minimum length of a repeated byte sequence. */
+  private static final int MINMATCH = 5;
+  /** Number of bits used for hashing byte sequences. */
+  private static final int HASHBITS = 12;
+  /** Number of integers in a page. */
+  private static final int INTS = IO.BLOCKSIZE >>> 2;
+
+  /** File offsets of the pages. */
+  private long[] offsets;
+  /** Lengths of the compressed pages. */
+  private int[] lengths;
+  /** Capacities of the slots. */
+  private int[] capacities;
+  /** Number of pages. */
+  private int size;
+  /** Unused slots: file offsets and capacities (adjacent slots are merged). */
+  private final TreeMap<Long, Long> free = new TreeMap<>();
+  /** End of the file. */
+  private long end;
+  /** Indicates if the directory has been changed. */
+  private boolean changed;
+
+  /**
+   * Constructor for a new table.
+   */
+  public CompressedPages() {
+    offsets = new long[Array.CAPACITY];
+    lengths = new int[Array.CAPACITY];
+    capacities = new int[Array.CAPACITY];
+  }
+
+  /**
+   * Constructor, reading the directory from disk.
+   * @param file directory file
+   * @throws IOException I/O exception
+   */
+  public CompressedPages(final IOFile file) throws IOException {
+    try(DataInput in = new DataInput(file)) {
+      offsets = in.readLongs(in.readNum());
+      lengths = in.readNums();
+      capacities = in.readNums();
+    }
+    size = offsets.length;
+
+    // register gaps between the slots as unused
+    final long[] offs = offsets.clone();
+    final int[] order = Array.createOrder(offs, true);
+    for(int o = 0; o < size; o++) {
+      final int cap = capacities[order[o]];
+      if(cap == 0) continue;
+      if(offs[o] > end) free.put(end, offs[o] - end);
+      end = Math.max(end, offs[o] + cap);
+    }
+  }
+
+  /**
+   * Registers a page that has been appended to the end of the file.
+   * @param length length of the compressed page
+   */
+  public synchronized void add(final int length) {
+    ensure(size);
+    offsets[size] = end;
+    lengths[size] = length;
+    capacities[size] = length;
+    end += length;
+    size++;
+    changed = true;
+  }
+
+  /**
+   * Writes the directory to disk if it has been changed.
+   * @param file directory file
+   * @throws IOException I/O exception
+   */
+  public synchronized void write(final IOFile file) throws IOException {
+    if(!changed) return;
+    try(DataOutput out = new DataOutput(file)) {
+      out.writeLongs(Arrays.copyOf(offsets, size));
+      out.writeNums(Arrays.copyOf(lengths, size));
+      out.writeNums(Arrays.copyOf(capacities, size));
+    }
+    changed = false;
+  }
+
+  /**
+   * Reads and decompresses a page.
+   * @param channel file channel
+   * @param page page
+   * @param data page data
+   * @throws IOException I/O exception
+   */
+  void read(final FileChannel channel, final int page, final byte[] data) throws IOException {
+    final long off;
+    final byte[] packed;
+    synchronized(this) {
+      off = offsets[page];
+      packed = new byte[lengths[page]];
+    }
+    final ByteBuffer bb = ByteBuffer.wrap(packed);
+    while(bb.hasRemaining() && channel.read(bb, off + bb.position()) != -1);
+    unpack(packed, data);
+  }
+
+  /**
+   * Compresses and writes a page. If the page does not fit into its current slot,
+   * it will be appended to the end of the file. This method may be called by other threads
+   * if the buffer is evicted from the buffer pool.
+   * @param channel file channel
+   * @param page page
+   * @param data page data
+   * @throws IOException I/O exception
+   */
+  void write(final FileChannel channel, final int page, final byte[] data) throws IOException {
+    final byte[] packed = pack(data);
+    final int pl = packed.length;
+    final long off;
+    synchronized(this) {
+      if(page >= size) {
+        ensure(page);
+        size = page + 1;
+      }
+      if(pl > capacities[page]) {
+        // reserve some more space for future updates
+        final int cap = Math.min(pl + (pl >>> 3), IO.BLOCKSIZE + 1);
+        if(capacities[page] != 0) release(offsets[page], capacities[page]);
+        offsets[page] = allocate(cap);
+        capacities[page] = cap;
+      }
+      lengths[page] = pl;
+      off = offsets[page];
+      changed = true;
+    }
+    final ByteBuffer bb = ByteBuffer.wrap(packed);
+    while(bb.hasRemaining()) channel.write(bb, off + bb.position());
+  }
+
+  /**
+   * Returns the offset of the first unused slot with the specified capacity.
+   * If no unused slot is large enough, the slot is appended to the end of the file.
+   * @param cap capacity
+   * @return file offset
+   */
+  private long allocate(final int cap) {
+    for(final Map.Entry<Long, Long> slot : free.entrySet()) {
+      final long c = slot.getValue();
+      if(c < cap) continue;
+      final long off = slot.getKey();
+      free.remove(off);
+      if(c > cap) free.put(off + cap, c - cap);
+      return off;
+    }
+    final long off = end;
+    end += cap;
+    return off;
+  }
+
+  /**
+   * Releases a slot and merges it with adjacent unused slots.
+   * @param off file offset
+   * @param cap capacity
+   */
+  private void release(final long off, final int cap) {
+    long o = off, c = cap;
+    final Map.Entry<Long, Long> prev = free.floorEntry(o);
+    if(prev != null && prev.getKey() + prev.getValue() == o) {
+      o = prev.getKey();
+      c += free.remove(o);
+    }
+    final Long next = free.remove(o + c);
+    if(next != null) c += next;
+    // slot at the end of the file will be reused by appended slots
+    if(o + c == end) end = o;
+    else free.put(o, c);
+  }
+
+  /**
+   * Ensures that the arrays can store the specified page.
+   * @param page page
+   */
+  private void ensure(final int page) {
+    if(page < offsets.length) return;
+    final int s = Math.max(page + 1, Array.newSize(offsets.length));
+    offsets = Arrays.copyOf(offsets, s);
+    lengths = Arrays.copyOf(lengths, s);
+    capacities = Arrays.copyOf(capacities, s);
+  }
+
+  // STATIC METHODS ===========================================================
+
+  /**
+   * Compresses a page.
+   * @param data page data
+   * @return compressed page
+   */
+  public static byte[] pack(final byte[] data) {
+    // compute deltas of all columns
+    final byte[] deltas = new byte[INTS * 5];
+    int dl = 0;
+    for(int c = 0; c < 16; c += 4) {
+      int prev = 0;
+      for(int o = c; o < IO.BLOCKSIZE; o += IO.NODESIZE) {
+        final int v = ((data[o] & 0xFF) << 24) + ((data[o + 1] & 0xFF) << 16) +
+            ((data[o + 2] & 0xFF) << 8) + (data[o + 3] & 0xFF), d = v - prev;
+        dl += Num.set(deltas, d << 1 ^ d >> 31, dl);
+        prev = v;
+      }
+    }
+
+    // replace repeated sequences
+    final byte[] packed = new byte[1 + dl * 2 + 5];
+    packed[0] = PACKED;
+    int pl = 1, anchor = 0, pos = 0;
+    final int[] table = new int[1 << HASHBITS];
+    while(pos + MINMATCH <= dl) {
+      final int h = hash(deltas, pos), cand = table[h] - 1;
+      table[h] = pos + 1;
+      int ml = 0;
+      if(cand >= 0) {
+        while(pos + ml < dl && deltas[cand + ml] == deltas[pos + ml]) ml++;
+      }
+      if(ml >= MINMATCH) {
+        pl += Num.set(packed, pos - anchor, pl);
+        System.arraycopy(deltas, anchor, packed, pl, pos - anchor);
+        pl += pos - anchor;
+        pl += Num.set(packed, ml, pl);
+        pl += Num.set(packed, pos - cand, pl);
+        pos += ml;
+        anchor = pos;
+      } else {
+        pos++;
+      }
+    }
+    pl += Num.set(packed, dl - anchor, pl);
+    System.arraycopy(deltas, anchor, packed, pl, dl - anchor);
+    pl += dl - anchor;
+
+    // choose uncompressed page if compression does not reduce its size
+    if(pl <= IO.BLOCKSIZE) return Arrays.copyOf(packed, pl);
+    final byte[] raw = new byte[IO.BLOCKSIZE + 1];
+    raw[0] = RAW;
+    System.arraycopy(data, 0, raw, 1, IO.BLOCKSIZE);
+    return raw;
+  }
+
+  /**
+   * Decompresses a page.
+   * @param packed compressed page
+   * @param data page data
+   */
+  public static void unpack(final byte[] packed, final byte[] data) {
+    final int pl = packed.length;
+    if(packed[0] == RAW) {
+      System.arraycopy(packed, 1, data, 0, IO.BLOCKSIZE);
+      return;
+    }
+
+    // restore repeated sequences
+    final byte[] deltas = new byte[INTS * 5];
+    int pos = 1, dl = 0;
+    while(true) {
+      final int ll = Num.get(packed, pos);
+      pos += Num.length(packed, pos);
+      System.arraycopy(packed, pos, deltas, dl, ll);
+      pos += ll;
+      dl += ll;
+      if(pos == pl) break;
+      final int ml = Num.get(packed, pos);
+      pos += Num.length(packed, pos);
+      final int off = Num.get(packed, pos);
+      pos += Num.length(packed, pos);
+      // sequences may overlap: copy single bytes
+      for(int m = 0; m < ml; m++) deltas[dl + m] = deltas[dl - off + m];
+      dl += ml;
+    }
+
+    // restore columns
+    pos = 0;
+    for(int c = 0; c < 16; c += 4) {
+      int prev = 0;
+      for(int o = c; o < IO.BLOCKSIZE; o += IO.NODESIZE) {
+        final int z = Num.get(deltas, pos), v = prev + (z >>> 1 ^ -(z & 1));
+        pos += Num.length(deltas, pos);
+        data[o] = (byte) (v >>> 24);
+        data[o + 1] = (byte) (v >>> 16);
+        data[o + 2] = (byte) (v >>> 8);
+        data[o + 3] = (byte) v;
+        prev = v;
+      }
+    }
+  }
+
+  /**
+   * Computes a hash value for the byte sequence at the specified position.
+   * @param bytes bytes
+   * @param pos position
+   * @return hash value
+   */
+  private static int hash(final byte[] bytes, final int pos) {
+    final int v = ((bytes[pos] & 0xFF) << 24) + ((bytes[pos + 1] & 0xFF) << 16) +
+        ((bytes[pos + 2] & 0xFF) << 8) + (bytes[pos + 3] & 0xFF);
+    return v * 0x9E3779B1 >>> 32 - HASHBITS;
+  }
+}
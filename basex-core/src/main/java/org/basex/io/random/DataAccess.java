@@ -1,6 +1,8 @@
 package org.basex.io.random;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
 
 import org.basex.io.*;
 import org.basex.util.*;
@@ -12,14 +14,31 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public final class DataAccess implements Closeable {
+  /** Number of bytes that are initially fetched by positional reads. */
+  private static final int HEAD = 128;
+
   /** Buffer manager. */
-  private final Buffers bm = new Buffers();
+  private final Buffers bm = new Buffers() {
+    @Override
+    void write(final Buffer buffer) throws IOException {
+      writeBlock(buffer);
+    }
+  };
   /** Reference to the data input stream. */
   private final RandomAccessFile raf;
-  /** File length. */
-  private long length;
+  /** Indicates if the file will be mapped into memory if no data is written. */
+  private final boolean mmap;
+  /** Memory-mapped file ({@code null} if data is accessed via the buffer manager; read without
+   * locking by positional reads). */
+  private volatile MappedBuffers mapped;
+  /** Cursor in the memory-mapped file. */
+  private long mpos;
+  /** File length (read by other threads if buffers are evicted, see {@link #writeBlock}). */
+  private volatile long length;
   /** Changed flag. */
   private boolean changed;
+  /** Indicates if all written data has been flushed to disk (checked by concurrent readers). */
+  private volatile boolean clean = true;
   /** Offset. */
   private int off;
 
@@ -29,28 +48,38 @@ public final class DataAccess implements Closeable {
    * @throws IOException I/O Exception
    */
   public DataAccess(final IOFile file) throws IOException {
+    this(file, false);
+  }
+
+  /**
+   * Constructor, initializing the file reader.
+   * @param file the file to be read
+   * @param mmap map file into memory as long as no data is written
+   * @throws IOException I/O Exception
+   */
+  public DataAccess(final IOFile file, final boolean mmap) throws IOException {
     RandomAccessFile f = null;
     try {
       f = new RandomAccessFile(file.file(), "rw");
       length = f.length();
       raf = f;
+      this.mmap = mmap;
       cursor(0);
+      map();
     } catch(final IOException ex) {
+      bm.close();
       if(f != null) f.close();
       throw ex;
     }
   }
 
   /**
-   * Flushes the buffered data.
+   * Flushes the buffered data. If memory mapping is enabled, the file will be remapped.
    */
   public synchronized void flush() {
+    write();
     try {
-      for(final Buffer b : bm.all()) if(b.dirty) writeBlock(b);
-      if(changed) {
-        raf.setLength(length);
-        changed = false;
-      }
+      map();
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -58,7 +87,9 @@ public final class DataAccess implements Closeable {
 
   @Override
   public synchronized void close() {
-    flush();
+    write();
+    unmap();
+    bm.close();
     try {
       raf.close();
     } catch(final IOException ex) {
@@ -71,7 +102,7 @@ public final class DataAccess implements Closeable {
    * @return position in the file
    */
   public long cursor() {
-    return buffer(false).pos + off;
+    return mapped != null ? mpos : buffer(false).pos + off;
   }
 
   /**
@@ -95,17 +126,25 @@ public final class DataAccess implements Closeable {
    * @param pos position
    * @return integer value
    */
-  public synchronized byte read1(final long pos) {
-    cursor(pos);
-    return read1();
+  public byte read1(final long pos) {
+    final MappedBuffers mb = mapped;
+    if(mb != null) return read1(mb, pos);
+    synchronized(this) {
+      cursor(pos);
+      return (byte) read();
+    }
   }
 
   /**
    * Reads a byte value.
    * @return integer value
    */
-  public synchronized byte read1() {
-    return (byte) read();
+  public byte read1() {
+    final MappedBuffers mb = mapped;
+    if(mb != null) return read1(mb, mpos);
+    synchronized(this) {
+      return (byte) read();
+    }
   }
 
   /**
@@ -113,17 +152,25 @@ public final class DataAccess implements Closeable {
    * @param pos position
    * @return integer value
    */
-  public synchronized int read4(final long pos) {
-    cursor(pos);
-    return read4();
+  public int read4(final long pos) {
+    final MappedBuffers mb = mapped;
+    if(mb != null) return read4(mb, pos);
+    synchronized(this) {
+      cursor(pos);
+      return (read() << 24) + (read() << 16) + (read() << 8) + read();
+    }
   }
 
   /**
    * Reads an integer value.
    * @return integer value
    */
-  public synchronized int read4() {
-    return (read() << 24) + (read() << 16) + (read() << 8) + read();
+  public int read4() {
+    final MappedBuffers mb = mapped;
+    if(mb != null) return read4(mb, mpos);
+    synchronized(this) {
+      return (read() << 24) + (read() << 16) + (read() << 8) + read();
+    }
   }
 
   /**
@@ -131,17 +178,26 @@ public final class DataAccess implements Closeable {
    * @param pos position
    * @return long value
    */
-  public synchronized long read5(final long pos) {
-    cursor(pos);
-    return read5();
+  public long read5(final long pos) {
+    final MappedBuffers mb = mapped;
+    if(mb != null) return read5(mb, pos);
+    synchronized(this) {
+      cursor(pos);
+      return read5();
+    }
   }
 
   /**
    * Reads a 5-byte value.
    * @return long value
    */
-  public synchronized long read5() {
-    return ((long) read() << 32) + ((long) read() << 24) + (read() << 16) + (read() << 8) + read();
+  public long read5() {
+    final MappedBuffers mb = mapped;
+    if(mb != null) return read5(mb, mpos);
+    synchronized(this) {
+      return ((long) read() << 32) + ((long) read() << 24) + (read() << 16) + (read() << 8) +
+          read();
+    }
   }
 
   /**
@@ -149,9 +205,13 @@ public final class DataAccess implements Closeable {
    * @param p text position
    * @return read num
    */
-  public synchronized int readNum(final long p) {
-    cursor(p);
-    return readNum();
+  public int readNum(final long p) {
+    final MappedBuffers mb = mapped;
+    if(mb != null) return readNum(mb, p);
+    synchronized(this) {
+      cursor(p);
+      return readNum();
+    }
   }
 
   /**
@@ -159,18 +219,26 @@ public final class DataAccess implements Closeable {
    * @param p text position
    * @return text as byte array
    */
-  public synchronized byte[] readToken(final long p) {
-    cursor(p);
-    return readToken();
+  public byte[] readToken(final long p) {
+    final MappedBuffers mb = mapped;
+    if(mb != null) return readToken(mb, p);
+    synchronized(this) {
+      cursor(p);
+      return readToken();
+    }
   }
 
   /**
    * Reads the next token from disk.
    * @return text as byte array
    */
-  public synchronized byte[] readToken() {
-    final int l = readNum();
-    return readBytes(l);
+  public byte[] readToken() {
+    final MappedBuffers mb = mapped;
+    if(mb != null) return readToken(mb, mpos);
+    synchronized(this) {
+      final int l = readNum();
+      return readBytes(l);
+    }
   }
 
   /**
@@ -179,9 +247,13 @@ public final class DataAccess implements Closeable {
    * @param len length
    * @return byte array
    */
-  public synchronized byte[] readBytes(final long pos, final int len) {
-    cursor(pos);
-    return readBytes(len);
+  public byte[] readBytes(final long pos, final int len) {
+    final MappedBuffers mb = mapped;
+    if(mb != null) return readBytes(mb, pos, len);
+    synchronized(this) {
+      cursor(pos);
+      return readBytes(len);
+    }
   }
 
   /**
@@ -189,23 +261,99 @@ public final class DataAccess implements Closeable {
    * @param len length
    * @return byte array
    */
-  public synchronized byte[] readBytes(final int len) {
-    int l = len;
-    int ll = IO.BLOCKSIZE - off;
-    final byte[] b = new byte[l];
-
-    System.arraycopy(buffer(false).data, off, b, 0, Math.min(l, ll));
-    if(l > ll) {
-      l -= ll;
-      while(l > IO.BLOCKSIZE) {
-        System.arraycopy(buffer(true).data, 0, b, ll, IO.BLOCKSIZE);
-        ll += IO.BLOCKSIZE;
-        l -= IO.BLOCKSIZE;
+  public byte[] readBytes(final int len) {
+    final MappedBuffers mb = mapped;
+    if(mb != null) return readBytes(mb, mpos, len);
+    synchronized(this) {
+      int l = len;
+      int ll = IO.BLOCKSIZE - off;
+      final byte[] b = new byte[l];
+
+      System.arraycopy(buffer(false).data, off, b, 0, Math.min(l, ll));
+      if(l > ll) {
+        l -= ll;
+        while(l > IO.BLOCKSIZE) {
+          System.arraycopy(buffer(true).data, 0, b, ll, IO.BLOCKSIZE);
+          ll += IO.BLOCKSIZE;
+          l -= IO.BLOCKSIZE;
+        }
+        System.arraycopy(buffer(true).data, 0, b, ll, l);
       }
-      System.arraycopy(buffer(true).data, 0, b, ll, l);
+      off += l;
+      return b;
     }
-    off += l;
-    return b;
+  }
+
+  /**
+   * Reads a token from the specified position. Contrary to {@link #readToken(long)},
+   * the cursor is not changed, and the method may be called by multiple threads at the
+   * same time as long as no data is written.
+   * @param pos position
+   * @return token
+   */
+  public byte[] readTokenAt(final long pos) {
+    final byte[] head = new byte[(int) Math.min(HEAD, remaining(pos))];
+    read(pos, head, 0, head.length);
+    final int nl = Num.length(head, 0), len = Num.get(head, 0);
+    final byte[] token = new byte[len];
+    final int hl = Math.min(len, head.length - nl);
+    System.arraycopy(head, nl, token, 0, hl);
+    if(hl < len) read(pos + nl + hl, token, hl, len - hl);
+    return token;
+  }
+
+  /**
+   * Reads a {@link Num} value from the specified position. Contrary to {@link #readNum(long)},
+   * the cursor is not changed, and the method may be called by multiple threads at the same
+   * time as long as no data is written.
+   * @param pos position
+   * @return number
+   */
+  public int readNumAt(final long pos) {
+    final byte[] head = new byte[(int) Math.min(5, remaining(pos))];
+    read(pos, head, 0, head.length);
+    return Num.get(head, 0);
+  }
+
+  /**
+   * Reads an integer value from the specified position. Contrary to {@link #read4(long)},
+   * the cursor is not changed, and the method may be called by multiple threads at the same
+   * time as long as no data is written.
+   * @param pos position
+   * @return integer value
+   */
+  public int read4At(final long pos) {
+    final byte[] b = new byte[4];
+    read(pos, b, 0, 4);
+    return (b[0] & 0xFF) << 24 | (b[1] & 0xFF) << 16 | (b[2] & 0xFF) << 8 | b[3] & 0xFF;
+  }
+
+  /**
+   * Reads a 5-byte value from the specified position. Contrary to {@link #read5(long)},
+   * the cursor is not changed, and the method may be called by multiple threads at the same
+   * time as long as no data is written.
+   * @param pos position
+   * @return long value
+   */
+  public long read5At(final long pos) {
+    final byte[] b = new byte[5];
+    read(pos, b, 0, 5);
+    return (long) (b[0] & 0xFF) << 32 | (long) (b[1] & 0xFF) << 24 | (b[2] & 0xFF) << 16 |
+        (b[3] & 0xFF) << 8 | b[4] & 0xFF;
+  }
+
+  /**
+   * Reads a number of bytes from the specified position. Contrary to
+   * {@link #readBytes(long, int)}, the cursor is not changed, and the method may be called by
+   * multiple threads at the same time as long as no data is written.
+   * @param pos position
+   * @param len length
+   * @return byte array
+   */
+  public byte[] readBytesAt(final long pos, final int len) {
+    final byte[] bytes = new byte[len];
+    read(pos, bytes, 0, len);
+    return bytes;
   }
 
   /**
@@ -213,17 +361,19 @@ public final class DataAccess implements Closeable {
    * @param pos read position
    */
   public void cursor(final long pos) {
+    if(mapped != null) {
+      mpos = pos;
+      return;
+    }
+
     off = (int) (pos & IO.BLOCKSIZE - 1);
     final long b = pos - off;
     if(!bm.cursor(b)) return;
 
-    final Buffer bf = bm.current();
     try {
-      if(bf.dirty) writeBlock(bf);
-      bf.pos = b;
-      raf.seek(bf.pos);
-      if(bf.pos < raf.length())
-        raf.readFully(bf.data, 0, (int) Math.min(length - bf.pos, IO.BLOCKSIZE));
+      if(b < raf.length()) {
+        bm.current().read(raf.getChannel(), b, (int) Math.min(length - b, IO.BLOCKSIZE));
+      }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -233,17 +383,11 @@ public final class DataAccess implements Closeable {
    * Reads the next compressed number and returns it as integer.
    * @return next integer
    */
-  public synchronized int readNum() {
-    final int value = read();
-    switch(value & 0xC0) {
-    case 0:
-      return value;
-    case 0x40:
-      return (value - 0x40 << 8) + read();
-    case 0x80:
-      return (value - 0x80 << 24) + (read() << 16) + (read() << 8) + read();
-    default:
-      return (read() << 24) + (read() << 16) + (read() << 8) + read();
+  public int readNum() {
+    final MappedBuffers mb = mapped;
+    if(mb != null) return readNum(mb, mpos);
+    synchronized(this) {
+      return num();
     }
   }
 
@@ -306,6 +450,7 @@ public final class DataAccess implements Closeable {
    * @param len token length
    */
   public void writeBytes(final byte[] buffer, final int offset, final int len) {
+    unmap();
     final int last = offset + len;
     int o = offset;
 
@@ -314,6 +459,7 @@ public final class DataAccess implements Closeable {
       final int l = Math.min(last - o, IO.BLOCKSIZE - off);
       System.arraycopy(buffer, o, bf.data, off, l);
       bf.dirty = true;
+      clean = false;
       off += l;
       o += l;
       // adjust file size
@@ -376,29 +522,220 @@ public final class DataAccess implements Closeable {
    */
   private synchronized void length(final long len) {
     if(len != length) {
+      unmap();
       changed = true;
+      clean = false;
       length = len;
     }
   }
 
   // PRIVATE METHODS ==========================================================
 
+  /**
+   * Maps the file into memory if memory mapping is enabled.
+   * @throws IOException I/O exception
+   */
+  private void map() throws IOException {
+    if(!mmap || mapped != null) return;
+    final long pos = cursor();
+    mapped = new MappedBuffers(raf.getChannel(), length);
+    mpos = pos;
+  }
+
+  /**
+   * Releases the memory-mapped file and moves the cursor of the buffer manager to the
+   * current position. Called before data is written.
+   */
+  private void unmap() {
+    final MappedBuffers mb = mapped;
+    if(mb == null) return;
+    mapped = null;
+    mb.close();
+    cursor(mpos);
+  }
+
+  /**
+   * Writes all dirty buffers to disk and adjusts the file length.
+   */
+  private void write() {
+    try {
+      bm.flush();
+      if(changed) {
+        raf.setLength(length);
+        changed = false;
+      }
+      clean = true;
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
   /**
    * Reads the next byte.
    * @return next byte
    */
   private int read() {
+    final MappedBuffers mb = mapped;
+    if(mb != null) return mb.read1(mpos++);
     final Buffer bf = buffer();
     return bf.data[off++] & 0xFF;
   }
 
+  /**
+   * Reads the next compressed number via the buffer manager.
+   * @return next integer
+   */
+  private int num() {
+    final int value = read();
+    switch(value & 0xC0) {
+    case 0:
+      return value;
+    case 0x40:
+      return (value - 0x40 << 8) + read();
+    case 0x80:
+      return (value - 0x80 << 24) + (read() << 16) + (read() << 8) + read();
+    default:
+      return (read() << 24) + (read() << 16) + (read() << 8) + read();
+    }
+  }
+
+  /**
+   * Reads a byte value from the memory-mapped file and moves the cursor behind it.
+   * The mapped reads compute all offsets from the specified position and do not need to be
+   * synchronized; only the cursor is updated for subsequent cursor-based reads.
+   * @param mb memory-mapped file
+   * @param pos position
+   * @return byte value
+   */
+  private byte read1(final MappedBuffers mb, final long pos) {
+    mpos = pos + 1;
+    return (byte) mb.read1(pos);
+  }
+
+  /**
+   * Reads an integer value from the memory-mapped file and moves the cursor behind it.
+   * @param mb memory-mapped file
+   * @param pos position
+   * @return integer value
+   */
+  private int read4(final MappedBuffers mb, final long pos) {
+    mpos = pos + 4;
+    return mb.read4(pos);
+  }
+
+  /**
+   * Reads a 5-byte value from the memory-mapped file and moves the cursor behind it.
+   * @param mb memory-mapped file
+   * @param pos position
+   * @return long value
+   */
+  private long read5(final MappedBuffers mb, final long pos) {
+    mpos = pos + 5;
+    return mb.read5(pos);
+  }
+
+  /**
+   * Reads a {@link Num} value from the memory-mapped file and moves the cursor behind it.
+   * @param mb memory-mapped file
+   * @param pos position
+   * @return number
+   */
+  private int readNum(final MappedBuffers mb, final long pos) {
+    final byte[] head = head(mb, pos);
+    mpos = pos + Num.length(head, 0);
+    return Num.get(head, 0);
+  }
+
+  /**
+   * Reads a token from the memory-mapped file and moves the cursor behind it.
+   * @param mb memory-mapped file
+   * @param pos position
+   * @return token
+   */
+  private byte[] readToken(final MappedBuffers mb, final long pos) {
+    final byte[] head = head(mb, pos);
+    return readBytes(mb, pos + Num.length(head, 0), Num.get(head, 0));
+  }
+
+  /**
+   * Reads a number of bytes from the memory-mapped file and moves the cursor behind them.
+   * @param mb memory-mapped file
+   * @param pos position
+   * @param len length
+   * @return byte array
+   */
+  private byte[] readBytes(final MappedBuffers mb, final long pos, final int len) {
+    final byte[] bytes = new byte[len];
+    mb.read(pos, bytes, 0, len);
+    mpos = pos + len;
+    return bytes;
+  }
+
+  /**
+   * Returns the bytes of a compressed number from the memory-mapped file.
+   * @param mb memory-mapped file
+   * @param pos position
+   * @return bytes (up to 5)
+   */
+  private byte[] head(final MappedBuffers mb, final long pos) {
+    final byte[] head = new byte[(int) Math.min(5, remaining(pos))];
+    mb.read(pos, head, 0, head.length);
+    return head;
+  }
+
+  /**
+   * Returns the number of bytes that can be read from the specified position.
+   * @param pos position
+   * @return number of bytes
+   */
+  private long remaining(final long pos) {
+    final long len = length;
+    if(pos < 0 || pos >= len) {
+      throw Util.notExpected("Read position % is out of range (file length: %).", pos, len);
+    }
+    return len - pos;
+  }
+
+  /**
+   * Copies bytes from the specified position to an array without changing the cursor.
+   * If the file is mapped, or if no unwritten data exists, the bytes will be read without
+   * synchronization (positional reads on file channels can be performed concurrently).
+   * Otherwise, they will be read via the buffer manager.
+   * @param pos position
+   * @param bytes target array
+   * @param offset offset in the target array
+   * @param len number of bytes to read
+   */
+  private void read(final long pos, final byte[] bytes, final int offset, final int len) {
+    final MappedBuffers mb = mapped;
+    if(mb != null) {
+      mb.read(pos, bytes, offset, len);
+    } else if(clean) {
+      try {
+        final ByteBuffer bb = ByteBuffer.wrap(bytes, offset, len);
+        final FileChannel fc = raf.getChannel();
+        while(bb.hasRemaining() && fc.read(bb, pos + bb.position() - offset) != -1);
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
+    } else {
+      synchronized(this) {
+        final long cursor = cursor();
+        System.arraycopy(readBytes(pos, len), 0, bytes, offset, len);
+        cursor(cursor);
+      }
+    }
+  }
+
   /**
    * Writes the next byte.
    * @param value byte to be written
    */
   private void write(final int value) {
+    unmap();
     final Buffer bf = buffer();
     bf.dirty = true;
+    clean = false;
     bf.data[off++] = (byte) value;
     final long nl = bf.pos + off;
     if(nl > length) length(nl);
@@ -416,15 +753,17 @@ public final class DataAccess implements Closeable {
   }
 
   /**
-   * Writes the specified block to disk.
+   * Writes the specified block to disk. This method may also be called by other threads if the
+   * buffer is evicted from the buffer pool. The monitor of this instance must not be acquired
+   * here, as evictions take place while the buffer pool is locked; instead, the current file
+   * length is read from a volatile field.
    * @param buffer buffer to write
    * @throws IOException I/O exception
    */
   private void writeBlock(final Buffer buffer) throws IOException {
     final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
-    raf.seek(pos);
-    raf.write(buffer.data, 0, (int) len);
-    buffer.dirty = false;
+    if(len > 0) buffer.write(raf.getChannel(), pos, (int) len);
+    else buffer.dirty = false;
   }
 
   /**
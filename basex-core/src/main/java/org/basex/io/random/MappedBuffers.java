@@ -0,0 +1,146 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.basex.util.*;
+
+/**
+ * This class provides read-only access to a file via memory-mapped segments.
+ * Contrary to {@link Buffers}, no data is copied to the heap, and all methods can be
+ * called concurrently.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class MappedBuffers {
+  /** Power of the segment size (segments must not exceed {@link Integer#MAX_VALUE} bytes). */
+  private static final int SEGPOWER = 30;
+  /** Segment mask. */
+  private static final long SEGMASK = (1L << SEGPOWER) - 1;
+  /** Maximum length of arrays that will be copied byte by byte. */
+  private static final int SHORT = 64;
+
+  /** Mapped segments. */
+  private final MappedByteBuffer[] segments;
+  /** Length of the mapped file. */
+  final long length;
+
+  /**
+   * Constructor, mapping the specified file into memory.
+   * @param channel file channel
+   * @param length number of bytes to be mapped
+   * @throws IOException I/O exception
+   */
+  MappedBuffers(final FileChannel channel, final long length) throws IOException {
+    this.length = length;
+    final int sl = (int) (length + SEGMASK >>> SEGPOWER);
+    segments = new MappedByteBuffer[sl];
+    for(int s = 0; s < sl; s++) {
+      final long pos = (long) s << SEGPOWER;
+      segments[s] = channel.map(MapMode.READ_ONLY, pos, Math.min(length - pos, SEGMASK + 1));
+    }
+  }
+
+  /**
+   * Reads a byte value from the specified position.
+   * @param pos position
+   * @return unsigned byte value
+   */
+  int read1(final long pos) {
+    return segments[(int) (pos >>> SEGPOWER)].get((int) (pos & SEGMASK)) & 0xFF;
+  }
+
+  /**
+   * Reads a short value from the specified position.
+   * @param pos position
+   * @return integer value
+   */
+  int read2(final long pos) {
+    return (read1(pos) << 8) + read1(pos + 1);
+  }
+
+  /**
+   * Reads an integer value from the specified position.
+   * @param pos position
+   * @return integer value
+   */
+  int read4(final long pos) {
+    return (read1(pos) << 24) + (read1(pos + 1) << 16) + (read1(pos + 2) << 8) + read1(pos + 3);
+  }
+
+  /**
+   * Reads a 5-byte value from the specified position.
+   * @param pos position
+   * @return long value
+   */
+  long read5(final long pos) {
+    return ((long) read1(pos) << 32) + ((long) read1(pos + 1) << 24) + (read1(pos + 2) << 16) +
+        (read1(pos + 3) << 8) + read1(pos + 4);
+  }
+
+  /**
+   * Copies bytes from the specified position to an array.
+   * @param pos position
+   * @param bytes target array
+   * @param off offset in the target array
+   * @param len number of bytes to copy
+   */
+  void read(final long pos, final byte[] bytes, final int off, final int len) {
+    // short arrays: copy single bytes
+    if(len <= SHORT) {
+      for(int l = 0; l < len; l++) bytes[off + l] = (byte) read1(pos + l);
+      return;
+    }
+
+    long p = pos;
+    int o = off, l = len;
+    while(l > 0) {
+      // copy bytes from the current segment (duplicate buffer to keep method thread-safe)
+      final int s = (int) (p >>> SEGPOWER), so = (int) (p & SEGMASK);
+      final ByteBuffer bb = segments[s].duplicate();
+      final int n = Math.min(l, bb.limit() - so);
+      bb.position(so);
+      bb.get(bytes, o, n);
+      p += n;
+      o += n;
+      l -= n;
+    }
+  }
+
+  /**
+   * Releases the mapped segments. Must only be called if no other threads access the buffers.
+   */
+  void close() {
+    for(final MappedByteBuffer segment : segments) unmap(segment);
+  }
+
+  /**
+   * Tries to release the specified buffer. Without explicit release, the memory will only be
+   * unmapped by the garbage collector, which prevents truncating or deleting the file on some
+   * operating systems.
+   * @param buffer buffer to be released
+   */
+  private static void unmap(final ByteBuffer buffer) {
+    try {
+      // Java 9 and later
+      final Class<?> clz = Class.forName("sun.misc.Unsafe");
+      final Field field = clz.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      clz.getMethod("invokeCleaner", ByteBuffer.class).invoke(field.get(null), buffer);
+    } catch(final Exception ex) {
+      try {
+        // Java 7 and 8
+        final Method method = buffer.getClass().getMethod("cleaner");
+        method.setAccessible(true);
+        final Object cleaner = method.invoke(buffer);
+        if(cleaner != null) cleaner.getClass().getMethod("clean").invoke(cleaner);
+      } catch(final Exception e) {
+        Util.debug(e);
+      }
+    }
+  }
+}
@@ -78,6 +78,14 @@ public abstract class TableAccess {
    */
   public abstract long read5(int p, int o);
 
+  /**
+   * Returns an instance for scanning the table entries in ascending order.
+   * @return table scan
+   */
+  public TableScan scan() {
+    return new TableScan(this);
+  }
+
   /**
    * Writes a byte value to the specified position.
    * @param p pre value
@@ -3,6 +3,7 @@ package org.basex.io.random;
 import static org.basex.data.DataText.*;
 
 import java.io.*;
+import java.nio.*;
 import java.nio.channels.*;
 import java.util.*;
 
@@ -16,15 +17,34 @@ import org.basex.util.*;
 /**
  * This class stores the table on disk and reads it page-wise.
  *
- * NOTE: this class is not thread-safe.
+ * Read operations are synchronized, as tables can be accessed by concurrent readers.
+ * Updates require exclusive access. Pages are cached in the global {@link BufferPool};
+ * accessing a table after it has been closed raises a runtime exception.
  *
  * @author BaseX Team 2005-17, BSD License
  * @author Christian Gruen
  * @author Tim Petrowsky
  */
 public final class TableDiskAccess extends TableAccess {
+  /** Maximum number of pages that are read at once by a table scan. */
+  private static final int CHUNK = 1 << 8;
+
   /** Buffer manager. */
-  private final Buffers bm = new Buffers();
+  private final Buffers bm = new Buffers() {
+    @Override
+    void write(final Buffer buffer) throws IOException {
+      if(compressed != null) {
+        compressed.write(file.getChannel(), (int) buffer.pos, buffer.data);
+        buffer.dirty = false;
+      } else {
+        buffer.write(file.getChannel(), buffer.pos * IO.BLOCKSIZE, IO.BLOCKSIZE);
+      }
+    }
+  };
+  /** Compressed pages ({@code null} if pages are stored uncompressed). */
+  private final CompressedPages compressed;
+  /** Memory-mapped pages ({@code null} if pages are read via the buffer manager). */
+  private MappedBuffers mapped;
   /** File storing all pages. */
   private final RandomAccessFile file;
   /** Bitmap storing free (=0) and used (=1) pages. */
@@ -82,6 +102,7 @@ public final class TableDiskAccess extends TableAccess {
     }
 
     // initialize data file
+    compressed = meta.compresstable ? new CompressedPages(meta.dbfile(DATATBL + 'c')) : null;
     file = new RandomAccessFile(meta.dbfile(DATATBL).file(), "rw");
     if(!lock(write)) throw new BaseXException(Text.DB_PINNED_X, md.name);
   }
@@ -105,7 +126,8 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public synchronized void flush(final boolean all) throws IOException {
-    for(final Buffer b : bm.all()) if(b.dirty) write(b);
+    bm.flush();
+    if(compressed != null) compressed.write(meta.dbfile(DATATBL + 'c'));
     if(!dirty || !all) return;
 
     try(DataOutput out = new DataOutput(meta.dbfile(DATATBL + 'i'))) {
@@ -126,6 +148,8 @@ public final class TableDiskAccess extends TableAccess {
   @Override
   public synchronized void close() throws IOException {
     flush(true);
+    unmap();
+    bm.close();
     file.close();
   }
 
@@ -137,7 +161,11 @@ public final class TableDiskAccess extends TableAccess {
         fl.release();
       }
       fl = file.getChannel().tryLock(0, Long.MAX_VALUE, !write);
-      return fl != null;
+      if(fl == null) return false;
+      // memory-mapped pages are only used for read-only access
+      if(write) unmap();
+      else map();
+      return true;
     } catch(final IOException ex) {
       throw Util.notExpected(ex);
     }
@@ -145,6 +173,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public synchronized int read1(final int pre, final int off) {
+    if(mapped != null) return mapped.read1(offset(pre) + off);
     final int o = off + cursor(pre);
     final byte[] b = bm.current().data;
     return b[o] & 0xFF;
@@ -152,6 +181,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public synchronized int read2(final int pre, final int off) {
+    if(mapped != null) return mapped.read2(offset(pre) + off);
     final int o = off + cursor(pre);
     final byte[] b = bm.current().data;
     return ((b[o] & 0xFF) << 8) + (b[o + 1] & 0xFF);
@@ -159,6 +189,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public synchronized int read4(final int pre, final int off) {
+    if(mapped != null) return mapped.read4(offset(pre) + off);
     final int o = off + cursor(pre);
     final byte[] b = bm.current().data;
     return ((b[o] & 0xFF) << 24) + ((b[o + 1] & 0xFF) << 16) +
@@ -167,12 +198,26 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public synchronized long read5(final int pre, final int off) {
+    if(mapped != null) return mapped.read5(offset(pre) + off);
     final int o = off + cursor(pre);
     final byte[] b = bm.current().data;
     return ((long) (b[o] & 0xFF) << 32) + ((long) (b[o + 1] & 0xFF) << 24) +
       ((b[o + 2] & 0xFF) << 16) + ((b[o + 3] & 0xFF) << 8) + (b[o + 4] & 0xFF);
   }
 
+  @Override
+  public synchronized TableScan scan() {
+    // memory-mapped pages are accessed without buffers anyway
+    if(mapped != null) return super.scan();
+    // write dirty pages: the scan reads all pages directly from disk
+    try {
+      bm.flush();
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
+    }
+    return new DiskScan();
+  }
+
   @Override
   public void write1(final int pre, final int off, final int v) {
     final int o = off + cursor(pre);
@@ -433,6 +478,47 @@ public final class TableDiskAccess extends TableAccess {
 
   // PRIVATE METHODS ==========================================================
 
+  /**
+   * Maps the table file into memory if memory mapping is enabled for the database.
+   * @throws IOException I/O exception
+   */
+  private synchronized void map() throws IOException {
+    // compressed pages cannot be accessed directly
+    if(!meta.mmap || compressed != null || mapped != null) return;
+    // write dirty pages: all subsequent reads will be performed on the mapped file
+    bm.flush();
+    mapped = new MappedBuffers(file.getChannel(), file.length());
+  }
+
+  /**
+   * Releases the memory-mapped file. Subsequent operations will use the buffer manager.
+   */
+  private synchronized void unmap() {
+    if(mapped == null) return;
+    mapped.close();
+    mapped = null;
+  }
+
+  /**
+   * Returns the file offset of the entry for the specified pre value.
+   * In contrast to {@link #cursor(int)}, no page pointers are changed.
+   * @param pre pre value
+   * @return file offset
+   */
+  private long offset(final int pre) {
+    // regular page index: pages are stored in ascending order
+    if(fpres == null) return (long) pre << IO.NODEPOWER;
+
+    // binary search: find last page with a first pre value smaller than or equal to pre
+    int l = 0, h = used - 1;
+    while(l < h) {
+      final int m = l + h + 1 >>> 1;
+      if(fpres[m] <= pre) l = m;
+      else h = m - 1;
+    }
+    return (long) pages[l] * IO.BLOCKSIZE + (pre - fpres[l] << IO.NODEPOWER);
+  }
+
   /**
    * Searches for the page containing the entry for the specified pre value.
    * Reads the page and returns its offset inside the page.
@@ -508,15 +594,13 @@ public final class TableDiskAccess extends TableAccess {
   private synchronized void read(final int p) {
     if(!bm.cursor(p)) return;
 
-    final Buffer bf = bm.current();
     try {
-      if(bf.dirty) write(bf);
-      bf.pos = p;
       if(p >= size) {
         size = p + 1;
+      } else if(compressed != null) {
+        compressed.read(file.getChannel(), p, bm.current().data);
       } else {
-        file.seek(bf.pos * IO.BLOCKSIZE);
-        file.readFully(bf.data);
+        bm.current().read(file.getChannel(), (long) p * IO.BLOCKSIZE, IO.BLOCKSIZE);
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -534,17 +618,6 @@ public final class TableDiskAccess extends TableAccess {
     ++page;
   }
 
-  /**
-   * Writes the specified buffer disk and resets the dirty flag.
-   * @param bf buffer to write
-   * @throws IOException I/O exception
-   */
-  private void write(final Buffer bf) throws IOException {
-    file.seek(bf.pos * IO.BLOCKSIZE);
-    file.write(bf.data);
-    bf.dirty = false;
-  }
-
   /**
    * Updates the firstPre index entries.
    * @param nr number of entries to move
@@ -592,4 +665,131 @@ public final class TableDiskAccess extends TableAccess {
   private int occSpace(final int i) {
     return (i + 1 < used ? fpres[i + 1] : meta.size) - fpres[i];
   }
+
+  /**
+   * Table scan, which reads contiguous pages with a single request. Pages are not cached
+   * by the buffer pool, as they will usually not be requested again.
+   */
+  private final class DiskScan extends TableScan {
+    /** Entries of the currently loaded pages. */
+    private final byte[] data;
+    /** First pre values of the loaded pages, followed by the first pre value of the next page. */
+    private final int[] firsts;
+    /** Number of loaded pages. */
+    private int count;
+    /** Index of the current page. */
+    private int cur;
+    /** First pre value of the current page. */
+    private int first;
+    /** First pre value of the next page. */
+    private int next;
+
+    /**
+     * Constructor.
+     */
+    private DiskScan() {
+      super(TableDiskAccess.this);
+      final int chunk = Math.max(1, Math.min(CHUNK, used));
+      data = new byte[chunk * IO.BLOCKSIZE];
+      firsts = new int[chunk + 1];
+    }
+
+    @Override
+    public int read1(final int pre, final int off) {
+      return data[offset(pre) + off] & 0xFF;
+    }
+
+    @Override
+    public int read2(final int pre, final int off) {
+      final int o = offset(pre) + off;
+      final byte[] b = data;
+      return ((b[o] & 0xFF) << 8) + (b[o + 1] & 0xFF);
+    }
+
+    @Override
+    public int read4(final int pre, final int off) {
+      final int o = offset(pre) + off;
+      final byte[] b = data;
+      return ((b[o] & 0xFF) << 24) + ((b[o + 1] & 0xFF) << 16) +
+        ((b[o + 2] & 0xFF) << 8) + (b[o + 3] & 0xFF);
+    }
+
+    /**
+     * Returns the offset of the entry for the specified pre value.
+     * Loads new pages if the entry is not found in the current pages.
+     * @param pre pre value
+     * @return offset
+     */
+    private int offset(final int pre) {
+      if(pre < first || pre >= next) {
+        if(pre < firsts[0] || pre >= firsts[count]) load(pre);
+        // find page (sequential scans will mostly continue with the next page)
+        int c = cur + 1;
+        if(c >= count || pre < firsts[c] || pre >= firsts[c + 1]) {
+          int l = 0, h = count - 1;
+          while(l < h) {
+            final int m = l + h + 1 >>> 1;
+            if(firsts[m] <= pre) l = m;
+            else h = m - 1;
+          }
+          c = l;
+        }
+        cur = c;
+        first = firsts[c];
+        next = firsts[c + 1];
+      }
+      return cur * IO.BLOCKSIZE + (pre - first << IO.NODEPOWER);
+    }
+
+    /**
+     * Loads the page containing the specified pre value and its successors.
+     * @param pre pre value
+     */
+    private void load(final int pre) {
+      synchronized(TableDiskAccess.this) {
+        // find first page
+        int p;
+        if(fpres == null) {
+          p = pre / IO.ENTRIES;
+        } else {
+          int l = 0, h = used - 1;
+          while(l < h) {
+            final int m = l + h + 1 >>> 1;
+            if(fpres[m] <= pre) l = m;
+            else h = m - 1;
+          }
+          p = l;
+        }
+        final int c = Math.min(firsts.length - 1, used - p);
+        for(int i = 0; i < c; i++) firsts[i] = fpre(p + i);
+        firsts[c] = p + c == used ? meta.size : fpre(p + c);
+        count = c;
+        cur = -1;
+        first = -1;
+        next = -1;
+
+        try {
+          final FileChannel fc = file.getChannel();
+          final byte[] page = compressed != null ? new byte[IO.BLOCKSIZE] : null;
+          for(int i = 0; i < c;) {
+            final int pg = page(p + i);
+            int n = 1;
+            if(page != null) {
+              compressed.read(fc, pg, page);
+              System.arraycopy(page, 0, data, i * IO.BLOCKSIZE, IO.BLOCKSIZE);
+            } else {
+              // read physically contiguous pages at once
+              while(i + n < c && page(p + i + n) == pg + n) n++;
+              final ByteBuffer bb = ByteBuffer.wrap(data, i * IO.BLOCKSIZE, n * IO.BLOCKSIZE);
+              final long off = (long) pg * IO.BLOCKSIZE - i * IO.BLOCKSIZE;
+              while(bb.hasRemaining() && fc.read(bb, off + bb.position()) != -1);
+            }
+            i += n;
+          }
+        } catch(final IOException ex) {
+          throw Util.notExpected(ex);
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,54 @@
+package org.basex.io.random;
+
+/**
+ * This class provides read access to table entries in ascending order.
+ * By default, all requests are delegated to the table. Subclasses may read
+ * larger portions of the table at once.
+ *
+ * NOTE: this class is not thread-safe.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public class TableScan {
+  /** Table. */
+  private final TableAccess table;
+
+  /**
+   * Constructor.
+   * @param table table
+   */
+  TableScan(final TableAccess table) {
+    this.table = table;
+  }
+
+  /**
+   * Reads a byte value and returns it as an integer value.
+   * @param pre pre value
+   * @param off offset
+   * @return integer value
+   */
+  public int read1(final int pre, final int off) {
+    return table.read1(pre, off);
+  }
+
+  /**
+   * Reads a short value and returns it as an integer value.
+   * @param pre pre value
+   * @param off offset
+   * @return integer value
+   */
+  public int read2(final int pre, final int off) {
+    return table.read2(pre, off);
+  }
+
+  /**
+   * Reads an integer value.
+   * @param pre pre value
+   * @param off offset
+   * @return integer value
+   */
+  public int read4(final int pre, final int off) {
+    return table.read4(pre, off);
+  }
+}
@@ -384,6 +384,7 @@ public interface QueryText {
   /** Query Info. */ String MAX = "max";
   /** Query Info. */ String INF = "inf";
   /** Query Info. */ String TCL = "tailCall";
+  /** Query Info. */ String AGGR = "aggregate";
 
   // OPTIMIZATIONS ================================================================================
 
@@ -397,6 +398,7 @@ public interface QueryText {
   /** Optimization info. */ String OPTTCE_X = "marking as tail call: %";
   /** Optimization info. */ String OPTFORLET = "moving for/let clauses";
   /** Optimization info. */ String OPTFORTOLET = "rewriting singleton for to let";
+  /** Optimization info. */ String OPTAGGR_X = "aggregating non-grouping variable(s): %";
   /** Optimization info. */ String OPTSWAP_X = "swapping operands: %";
   /** Optimization info. */ String OPTFLWOR = "simplifying flwor expression";
   /** Optimization info. */ String OPTINLINE_X = "inlining %";
@@ -146,7 +146,7 @@ public final class And extends Logical {
     final int[] ord = Array.createOrder(ics, true);
     final Expr[] ex = new Expr[es];
     for(int e = 0; e < es; ++e) ex[e] = tmp[ord[e]];
-    ii.expr = new InterSect(info, ex);
+    ii.expr = ii.intersect(info, ex);
     // use worst costs for estimation, as all index results may need to be scanned
     ii.costs = ics[ord[es - 1]];
     return true;
@@ -3,6 +3,7 @@ package org.basex.query.expr;
 import static org.basex.query.QueryText.*;
 
 import org.basex.query.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.query.value.type.*;
@@ -59,6 +60,58 @@ public final class Arith extends Arr {
     return calc.ev(it1, it2, info);
   }
 
+  /**
+   * Evaluates the expression for all items of a sequence with natively stored numbers.
+   * This is possible if one operand is the context value and the other one is a number.
+   * @param value sequence
+   * @return resulting sequence, or {@code null} if the expression cannot be evaluated natively
+   * @throws QueryException query exception
+   */
+  Value value(final Value value) throws QueryException {
+    return value(value, null);
+  }
+
+  /**
+   * Evaluates the expression for all items of a sequence with natively stored numbers.
+   * This is possible if one operand is bound to the items of the sequence and the other one
+   * is a number (see {@link #bound(Var)}).
+   * @param value sequence
+   * @param var variable bound to the items ({@code null}: context value)
+   * @return resulting sequence, or {@code null} if the expression cannot be evaluated natively
+   * @throws QueryException query exception
+   */
+  public Value value(final Value value, final Var var) throws QueryException {
+    final Expr expr1 = exprs[0], expr2 = exprs[1];
+    if(bound(expr1, var) && expr2 instanceof Item) {
+      return calc.ev(value, (Item) expr2, false, info);
+    }
+    if(bound(expr2, var) && expr1 instanceof Item) {
+      return calc.ev(value, (Item) expr1, true, info);
+    }
+    return null;
+  }
+
+  /**
+   * Checks if one operand is bound to the specified variable and the other one is an item.
+   * @param var variable ({@code null}: context value)
+   * @return result of check
+   */
+  public boolean bound(final Var var) {
+    final Expr expr1 = exprs[0], expr2 = exprs[1];
+    return bound(expr1, var) && expr2 instanceof Item || bound(expr2, var) && expr1 instanceof Item;
+  }
+
+  /**
+   * Checks if the specified operand is bound to the specified variable.
+   * @param expr operand
+   * @param var variable ({@code null}: context value)
+   * @return result of check
+   */
+  private static boolean bound(final Expr expr, final Var var) {
+    return var == null ? expr instanceof ContextValue :
+      expr instanceof VarRef && ((VarRef) expr).var.is(var);
+  }
+
   @Override
   public Arith copy(final CompileContext cc, final IntObjMap<Var> vm) {
     return copyType(new Arith(info, exprs[0].copy(cc, vm), exprs[1].copy(cc, vm), calc));
@@ -39,6 +39,13 @@ final class CachedMap extends SimpleMap {
       final int el = exprs.length;
       for(int e = 1; e < el; e++) {
         final Expr ex = exprs[e];
+        if(ex instanceof Arith) {
+          final Value value = ((Arith) ex).value(result);
+          if(value != null) {
+            result = value;
+            continue;
+          }
+        }
         focus.pos = 0;
         focus.size = result.size();
         final ValueBuilder vb = new ValueBuilder();
@@ -6,7 +6,9 @@ import static org.basex.query.value.type.AtomType.*;
 import java.math.*;
 
 import org.basex.query.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
 
@@ -28,12 +30,7 @@ public enum Calc {
       if(n1) {
         // numbers or untyped values
         final Type t = type(t1, t2);
-        if(t == ITR) {
-          final long l1 = it1.itr(ii), l2 = it2.itr(ii);
-          if(l2 > 0 ? l1 > Long.MAX_VALUE - l2 : l1 < Long.MIN_VALUE - l2)
-            throw RANGE_X.get(ii, l1 + " + " + l2);
-          return Int.get(l1 + l2);
-        }
+        if(t == ITR) return Int.get(plus(it1.itr(ii), it2.itr(ii), ii));
         if(t == DBL) return Dbl.get(it1.dbl(ii) + it2.dbl(ii));
         if(t == FLT) return Flt.get(it1.flt(ii) + it2.flt(ii));
         return Dec.get(it1.dec(ii).add(it2.dec(ii)));
@@ -66,12 +63,7 @@ public enum Calc {
       if(n1) {
         // numbers or untyped values
         final Type t = type(t1, t2);
-        if(t == ITR) {
-          final long l1 = it1.itr(ii), l2 = it2.itr(ii);
-          if(l2 < 0 ? l1 > Long.MAX_VALUE + l2 : l1 < Long.MIN_VALUE + l2)
-            throw RANGE_X.get(ii, l1 + " - " + l2);
-          return Int.get(l1 - l2);
-        }
+        if(t == ITR) return Int.get(minus(it1.itr(ii), it2.itr(ii), ii));
         if(t == DBL) return Dbl.get(it1.dbl(ii) - it2.dbl(ii));
         if(t == FLT) return Flt.get(it1.flt(ii) - it2.flt(ii));
         return Dec.get(it1.dec(ii).subtract(it2.dec(ii)));
@@ -117,15 +109,7 @@ public enum Calc {
       if(b1 ^ b2) throw typeError(ii, t1, t2);
       if(b1) {
         final Type t = type(t1, t2);
-        if(t == ITR) {
-          final long l1 = it1.itr(ii);
-          final long l2 = it2.itr(ii);
-          if(l2 > 0 ? l1 > Long.MAX_VALUE / l2 || l1 < Long.MIN_VALUE / l2
-                    : l2 < -1 ? l1 > Long.MIN_VALUE / l2 || l1 < Long.MAX_VALUE / l2
-                              : l2 == -1 && l1 == Long.MIN_VALUE)
-            throw RANGE_X.get(ii, l1 + " * " + l2);
-          return Int.get(l1 * l2);
-        }
+        if(t == ITR) return Int.get(mult(it1.itr(ii), it2.itr(ii), ii));
         if(t == DBL) return Dbl.get(it1.dbl(ii) * it2.dbl(ii));
         if(t == FLT) return Flt.get(it1.flt(ii) * it2.flt(ii));
         return Dec.get(it1.dec(ii).multiply(it2.dec(ii)));
@@ -251,6 +235,132 @@ public enum Calc {
    */
   public abstract Item ev(Item it1, Item it2, InputInfo ii) throws QueryException;
 
+  /**
+   * Performs the calculation for all items of a sequence with natively stored numbers and a
+   * single number. The result will be a sequence with natively stored numbers.
+   * @param value sequence ({@link IntSeq}, {@link RangeSeq} or {@link DblSeq})
+   * @param it single number
+   * @param swap swap operands (the single number is the first operand)
+   * @param ii input info
+   * @return resulting sequence, or {@code null} if the calculation cannot be performed with
+   *   primitive values
+   * @throws QueryException query exception
+   */
+  public final Value ev(final Value value, final Item it, final boolean swap, final InputInfo ii)
+      throws QueryException {
+
+    final boolean dbl = value instanceof DblSeq;
+    if(this != PLUS && this != MINUS && this != MULT && this != DIV ||
+      !dbl && !(value instanceof IntSeq || value instanceof RangeSeq) ||
+      value.size() > Integer.MAX_VALUE || !(it instanceof Int || it instanceof Dbl)) return null;
+
+    if(!dbl && it instanceof Int) {
+      // integer division yields decimals
+      if(this == DIV) return null;
+      // integers: check for overflows
+      final long[] values = value instanceof IntSeq ? ((IntSeq) value).values() :
+        (long[]) value.toJava();
+      final int vl = values.length;
+      final long l = it.itr(ii);
+      final long[] tmp = new long[vl];
+      switch(this) {
+        case PLUS:
+          for(int v = 0; v < vl; v++) {
+            tmp[v] = swap ? plus(l, values[v], ii) : plus(values[v], l, ii);
+          }
+          break;
+        case MINUS:
+          for(int v = 0; v < vl; v++) {
+            tmp[v] = swap ? minus(l, values[v], ii) : minus(values[v], l, ii);
+          }
+          break;
+        case MULT:
+          for(int v = 0; v < vl; v++) {
+            tmp[v] = swap ? mult(l, values[v], ii) : mult(values[v], l, ii);
+          }
+          break;
+        default:
+          throw Util.notExpected();
+      }
+      return IntSeq.get(tmp, ITR);
+    }
+
+    // doubles
+    final double[] values;
+    if(dbl) {
+      values = ((DblSeq) value).values();
+    } else {
+      final long[] longs = value instanceof IntSeq ? ((IntSeq) value).values() :
+        (long[]) value.toJava();
+      final int vl = longs.length;
+      values = new double[vl];
+      for(int v = 0; v < vl; v++) values[v] = longs[v];
+    }
+    final int vl = values.length;
+    final double d = it.dbl(ii);
+    final double[] tmp = new double[vl];
+    switch(this) {
+      case PLUS:
+        for(int v = 0; v < vl; v++) tmp[v] = values[v] + d;
+        break;
+      case MINUS:
+        for(int v = 0; v < vl; v++) tmp[v] = swap ? d - values[v] : values[v] - d;
+        break;
+      case MULT:
+        for(int v = 0; v < vl; v++) tmp[v] = values[v] * d;
+        break;
+      default:
+        for(int v = 0; v < vl; v++) tmp[v] = swap ? d / values[v] : values[v] / d;
+    }
+    return DblSeq.get(tmp);
+  }
+
+  /**
+   * Adds two integers.
+   * @param l1 first integer
+   * @param l2 second integer
+   * @param ii input info
+   * @return result
+   * @throws QueryException query exception
+   */
+  public static long plus(final long l1, final long l2, final InputInfo ii) throws QueryException {
+    if(l2 > 0 ? l1 > Long.MAX_VALUE - l2 : l1 < Long.MIN_VALUE - l2)
+      throw RANGE_X.get(ii, l1 + " + " + l2);
+    return l1 + l2;
+  }
+
+  /**
+   * Subtracts two integers.
+   * @param l1 first integer
+   * @param l2 second integer
+   * @param ii input info
+   * @return result
+   * @throws QueryException query exception
+   */
+  private static long minus(final long l1, final long l2, final InputInfo ii)
+      throws QueryException {
+    if(l2 < 0 ? l1 > Long.MAX_VALUE + l2 : l1 < Long.MIN_VALUE + l2)
+      throw RANGE_X.get(ii, l1 + " - " + l2);
+    return l1 - l2;
+  }
+
+  /**
+   * Multiplies two integers.
+   * @param l1 first integer
+   * @param l2 second integer
+   * @param ii input info
+   * @return result
+   * @throws QueryException query exception
+   */
+  private static long mult(final long l1, final long l2, final InputInfo ii)
+      throws QueryException {
+    if(l2 > 0 ? l1 > Long.MAX_VALUE / l2 || l1 < Long.MIN_VALUE / l2
+              : l2 < -1 ? l1 > Long.MIN_VALUE / l2 || l1 < Long.MAX_VALUE / l2
+                        : l2 == -1 && l1 == Long.MIN_VALUE)
+      throw RANGE_X.get(ii, l1 + " * " + l2);
+    return l1 * l2;
+  }
+
   /**
    * Returns the numeric type with the highest precedence.
    * @param t1 first item type
@@ -3,14 +3,19 @@ package org.basex.query.expr;
 import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
+import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.index.stats.*;
 import org.basex.query.*;
 import org.basex.query.expr.CmpV.*;
+import org.basex.query.expr.index.*;
 import org.basex.query.func.*;
 import org.basex.query.func.fn.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.query.value.type.*;
@@ -25,6 +30,8 @@ import org.basex.util.hash.*;
  * @author Christian Gruen
  */
 public final class CmpG extends Cmp {
+  /** Maximum absolute year of dates that can be rewritten for index access. */
+  private static final long MAXYEAR = 1L << 40;
   /** Comparators. */
   public enum OpG {
     /** General comparison: less or equal. */
@@ -246,6 +253,14 @@ public final class CmpG extends Cmp {
     if(s1) {
       // first iterator yields single result
       final Item it1 = iter1.next();
+      if(iter2.valueIter()) {
+        // compare natively stored items
+        final Value val2 = iter2.value(qc);
+        if(OpV.primitive(val2, it1, coll)) {
+          return Bln.get(op.op.swap().next(val2, it1, 0, info) != -1);
+        }
+        iter2 = val2.iter();
+      }
       for(Item it2; (it2 = iter2.next()) != null;) {
         qc.checkStop();
         if(eval(it1, it2)) return Bln.TRUE;
@@ -256,6 +271,14 @@ public final class CmpG extends Cmp {
     if(s2) {
       // second iterator yields single result
       final Item it2 = iter2.next();
+      if(iter1.valueIter()) {
+        // compare natively stored items
+        final Value val1 = iter1.value(qc);
+        if(OpV.primitive(val1, it2, coll)) {
+          return Bln.get(op.op.next(val1, it2, 0, info) != -1);
+        }
+        iter1 = val1.iter();
+      }
       for(Item it1; (it1 = iter1.next()) != null;) {
         qc.checkStop();
         if(eval(it1, it2)) return Bln.TRUE;
@@ -325,6 +348,8 @@ public final class CmpG extends Cmp {
 
   @Override
   public boolean indexAccessible(final IndexInfo ii) throws QueryException {
+    // comparisons with dates can be rewritten for typed range index access
+    if(coll == null && exprs[1] instanceof Dat) return dateRange(ii, (Dat) exprs[1]);
     // only equality expressions on default collation can be rewritten
     if(op != OpG.EQ || coll != null) return false;
 
@@ -334,6 +359,45 @@ public final class CmpG extends Cmp {
     return ii.create(exprs[1], ii.type(expr1, tokenize ? IndexType.TOKEN : null), info, false);
   }
 
+  /**
+   * Tries to rewrite a comparison with a date for typed range index access.
+   * @param ii index info
+   * @param date date to be compared
+   * @return success flag
+   */
+  private boolean dateRange(final IndexInfo ii, final Dat date) {
+    // dates with timezones and inequality comparisons are not supported
+    final Data data = ii.ic.data;
+    final long year = date.yea();
+    if(op == OpG.NE || date.hasTz() || Math.abs(year) > MAXYEAR || data.inMemory()) return false;
+    final IndexType type = ii.type(exprs[0], null);
+    if(type == null || !data.meta.ranges(type)) return false;
+    final Stats key = CmpR.key(ii, type, exprs[0]);
+    if(key == null || !StatsType.isDate(key.type)) return false;
+
+    // keys of dates are integers
+    final double d = NumericRange.date(year, date.mon(), date.day());
+    final double min = op == OpG.GT ? d + 1 : op == OpG.GE || op == OpG.EQ ? d :
+      Double.NEGATIVE_INFINITY;
+    final double max = op == OpG.LT ? d - 1 : op == OpG.LE || op == OpG.EQ ? d :
+      Double.POSITIVE_INFINITY;
+    final NumericRange nr = new NumericRange(type, Math.max(min, key.min),
+        Math.min(max, key.max), true);
+    // skip queries with no results
+    if(nr.min > nr.max) {
+      ii.costs = 0;
+      return true;
+    }
+
+    // estimate costs
+    ii.costs = data.costs(nr);
+    if(ii.costs == -1) return false;
+
+    final TokenBuilder tb = new TokenBuilder().add(op.name).add(' ').add(date.string(info));
+    ii.create(new RangeAccess(info, nr, ii.ic), true, info, Util.info(OPTINDEX_X_X, "range", tb));
+    return true;
+  }
+
   @Override
   public CmpG copy(final CompileContext cc, final IntObjMap<Var> vm) {
     return new CmpG(exprs[0].copy(cc, vm), exprs[1].copy(cc, vm), op, coll, sc, info);
@@ -14,6 +14,7 @@ import org.basex.query.expr.path.*;
 import org.basex.query.expr.path.Test.Kind;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.query.value.seq.*;
@@ -119,7 +120,13 @@ public final class CmpR extends Single {
     }
 
     // iterative evaluation
-    final Iter iter = expr.atomIter(qc, info);
+    Iter iter = expr.atomIter(qc, info);
+    if(iter.valueIter()) {
+      // check natively stored numbers
+      final Value value = iter.value(qc);
+      if(value instanceof IntSeq || value instanceof DblSeq) return Bln.get(next(value, 0) != -1);
+      iter = value.iter();
+    }
     for(Item it; (it = iter.next()) != null;) {
       qc.checkStop();
       final double d = it.dbl(info);
@@ -128,6 +135,30 @@ public final class CmpR extends Single {
     return Bln.FALSE;
   }
 
+  /**
+   * Returns the offset of the next number of a sequence that is within the range.
+   * @param value sequence with natively stored numbers ({@link IntSeq} or {@link DblSeq})
+   * @param start offset of the first number to be checked
+   * @return offset, or {@code -1} if no number was found
+   */
+  int next(final Value value, final int start) {
+    final int vs = (int) value.size();
+    if(value instanceof IntSeq) {
+      final long[] values = ((IntSeq) value).values();
+      for(int v = start; v < vs; v++) {
+        final double d = values[v];
+        if((mni ? d >= min : d > min) && (mxi ? d <= max : d < max)) return v;
+      }
+    } else {
+      final double[] values = ((DblSeq) value).values();
+      for(int v = start; v < vs; v++) {
+        final double d = values[v];
+        if((mni ? d >= min : d > min) && (mxi ? d <= max : d < max)) return v;
+      }
+    }
+    return -1;
+  }
+
   /**
    * Creates an intersection of the existing and the specified expressions.
    * @param c range comparison
@@ -153,15 +184,20 @@ public final class CmpR extends Single {
     final Data data = ii.ic.data;
     // sequential main memory scan is assumed to be faster than range index access;
     // no support for main-memory databases
-    if(!mni || !mxi || data.inMemory()) return false;
+    if(data.inMemory()) return false;
     final IndexType type = ii.type(expr, null);
     if(type == null) return false;
+    // typed range index: exclusive, negative, non-integer and infinite limits are supported
+    final boolean ranges = data.meta.ranges(type);
+    if(!ranges && (!mni || !mxi)) return false;
 
-    final Stats key = key(ii, type);
-    if(key == null) return false;
+    final Stats key = key(ii, type, expr);
+    if(key == null || !StatsType.isNumeric(key.type)) return false;
 
     // estimate costs for range access; all values out of range: no results
-    final NumericRange nr = new NumericRange(type, Math.max(min, key.min), Math.min(max, key.max));
+    final double mn = mni ? min : Math.nextUp(min);
+    final double mx = mxi ? max : Math.nextAfter(max, Double.NEGATIVE_INFINITY);
+    final NumericRange nr = new NumericRange(type, Math.max(mn, key.min), Math.min(mx, key.max));
     // skip queries with no results
     if(nr.min > nr.max || nr.max < key.min || nr.min > key.max) {
       ii.costs = 0;
@@ -172,14 +208,18 @@ public final class CmpR extends Single {
     ii.costs = data.costs(nr);
     if(ii.costs == -1) return false;
 
-    // skip if numbers are negative, doubles, or of different string length
-    final int mnl = min >= 0 && (long) min == min ? token(min).length : -1;
-    final int mxl = max >= 0 && (long) max == max ? token(max).length : -1;
-    if(mnl != mxl || mnl == -1) return false;
+    if(!ranges) {
+      // skip if numbers are negative, doubles, or of different string length
+      final int mnl = min >= 0 && (long) min == min ? token(min).length : -1;
+      final int mxl = max >= 0 && (long) max == max ? token(max).length : -1;
+      if(mnl != mxl || mnl == -1) return false;
 
-    // don't use index if min/max values are infinite
-    if(min == Double.NEGATIVE_INFINITY && max == Double.POSITIVE_INFINITY ||
-        token((int) nr.min).length != token((int) nr.max).length) return false;
+      // don't use index if min/max values are infinite
+      if(min == Double.NEGATIVE_INFINITY && max == Double.POSITIVE_INFINITY ||
+          token((int) nr.min).length != token((int) nr.max).length) return false;
+      // no exact counts available: estimate number of results via statistics
+      ii.costs = Math.max(1, key.estimate(nr.min, nr.max));
+    }
 
     final TokenBuilder tb = new TokenBuilder();
     tb.add(mni ? '[' : '(').addExt(min).add(',').addExt(max).add(mxi ? ']' : ')');
@@ -191,9 +231,10 @@ public final class CmpR extends Single {
    * Retrieves the statistics key for the element/attribute name.
    * @param ii index info
    * @param type index type
-   * @return key
+   * @param expr expression to be compared
+   * @return key, or {@code null} if the statistics cannot be used
    */
-  private Stats key(final IndexInfo ii, final IndexType type) {
+  static Stats key(final IndexInfo ii, final IndexType type, final Expr expr) {
     // statistics are not up-to-date
     final Data data = ii.ic.data;
     if(!data.meta.uptodate || !data.nspaces.isEmpty() || !(expr instanceof AxisPath)) return null;
@@ -214,8 +255,7 @@ public final class CmpR extends Single {
     }
 
     final Names names = type == IndexType.TEXT ? data.elemNames : data.attrNames;
-    final Stats stats = names.stats(names.id(test.name.local()));
-    return stats == null || StatsType.isNumeric(stats.type) ? stats : null;
+    return names.stats(names.id(test.name.local()));
   }
 
   @Override
@@ -6,8 +6,10 @@ import static org.basex.query.QueryText.*;
 import org.basex.query.*;
 import org.basex.query.func.*;
 import org.basex.query.util.collation.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
@@ -136,6 +138,83 @@ public final class CmpV extends Cmp {
      */
     public abstract OpV swap();
 
+    /**
+     * Checks if the items of a sequence can be compared with a single item in their
+     * native representation (see {@link #next(Value, Item, int, InputInfo)}).
+     * @param value sequence
+     * @param it single item
+     * @param coll collation (can be {@code null})
+     * @return result of check
+     */
+    public static boolean primitive(final Value value, final Item it, final Collation coll) {
+      return (value instanceof IntSeq || value instanceof DblSeq) &&
+          (it instanceof Int || it instanceof Dbl) ||
+          value instanceof StrSeq && it.type == AtomType.STR && coll == null;
+    }
+
+    /**
+     * Returns the offset of the next item of a sequence for which the comparison with a single
+     * item is successful. The items are compared in their native representation.
+     * @param value sequence (see {@link #primitive(Value, Item, Collation)})
+     * @param it single item (second operand)
+     * @param start offset of the first item to be compared
+     * @param ii input info
+     * @return offset, or {@code -1} if no item was found
+     * @throws QueryException query exception
+     */
+    public final int next(final Value value, final Item it, final int start, final InputInfo ii)
+        throws QueryException {
+
+      final int vs = (int) value.size();
+      if(value instanceof StrSeq) {
+        final byte[][] values = ((StrSeq) value).values();
+        final byte[] string = it.string(ii);
+        for(int v = start; v < vs; v++) {
+          if(test(Token.diff(values[v], string))) return v;
+        }
+      } else if(value instanceof IntSeq && it instanceof Int) {
+        final long[] values = ((IntSeq) value).values();
+        final long l = it.itr(ii);
+        for(int v = start; v < vs; v++) {
+          final long n = values[v];
+          if(test(n < l ? -1 : n > l ? 1 : 0)) return v;
+        }
+      } else {
+        final double d = it.dbl(ii);
+        if(Double.isNaN(d)) return test(Item.UNDEF) && start < vs ? start : -1;
+        if(value instanceof IntSeq) {
+          final long[] values = ((IntSeq) value).values();
+          for(int v = start; v < vs; v++) {
+            final long n = values[v];
+            if(test(n < d ? -1 : n > d ? 1 : 0)) return v;
+          }
+        } else {
+          final double[] values = ((DblSeq) value).values();
+          for(int v = start; v < vs; v++) {
+            final double n = values[v];
+            if(test(n < d ? -1 : n > d ? 1 : n == d ? 0 : Item.UNDEF)) return v;
+          }
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Evaluates the result of a comparison.
+     * @param diff difference (see {@link Item#diff(Item, Collation, InputInfo)})
+     * @return result
+     */
+    private boolean test(final int diff) {
+      switch(this) {
+        case LE: return diff != Item.UNDEF && diff <= 0;
+        case LT: return diff != Item.UNDEF && diff < 0;
+        case GE: return diff >= 0;
+        case GT: return diff > 0;
+        case EQ: return diff == 0;
+        default: return diff != 0;
+      }
+    }
+
     /**
      * Inverts the comparator.
      * @return inverted comparator
@@ -1,12 +1,16 @@
 package org.basex.query.expr;
 
 import org.basex.query.*;
+import org.basex.query.expr.CmpV.OpV;
 import org.basex.query.iter.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
+import org.basex.util.list.*;
 
 /**
  * Iterative filter expression without numeric predicates.
@@ -44,6 +48,73 @@ public final class IterFilter extends Filter {
     };
   }
 
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Iter ir = qc.iter(root);
+    if(ir.valueIter()) {
+      // filter natively stored items in a single loop
+      final Value value = filter(ir.value(qc));
+      if(value != null) return value;
+    }
+    final ValueBuilder vb = new ValueBuilder();
+    for(Item it; (it = ir.next()) != null;) {
+      qc.checkStop();
+      if(preds(it, qc)) vb.add(it);
+    }
+    return vb.value();
+  }
+
+  /**
+   * Filters a sequence with natively stored items in a single loop. This is possible if the
+   * filter has a single predicate, which compares the context value with a single item.
+   * @param value sequence
+   * @return filtered sequence, or {@code null} if the items cannot be filtered natively
+   * @throws QueryException query exception
+   */
+  private Value filter(final Value value) throws QueryException {
+    if(preds.length != 1) return null;
+    final Expr pred = preds[0];
+    CmpR range = null;
+    OpV op = null;
+    Item it = null;
+    if(pred instanceof CmpR) {
+      if(!(((CmpR) pred).expr instanceof ContextValue) ||
+          !(value instanceof IntSeq || value instanceof DblSeq)) return null;
+      range = (CmpR) pred;
+    } else if(pred instanceof CmpG || pred instanceof CmpV) {
+      final Cmp cmp = (Cmp) pred;
+      if(!(cmp.exprs[0] instanceof ContextValue && cmp.exprs[1] instanceof Item)) return null;
+      it = (Item) cmp.exprs[1];
+      if(!OpV.primitive(value, it, cmp.coll)) return null;
+      op = cmp instanceof CmpG ? ((CmpG) cmp).op.op : ((CmpV) cmp).op;
+    } else {
+      return null;
+    }
+
+    // collect offsets of the matching items
+    final IntList list = new IntList();
+    for(int v = 0; (v = range != null ? range.next(value, v) : op.next(value, it, v, info)) != -1;
+        v++) {
+      list.add(v);
+    }
+    final int ls = list.size();
+    if(ls == value.size()) return value;
+
+    if(value instanceof IntSeq) {
+      final long[] values = ((IntSeq) value).values(), tmp = new long[ls];
+      for(int l = 0; l < ls; l++) tmp[l] = values[list.get(l)];
+      return IntSeq.get(tmp, value.type);
+    }
+    if(value instanceof DblSeq) {
+      final double[] values = ((DblSeq) value).values(), tmp = new double[ls];
+      for(int l = 0; l < ls; l++) tmp[l] = values[list.get(l)];
+      return DblSeq.get(tmp);
+    }
+    final byte[][] values = ((StrSeq) value).values(), tmp = new byte[ls][];
+    for(int l = 0; l < ls; l++) tmp[l] = values[list.get(l)];
+    return StrSeq.get(tmp);
+  }
+
   @Override
   public IterFilter copy(final CompileContext cc, final IntObjMap<Var> vm) {
     return copyType(new IterFilter(info, root.copy(cc, vm), Arr.copyAll(cc, vm, preds)));
@@ -115,6 +115,16 @@ public final class FTWildcard {
     return c;
   }
 
+  /**
+   * Returns the minimum length of a potential match.
+   * @return minimum length
+   */
+  public int min() {
+    int c = 0;
+    for(int s = 0; s < size; s++) c += min[s];
+    return c;
+  }
+
   /**
    * Returns the wildcard prefix, which is the same for all matches.
    * @return prefix
@@ -134,6 +144,29 @@ public final class FTWildcard {
     return match(cps(t), 0, 0);
   }
 
+  /**
+   * Returns the length of the shortest prefix of the specified token that cannot be extended
+   * to a match. Only the leading part of the query is considered in which all characters and
+   * wildcards have a fixed length.
+   * @param t token
+   * @return length of the prefix (in bytes), or {@code -1}
+   */
+  public int mismatch(final byte[] t) {
+    final int tl = t.length;
+    int ti = 0;
+    for(int s = 0; s < size && ti < tl; s++) {
+      if(wc[s] == DOT) {
+        if(min[s] != max[s]) break;
+        for(int n = 0; n < min[s] && ti < tl; n++) ti += cl(t, ti);
+      } else {
+        final int c = cp(t, ti);
+        ti += cl(t, ti);
+        if(c != wc[s]) return ti;
+      }
+    }
+    return -1;
+  }
+
   /**
    * Indicates if the input contains no wildcard characters.
    * @return result of check
@@ -1,11 +1,15 @@
 package org.basex.query.expr.gflwor;
 
 import java.util.*;
+import java.util.concurrent.*;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.path.*;
+import org.basex.query.func.*;
 import org.basex.query.iter.*;
+import org.basex.query.scope.*;
 import org.basex.query.util.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
@@ -66,6 +70,9 @@ public final class GFLWOR extends ParseExpr {
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
+    if(arith()) return arith(qc);
+    if(parallel(qc)) return new ParallelIter(newEval(), ret, qc).value(qc);
+
     final Eval eval = newEval();
     if(!eval.next(qc)) return Empty.SEQ;
     final Value v1 = qc.value(ret);
@@ -79,7 +86,9 @@ public final class GFLWOR extends ParseExpr {
   }
 
   @Override
-  public Iter iter(final QueryContext qc) {
+  public Iter iter(final QueryContext qc) throws QueryException {
+    if(parallel(qc)) return new ParallelIter(newEval(), ret, qc);
+
     return new Iter() {
       /** Clause evaluator. */
       private final Eval ev = newEval();
@@ -101,6 +110,107 @@ public final class GFLWOR extends ParseExpr {
     };
   }
 
+  /**
+   * Checks if the expression consists of a single for clause and an arithmetic return
+   * expression, which combines the iterated items with a single item.
+   * @return result of check
+   */
+  private boolean arith() {
+    if(clauses.size() != 1 || !(clauses.getFirst() instanceof For) || !(ret instanceof Arith))
+      return false;
+    final For fst = (For) clauses.getFirst();
+    return fst.pos == null && fst.score == null && !fst.empty && ((Arith) ret).bound(fst.var);
+  }
+
+  /**
+   * Evaluates a single for clause with an arithmetic return expression (see {@link #arith()}).
+   * If the iterated numbers are natively stored, the calculation is performed in a single loop.
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  private Value arith(final QueryContext qc) throws QueryException {
+    final For fst = (For) clauses.getFirst();
+    final Value value = qc.value(fst.expr);
+    final Value result = ((Arith) ret).value(value, fst.var);
+    if(result != null) return result;
+
+    final ValueBuilder vb = new ValueBuilder();
+    for(final Item it : value) {
+      qc.checkStop();
+      qc.set(fst.var, it);
+      vb.add(qc.value(ret));
+    }
+    return vb.value();
+  }
+
+  /**
+   * Checks if the return expression can be evaluated in parallel.
+   * @param qc query context
+   * @return result of check
+   * @throws QueryException query exception
+   */
+  private boolean parallel(final QueryContext qc) throws QueryException {
+    // nested expressions are evaluated by the current worker thread;
+    // constructed nodes must be created in the order of the tuples
+    if(!qc.context.options.get(MainOptions.PARALLELFLWOR) || ForkJoinTask.inForkJoinPool() ||
+        ret.has(Flag.NDT) || ret.has(Flag.UPD) || ret.has(Flag.CNS)) return false;
+    // skip expressions that yield at most one tuple
+    final long[] minMax = { 1, 1 };
+    boolean tuples = false;
+    for(final Clause clause : clauses) {
+      clause.calcSize(minMax);
+      tuples |= minMax[1] < 0 || minMax[1] > 1;
+    }
+    if(!tuples) return false;
+
+    // static variables must be evaluated before the workers are started;
+    // lazy variables that have not been evaluated yet are evaluated sequentially
+    for(final StaticVar var : staticVars()) {
+      if(!var.evaluate(qc)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns all static variables that are referenced by the return expression.
+   * @return static variables
+   */
+  private ArrayList<StaticVar> staticVars() {
+    final ArrayList<StaticVar> vars = new ArrayList<>();
+    final IdentityHashMap<Scope, Object> map = new IdentityHashMap<>();
+    ret.accept(new ASTVisitor() {
+      @Override
+      public boolean staticVar(final StaticVar var) {
+        if(map.put(var, var) == null) {
+          var.visit(this);
+          vars.add(var);
+        }
+        return true;
+      }
+
+      @Override
+      public boolean staticFuncCall(final StaticFuncCall call) {
+        final StaticFunc f = call.func();
+        if(map.put(f, f) == null) f.visit(this);
+        return true;
+      }
+
+      @Override
+      public boolean inlineFunc(final Scope sub) {
+        if(map.put(sub, sub) == null) sub.visit(this);
+        return true;
+      }
+
+      @Override
+      public boolean funcItem(final FuncItem func) {
+        if(map.put(func, func) == null) func.visit(this);
+        return true;
+      }
+    });
+    return vars;
+  }
+
   @Override
   public Expr compile(final CompileContext cc) throws QueryException {
     final ListIterator<Clause> iter = clauses.listIterator();
@@ -240,6 +350,7 @@ public final class GFLWOR extends ParseExpr {
     } while(changed);
 
     mergeWheres();
+    aggregate(cc);
 
     size = calcSize();
     if(size == 0 && !has(Flag.NDT) && !has(Flag.UPD)) {
@@ -258,6 +369,22 @@ public final class GFLWOR extends ParseExpr {
     return this;
   }
 
+  /**
+   * Detects non-grouping variables of group by clauses that can be aggregated.
+   * The detection is repeated whenever this expression has been optimized, and its result
+   * is not changed during evaluation.
+   * @param cc compilation context
+   */
+  private void aggregate(final CompileContext cc) {
+    final int cl = clauses.size();
+    for(int c = 0; c < cl; c++) {
+      final Clause clause = clauses.get(c);
+      if(clause instanceof GroupBy) {
+        ((GroupBy) clause).aggregate(clauses.subList(c + 1, cl), ret, cc);
+      }
+    }
+  }
+
   /**
    * Pre-calculates the number of results of this FLWOR expression.
    * @return result size if statically computable, {@code -1} otherwise
@@ -800,6 +927,22 @@ public final class GFLWOR extends ParseExpr {
     return optimize(cc);
   }
 
+  /**
+   * Limits the number of tuples that will be sorted by an order by clause if only the first
+   * results of this expression are requested. The limit is applied if each tuple yields at least
+   * one result, and if the order by clause is only followed by let and count clauses.
+   * @param max maximum number of requested results
+   */
+  public void limit(final long max) {
+    if(!ret.seqType().oneOrMore()) return;
+    final Iterator<Clause> iter = clauses.descendingIterator();
+    while(iter.hasNext()) {
+      final Clause clause = iter.next();
+      if(clause instanceof OrderBy) ((OrderBy) clause).limit(max);
+      if(!(clause instanceof Let || clause instanceof Count)) return;
+    }
+  }
+
   @Override
   public void plan(final FElem plan) {
     final FElem e = planElem();
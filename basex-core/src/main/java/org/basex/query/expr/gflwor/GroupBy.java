@@ -1,13 +1,17 @@
 package org.basex.query.expr.gflwor;
 
+import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
 import java.util.*;
+import java.util.List;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.gflwor.GFLWOR.Clause;
 import org.basex.query.expr.gflwor.GFLWOR.Eval;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
 import org.basex.query.value.*;
@@ -35,6 +39,8 @@ public final class GroupBy extends Clause {
   private Var[] post;
   /** Number of non-occluded grouping variables. */
   private final int nonOcc;
+  /** Aggregate functions of non-grouping variables ({@code null}: values are cached). */
+  private Function[] aggr;
 
   /**
    * Constructor.
@@ -110,7 +116,7 @@ public final class GroupBy extends Clause {
           }
         }
         final int pl = post.length;
-        for(int i = 0; i < pl; i++) qc.set(post[i], curr.ngv[i].value());
+        for(int i = 0; i < pl; i++) qc.set(post[i], curr.value(i));
         return true;
       }
 
@@ -123,6 +129,8 @@ public final class GroupBy extends Clause {
         final ArrayList<Group> grps = new ArrayList<>();
         final IntObjMap<Group> map = new IntObjMap<>();
         final Collation[] colls = new Collation[nonOcc];
+        final int pl = preExpr.length;
+        final Function[] funcs = aggr;
         int c = 0;
         for(final Spec spec : specs) {
           if(!spec.occluded) colls[c++] = spec.coll;
@@ -154,13 +162,12 @@ public final class GroupBy extends Clause {
             }
           }
 
-          final int pl = preExpr.length;
           if(grp == null) {
             // new group, add it to the list
-            final ValueBuilder[] ngs = new ValueBuilder[pl];
-            final int nl = ngs.length;
-            for(int n = 0; n < nl; n++) ngs[n] = new ValueBuilder();
-            grp = new Group(key, ngs);
+            grp = new Group(key, pl);
+            for(int g = 0; g < pl; g++) {
+              if(funcs == null || funcs[g] == null) grp.ngv[g] = new ValueBuilder();
+            }
             grps.add(grp);
 
             // insert the group into the hash table
@@ -173,8 +180,31 @@ public final class GroupBy extends Clause {
             }
           }
 
-          // add values of non-grouping variables to the group
-          for(int g = 0; g < pl; g++) grp.ngv[g].add(qc.value(preExpr[g]));
+          // add values of non-grouping variables to the group, or update aggregated values
+          for(int g = 0; g < pl; g++) {
+            final Function func = funcs == null ? null : funcs[g];
+            if(grp.ngv[g] != null) {
+              grp.ngv[g].add(qc.value(preExpr[g]));
+            } else if(func == Function.COUNT) {
+              final Iter iter = qc.iter(preExpr[g]);
+              long n = iter.size();
+              if(n == -1) {
+                for(n = 0; iter.next() != null; n++) qc.checkStop();
+              }
+              grp.counts[g] += n;
+            } else {
+              final Value value = qc.value(preExpr[g]);
+              try {
+                grp.sums[g] = sum(grp.sums[g], value, qc);
+              } catch(final QueryException ex) {
+                // cache the current sum and all remaining values. This way, the error will only
+                // be raised (by fn:sum) if the sum is requested
+                final ValueBuilder vb = new ValueBuilder();
+                if(grp.sums[g] != null) vb.add(grp.sums[g]);
+                grp.ngv[g] = vb.add(value);
+              }
+            }
+          }
         }
 
         // we're finished, copy the array so the list can be garbage-collected
@@ -183,6 +213,90 @@ public final class GroupBy extends Clause {
     };
   }
 
+  /**
+   * Adds the atomized items of the specified value to a running sum.
+   * The summation follows the rules of {@code fn:sum}.
+   * @param sum current sum ({@code null} if no values have been added yet)
+   * @param value value
+   * @param qc query context
+   * @return new sum or {@code null}
+   * @throws QueryException query exception
+   */
+  private Item sum(final Item sum, final Value value, final QueryContext qc)
+      throws QueryException {
+    Item rs = sum;
+    final Iter iter = value.atomIter(qc, info);
+    for(Item it; (it = iter.next()) != null;) {
+      qc.checkStop();
+      if(rs == null) {
+        rs = it.type.isUntyped() ? Dbl.get(it.dbl(info)) : it;
+        if(!(rs instanceof ANum) && rs.type != AtomType.DTD && rs.type != AtomType.YMD)
+          throw SUM_X_X.get(info, rs.type, rs);
+      } else {
+        final boolean num = rs instanceof ANum;
+        if(it.type.isNumberOrUntyped()) {
+          if(!num) throw SUMDUR_X_X.get(info, it.type, it);
+        } else {
+          if(num) throw SUMNUM_X_X.get(info, it.type, it);
+          if(it.type != rs.type) throw SUMDUR_X_X.get(info, it.type, it);
+        }
+        rs = Calc.PLUS.ev(rs, it, info);
+      }
+    }
+    return rs;
+  }
+
+  /**
+   * Detects non-grouping variables that are only passed on to {@code fn:count} or
+   * {@code fn:sum}. The values of these variables are aggregated while the groups are built,
+   * and the results are bound instead of the values: for {@code fn:count}, the positions of
+   * the values are bound; for {@code fn:sum}, the sum is bound. As only a running count or sum
+   * is kept, the memory consumed per group stays constant, no matter how many tuples it has.
+   * <p>Invariant: the bound values are only correct as arguments of the detected function.
+   * Hence, the detection is performed by the enclosing FLWOR expression whenever it has been
+   * optimized, i.e., after the expressions that follow this clause have been rewritten.
+   * The result is not changed during evaluation. Copies of this clause are created
+   * without aggregated variables.</p>
+   * @param rest clauses following this clause
+   * @param ret return expression
+   * @param cc compilation context
+   */
+  void aggregate(final List<Clause> rest, final Expr ret, final CompileContext cc) {
+    final int pl = post.length;
+    final Function[] funcs = new Function[pl];
+    boolean found = false;
+    for(int p = 0; p < pl; p++) {
+      final Var var = post[p];
+      final AggrVisitor visitor = new AggrVisitor(var);
+      for(final Clause clause : rest) clause.accept(visitor);
+      ret.accept(visitor);
+      if(visitor.func != null && visitor.refs == visitor.calls) {
+        funcs[p] = visitor.func;
+        found = true;
+      }
+    }
+    final Function[] old = aggr;
+    aggr = found ? funcs : null;
+    if(found && !Arrays.equals(old, aggr)) cc.info(OPTAGGR_X, aggregated());
+  }
+
+  /**
+   * Returns a string representation of the aggregated non-grouping variables.
+   * @return string or {@code null}
+   */
+  private String aggregated() {
+    if(aggr == null) return null;
+    final StringBuilder sb = new StringBuilder();
+    final int pl = post.length;
+    for(int p = 0; p < pl; p++) {
+      if(aggr[p] == null) continue;
+      if(sb.length() != 0) sb.append(SEP);
+      sb.append(Token.string(aggr[p].id())).append('(').append(DOLLAR);
+      sb.append(Token.string(post[p].name.string())).append(')');
+    }
+    return sb.toString();
+  }
+
   /**
    * Checks two keys for equality.
    * @param its1 first keys
@@ -304,7 +418,7 @@ public final class GroupBy extends Clause {
 
   @Override
   public void plan(final FElem plan) {
-    final FElem e = planElem();
+    final FElem e = planElem(AGGR, aggregated());
     for(final Spec spec : specs) spec.plan(e);
     plan.add(e);
   }
@@ -390,6 +504,52 @@ public final class GroupBy extends Clause {
     }
   }
 
+  /**
+   * Visitor that checks if all references to a variable are arguments of aggregate functions.
+   * If a variable is accepted, its bound value will be replaced by an aggregated surrogate
+   * (see {@link Group#value(int)}). Therefore, a variable must only be accepted if no other
+   * references exist, and if all arguments are calls of the same function.
+   *
+   * @author BaseX Team 2005-17, BSD License
+   * @author Christian Gruen
+   */
+  private static final class AggrVisitor extends ASTVisitor {
+    /** Variable. */
+    private final Var var;
+    /** Aggregate function ({@code null} if unknown or if different functions are used). */
+    private Function func;
+    /** Number of variable references. */
+    private int refs;
+    /** Number of aggregate function calls. */
+    private int calls;
+
+    /**
+     * Constructor.
+     * @param var variable
+     */
+    private AggrVisitor(final Var var) {
+      this.var = var;
+    }
+
+    @Override
+    public boolean used(final VarRef ref) {
+      if(ref.var.is(var)) refs++;
+      return true;
+    }
+
+    @Override
+    public boolean funcCall(final StandardFunc call) {
+      final Function f = call.sig;
+      if((f == Function.COUNT || f == Function.SUM) && call.exprs[0] instanceof VarRef &&
+          ((VarRef) call.exprs[0]).var.is(var)) {
+        // different aggregate functions: reject variable
+        if(calls++ == 0) func = f;
+        else if(func != f) refs = -1;
+      }
+      return true;
+    }
+  }
+
   /**
    * A group of tuples of post-grouping variables.
    *
@@ -399,19 +559,43 @@ public final class GroupBy extends Clause {
   private static final class Group {
     /** Grouping key, may contain {@code null} values. */
     final Item[] key;
-    /** Non-grouping variables. */
+    /** Non-grouping variables ({@code null} entries for aggregated values). */
     final ValueBuilder[] ngv;
+    /** Number of values of counted non-grouping variables. */
+    final long[] counts;
+    /** Sums of summed non-grouping variables (entries may be {@code null}). */
+    final Item[] sums;
     /** Overflow list. */
     Group next;
 
     /**
      * Constructor.
      * @param k grouping key
-     * @param ng non-grouping variables
+     * @param size number of non-grouping variables
      */
-    Group(final Item[] k, final ValueBuilder[] ng) {
+    Group(final Item[] k, final int size) {
       key = k;
-      ngv = ng;
+      ngv = new ValueBuilder[size];
+      counts = new long[size];
+      sums = new Item[size];
+    }
+
+    /**
+     * Returns the value of a non-grouping variable.
+     * <p>Aggregated variables are bound to surrogates which yield the same results if they are
+     * passed on to the aggregate function (see {@link GroupBy#aggregate(List, Expr)}):
+     * counted variables are bound to the positions of their values, and summed variables are
+     * bound to their sum. If values could not be summed up, the partial sum and the remaining
+     * values are bound. The surrogates must never be used in any other context.</p>
+     * @param i index of the variable
+     * @return value
+     */
+    Value value(final int i) {
+      if(ngv[i] != null) return ngv[i].value();
+      final long c = counts[i];
+      if(c != 0) return RangeSeq.get(1, c, true);
+      final Item sum = sums[i];
+      return sum != null ? sum : Empty.SEQ;
     }
   }
 }
@@ -4,7 +4,6 @@ import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
 import java.util.*;
-import java.util.List;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
@@ -18,6 +17,7 @@ import org.basex.query.value.node.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
+import org.basex.util.list.*;
 
 /**
  * FLWOR {@code order by}-expression.
@@ -30,6 +30,8 @@ public final class OrderBy extends Clause {
   private VarRef[] refs;
   /** Sort keys. */
   private final Key[] keys;
+  /** Maximum number of returned tuples ({@link Long#MAX_VALUE}: no limit). */
+  private long limit = Long.MAX_VALUE;
 
   /**
    * Constructor.
@@ -49,13 +51,13 @@ public final class OrderBy extends Clause {
       /** Sorted output tuples. */
       private Value[][] tpls;
       /** Permutation of the values. */
-      private Integer[] perm;
+      private int[] perm;
       /** Current position. */
       int pos;
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
-        if(tpls == null) sort(qc);
-        if(pos == tpls.length) return false;
+        if(perm == null) sort(qc);
+        if(pos == perm.length) return false;
         final int p = perm[pos++];
         final Value[] tuple = tpls[p];
         // free the space occupied by the tuple
@@ -71,67 +73,265 @@ public final class OrderBy extends Clause {
        * @throws QueryException evaluation exception
        */
       private void sort(final QueryContext qc) throws QueryException {
-        // keys are stored at odd positions, values at even ones
-        List<Value[]> tuples = new ArrayList<>();
-        while(sub.next(qc)) {
-          final int kl = keys.length;
+        final ArrayList<Item[]> ks = new ArrayList<>();
+        final ArrayList<Value[]> vs = new ArrayList<>();
+        // top-k: positions of the cached tuples, organized as max-heap, and tuple numbers
+        final IntList heap = limit == Long.MAX_VALUE ? null : new IntList(), seqs = new IntList();
+
+        final int kl = keys.length, rl = refs.length;
+        for(int seq = 0; sub.next(qc); seq++) {
           final Item[] key = new Item[kl];
-          for(int k = 0; k < kl; k++) key[k] = keys[k].expr.atomItem(qc, keys[k].info);
-          tuples.add(key);
+          for(int k = 0; k < kl; k++) {
+            final Item it = keys[k].expr.atomItem(qc, keys[k].info);
+            key[k] = it == Dbl.NAN || it == Flt.NAN ? null : it;
+          }
+          // skip tuple if it is greater than all tuples that have been cached
+          int p = ks.size();
+          if(heap != null && p == limit) {
+            p = heap.get(0);
+            if(compare(key, ks.get(p)) >= 0) continue;
+          }
 
-          final int rl = refs.length;
           final Value[] vals = new Value[rl];
           for(int r = 0; r < rl; r++) vals[r] = refs[r].value(qc);
-          tuples.add(vals);
+          if(p == ks.size()) {
+            ks.add(key);
+            vs.add(vals);
+            seqs.add(seq);
+            if(heap != null) up(heap, ks, seqs);
+          } else {
+            ks.set(p, key);
+            vs.set(p, vals);
+            seqs.set(p, seq);
+            down(heap, ks, seqs);
+          }
+        }
+
+        final int tl = ks.size();
+        tpls = vs.toArray(new Value[tl][]);
+        final Item[][] items = ks.toArray(new Item[tl][]);
+        final Keys sk = new Keys(items, seqs.finish());
+        perm = new int[tl];
+        for(int i = 0; i < tl; i++) perm[i] = i;
+        sk.sort(perm, new int[tl], 0, tl);
+      }
+    };
+  }
+
+  /**
+   * Restores the heap property after a tuple has been added.
+   * @param heap heap
+   * @param ks sort keys
+   * @param seqs tuple numbers
+   * @throws QueryException query exception
+   */
+  private void up(final IntList heap, final ArrayList<Item[]> ks, final IntList seqs)
+      throws QueryException {
+    int c = heap.size();
+    heap.add(c);
+    while(c > 0) {
+      final int p = c - 1 >>> 1, pc = heap.get(c), pp = heap.get(p);
+      if(compare(ks.get(pp), seqs.get(pp), ks.get(pc), seqs.get(pc)) >= 0) break;
+      heap.set(c, pp);
+      heap.set(p, pc);
+      c = p;
+    }
+  }
+
+  /**
+   * Restores the heap property after the greatest tuple has been replaced.
+   * @param heap heap
+   * @param ks sort keys
+   * @param seqs tuple numbers
+   * @throws QueryException query exception
+   */
+  private void down(final IntList heap, final ArrayList<Item[]> ks, final IntList seqs)
+      throws QueryException {
+    final int hs = heap.size();
+    int p = 0;
+    while(true) {
+      int c = (p << 1) + 1;
+      if(c >= hs) break;
+      int hc = heap.get(c);
+      if(c + 1 < hs) {
+        final int hd = heap.get(c + 1);
+        if(compare(ks.get(hd), seqs.get(hd), ks.get(hc), seqs.get(hc)) > 0) {
+          c++;
+          hc = hd;
+        }
+      }
+      final int hp = heap.get(p);
+      if(compare(ks.get(hp), seqs.get(hp), ks.get(hc), seqs.get(hc)) >= 0) break;
+      heap.set(p, hc);
+      heap.set(c, hp);
+      p = c;
+    }
+  }
+
+  /**
+   * Compares two tuples. If their keys are equal, the tuple numbers are compared.
+   * @param a keys of the first tuple
+   * @param sa number of the first tuple
+   * @param b keys of the second tuple
+   * @param sb number of the second tuple
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private int compare(final Item[] a, final int sa, final Item[] b, final int sb)
+      throws QueryException {
+    final int c = compare(a, b);
+    return c != 0 ? c : sa - sb;
+  }
+
+  /**
+   * Compares the keys of two tuples.
+   * @param a keys of the first tuple
+   * @param b keys of the second tuple
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private int compare(final Item[] a, final Item[] b) throws QueryException {
+    final int kl = keys.length;
+    for(int k = 0; k < kl; k++) {
+      final int c = keys[k].compare(a[k], b[k]);
+      if(c != 0) return c;
+    }
+    return 0;
+  }
+
+  /**
+   * Limits the number of tuples that will be returned.
+   * @param max maximum number of tuples
+   */
+  void limit(final long max) {
+    limit = Math.min(limit, Math.max(1, max));
+  }
+
+  /**
+   * Sort keys of the cached tuples. Integer, double and string keys are normalized to
+   * primitive values, which are compared without the overhead of {@link Item#diff}.
+   */
+  private final class Keys {
+    /** Largest integer that can be represented as double without loss of precision. */
+    private static final long MAX_DBL_INT = 1L << 53;
+    /** Sort keys of all tuples. */
+    private final Item[][] items;
+    /** Tuple numbers. */
+    private final int[] seqs;
+    /** Normalized keys ({@code long[]}, {@code double[]}, {@code byte[][]}, or {@code null}). */
+    private final Object[] norm;
+
+    /**
+     * Constructor.
+     * @param items sort keys of all tuples
+     * @param seqs tuple numbers
+     * @throws QueryException query exception
+     */
+    Keys(final Item[][] items, final int[] seqs) throws QueryException {
+      this.items = items;
+      this.seqs = seqs;
+
+      final int kl = keys.length, il = items.length;
+      norm = new Object[kl];
+      for(int k = 0; k < kl; k++) {
+        boolean lng = true, dbl = true, str = keys[k].coll == null;
+        for(final Item[] key : items) {
+          final Item it = key[k];
+          if(it == null) continue;
+          final boolean itr = it instanceof Int;
+          lng &= itr;
+          // integers can only be converted to doubles without loss of precision up to 2^53
+          if(itr) {
+            final long l = ((Int) it).itr();
+            dbl &= l >= -MAX_DBL_INT && l <= MAX_DBL_INT;
+          } else {
+            dbl &= it instanceof Dbl;
+          }
+          str &= (it instanceof AStr || it instanceof Atm) && it.type.isStringOrUntyped();
         }
+        if(lng) {
+          final long[] vals = new long[il];
+          for(int i = 0; i < il; i++) if(items[i][k] != null) vals[i] = ((Int) items[i][k]).itr();
+          norm[k] = vals;
+        } else if(dbl) {
+          final double[] vals = new double[il];
+          for(int i = 0; i < il; i++) if(items[i][k] != null) vals[i] = ((ANum) items[i][k]).dbl();
+          norm[k] = vals;
+        } else if(str) {
+          final byte[][] vals = new byte[il][];
+          for(int i = 0; i < il; i++) if(items[i][k] != null) vals[i] = items[i][k].string(info);
+          norm[k] = vals;
+        }
+      }
+    }
 
-        final int len = tuples.size() >>> 1;
-        final Item[][] ks = new Item[len][];
-        perm = new Integer[len];
-        tpls = new Value[len][];
-        for(int i = 0; i < len; i++) {
-          perm[i] = i;
-          tpls[i] = tuples.get(i << 1 | 1);
-          ks[i] = (Item[]) tuples.get(i << 1);
+    /**
+     * Sorts the specified range of tuple positions (merge sort).
+     * @param perm tuple positions
+     * @param tmp temporary array
+     * @param from first position
+     * @param to position after the last position
+     * @throws QueryException query exception
+     */
+    void sort(final int[] perm, final int[] tmp, final int from, final int to)
+        throws QueryException {
+      if(to - from < 8) {
+        for(int i = from + 1; i < to; i++) {
+          final int p = perm[i];
+          int j = i;
+          for(; j > from && compare(perm[j - 1], p) > 0; j--) perm[j] = perm[j - 1];
+          perm[j] = p;
         }
-        // be nice to the garbage collector
-        tuples = null;
-        try {
-          Arrays.sort(perm, new Comparator<Integer>() {
-            @Override
-            public int compare(final Integer x, final Integer y) {
-              try {
-                final Item[] a = ks[x], b = ks[y];
-                final int kl = keys.length;
-                for(int k = 0; k < kl; k++) {
-                  final Key key = keys[k];
-                  Item m = a[k], n = b[k];
-                  if(m == Dbl.NAN || m == Flt.NAN) m = null;
-                  if(n == Dbl.NAN || n == Flt.NAN) n = null;
-                  if(m != null && n != null && !m.comparable(n))
-                    throw castError(n, m.type, key.info);
-
-                  final int c = m == null
-                      ? n == null ? 0                 : key.least ? -1 : 1
-                      : n == null ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
-                  if(c != 0) return key.desc ? -c : c;
-                }
-                return 0;
-              } catch(final QueryException ex) {
-                throw new QueryRTException(ex);
-              }
-            }
-          });
-        } catch(final QueryRTException ex) {
-          throw ex.getCause();
+        return;
+      }
+      final int mid = from + to >>> 1;
+      sort(perm, tmp, from, mid);
+      sort(perm, tmp, mid, to);
+      if(compare(perm[mid - 1], perm[mid]) <= 0) return;
+
+      System.arraycopy(perm, from, tmp, from, to - from);
+      for(int i = from, l = from, r = mid; i < to; i++) {
+        perm[i] = r == to || l < mid && compare(tmp[l], tmp[r]) <= 0 ? tmp[l++] : tmp[r++];
+      }
+    }
+
+    /**
+     * Compares two tuples. If their keys are equal, the tuple numbers are compared.
+     * @param i position of the first tuple
+     * @param j position of the second tuple
+     * @return result of comparison
+     * @throws QueryException query exception
+     */
+    private int compare(final int i, final int j) throws QueryException {
+      final Item[] a = items[i], b = items[j];
+      final int kl = keys.length;
+      for(int k = 0; k < kl; k++) {
+        final Key key = keys[k];
+        final Object nk = norm[k];
+        int c;
+        if(nk == null || a[k] == null || b[k] == null) {
+          c = key.compare(a[k], b[k]);
+        } else {
+          if(nk instanceof long[]) {
+            final long m = ((long[]) nk)[i], n = ((long[]) nk)[j];
+            c = m < n ? -1 : m > n ? 1 : 0;
+          } else if(nk instanceof double[]) {
+            final double m = ((double[]) nk)[i], n = ((double[]) nk)[j];
+            c = m < n ? -1 : m > n ? 1 : 0;
+          } else {
+            c = Token.diff(((byte[][]) nk)[i], ((byte[][]) nk)[j]);
+          }
+          if(key.desc) c = -c;
         }
+        if(c != 0) return c;
       }
-    };
+      return seqs[i] - seqs[j];
+    }
   }
 
   @Override
   public void plan(final FElem plan) {
-    final FElem e = planElem();
+    final FElem e = planElem(MAX, limit == Long.MAX_VALUE ? null : limit);
     for(final Key key : keys) key.plan(e);
     plan.add(e);
   }
@@ -183,7 +383,9 @@ public final class OrderBy extends Clause {
 
   @Override
   public OrderBy copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), info);
+    final OrderBy ob = new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), info);
+    ob.limit = limit;
+    return ob;
   }
 
   @Override
@@ -287,5 +489,20 @@ public final class OrderBy extends Clause {
     public int exprSize() {
       return expr.exprSize();
     }
+
+    /**
+     * Compares two sort key values.
+     * @param m first value (can be {@code null})
+     * @param n second value (can be {@code null})
+     * @return result of comparison
+     * @throws QueryException query exception
+     */
+    int compare(final Item m, final Item n) throws QueryException {
+      if(m != null && n != null && !m.comparable(n)) throw castError(n, m.type, info);
+      final int c = m == null
+          ? n == null ? 0                 : least ? -1 : 1
+          : n == null ? least ? 1 : -1 : m.diff(n, coll, info);
+      return desc ? -c : c;
+    }
   }
 }
@@ -0,0 +1,176 @@
+package org.basex.query.expr.gflwor;
+
+import java.util.*;
+
+import org.basex.core.jobs.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.GFLWOR.Eval;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.var.*;
+
+/**
+ * Iterator that evaluates the return expression of a FLWOR expression in parallel.
+ * The tuples are generated by the calling thread and evaluated in batches by the workers
+ * of the job pool. The results are returned in the order of the tuples.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class ParallelIter extends Iter {
+  /** Number of tuples per batch and worker. */
+  private static final int TUPLES = 64;
+  /** Number of chunks per batch and worker. */
+  private static final int CHUNKS = 4;
+
+  /** Clause evaluator. */
+  private final Eval eval;
+  /** Return expression. */
+  private final Expr ret;
+  /** Query context. */
+  private final QueryContext qc;
+
+  /** Results of the current batch. */
+  private Value[] results = {};
+  /** Index of the next result. */
+  private int r;
+  /** Index of the first failing tuple of the current batch. */
+  private int failed;
+  /** Error raised by the first failing tuple ({@code null} if no error occurred). */
+  private Exception error;
+  /** Current result iterator. */
+  private Iter iter = Empty.ITER;
+  /** Indicates if more tuples may be available. */
+  private boolean more = true;
+
+  /**
+   * Constructor.
+   * @param eval clause evaluator
+   * @param ret return expression
+   * @param qc query context
+   */
+  ParallelIter(final Eval eval, final Expr ret, final QueryContext qc) {
+    this.eval = eval;
+    this.ret = ret;
+    this.qc = qc;
+  }
+
+  @Override
+  public Item next() throws QueryException {
+    while(true) {
+      final Item it = iter.next();
+      if(it != null) return it;
+      if(r < results.length) {
+        // raise error when the result of the failing tuple is requested
+        if(r == failed) {
+          if(error instanceof QueryException) throw (QueryException) error;
+          throw (RuntimeException) error;
+        }
+        iter = results[r].iter();
+        results[r++] = null;
+      } else if(more) {
+        results = batch();
+        r = 0;
+      } else {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Generates the next batch of tuples and evaluates the return expression in parallel.
+   * If the evaluation of a tuple fails, the results of the preceding tuples are returned,
+   * and the error is assigned to {@link #error}.
+   * @return results
+   * @throws QueryException query exception
+   */
+  private Value[] batch() throws QueryException {
+    final JobWorkers workers = qc.context.jobs.workers;
+    final JobContext jc = qc.jc();
+    final int wl = workers.reserve(jc, workers.parallelism());
+    try {
+      // generate tuples: assign snapshots of the current stack frame
+      final ArrayList<Value[]> tuples = new ArrayList<>();
+      Var[] vars = null;
+      while(tuples.size() < wl * TUPLES) {
+        if(!eval.next(qc)) {
+          more = false;
+          break;
+        }
+        qc.checkStop();
+        tuples.add(qc.stack.values());
+        if(vars == null) vars = qc.stack.vars();
+      }
+      final int tl = tuples.size();
+      final Value[] values = new Value[tl];
+      failed = tl;
+      if(tl == 0) return values;
+
+      // create query contexts in the calling thread (child jobs are registered in order)
+      qc.initDateTime();
+      final QueryContext[] qcs = new QueryContext[wl];
+      final int cl = Math.min(tl, wl * CHUNKS);
+      final Exception[] errors = new Exception[cl];
+      final int[] fails = new int[cl];
+      try {
+        for(int w = 0; w < wl; w++) {
+          final QueryContext qcw = new QueryContext(qc);
+          qcw.focus.value = qc.focus.value;
+          qcw.focus.pos = qc.focus.pos;
+          qcw.focus.size = qc.focus.size;
+          qcw.date = qc.date;
+          qcw.datm = qc.datm;
+          qcw.time = qc.time;
+          qcw.zone = qc.zone;
+          qcw.nano = qc.nano;
+          qcs[w] = qcw;
+        }
+        final Var[] vrs = vars;
+        workers.run(jc, wl, cl, new JobWorkers.Worker() {
+          @Override
+          public boolean run(final int w, final int c) {
+            // evaluate the tuples of a single chunk
+            final QueryContext qcw = qcs[w];
+            final QueryStack stack = qcw.stack;
+            final int fp = stack.enterFrame(vrs.length);
+            final int ts = (int) ((long) c * tl / cl), te = (int) ((long) (c + 1) * tl / cl);
+            int t = ts;
+            try {
+              for(; t < te; t++) {
+                stack.assign(tuples.get(t), vrs);
+                values[t] = qcw.value(ret);
+              }
+              return true;
+            } catch(final QueryException | RuntimeException ex) {
+              errors[c] = ex;
+              fails[c] = t;
+              return false;
+            } finally {
+              stack.exitFrame(fp);
+            }
+          }
+        });
+      } finally {
+        for(int w = wl; --w >= 0;) {
+          if(qcs[w] != null) qcs[w].close();
+        }
+      }
+      // remember the error of the first failing chunk (tasks are assigned in ascending order,
+      // so all preceding chunks have been evaluated)
+      for(int c = 0; c < cl; c++) {
+        if(errors[c] != null) {
+          error = errors[c];
+          failed = fails[c];
+          more = false;
+          break;
+        }
+      }
+      return values;
+    } finally {
+      workers.release(jc, wl);
+    }
+  }
+}
@@ -56,14 +56,20 @@ public final class RangeAccess extends IndexAccess {
 
   @Override
   public void plan(final FElem plan) {
-    addPlan(plan, planElem(DATA, ictx.data.meta.name, MIN, index.min, MAX, index.max,
-        TYPE, index.type()));
+    final Object min = index.date ? NumericRange.date(index.min) : index.min;
+    final Object max = index.date ? NumericRange.date(index.max) : index.max;
+    addPlan(plan, planElem(DATA, ictx.data.meta.name, MIN, min, MAX, max, TYPE, index.type()));
   }
 
   @Override
   public String toString() {
     final Function func = index.type() == IndexType.TEXT ? Function._DB_TEXT_RANGE :
       Function._DB_ATTRIBUTE_RANGE;
-    return func.toString(Str.get(ictx.data.meta.name), Dbl.get(index.min), Dbl.get(index.max));
+    final Str name = Str.get(ictx.data.meta.name);
+    if(index.date) {
+      return func.toString(name, Str.get(NumericRange.date(index.min)),
+          Str.get(NumericRange.date(index.max)));
+    }
+    return func.toString(name, Dbl.get(index.min), Dbl.get(index.max));
   }
 }
@@ -0,0 +1,127 @@
+package org.basex.query.expr.index;
+
+import static org.basex.query.QueryText.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * This index class retrieves text nodes and attribute values that contain a substring.
+ * Candidates are retrieved from the trigram index and verified by comparing their string values.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class TrigramAccess extends IndexAccess {
+  /** Search string. */
+  private final byte[] string;
+  /** Function used for verifying candidates ({@code contains}, {@code starts-with},
+   * {@code ends-with}). */
+  private final Function func;
+  /** Index type of the returned nodes ({@link IndexType#TEXT}, {@link IndexType#ATTRIBUTE}). */
+  private final IndexType type;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param string search string
+   * @param func function used for verifying candidates
+   * @param type index type of the returned nodes
+   * @param ictx index context
+   */
+  public TrigramAccess(final InputInfo info, final byte[] string, final Function func,
+      final IndexType type, final IndexContext ictx) {
+    super(ictx, info);
+    this.string = string;
+    this.func = func;
+    this.type = type;
+  }
+
+  @Override
+  public BasicNodeIter iter(final QueryContext qc) {
+    final boolean text = type == IndexType.TEXT;
+    final byte kind = text ? Data.TEXT : Data.ATTR;
+    final Data data = ictx.data;
+    final IndexIterator ii = data.meta.index(IndexType.TRIGRAM) ?
+      data.iter(new StringToken(IndexType.TRIGRAM, string)) : scan();
+
+    return new DBNodeIter(data) {
+      @Override
+      public DBNode next() {
+        while(ii.more()) {
+          final int pre = ii.pre();
+          if(data.kind(pre) == kind && matches(data.text(pre, text))) {
+            return new DBNode(data, pre, kind);
+          }
+        }
+        return null;
+      }
+    };
+  }
+
+  /**
+   * Returns a scan-based iterator, which returns all nodes as candidates.
+   * @return node iterator
+   */
+  private IndexIterator scan() {
+    return new IndexIterator() {
+      final int sz = ictx.data.meta.size;
+      int pre = -1;
+
+      @Override
+      public int pre() {
+        return pre;
+      }
+      @Override
+      public boolean more() {
+        return ++pre < sz;
+      }
+      @Override
+      public int size() {
+        return sz;
+      }
+    };
+  }
+
+  /**
+   * Checks if the specified candidate matches the search string.
+   * @param value string value of the candidate
+   * @return result of check
+   */
+  private boolean matches(final byte[] value) {
+    switch(func) {
+      case STARTS_WITH: return Token.startsWith(value, string);
+      case ENDS_WITH:   return Token.endsWith(value, string);
+      default:          return Token.contains(value, string);
+    }
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new TrigramAccess(info, string, func, type, ictx));
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    addPlan(plan, planElem(DATA, ictx.data.meta.name, TYP, type, FUNCTION, func.id()),
+        Str.get(string));
+  }
+
+  @Override
+  public String toString() {
+    return new TokenBuilder(Function._DB_OPEN.toString(Str.get(ictx.data.meta.name))).
+      add(type == IndexType.TEXT ? "//text()" : "//@*").add('[').
+      add(func.toString(new ContextValue(info), Str.get(string))).add(']').toString();
+  }
+}
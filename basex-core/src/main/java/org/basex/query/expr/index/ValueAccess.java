@@ -14,6 +14,7 @@ import org.basex.query.expr.path.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
+import org.basex.query.util.list.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.query.var.*;
@@ -35,6 +36,8 @@ public final class ValueAccess extends IndexAccess {
   private final NameTest test;
   /** Trim search terms. */
   private boolean trim;
+  /** Index accesses whose results will be intersected with the results of this access. */
+  private ValueAccess[] intersects = {};
 
   /**
    * Constructor.
@@ -62,42 +65,107 @@ public final class ValueAccess extends IndexAccess {
     return this;
   }
 
+  /**
+   * Returns an index access that intersects the results of this and the specified access on the
+   * level of pre values. Intersections are only possible if both accesses have the same index
+   * type and name test, and if their search terms are static.
+   * @param va index access
+   * @return new index access or {@code null}
+   */
+  public ValueAccess intersect(final ValueAccess va) {
+    if(va.ictx.data != ictx.data || va.type != type || !expr.isValue() || !va.expr.isValue() ||
+        (test == null ? va.test != null : va.test == null || !test.sameAs(va.test))) return null;
+
+    final ValueAccess merged = new ValueAccess(info, expr, type, test, ictx).trim(trim);
+    merged.intersects = Array.add(intersects,
+        new ValueAccess(va.info, va.expr, type, test, ictx).trim(va.trim));
+    for(final ValueAccess v : va.intersects) merged.intersects = Array.add(merged.intersects, v);
+    return merged;
+  }
+
   @Override
   public BasicNodeIter iter(final QueryContext qc) throws QueryException {
-    final ArrayList<BasicNodeIter> iters = new ArrayList<>();
+    final ArrayList<IndexIterator> iters = new ArrayList<>();
+    final boolean empty = terms(iters, qc);
+    IndexIterator ii = union(iters);
+
+    // intersect results with other index accesses (their search terms will never be empty)
+    final int il = intersects.length;
+    if(il != 0) {
+      final IndexIterator[] inter = new IndexIterator[il + 1];
+      inter[0] = ii;
+      for(int i = 0; i < il; i++) {
+        final ArrayList<IndexIterator> list = new ArrayList<>();
+        intersects[i].terms(list, qc);
+        inter[i + 1] = union(list);
+      }
+      ii = IndexIterator.intersect(inter);
+    }
+
+    // special case: empty text node, elements are returned by a sequential scan
+    final BasicNodeIter iter = iter(ii);
+    return empty ? new Union(info, expr).eval(new NodeIter[] { iter, scanEmpty() }, qc).iter() :
+      iter;
+  }
+
+  /**
+   * Adds index iterators for all search terms.
+   * Empty text nodes are non-existent. Hence, if an empty term is found, no iterator will be added.
+   * @param iters list of index iterators
+   * @param qc query context
+   * @return {@code true} if elements without descendants need to be returned
+   * @throws QueryException query exception
+   */
+  private boolean terms(final ArrayList<IndexIterator> iters, final QueryContext qc)
+      throws QueryException {
+
+    boolean empty = false;
     final Iter iter = qc.iter(expr);
     for(Item it; (it = iter.next()) != null;) {
       qc.checkStop();
-      final byte[] term = it.string(info);
-      iters.add(iter(trim ? Token.trim(term) : term));
+      byte[] term = it.string(info);
+      if(trim) term = Token.trim(term);
+      if(term.length == 0 && type == IndexType.TEXT) empty |= test != null;
+      else iters.add(index(term));
     }
+    return empty;
+  }
+
+  /**
+   * Merges the specified index iterators.
+   * @param iters index iterators
+   * @return iterator
+   */
+  private static IndexIterator union(final ArrayList<IndexIterator> iters) {
     final int is = iters.size();
-    return is == 0 ? BasicNodeIter.EMPTY : is == 1 ? iters.get(0) :
-      new Union(info, expr).eval(iters.toArray(new NodeIter[is]), qc).iter();
+    return is == 0 ? IndexIterator.EMPTY : is == 1 ? iters.get(0) :
+      IndexIterator.union(iters.toArray(new IndexIterator[is]));
   }
 
   /**
-   * Returns an index iterator.
+   * Returns an index iterator for the specified term.
    * @param term term to be found
    * @return iterator
    */
-  private BasicNodeIter iter(final byte[] term) {
-    // special case: empty text node
-    // - no element name: return 0 results (empty text nodes are non-existent)
-    // - otherwise, return scan-based element iterator
-    final int tl = term.length;
-    if(tl == 0 && type == IndexType.TEXT)
-      return test == null ? BasicNodeIter.EMPTY : scanEmpty();
-
+  private IndexIterator index(final byte[] term) {
     // check if index is available and if it may contain the requested term
     // otherwise, use sequential scan
     final Data data = ictx.data;
+    final int tl = term.length;
     boolean index = data.meta.index(type);
     if(type == IndexType.TEXT || type == IndexType.ATTRIBUTE) {
       index &= tl > 0 && tl <= data.meta.maxlen;
     }
+    return index ? data.iter(new StringToken(type, term)) : scan(term);
+  }
 
-    final IndexIterator ii = index ? data.iter(new StringToken(type, term)) : scan(term);
+  /**
+   * Returns a node iterator for the results of the specified index iterator.
+   * @param ii index iterator
+   * @return node iterator
+   */
+  private BasicNodeIter iter(final IndexIterator ii) {
+    final Data data = ictx.data;
     final int kind = type == IndexType.TEXT ? Data.TEXT : Data.ATTR;
     final DBNode tmp = new DBNode(data, 0, test == null ? kind : Data.ELEM);
     return new DBNodeIter(data) {
@@ -177,6 +245,9 @@ public final class ValueAccess extends IndexAccess {
 
   @Override
   public boolean has(final Flag flag) {
+    for(final ValueAccess va : intersects) {
+      if(va.has(flag)) return true;
+    }
     return expr.has(flag);
   }
 
@@ -200,22 +271,33 @@ public final class ValueAccess extends IndexAccess {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return copyType(new ValueAccess(info, expr.copy(cc, vm), type, test, ictx));
+    final ValueAccess va = new ValueAccess(info, expr.copy(cc, vm), type, test, ictx).trim(trim);
+    final int il = intersects.length;
+    va.intersects = new ValueAccess[il];
+    for(int i = 0; i < il; i++) va.intersects[i] = (ValueAccess) intersects[i].copy(cc, vm);
+    return copyType(va);
   }
 
   @Override
   public boolean accept(final ASTVisitor visitor) {
+    for(final ValueAccess va : intersects) {
+      if(!va.accept(visitor)) return false;
+    }
     return expr.accept(visitor) && super.accept(visitor);
   }
 
   @Override
   public int exprSize() {
-    return expr.exprSize() + 1;
+    int size = expr.exprSize() + 1;
+    for(final ValueAccess va : intersects) size += va.exprSize();
+    return size;
   }
 
   @Override
   public void plan(final FElem plan) {
-    addPlan(plan, planElem(DATA, ictx.data.meta.name, TYP, type, NAM, test), expr);
+    final ExprList exprs = new ExprList(intersects.length + 1).add(expr);
+    exprs.add(intersects);
+    addPlan(plan, planElem(DATA, ictx.data.meta.name, TYP, type, NAM, test), exprs.finish());
   }
 
   @Override
@@ -223,8 +305,13 @@ public final class ValueAccess extends IndexAccess {
     final TokenBuilder tb = new TokenBuilder();
     final Function func = type == IndexType.TEXT ? Function._DB_TEXT : type == IndexType.ATTRIBUTE
         ? Function._DB_ATTRIBUTE : Function._DB_TOKEN;
+    // enclose intersected accesses in parentheses (following steps refer to the intersection)
+    final boolean par = intersects.length != 0;
+    if(par) tb.add('(');
     tb.add(func.toString(Str.get(ictx.data.meta.name), expr));
     if(test != null) tb.add("/parent::").addExt(test);
+    for(final ValueAccess va : intersects) tb.add(' ').add(INTERSECT).add(' ').addExt(va);
+    if(par) tb.add(')');
     return tb.toString();
   }
 }
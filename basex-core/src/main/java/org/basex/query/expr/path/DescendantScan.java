@@ -0,0 +1,104 @@
+package org.basex.query.expr.path;
+
+import org.basex.data.*;
+import org.basex.index.name.*;
+import org.basex.io.random.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.node.*;
+import org.basex.util.*;
+
+/**
+ * Iterator for descendant steps on large database fragments. The table is scanned
+ * sequentially, and nodes are only returned if their kind and name may match the node test.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class DescendantScan extends DBNodeIter {
+  /** Minimum number of table entries that will be scanned. */
+  private static final int MINSIZE = 1 << 14;
+
+  /** Table scan. */
+  private final TableScan scan;
+  /** Node kind. */
+  private final int kind;
+  /** Accepted name ids ({@code null} if all names are accepted). */
+  private final boolean[] names;
+  /** Last pre value (exclusive). */
+  private final int last;
+  /** Current pre value. */
+  private int curr;
+
+  /**
+   * Constructor.
+   * @param root root node
+   * @param self include root node
+   * @param kind node kind
+   * @param names accepted name ids (can be {@code null})
+   */
+  private DescendantScan(final DBNode root, final boolean self, final int kind,
+      final boolean[] names) {
+    super(root.data());
+    this.kind = kind;
+    this.names = names;
+    final int pre = root.pre();
+    last = pre + data.size(pre, data.kind(pre));
+    curr = self ? pre : pre + 1;
+    scan = data.scan();
+  }
+
+  /**
+   * Returns a scanning iterator for the specified step, or {@code null} if the table
+   * will not be scanned.
+   * @param axis axis
+   * @param test node test
+   * @param root root node
+   * @return iterator or {@code null}
+   */
+  static DescendantScan get(final Axis axis, final Test test, final ANode root) {
+    if(axis != Axis.DESC && axis != Axis.DESCORSELF || !(root instanceof DBNode) ||
+      !(test instanceof NameTest || test instanceof KindTest)) return null;
+
+    final DBNode dbnode = (DBNode) root;
+    final Data data = dbnode.data();
+    final int pre = dbnode.pre();
+    if(data.inMemory() || data.size(pre, data.kind(pre)) < MINSIZE) return null;
+
+    final int kind;
+    switch(test.type) {
+      case ELM: kind = Data.ELEM; break;
+      case TXT: kind = Data.TEXT; break;
+      case COM: kind = Data.COMM; break;
+      case PI:  kind = Data.PI; break;
+      case DOC: kind = Data.DOC; break;
+      default:  return null;
+    }
+
+    // element names: find ids of all names with the requested local name
+    boolean[] names = null;
+    if(kind == Data.ELEM && (test.kind == Test.Kind.NAME || test.kind == Test.Kind.URI_NAME)) {
+      final byte[] local = ((NameTest) test).local;
+      final Names elemNames = data.elemNames;
+      final int ns = elemNames.size();
+      names = new boolean[ns + 1];
+      for(int n = 1; n <= ns; n++) names[n] = Token.eq(local, Token.local(elemNames.key(n)));
+    }
+    return new DescendantScan(dbnode, axis == Axis.DESCORSELF, kind, names);
+  }
+
+  @Override
+  public DBNode next() {
+    final TableScan sc = scan;
+    final boolean[] nms = names;
+    while(curr < last) {
+      final int pre = curr++;
+      if((sc.read1(pre, 0) & 0x07) != kind) continue;
+      if(nms != null) {
+        final int id = sc.read2(pre, 1) & 0x7FFF;
+        if(id >= nms.length || !nms[id]) continue;
+      }
+      return new DBNode(data, pre, kind);
+    }
+    return null;
+  }
+}
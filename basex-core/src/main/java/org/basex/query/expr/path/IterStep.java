@@ -34,7 +34,12 @@ final class IterStep extends Step {
 
       @Override
       public ANode next() throws QueryException {
-        if(iter == null) iter = axis.iter(checkNode(qc));
+        if(iter == null) {
+          // scan table of large database fragments
+          final ANode root = checkNode(qc);
+          iter = DescendantScan.get(axis, test, root);
+          if(iter == null) iter = axis.iter(root);
+        }
         for(final ANode node : iter) {
           qc.checkStop();
           if(test.eq(node) && preds(node, qc)) return node.finish();
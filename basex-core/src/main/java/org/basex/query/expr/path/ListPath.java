@@ -0,0 +1,108 @@
+package org.basex.query.expr.path;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.path.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * Path expression whose results are retrieved from the node lists of the path index.
+ * If the path is evaluated with another root than all documents of the indexed database,
+ * it will be evaluated iteratively.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+final class ListPath extends AxisPath {
+  /** Data reference. */
+  private final Data data;
+  /** Path nodes. */
+  private final ArrayList<PathNode> nodes;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param root root expression; can be a {@code null} reference
+   * @param data data reference
+   * @param nodes path nodes
+   * @param steps axis steps
+   */
+  private ListPath(final InputInfo info, final Expr root, final Data data,
+      final ArrayList<PathNode> nodes, final Expr... steps) {
+    super(info, root, steps);
+    this.data = data;
+    this.nodes = nodes;
+  }
+
+  /**
+   * Returns a path that retrieves its results from the node lists of the path index,
+   * or the original path if the lists cannot be used.
+   * @param cc compilation context
+   * @param path original path
+   * @return new or original path
+   */
+  static Path get(final CompileContext cc, final Path path) {
+    // path must consist of axis steps and must be evaluated on all documents of a database
+    final Value init = initial(cc, path.root);
+    if(!(path instanceof AxisPath) || init == null || init.type != NodeType.DOC) return path;
+    final Data data = init.data();
+    if(data == null || data.meta.ndocs != init.size() || !data.paths.lists()) return path;
+
+    // path must be fully specified: steps without predicates and simple node tests
+    final ArrayList<PathNode> nodes = path.pathNodes(cc);
+    if(nodes == null || nodes.isEmpty()) return path;
+    return new ListPath(path.info, path.root, data, nodes, path.steps);
+  }
+
+  @Override
+  protected NodeIter nodeIter(final QueryContext qc) throws QueryException {
+    final Value value = root != null ? qc.value(root) : qc.focus.value;
+    if(value != null && docs(value)) {
+      return new DBNodeIter(data) {
+        final IndexIterator iter = PathIndex.iter(nodes);
+
+        @Override
+        public DBNode next() {
+          if(!iter.more()) return null;
+          final int pre = iter.pre();
+          return new DBNode(data, pre, data.kind(pre));
+        }
+      };
+    }
+    return ((AxisPath) get(info, root, steps)).nodeIter(qc);
+  }
+
+  /**
+   * Checks if the specified value contains all documents of the database.
+   * @param value value
+   * @return result of check
+   */
+  private boolean docs(final Value value) {
+    if(value.size() != data.meta.ndocs || !data.paths.lists()) return false;
+    int pre = -1;
+    for(final Item it : value) {
+      if(!(it instanceof DBNode) || it.type != NodeType.DOC) return false;
+      final DBNode node = (DBNode) it;
+      if(node.data() != data || node.pre() <= pre) return false;
+      pre = node.pre();
+    }
+    return true;
+  }
+
+  @Override
+  public ListPath copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    final Expr rt = root == null ? null : root.copy(cc, vm);
+    return copyType(new ListPath(info, rt, data, nodes, Arr.copyAll(cc, vm, steps)));
+  }
+}
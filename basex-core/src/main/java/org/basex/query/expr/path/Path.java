@@ -24,6 +24,7 @@ import org.basex.query.value.type.*;
 import org.basex.query.value.type.SeqType.Occ;
 import org.basex.query.var.*;
 import org.basex.util.*;
+import org.basex.util.list.*;
 
 /**
  * Path expression.
@@ -35,6 +36,11 @@ public abstract class Path extends ParseExpr {
   /** XPath axes that are expected to be expensive when at the start of a path. */
   private static final EnumSet<Axis> EXPENSIVE =
       EnumSet.of(DESC, DESCORSELF, PREC, PRECSIBL, FOLL, FOLLSIBL);
+  /**
+   * Maximum ratio between the costs of the cheapest index access and the costs of other index
+   * accesses on the same step, which will be intersected with the cheapest results.
+   */
+  private static final int INTERSECT = 10;
 
   /** Root expression. */
   public Expr root;
@@ -181,7 +187,7 @@ public abstract class Path extends ParseExpr {
     }
 
     // choose best path implementation and set type information
-    final Path path = get(info, root, steps);
+    final Path path = ListPath.get(cc, get(info, root, steps));
     final int sl = path.steps.length;
     final Expr lastExpr = path.steps[sl - 1];
 
@@ -643,6 +649,8 @@ public abstract class Path extends ParseExpr {
     IndexInfo index = null;
     // cheapest predicate and step
     int iPred = 0, iStep = 0;
+    // index candidates of the step with the cheapest predicate
+    IndexInfo[] infos = null;
 
     // check if path can be converted to an index access
     final int sl = steps.length;
@@ -658,9 +666,11 @@ public abstract class Path extends ParseExpr {
 
       // choose cheapest index access
       final int pl = step.preds.length;
+      final IndexInfo[] iis = new IndexInfo[pl];
       for(int p = 0; p < pl; p++) {
         final IndexInfo ii = new IndexInfo(ictx, cc.qc, step);
         if(!step.preds[p].indexAccessible(ii)) continue;
+        iis[p] = ii;
 
         if(ii.costs == 0) {
           // no results...
@@ -672,6 +682,7 @@ public abstract class Path extends ParseExpr {
           index = ii;
           iPred = p;
           iStep = s;
+          infos = iis;
         }
       }
     }
@@ -682,6 +693,31 @@ public abstract class Path extends ParseExpr {
     // rewrite for index access
     cc.info(index.optInfo);
 
+    // intersect results with other index accesses on the same step that have similar costs
+    final int il = infos.length;
+    final boolean[] merged = new boolean[il];
+    merged[iPred] = true;
+    final IntList costs = new IntList();
+    final ExprList exprs = new ExprList();
+    for(int p = 0; p < il; p++) {
+      final IndexInfo ii = infos[p];
+      if(ii != null && (p == iPred || ii.costs / INTERSECT <= index.costs)) {
+        if(p != iPred) cc.info(ii.optInfo);
+        merged[p] = true;
+        costs.add(ii.costs);
+        exprs.add(ii.expr);
+      }
+    }
+    Expr indexExpr = index.expr;
+    if(exprs.size() > 1) {
+      // evaluate expressions with higher selectivity first
+      final int[] ord = Array.createOrder(costs.finish(), true);
+      final Expr[] ex = new Expr[ord.length];
+      for(int o = 0; o < ord.length; o++) ex[o] = exprs.get(ord[o]);
+      indexExpr = index.intersect(info, ex);
+      if(indexExpr instanceof InterSect) indexExpr = indexExpr.optimize(cc);
+    }
+
     // invert steps that occur before index step and add them as predicate
     final ExprList newPreds = new ExprList();
     final Test test = InvDocTest.get(rt);
@@ -705,18 +741,18 @@ public abstract class Path extends ParseExpr {
     final Step indexStep = index.step;
     final int pl = indexStep.preds.length;
     for(int p = 0; p < pl; p++) {
-      if(p != iPred) newPreds.add(indexStep.preds[p]);
+      if(!merged[p]) newPreds.add(indexStep.preds[p]);
     }
 
     // create resulting expression
     final ExprList resultSteps = new ExprList();
     final Expr resultRoot;
-    if(index.expr instanceof Path) {
-      final Path p = (Path) index.expr;
+    if(indexExpr instanceof Path) {
+      final Path p = (Path) indexExpr;
       resultRoot = p.root;
       resultSteps.add(p.steps);
     } else {
-      resultRoot = index.expr;
+      resultRoot = indexExpr;
     }
 
     // only one hit:
@@ -7,7 +7,9 @@ import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
 
 /**
  * Aggregation function.
@@ -46,4 +48,31 @@ abstract class Aggr extends StandardFunc {
     }
     return avg ? Calc.DIV.ev(rs, Int.get(c), info) : rs;
   }
+
+  /**
+   * Sums up the natively stored numbers of a sequence in a single loop.
+   * @param value value
+   * @param avg calculate average
+   * @return summed up item, or {@code null} if the numbers are not natively stored
+   * @throws QueryException query exception
+   */
+  Item sum(final Value value, final boolean avg) throws QueryException {
+    final Item rs;
+    if(value instanceof IntSeq) {
+      final long[] values = ((IntSeq) value).values();
+      final int vl = values.length;
+      long s = values[0];
+      for(int v = 1; v < vl; v++) s = Calc.plus(s, values[v], info);
+      rs = Int.get(s);
+    } else if(value instanceof DblSeq) {
+      final double[] values = ((DblSeq) value).values();
+      final int vl = values.length;
+      double s = values[0];
+      for(int v = 1; v < vl; v++) s += values[v];
+      rs = Dbl.get(s);
+    } else {
+      return null;
+    }
+    return avg ? Calc.DIV.ev(rs, Int.get(value.size()), info) : rs;
+  }
 }
@@ -15,6 +15,10 @@ public final class FnAvg extends Aggr {
   @Override
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
     final Iter iter = exprs[0].atomIter(qc, info);
+    if(iter.valueIter()) {
+      final Item it = sum(iter.value(qc), true);
+      if(it != null) return it;
+    }
     final Item it = iter.next();
     return it == null ? null : sum(iter, it, true, qc);
   }
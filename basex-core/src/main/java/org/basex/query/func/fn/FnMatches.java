@@ -5,6 +5,8 @@ import static org.basex.util.Token.*;
 import java.util.regex.*;
 
 import org.basex.query.*;
+import org.basex.query.func.*;
+import org.basex.query.util.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
 
@@ -15,10 +17,30 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public final class FnMatches extends RegEx {
+  /** Characters with a special meaning in regular expressions. */
+  private static final byte[] META = token("\\^$.|?*+()[]{}");
+
   @Override
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
     final byte[] value = toEmptyToken(exprs[0], qc);
     final Pattern p = pattern(exprs[1], exprs.length == 3 ? exprs[2] : null, qc, false);
     return Bln.get(p.matcher(string(value)).find());
   }
+
+  @Override
+  public boolean indexAccessible(final IndexInfo ii) throws QueryException {
+    // support limited to literal patterns without flags, optionally anchored at start or end
+    if(exprs.length != 2 || !(exprs[1] instanceof Str)) return false;
+    final byte[] pattern = ((Str) exprs[1]).string();
+    final int pl = pattern.length;
+    final boolean start = pl != 0 && pattern[0] == '^', end = pl != 0 && pattern[pl - 1] == '$';
+    if(start && end) return false;
+    final byte[] string = substring(pattern, start ? 1 : 0, end ? pl - 1 : pl);
+    for(final byte b : string) {
+      if(contains(META, b)) return false;
+    }
+    final Function func = start ? Function.STARTS_WITH : end ? Function.ENDS_WITH :
+      Function.CONTAINS;
+    return ii.create(exprs[0], Str.get(string), func, info);
+  }
 }
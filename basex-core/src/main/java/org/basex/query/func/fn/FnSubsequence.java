@@ -2,6 +2,7 @@ package org.basex.query.func.fn;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.func.util.*;
 import org.basex.query.iter.*;
@@ -156,8 +157,19 @@ public class FnSubsequence extends StandardFunc {
 
   @Override
   protected Expr opt(final CompileContext cc) {
-    final SeqType st = exprs[0].seqType();
+    final Expr e = exprs[0];
+    final SeqType st = e.seqType();
     seqType = st.withOcc(st.zeroOrOne() ? Occ.ZERO_ONE : Occ.ZERO_MORE);
+
+    // only sort the first tuples of a FLWOR expression
+    if(e instanceof GFLWOR && exprs.length > 2 && exprs[1] instanceof ANum &&
+        exprs[2] instanceof ANum) {
+      final double s = ((ANum) exprs[1]).dbl(), l = ((ANum) exprs[2]).dbl();
+      // compute end position as double to avoid overflows
+      final double end = this instanceof UtilItemRange ? (double) Math.round(l) :
+        (double) Math.round(s) + Math.round(l) - 1;
+      if(!Double.isInfinite(s) && end < Long.MAX_VALUE) ((GFLWOR) e).limit((long) end);
+    }
     return this;
   }
 }
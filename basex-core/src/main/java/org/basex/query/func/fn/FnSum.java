@@ -39,6 +39,10 @@ public final class FnSum extends Aggr {
     }
 
     final Iter iter = exprs[0].atomIter(qc, info);
+    if(iter.valueIter()) {
+      final Item it = sum(iter.value(qc), false);
+      if(it != null) return it;
+    }
     final Item it = iter.next();
     if(it != null) return sum(iter, it, false, qc);
 
@@ -8,7 +8,9 @@ import org.basex.query.expr.CmpV.OpV;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.collation.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 
 /**
@@ -42,6 +44,10 @@ abstract class Num extends StandardFunc {
     final Collation coll = toCollation(1, qc);
 
     final Iter iter = exprs[0].atomIter(qc, info);
+    if(iter.valueIter()) {
+      final Item it = minmax(iter.value(qc), cmp == OpV.LT);
+      if(it != null) return it;
+    }
     Item curr = iter.next();
     if(curr == null) return null;
 
@@ -79,6 +85,34 @@ abstract class Num extends StandardFunc {
     return curr;
   }
 
+  /**
+   * Returns the minimum or maximum of the natively stored numbers of a sequence.
+   * @param value value
+   * @param max maximum flag
+   * @return resulting item, or {@code null} if the numbers are not natively stored
+   */
+  private static Item minmax(final Value value, final boolean max) {
+    if(value instanceof IntSeq) {
+      final long[] values = ((IntSeq) value).values();
+      long curr = values[0];
+      for(final long v : values) {
+        if(max ? v > curr : v < curr) curr = v;
+      }
+      return Int.get(curr, value.type);
+    }
+    if(value instanceof DblSeq) {
+      final double[] values = ((DblSeq) value).values();
+      double curr = values[0];
+      for(final double v : values) {
+        // NaN will always be returned
+        if(Double.isNaN(v)) return Dbl.NAN;
+        if(max ? v > curr : v < curr) curr = v;
+      }
+      return Dbl.get(curr);
+    }
+    return null;
+  }
+
   /**
    * Returns the new target type, or {@code null} if conversion is not necessary.
    * @param curr old item
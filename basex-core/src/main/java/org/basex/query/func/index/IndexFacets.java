@@ -6,6 +6,7 @@ import static org.basex.util.Token.*;
 import org.basex.data.*;
 import org.basex.index.name.*;
 import org.basex.index.path.*;
+import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.query.*;
 import org.basex.query.value.item.*;
@@ -98,6 +99,9 @@ public final class IndexFacets extends IndexFn {
       final int mn = (int) stats.min, mx = (int) stats.max;
       elem.add(MIN, mn == stats.min ? token(mn) : token(stats.min));
       elem.add(MAX, mx == stats.max ? token(mx) : token(stats.max));
+    } else if(isDate(type)) {
+      elem.add(MIN, NumericRange.date(stats.min));
+      elem.add(MAX, NumericRange.date(stats.max));
     }
     if(isCategory(type)) {
       for(final byte[] value : stats.values) {
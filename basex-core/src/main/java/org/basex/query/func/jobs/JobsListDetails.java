@@ -39,6 +39,10 @@ public final class JobsListDetails extends StandardFunc {
   private static final byte[] READS = token("reads");
   /** Write locks. */
   private static final byte[] WRITES = token("writes");
+  /** Assigned workers. */
+  private static final byte[] WORKERS = token("workers");
+  /** Queued worker tasks. */
+  private static final byte[] TASKS = token("tasks");
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
@@ -61,6 +65,11 @@ public final class JobsListDetails extends StandardFunc {
         final byte[] value = entry.get(a);
         if(value.length != 0) elem.add(atts[a], value);
       }
+      final Job job = jobs.active.get(string(key));
+      if(job != null) {
+        final JobContext jc = job.jc();
+        elem.add(WORKERS, token(jc.workers.get())).add(TASKS, token(jc.tasks.get()));
+      }
       elem.add(entry.get(entry.size() - 1));
       vb.add(elem);
     }
@@ -2,6 +2,7 @@ package org.basex.query.func.util;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.item.*;
@@ -42,6 +43,11 @@ public final class UtilItemAt extends StandardFunc {
     final SeqType st = e.seqType();
     if(st.zero()) return e;
     seqType = st.withOcc(Occ.ZERO_ONE);
+    // only sort the first tuples of a FLWOR expression
+    if(e instanceof GFLWOR && exprs[1] instanceof ANum) {
+      final double d = ((ANum) exprs[1]).dbl();
+      if(d < Long.MAX_VALUE) ((GFLWOR) e).limit((long) Math.ceil(d));
+    }
     return this;
   }
 }
@@ -2,8 +2,6 @@ package org.basex.query.func.xquery;
 
 import static org.basex.query.QueryError.*;
 
-import java.util.concurrent.*;
-
 import org.basex.core.jobs.*;
 import org.basex.query.*;
 import org.basex.query.func.*;
@@ -11,7 +9,6 @@ import org.basex.query.iter.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
-import org.basex.util.*;
 
 /**
  * Function implementation.
@@ -31,20 +28,43 @@ public final class XQueryForkJoin extends StandardFunc {
     // single function: invoke directly
     if(funcs.size() == 1) return ((FItem) funcs.itemAt(0)).invokeValue(qc, info);
 
-    final ForkJoinPool pool = new ForkJoinPool();
-    final XQueryTask task = new XQueryTask(funcs, qc, info);
+    // evaluate functions in parallel: create query contexts in the calling thread
+    final JobWorkers workers = qc.context.jobs.workers;
+    final JobContext jc = qc.jc();
+    final int fs = (int) funcs.size(), wl = workers.reserve(jc, fs);
+    final QueryContext[] qcs = new QueryContext[wl];
+    final Value[] values = new Value[fs];
+    final Exception[] errors = new Exception[fs];
     try {
-      return pool.invoke(task);
-    } catch(final Exception ex) {
-      // pass on query and job exceptions
-      final Throwable e = Util.rootException(ex);
-      if(e instanceof QueryException) throw (QueryException) e;
-      if(e instanceof JobException) throw (JobException) e;
-      throw BXXQ_UNEXPECTED_X.get(info, e);
+      for(int w = 0; w < wl; w++) qcs[w] = new QueryContext(qc);
+      workers.run(jc, wl, fs, new JobWorkers.Worker() {
+        @Override
+        public boolean run(final int w, final int f) {
+          try {
+            values[f] = ((FItem) funcs.itemAt(f)).invokeValue(qcs[w], info);
+            return true;
+          } catch(final QueryException | RuntimeException ex) {
+            errors[f] = ex;
+            return false;
+          }
+        }
+      });
     } finally {
-      // required?
-      pool.shutdown();
+      for(int w = wl; --w >= 0;) {
+        if(qcs[w] != null) qcs[w].close();
+      }
+      workers.release(jc, wl);
+    }
+
+    // pass on query and job exceptions
+    for(final Exception error : errors) {
+      if(error instanceof QueryException) throw (QueryException) error;
+      if(error instanceof JobException) throw (JobException) error;
+      if(error != null) throw BXXQ_UNEXPECTED_X.get(info, error);
     }
+    final ValueBuilder vb = new ValueBuilder();
+    for(final Value value : values) vb.add(value);
+    return vb.value();
   }
 
   @Override
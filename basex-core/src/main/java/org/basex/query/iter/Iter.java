@@ -40,6 +40,15 @@ public abstract class Iter {
     return -1;
   }
 
+  /**
+   * Indicates if the iterator is based on a value. If this is the case, {@link #value} returns
+   * this value without iterating the items.
+   * @return result of check
+   */
+  public boolean valueIter() {
+    return false;
+  }
+
   /**
    * Returns a value with all iterated items.
    * Must only be called if {@link #next} has not been called before.
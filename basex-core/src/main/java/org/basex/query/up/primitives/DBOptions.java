@@ -26,9 +26,11 @@ public final class DBOptions {
   /** Indexing options. */
   public static final Option<?>[] INDEXING = { MainOptions.MAXCATS, MainOptions.MAXLEN,
     MainOptions.SPLITSIZE, MainOptions.LANGUAGE, MainOptions.STOPWORDS, MainOptions.TEXTINDEX,
-    MainOptions.ATTRINDEX, MainOptions.TOKENINDEX, MainOptions.FTINDEX, MainOptions.TEXTINCLUDE,
-    MainOptions.ATTRINCLUDE, MainOptions.TOKENINCLUDE, MainOptions.FTINCLUDE, MainOptions.STEMMING,
-    MainOptions.CASESENS, MainOptions.DIACRITICS, MainOptions.UPDINDEX, MainOptions.AUTOOPTIMIZE };
+    MainOptions.ATTRINDEX, MainOptions.TOKENINDEX, MainOptions.TRIGRAMINDEX, MainOptions.FTINDEX,
+    MainOptions.TEXTINCLUDE, MainOptions.ATTRINCLUDE, MainOptions.TOKENINCLUDE,
+    MainOptions.FTINCLUDE, MainOptions.STEMMING, MainOptions.CASESENS, MainOptions.DIACRITICS,
+    MainOptions.UPDINDEX, MainOptions.AUTOOPTIMIZE, MainOptions.MMAP, MainOptions.COMPRESSTABLE,
+    MainOptions.TEXTDICTIONARY, MainOptions.RANGEINDEX, MainOptions.PATHLISTS };
 
   /** Runtime options. */
   private final HashMap<Option<?>, Object> map = new HashMap<>();
@@ -46,7 +46,9 @@ public final class DBOptimize extends DBUpdate {
 
     final ArrayList<Option<?>> supported = new ArrayList<>();
     for(final Option<?> option : DBOptions.INDEXING) {
-      if(all || option != MainOptions.UPDINDEX) supported.add(option);
+      // options that require a rebuild of the database
+      if(all || option != MainOptions.UPDINDEX && option != MainOptions.COMPRESSTABLE &&
+          option != MainOptions.TEXTDICTIONARY) supported.add(option);
     }
     options = new DBOptions(opts, supported, info);
   }
@@ -67,7 +69,10 @@ public final class DBOptimize extends DBUpdate {
     options.assignIfEmpty(MainOptions.TEXTINDEX, meta.createtext);
     options.assignIfEmpty(MainOptions.ATTRINDEX, meta.createattr);
     options.assignIfEmpty(MainOptions.TOKENINDEX, meta.createtoken);
+    options.assignIfEmpty(MainOptions.TRIGRAMINDEX, meta.createtrigram);
     options.assignIfEmpty(MainOptions.FTINDEX, meta.createft);
+    options.assignIfEmpty(MainOptions.RANGEINDEX, meta.rangeindex);
+    options.assignIfEmpty(MainOptions.PATHLISTS, meta.pathlists);
     options.assignIfEmpty(MainOptions.TEXTINCLUDE, meta.textinclude);
     options.assignIfEmpty(MainOptions.ATTRINCLUDE, meta.attrinclude);
     options.assignIfEmpty(MainOptions.TOKENINCLUDE, meta.tokeninclude);
@@ -75,17 +80,24 @@ public final class DBOptimize extends DBUpdate {
     options.assignIfEmpty(MainOptions.SPLITSIZE, meta.splitsize);
     options.assignIfEmpty(MainOptions.UPDINDEX, meta.updindex);
     options.assignIfEmpty(MainOptions.AUTOOPTIMIZE, meta.autooptimize);
+    options.assignIfEmpty(MainOptions.MMAP, meta.mmap);
+    options.assignIfEmpty(MainOptions.COMPRESSTABLE, meta.compresstable);
+    options.assignIfEmpty(MainOptions.TEXTDICTIONARY, meta.textdictionary);
     options.assignTo(opts);
 
     // adopt options to database meta data
     meta.createtext = opts.get(MainOptions.TEXTINDEX);
     meta.createattr = opts.get(MainOptions.ATTRINDEX);
     meta.createtoken = opts.get(MainOptions.TOKENINDEX);
+    meta.createtrigram = opts.get(MainOptions.TRIGRAMINDEX);
     meta.createft = opts.get(MainOptions.FTINDEX);
 
     meta.updindex = opts.get(MainOptions.UPDINDEX);
     meta.autooptimize = opts.get(MainOptions.AUTOOPTIMIZE);
+    meta.mmap = opts.get(MainOptions.MMAP);
     meta.splitsize = opts.get(MainOptions.SPLITSIZE);
+    meta.threads = opts.threads();
+    meta.indexmemory = opts.get(MainOptions.INDEXMEMORY);
 
     // check if other indexing options have changed
     final int maxcats = opts.get(MainOptions.MAXCATS);
@@ -93,13 +105,21 @@ public final class DBOptimize extends DBUpdate {
     final String textinclude = opts.get(MainOptions.TEXTINCLUDE);
     final String attrinclude = opts.get(MainOptions.ATTRINCLUDE);
     final String tokeninclude = opts.get(MainOptions.TOKENINCLUDE);
+    final boolean rangeindex = opts.get(MainOptions.RANGEINDEX);
     final boolean rebuild = maxlen != meta.maxlen;
-    final boolean rebuildText = !meta.textinclude.equals(textinclude) || rebuild;
-    final boolean rebuildAttr = !meta.attrinclude.equals(attrinclude) || rebuild;
+    final boolean rebuildRange = rangeindex != meta.rangeindex;
+    final boolean rebuildText = !meta.textinclude.equals(textinclude) || rebuild || rebuildRange;
+    final boolean rebuildAttr = !meta.attrinclude.equals(attrinclude) || rebuild || rebuildRange;
     final boolean rebuildToken = !meta.tokeninclude.equals(tokeninclude);
     meta.textinclude = textinclude;
     meta.attrinclude = attrinclude;
     meta.tokeninclude = tokeninclude;
+    meta.rangeindex = rangeindex;
+
+    // rebuild structural indexes if node lists are requested
+    final boolean pathlists = opts.get(MainOptions.PATHLISTS);
+    if(pathlists && !meta.pathlists) meta.uptodate = false;
+    meta.pathlists = pathlists;
     meta.maxcats = maxcats;
     meta.maxlen = maxlen;
 
@@ -6,6 +6,7 @@ import java.util.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.name.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.query.*;
@@ -14,6 +15,7 @@ import org.basex.query.expr.Expr.*;
 import org.basex.query.expr.index.*;
 import org.basex.query.expr.path.*;
 import org.basex.query.expr.path.Test.Kind;
+import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.item.*;
@@ -69,8 +71,8 @@ public final class IndexInfo {
    * Checks if the specified expression can be rewritten for index access, and returns
    * the applicable index type.
    * @param input input (if {@code null}, no optimization will be possible)
-   * @param type proposed index type ({@link IndexType#TOKEN}, {@link IndexType#FULLTEXT},
-   * or {@code null})
+   * @param type proposed index type ({@link IndexType#TOKEN}, {@link IndexType#TRIGRAM},
+   * {@link IndexType#FULLTEXT}, or {@code null})
    * @return type of applicable index, or {@code null}
    */
   public IndexType type(final Expr input, final IndexType type) {
@@ -156,8 +158,10 @@ public final class IndexInfo {
       if(!value.seqType().type.isStringOrUntyped() || value.has(Flag.CTX) || value.has(Flag.NDT) ||
         value.has(Flag.UPD)) return false;
 
-      // estimate costs (tend to worst case)
-      costs = Math.max(1, data.meta.size / 10);
+      // estimate costs: average number of occurrences of a value, or tend to worst case
+      final Stats stats = type == IndexType.TEXT || type == IndexType.ATTRIBUTE ? stats() : null;
+      final long distinct = stats != null ? stats.distinct() : -1;
+      costs = Math.max(1, distinct > 0 ? (int) (stats.count / distinct) : data.meta.size / 10);
       root = new ValueAccess(info, value, type, test, ic);
     }
 
@@ -165,6 +169,37 @@ public final class IndexInfo {
     return true;
   }
 
+  /**
+   * Tries to rewrite a substring search for trigram index access.
+   * @param input input expression
+   * @param search search string (will only be rewritten if it is a value)
+   * @param func function used for verifying the index results ({@link Function#CONTAINS},
+   * {@link Function#STARTS_WITH} or {@link Function#ENDS_WITH})
+   * @param info input info
+   * @return success flag
+   * @throws QueryException query exception
+   */
+  public boolean create(final Expr input, final Expr search, final Function func,
+      final InputInfo info) throws QueryException {
+
+    // search string must be static and consist of at least one trigram
+    if(!search.isValue() || !search.seqType().zeroOrOne()) return false;
+    final Item it = search.item(qc, info);
+    if(it == null || !it.type.isStringOrUntyped()) return false;
+    final byte[] string = it.string(info);
+    if(string.length < 3) return false;
+
+    final IndexType type = type(input, IndexType.TRIGRAM);
+    if(type == null) return false;
+    costs = ic.data.costs(new StringToken(type, string));
+    if(costs < 0) return false;
+
+    final IndexType nodes = text ? IndexType.TEXT : IndexType.ATTRIBUTE;
+    create(new TrigramAccess(info, string, func, nodes, ic), true, info,
+        Util.info(OPTINDEX_X_X, type, func.toString(input, search)));
+    return true;
+  }
+
   /**
    * Creates an index expression with an inverted axis path.
    * @param root new root expression
@@ -180,8 +215,69 @@ public final class IndexInfo {
     optInfo = opt;
   }
 
+  /**
+   * Returns an expression that intersects the results of the specified index expressions.
+   * Value-based index accesses are intersected on the level of pre values if each resulting
+   * node can only be reached by a single index result; all other expressions will be
+   * intersected as nodes.
+   * @param info input info
+   * @param exprs index expressions, ordered by their costs
+   * @return expression
+   */
+  public Expr intersect(final InputInfo info, final Expr... exprs) {
+    final ExprList list = new ExprList(exprs.length);
+    for(final Expr expr : exprs) {
+      boolean merged = false;
+      final int ls = list.size();
+      for(int l = 0; l < ls && !merged; l++) {
+        final Expr merge = intersect(list.get(l), expr);
+        if(merge != null) {
+          list.set(l, merge);
+          merged = true;
+        }
+      }
+      if(!merged) list.add(expr);
+    }
+    return list.size() == 1 ? list.get(0) : new InterSect(info, list.finish());
+  }
+
   // PRIVATE METHODS ==============================================================================
 
+  /**
+   * Intersects two index expressions on the level of pre values. Supported expressions:
+   * <ul>
+   *   <li> {@code IA('...')} </li>
+   *   <li> {@code IA('...')/self::@a} </li>
+   *   <li> {@code IA('...')/self::@a/parent::A} </li>
+   * </ul>
+   * @param expr1 first expression
+   * @param expr2 second expression
+   * @return intersected expression or {@code null}
+   */
+  private Expr intersect(final Expr expr1, final Expr expr2) {
+    if(expr1 instanceof ValueAccess && expr2 instanceof ValueAccess)
+      return ((ValueAccess) expr1).intersect((ValueAccess) expr2);
+    if(!(expr1 instanceof Path && expr2 instanceof Path)) return null;
+
+    final Path path1 = (Path) expr1, path2 = (Path) expr2;
+    if(!(path1.root instanceof ValueAccess && path2.root instanceof ValueAccess)) return null;
+    final Expr[] steps = path1.steps;
+    final int sl = steps.length;
+    if(sl > 2 || sl != path2.steps.length) return null;
+    for(int s = 0; s < sl; s++) {
+      if(!(steps[s] instanceof Step) || !steps[s].sameAs(path2.steps[s])) return null;
+    }
+    // attribute with a unique name, and optional parent step
+    final Step att = (Step) steps[0];
+    final Kind kind = att.test.kind;
+    if(att.axis != Axis.SELF || att.test.type != NodeType.ATT || !(kind == Kind.URI_NAME ||
+        kind == Kind.NAME && ic.data.nspaces.isEmpty()) ||
+        sl == 2 && ((Step) steps[1]).axis != Axis.PARENT) return null;
+
+    final ValueAccess va = ((ValueAccess) path1.root).intersect((ValueAccess) path2.root);
+    return va == null ? null : Path.get(path1.info, va, steps);
+  }
+
   /**
    * Checks if the specified expression can be rewritten for index access.
    * @param type index type
@@ -192,6 +288,7 @@ public final class IndexInfo {
     return ic.data.meta.index(type) && (
       type == IndexType.FULLTEXT ? text :
       type == IndexType.TOKEN ? !text :
+      type == IndexType.TRIGRAM ? text || last.test.type == NodeType.ATT :
       type == IndexType.TEXT ? text :
       !text && last.test.type == NodeType.ATT
     );
@@ -239,6 +336,19 @@ public final class IndexInfo {
     return new byte[][] { nt.local, nt.name == null ? null : nt.name.uri() };
   }
 
+  /**
+   * Returns the statistics of the values of the last name test.
+   * @return statistics or {@code null}
+   */
+  private Stats stats() {
+    final Data data = ic.data;
+    if(!data.meta.uptodate || !data.nspaces.isEmpty()) return null;
+    final byte[][] qname = qname();
+    if(qname == null || qname[0] == null) return null;
+    final Names names = text ? data.elemNames : data.attrNames;
+    return names.stats(names.id(qname[0]));
+  }
+
   /**
    * Rewrites the expression for index access.
    * @param root new root expression
@@ -42,6 +42,14 @@ public final class DblSeq extends NativeSeq {
     return values;
   }
 
+  /**
+   * Returns the internal values. The array must not be modified.
+   * @return values
+   */
+  public double[] values() {
+    return values;
+  }
+
   // STATIC METHODS =====================================================================
 
   /**
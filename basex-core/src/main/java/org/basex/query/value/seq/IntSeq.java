@@ -62,6 +62,14 @@ public final class IntSeq extends NativeSeq {
     }
   }
 
+  /**
+   * Returns the internal values. The array must not be modified.
+   * @return values
+   */
+  public long[] values() {
+    return values;
+  }
+
   // STATIC METHODS =====================================================================
 
   /**
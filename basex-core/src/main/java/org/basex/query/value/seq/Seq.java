@@ -62,6 +62,10 @@ public abstract class Seq extends Value {
         return itemAt(i);
       }
       @Override
+      public boolean valueIter() {
+        return true;
+      }
+      @Override
       public Value value(final QueryContext qc) {
         return Seq.this;
       }
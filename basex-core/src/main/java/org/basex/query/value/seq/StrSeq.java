@@ -47,6 +47,14 @@ public final class StrSeq extends NativeSeq {
     return tmp;
   }
 
+  /**
+   * Returns the internal values. The array must not be modified.
+   * @return values
+   */
+  public byte[][] values() {
+    return values;
+  }
+
   // STATIC METHODS =====================================================================
 
   /**
@@ -1,5 +1,7 @@
 package org.basex.query.var;
 
+import java.util.*;
+
 import org.basex.query.*;
 import org.basex.query.value.*;
 import org.basex.util.*;
@@ -125,6 +127,32 @@ public final class QueryStack {
     vars[pos] = var;
   }
 
+  /**
+   * Returns a copy of the values of the current stack frame.
+   * @return values
+   */
+  public Value[] values() {
+    return Arrays.copyOfRange(stack, start, end);
+  }
+
+  /**
+   * Returns a copy of the variables of the current stack frame.
+   * @return variables
+   */
+  public Var[] vars() {
+    return Arrays.copyOfRange(vars, start, end);
+  }
+
+  /**
+   * Assigns values and variables to the current stack frame.
+   * @param vals values (size must not exceed the frame size)
+   * @param vrs variables
+   */
+  public void assign(final Value[] vals, final Var[] vrs) {
+    System.arraycopy(vals, 0, stack, start, vals.length);
+    System.arraycopy(vrs, 0, vars, start, vrs.length);
+  }
+
   /**
    * Creates a dump of the current variable stack.
    * @return string dump
@@ -103,6 +103,17 @@ public final class StaticVar extends StaticDecl {
     }
   }
 
+  /**
+   * Evaluates this variable if it has not been evaluated yet and if it is not lazy.
+   * @param qc query context
+   * @return {@code true} if the variable value is available
+   * @throws QueryException query exception
+   */
+  public boolean evaluate(final QueryContext qc) throws QueryException {
+    if(val == null && !lazy && expr != null) value(qc);
+    return val != null;
+  }
+
   /**
    * Ensures that the variable expression is not updating.
    * @throws QueryException query exception
@@ -102,6 +102,19 @@ public final class Num {
     return l;
   }
 
+  /**
+   * Compresses and stores an integer value at the specified position of the byte array.
+   * @param array array
+   * @param value value to be stored
+   * @param pos position
+   * @return length
+   */
+  public static int set(final byte[] array, final int value, final int pos) {
+    final int l = length(value);
+    set(array, value, pos, l);
+    return l;
+  }
+
   /**
    * Returns the length value of the specified array, stored in the first four bytes.
    * @param array input array
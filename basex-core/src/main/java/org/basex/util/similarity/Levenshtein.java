@@ -88,12 +88,13 @@ public final class Levenshtein {
       matrix = mx;
     }
 
-    int e2 = -1, f2 = -1;
-    for(int t = 0; t < tl; t += cl(tk, t)) {
-      final int e = noDiacritics(lc(cp(tk, t)));
-      int d = Integer.MAX_VALUE;
-      for(int s = 0; s < sl; s += cl(sb, s)) {
-        final int f = noDiacritics(lc(cp(sb, s)));
+    // matrix is indexed by codepoints
+    int e2 = -1, f2 = -1, t = 0;
+    for(int tp = 0; tp < tk.length; tp += cl(tk, tp), t++) {
+      final int e = noDiacritics(lc(cp(tk, tp)));
+      int d = Integer.MAX_VALUE, s = 0;
+      for(int sp = 0; sp < sb.length; sp += cl(sb, sp), s++) {
+        final int f = noDiacritics(lc(cp(sb, sp)));
         int c = m(mx[t][s + 1] + 1, mx[t + 1][s] + 1, mx[t][s] + (e == f ? 0 : 1));
         if(e == f2 && f == e2) c = mx[t][s];
         mx[t + 1][s + 1] = c;
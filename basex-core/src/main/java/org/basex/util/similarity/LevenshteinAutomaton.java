@@ -0,0 +1,118 @@
+package org.basex.util.similarity;
+
+import static org.basex.util.FTToken.*;
+import static org.basex.util.Token.*;
+
+/**
+ * <p>Levenshtein automaton, which checks the similarity of tokens that are supplied in sorted
+ * order. The automaton yields the same results as {@link Levenshtein#similar(byte[], byte[], int)}.
+ * Each state is represented by a row of the Damerau-Levenshtein matrix, which is computed from
+ * the previous row and the next codepoint of a token.</p>
+ *
+ * <p>The rows that have been computed for the prefix of a token are reused for the next token
+ * if the tokens share this prefix. If all entries of a row exceed the number of allowed errors,
+ * no token with the same prefix can be similar, and the length of this prefix is returned.
+ * This way, sorted dictionaries can be traversed without visiting the entries that
+ * start with a non-matching prefix.</p>
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class LevenshteinAutomaton {
+  /** Maximum token size. */
+  private static final int MAX = 50;
+
+  /** Normalized codepoints of the search token. */
+  private final int[] sub;
+  /** Number of allowed errors. */
+  private final int k;
+  /** Rows of the matrix. */
+  private final int[][] rows;
+  /** Normalized codepoints of the current prefix. */
+  private final int[] cps = new int[MAX];
+  /** Byte offsets after the codepoints of the current prefix. */
+  private final int[] ends = new int[MAX];
+
+  /** Last token. */
+  private byte[] last = EMPTY;
+  /** Number of computed rows (without the initial row). */
+  private int size;
+
+  /**
+   * Constructor.
+   * @param sub normalized codepoints of the search token
+   * @param k number of allowed errors
+   */
+  private LevenshteinAutomaton(final int[] sub, final int k) {
+    this.sub = sub;
+    this.k = k;
+    final int sl = sub.length;
+    rows = new int[MAX + 1][sl + 1];
+    for(int s = 0; s <= sl; s++) rows[0][s] = s;
+    for(int r = 0; r <= MAX; r++) rows[r][0] = r;
+  }
+
+  /**
+   * Returns an automaton for the specified search token.
+   * @param token search token
+   * @param err number of allowed errors; dynamic calculation if value is 0
+   * @return automaton, or {@code null} if tokens are compared without errors
+   */
+  public static LevenshteinAutomaton get(final byte[] token, final int err) {
+    final int[] cps = cps(token);
+    final int sl = cps.length;
+    if(err == 0 && sl < 4 || sl > MAX || sl == 0) return null;
+    for(int s = 0; s < sl; s++) cps[s] = noDiacritics(lc(cps[s]));
+    return new LevenshteinAutomaton(cps, err == 0 ? Math.max(1, sl >> 2) : err);
+  }
+
+  /**
+   * Checks if the specified token is similar to the search token.
+   * @param token token to be compared
+   * @return {@code 0} if the token is similar; otherwise, the length of the shortest prefix
+   * (in bytes) that cannot be extended to a similar token, or {@code -1}
+   */
+  public int match(final byte[] token) {
+    // reuse the rows of the common prefix
+    final int c = common(last, token);
+    while(size > 0 && ends[size - 1] > c) size--;
+    last = token;
+
+    final int tl = token.length, sl = sub.length;
+    int pos = size == 0 ? 0 : ends[size - 1];
+    while(pos < tl) {
+      // token exceeds maximum size: no token with this prefix is similar
+      if(size == MAX) return pos + cl(token, pos);
+
+      final int e = noDiacritics(lc(cp(token, pos))), e2 = size == 0 ? -1 : cps[size - 1];
+      final int[] prev = rows[size], row = rows[size + 1];
+      int f2 = size == 0 ? -1 : sub[sl - 1], d = Integer.MAX_VALUE;
+      for(int s = 0; s < sl; s++) {
+        final int f = sub[s];
+        int m = Math.min(Math.min(prev[s + 1] + 1, row[s] + 1), prev[s] + (e == f ? 0 : 1));
+        if(e == f2 && f == e2) m = prev[s];
+        row[s + 1] = m;
+        d = Math.min(d, m);
+        f2 = f;
+      }
+      pos += cl(token, pos);
+      cps[size] = e;
+      ends[size++] = pos;
+      if(d > k) return pos;
+    }
+    return size != 0 && Math.abs(sl - size) <= k && rows[size][sl] <= k ? 0 : -1;
+  }
+
+  /**
+   * Returns the length of the common prefix of two tokens.
+   * @param token1 first token
+   * @param token2 second token
+   * @return length
+   */
+  private static int common(final byte[] token1, final byte[] token2) {
+    final int l = Math.min(token1.length, token2.length);
+    int i = 0;
+    while(i < l && token1[i] == token2[i]) i++;
+    return i;
+  }
+}
@@ -3,6 +3,7 @@ package org.basex.build;
 import static org.junit.Assert.*;
 
 import org.basex.*;
+import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.io.*;
 import org.basex.util.*;
@@ -136,6 +137,32 @@ public final class CreateTest extends SandboxTest {
     }
   }
 
+  /**
+   * Creates databases with multiple threads.
+   */
+  @Test
+  public void parallel() {
+    final String query = "string-join(for $d in db:open('" + NAME + "') " +
+      "return db:path($d) || serialize($d) || count($d//@*))";
+    final String[] inputs = { FOLDER, "src/test/resources/xmark.xml" };
+    try {
+      for(final String input : inputs) {
+        set(MainOptions.BUILDTHREADS, 1);
+        execute(new CreateDB(NAME, input));
+        final String expected = query(query);
+        set(MainOptions.BUILDTHREADS, 4);
+        execute(new CreateDB(NAME, input));
+        assertEquals(expected, query(query));
+        set(MainOptions.SKIPCORRUPT, true);
+        execute(new CreateDB(NAME, input));
+        assertEquals(expected, query(query));
+        set(MainOptions.SKIPCORRUPT, false);
+      }
+    } finally {
+      set(MainOptions.BUILDTHREADS, 1);
+    }
+  }
+
   /**
    * Returns the name of the database.
    * @return database name
@@ -94,7 +94,7 @@ public final class CommandLockingTest extends SandboxTest {
     ckDBs(new List(NAME), false, NAME_LIST);
     ckDBs(new Open(NAME), false, NAME_CTX);
     ckDBs(new Optimize(), true, CTX_LIST);
-    ckDBs(new OptimizeAll(), true, CTX_LIST);
+    ckDBs(new OptimizeAll(), CTX_LIST, NONE);
     ckDBs(new Password(NAME), true, USER_LIST);
     ckDBs(new Rename(FILE, FILE), true, CTX_LIST);
     ckDBs(new Replace(FILE, FILE), true, CTX_LIST);
@@ -144,6 +144,46 @@ public final class LockingTest extends SandboxTest {
     th2.release();
   }
 
+  /**
+   * Fetch two read locks, upgrade second lock.
+   * @throws InterruptedException Got interrupted.
+   */
+  @Test
+  public void upgradeTest() throws InterruptedException {
+    final CountDownLatch sync = new CountDownLatch(1);
+    final CountDownLatch read = new CountDownLatch(1), upgrade = new CountDownLatch(1);
+    final LockTester th1 = new LockTester(null, objects, NONE, sync);
+    final Thread th2 = new Thread() {
+      @Override
+      public void run() {
+        final Locks locks = new Locks();
+        for(final String object : objects) locks.reads.add(object);
+        locks.finish(context);
+        try {
+          locking.acquire(locks);
+        } catch(final InterruptedException ex) {
+          throw new RuntimeException("Unexpectedly interrupted.");
+        }
+        read.countDown();
+        locking.upgrade();
+        upgrade.countDown();
+        locking.release();
+      }
+    };
+
+    th1.start();
+    assertTrue("Thread 1 should be able to acquire lock.",
+        sync.await(WAIT, TimeUnit.MILLISECONDS));
+    th2.start();
+    assertTrue("Thread 2 should be able to acquire lock.",
+        read.await(WAIT, TimeUnit.MILLISECONDS));
+    assertFalse("Thread 2 shouldn't be able to upgrade lock yet.",
+        upgrade.await(WAIT, TimeUnit.MILLISECONDS));
+    th1.release();
+    assertTrue("Thread 2 should be able to upgrade lock now.",
+        upgrade.await(WAIT, TimeUnit.MILLISECONDS));
+  }
+
   /**
    * Test parallel transaction limit.
    * @throws InterruptedException Got interrupted.
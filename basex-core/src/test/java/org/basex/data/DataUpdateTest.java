@@ -87,11 +87,14 @@ public abstract class DataUpdateTest extends SandboxTest {
 
   /**
    * Reloads the database.
+   * @return reopened database
    */
-  void reload() {
-    if((Boolean) mainmem) return;
-    execute(new Close());
-    execute(new Open(NAME));
+  Data reload() {
+    if(!(Boolean) mainmem) {
+      execute(new Close());
+      execute(new Open(NAME));
+    }
+    return context.data();
   }
 
   /**
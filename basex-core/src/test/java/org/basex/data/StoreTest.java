@@ -1,11 +1,12 @@
 package org.basex.data;
 
+import static org.basex.query.func.Function.*;
 import static org.junit.Assert.*;
 
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
-import org.basex.query.func.*;
+import org.basex.io.*;
 import org.junit.*;
 import org.junit.Test;
 
@@ -91,7 +92,7 @@ public final class StoreTest extends SandboxTest {
           execute(new CreateDB(NAME));
           final String input = "<a>0</a>";
           execute(new Add("a.xml", input));
-          final String query = Function._DB_OPEN.args(NAME) + "//*[text()='0']";
+          final String query = _DB_OPEN.args(NAME) + "//*[text()='0']";
           assertEquals(input, query(query));
           execute(new Close());
           assertEquals(input, query(query));
@@ -103,6 +104,117 @@ public final class StoreTest extends SandboxTest {
     }
   }
 
+  /**
+   * Tests the {@link MainOptions#MMAP} flag in combination with updates.
+   */
+  @Test
+  public void mmap() {
+    try {
+      set(MainOptions.MMAP, true);
+      execute(new CreateDB(NAME, "<X><A>abc</A><A>def</A></X>"));
+      for(int n = 0; n < NQUERIES; n++) {
+        query("replace value of node //A[1] with 'abc" + n + "'");
+        query("insert node <B>b" + n + "</B> into /X");
+        assertEquals("abc" + n, query("string(//A[1])"));
+      }
+      execute(new Flush());
+      assertEquals("def", query("string(//A[2])"));
+      execute(new Close());
+      final String query = _DB_OPEN.args(NAME) + "//B[last()]/text()";
+      assertEquals("b" + (NQUERIES - 1), query(query));
+    } finally {
+      set(MainOptions.MMAP, false);
+    }
+  }
+
+  /**
+   * Tests the {@link MainOptions#COMPRESSTABLE} flag in combination with updates.
+   */
+  @Test
+  public void compressTable() {
+    final String doc = "<X>{ for $i in 1 to 10000 return <A a='{ $i }'>{ $i }</A> }</X>";
+    execute(new CreateDB(NAME, query(doc)));
+    final long size = context.data().meta.dbfile(DataText.DATATBL).length();
+    try {
+      set(MainOptions.COMPRESSTABLE, true);
+      execute(new CreateDB(NAME, query(doc)));
+      assertTrue(context.data().meta.dbfile(DataText.DATATBL).length() * 2 < size);
+
+      for(int n = 0; n < NQUERIES; n++) {
+        query("insert node <B>{ (1 to 50) ! <C/> }</B> before //A[" + (n * 97 + 1) + ']');
+        query("delete node //A[" + (n * 89 + 2) + ']');
+      }
+      execute(new Flush());
+      execute(new Close());
+      final String query = _DB_OPEN.args(NAME);
+      assertEquals("9900", query("count(" + query + "//A)"));
+      assertEquals("5000", query("count(" + query + "//C)"));
+      assertEquals("10000", query("string(" + query + "//A[last()]/@a)"));
+
+      execute(new Open(NAME));
+      execute(new OptimizeAll());
+      assertEquals("5000", query("count(//C)"));
+      assertTrue(context.data().meta.compresstable);
+    } finally {
+      set(MainOptions.COMPRESSTABLE, false);
+    }
+  }
+
+  /**
+   * Tests the {@link MainOptions#TEXTDICTIONARY} flag in combination with updates.
+   */
+  @Test
+  public void textDictionary() {
+    final String doc = "<X>{ for $i in 1 to 40000 "
+        + "let $s := ('ACTIVE', 'PENDING', 'CLOSED')[$i mod 3 + 1] "
+        + "return <A a='http://www.example.com/{ $i mod 50 }/'>Status: { $s }, item { $i }</A>"
+        + " }</X>";
+    execute(new CreateDB(NAME, query(doc)));
+    final long text = context.data().meta.dbfile(DataText.DATATXT).length();
+    final long attr = context.data().meta.dbfile(DataText.DATAATV).length();
+    try {
+      set(MainOptions.TEXTDICTIONARY, true);
+      execute(new CreateDB(NAME, query(doc)));
+      assertTrue(context.data().meta.dbfile(DataText.DATATXT).length() * 3 < text * 2);
+      assertTrue(context.data().meta.dbfile(DataText.DATAATV).length() * 3 < attr * 2);
+      assertEquals("Status: ACTIVE, item 39999", query("string(//A[last() - 1])"));
+      assertEquals("http://www.example.com/0/", query("string(//A[last()]/@a)"));
+
+      for(int n = 0; n < NQUERIES; n++) {
+        query("replace value of node //A[" + (n + 1) + "] with 'Status: CLOSED, item " + n + "'");
+        query("insert node attribute b { 'http://www.example.com/" + n + "' } into //A[" +
+            (n + 1) + ']');
+      }
+      execute(new Close());
+      final String query = _DB_OPEN.args(NAME);
+      assertEquals("Status: CLOSED, item 99", query("string(" + query + "//A[100])"));
+      assertEquals("http://www.example.com/99", query("string(" + query + "//A[100]/@b)"));
+      assertEquals("Status: CLOSED, item 101", query("string(" + query + "//A[101])"));
+    } finally {
+      set(MainOptions.TEXTDICTIONARY, false);
+    }
+  }
+
+  /**
+   * Tests if a dictionary that is trained during an update is written to disk right away.
+   */
+  @Test
+  public void textDictionaryUpdate() {
+    try {
+      set(MainOptions.TEXTDICTIONARY, true);
+      execute(new CreateDB(NAME, "<X/>"));
+      final IOFile dict = context.data().meta.dbfile(DataText.DATATXT + 'd');
+      assertFalse(dict.exists());
+      query("insert node (1 to 20000) ! <A>Status: ACTIVE, item { . }</A> into /X");
+      assertTrue(dict.exists());
+      execute(new Close());
+      assertEquals("Status: ACTIVE, item 20000", query("string(" + _DB_OPEN.args(NAME) +
+          "//A[last()])"));
+    } finally {
+      set(MainOptions.TEXTDICTIONARY, false);
+    }
+  }
+
   /**
    * Tests if the size of the text store has not changed.
    * @param old old size
@@ -20,7 +20,7 @@ public final class UpdateAttributesTest extends DataUpdateTest {
    */
   @Test
   public void updateAttribute() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     data.startUpdate(context.options);
     data.update(7, Data.ATTR, T_NAME, Token.EMPTY);
     data.update(7, Data.ATTR, T_JUNIT);
@@ -28,7 +28,7 @@ public final class UpdateAttributesTest extends DataUpdateTest {
     assertEquals(size, data.meta.size);
     assertArraysEquals(T_NAME, data.name(7, Data.ATTR));
     assertArraysEquals(T_JUNIT, data.text(7, false));
-    reload();
+    data = reload();
     assertEquals(size, data.meta.size);
     assertArraysEquals(T_NAME, data.name(7, Data.ATTR));
     assertArraysEquals(T_JUNIT, data.text(7, false));
@@ -40,14 +40,14 @@ public final class UpdateAttributesTest extends DataUpdateTest {
    */
   @Test
   public void updateAttribute2() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     data.startUpdate(context.options);
     data.update(8, Data.ATTR, T_NAME, Token.EMPTY);
     data.update(8, Data.ATTR, T_JUNIT);
     data.finishUpdate(context.options);
     assertEquals(size, data.meta.size);
     assertArraysEquals(T_JUNIT, data.text(8, false));
-    reload();
+    data = reload();
     assertEquals(size, data.meta.size);
     assertArraysEquals(T_JUNIT, data.text(8, false));
   }
@@ -58,7 +58,7 @@ public final class UpdateAttributesTest extends DataUpdateTest {
    */
   @Test
   public void addAttribute() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
 
     final MemData md = new MemData(context.options);
@@ -77,7 +77,7 @@ public final class UpdateAttributesTest extends DataUpdateTest {
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_FOO, data.name(9, Data.ATTR));
     assertArraysEquals(T_JUNIT, data.text(9, false));
-    reload();
+    data = reload();
     assertEquals(size + 1, data.meta.size);
     assertEquals(size + 1, data.size(0, Data.DOC));
     assertEquals(Data.ATTR, data.kind(9));
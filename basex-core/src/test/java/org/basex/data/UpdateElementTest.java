@@ -20,7 +20,7 @@ public final class UpdateElementTest extends DataUpdateTest {
    */
   @Test
   public void insertElementAsOnly1() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
     insertElement(3, 0, T_JUNIT, Data.ELEM);
     assertEquals(size + 1, data.meta.size);
@@ -31,7 +31,7 @@ public final class UpdateElementTest extends DataUpdateTest {
     assertEquals(5, data.parent(6, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_JUNIT, data.name(4, Data.ELEM));
-    reload();
+    data = reload();
     assertEquals(size + 1, data.meta.size);
     assertEquals(3, data.parent(4, Data.ELEM));
     assertEquals(Data.ATTR, data.kind(9));
@@ -47,7 +47,7 @@ public final class UpdateElementTest extends DataUpdateTest {
    */
   @Test
   public void insertElementAsOnly2() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
     insertElement(3, 1, T_JUNIT, Data.ELEM);
     assertEquals(size + 1, data.meta.size);
@@ -58,7 +58,7 @@ public final class UpdateElementTest extends DataUpdateTest {
     assertEquals(5, data.parent(6, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_JUNIT, data.name(4, Data.ELEM));
-    reload();
+    data = reload();
     assertEquals(size + 1, data.meta.size);
     assertEquals(3, data.parent(4, Data.ELEM));
     assertEquals(Data.ATTR, data.kind(9));
@@ -74,7 +74,7 @@ public final class UpdateElementTest extends DataUpdateTest {
    */
   @Test
   public void insertElementAsOnly3() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
     insertElement(3, 2, T_JUNIT, Data.ELEM);
     assertEquals(size + 1, data.meta.size);
@@ -85,7 +85,7 @@ public final class UpdateElementTest extends DataUpdateTest {
     assertEquals(5, data.parent(6, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_JUNIT, data.name(4, Data.ELEM));
-    reload();
+    data = reload();
     assertEquals(size + 1, data.meta.size);
     assertEquals(3, data.parent(4, Data.ELEM));
     assertEquals(Data.ATTR, data.kind(9));
@@ -101,7 +101,7 @@ public final class UpdateElementTest extends DataUpdateTest {
    */
   @Test
   public void insertElementAfterAttsAsFirst() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
     insertElement(6, 1, T_JUNIT, Data.ELEM);
     assertEquals(size + 1, data.meta.size);
@@ -111,7 +111,7 @@ public final class UpdateElementTest extends DataUpdateTest {
     assertEquals(6, data.parent(10, Data.ELEM));
     assertEquals(4, data.parent(12, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
-    reload();
+    data = reload();
     assertEquals(size + 1, data.meta.size);
     assertEquals(Data.ELEM, data.kind(9));
     assertEquals(6, data.parent(9, Data.ELEM));
@@ -127,7 +127,7 @@ public final class UpdateElementTest extends DataUpdateTest {
    */
   @Test
   public void insertElementAfterAttsAsSecond() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
     insertElement(6, 2, T_JUNIT, Data.ELEM);
     assertEquals(size + 1, data.meta.size);
@@ -137,7 +137,7 @@ public final class UpdateElementTest extends DataUpdateTest {
     assertEquals(6, data.parent(9, Data.ELEM));
     assertEquals(4, data.parent(12, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
-    reload();
+    data = reload();
     assertEquals(size + 1, data.meta.size);
     assertEquals(Data.ELEM, data.kind(9));
     assertArraysEquals(T_JUNIT, data.name(11, Data.ELEM));
@@ -153,7 +153,7 @@ public final class UpdateElementTest extends DataUpdateTest {
    */
   @Test
   public void insertElementAfterAttsAsLast() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
     insertElement(6, 0, T_JUNIT, Data.ELEM);
     assertEquals(size + 1, data.meta.size);
@@ -163,7 +163,7 @@ public final class UpdateElementTest extends DataUpdateTest {
     assertEquals(6, data.parent(9, Data.ELEM));
     assertEquals(4, data.parent(12, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
-    reload();
+    data = reload();
     assertEquals(size + 1, data.meta.size);
     assertEquals(Data.ELEM, data.kind(9));
     assertArraysEquals(T_JUNIT, data.name(11, Data.ELEM));
@@ -179,13 +179,13 @@ public final class UpdateElementTest extends DataUpdateTest {
    */
   @Test
   public void updateElementName() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     data.startUpdate(context.options);
     data.update(6, Data.ELEM, T_JUNIT, Token.EMPTY);
     data.finishUpdate(context.options);
     assertEquals(Data.ELEM, data.kind(6));
     assertArraysEquals(T_JUNIT, data.name(6, Data.ELEM));
-    reload();
+    data = reload();
     assertEquals(Data.ELEM, data.kind(6));
     assertArraysEquals(T_JUNIT, data.name(6, Data.ELEM));
   }
@@ -202,7 +202,7 @@ public final class UpdateElementTest extends DataUpdateTest {
       throws IOException {
 
     int root;
-    final Data data = context.data();
+    Data data = context.data();
     if(pos == 0) {
       root = par + data.size(par, kind);
     } else {
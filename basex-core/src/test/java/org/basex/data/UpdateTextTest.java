@@ -19,7 +19,7 @@ public final class UpdateTextTest extends DataUpdateTest {
    */
   @Test
   public void insertTextAsOnly1() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     final int nextid = data.meta.lastid;
     insertText(3, 0, T_JUNIT, Data.TEXT);
     assertEquals(size + 1, data.meta.size);
@@ -30,7 +30,7 @@ public final class UpdateTextTest extends DataUpdateTest {
     assertEquals(5, data.parent(6, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_JUNIT, data.atom(4));
-    reload();
+    data = reload();
     assertEquals(size + 1, data.meta.size);
     assertEquals(3, data.parent(4, Data.TEXT));
     assertEquals(Data.ATTR, data.kind(9));
@@ -47,7 +47,7 @@ public final class UpdateTextTest extends DataUpdateTest {
    */
   @Test
   public void insertTextAsOnly2() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     final int nextid = data.meta.lastid;
     insertText(3, 1, T_JUNIT, Data.TEXT);
     assertEquals(size + 1, data.meta.size);
@@ -58,7 +58,7 @@ public final class UpdateTextTest extends DataUpdateTest {
     assertEquals(5, data.parent(6, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_JUNIT, data.atom(4));
-    reload();
+    data = reload();
     assertEquals(size + 1, data.meta.size);
     assertEquals(3, data.parent(4, Data.TEXT));
     assertEquals(Data.ATTR, data.kind(9));
@@ -75,7 +75,7 @@ public final class UpdateTextTest extends DataUpdateTest {
    */
   @Test
   public void insertTextAsOnly3() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     final int nextid = data.meta.lastid;
     insertText(3, 2, T_JUNIT, Data.TEXT);
     assertEquals(size + 1, data.meta.size);
@@ -86,7 +86,7 @@ public final class UpdateTextTest extends DataUpdateTest {
     assertEquals(5, data.parent(6, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_JUNIT, data.atom(4));
-    reload();
+    data = reload();
     assertEquals(size + 1, data.meta.size);
     assertEquals(3, data.parent(4, Data.TEXT));
     assertEquals(Data.ATTR, data.kind(9));
@@ -103,7 +103,7 @@ public final class UpdateTextTest extends DataUpdateTest {
    */
   @Test
   public void insertTextAfterAttsAsFirst() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     final int nextid = data.meta.lastid;
     insertText(6, 1, T_JUNIT, Data.TEXT);
     assertEquals(size + 1, data.meta.size);
@@ -113,7 +113,7 @@ public final class UpdateTextTest extends DataUpdateTest {
     assertEquals(6, data.parent(10, Data.ELEM));
     assertEquals(4, data.parent(12, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
-    reload();
+    data = reload();
     assertEquals(size + 1, data.meta.size);
     assertEquals(Data.TEXT, data.kind(9));
     assertEquals(6, data.parent(9, Data.TEXT));
@@ -129,7 +129,7 @@ public final class UpdateTextTest extends DataUpdateTest {
    */
   @Test
   public void insertTextAfterAttsAsSecond() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     final int nextid = data.meta.lastid;
     insertText(6, 2, T_JUNIT, Data.TEXT);
     assertEquals(size + 1, data.meta.size);
@@ -140,7 +140,7 @@ public final class UpdateTextTest extends DataUpdateTest {
     assertEquals(4, data.parent(12, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
 
-    reload();
+    data = reload();
     assertEquals(size + 1, data.meta.size);
     assertEquals(Data.ELEM, data.kind(9));
     assertArraysEquals(T_JUNIT, data.atom(11));
@@ -156,7 +156,7 @@ public final class UpdateTextTest extends DataUpdateTest {
    */
   @Test
   public void insertTextAfterAttsAsLast() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     final int nextid = data.meta.lastid;
     insertText(6, 0, T_JUNIT, Data.TEXT);
     assertEquals(size + 1, data.meta.size);
@@ -166,7 +166,7 @@ public final class UpdateTextTest extends DataUpdateTest {
     assertEquals(6, data.parent(9, Data.ELEM));
     assertEquals(4, data.parent(12, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
-    reload();
+    data = reload();
     assertEquals(size + 1, data.meta.size);
     assertEquals(Data.ELEM, data.kind(9));
     assertArraysEquals(T_JUNIT, data.atom(11));
@@ -209,13 +209,13 @@ public final class UpdateTextTest extends DataUpdateTest {
    */
   @Test
   public void updateText() throws IOException {
-    final Data data = context.data();
+    Data data = context.data();
     data.startUpdate(context.options);
     data.update(10, Data.TEXT, T_JUNIT);
     data.finishUpdate(context.options);
     assertEquals(Data.TEXT, data.kind(10));
     assertArraysEquals(T_JUNIT, data.text(10, true));
-    reload();
+    data = reload();
     assertEquals(Data.TEXT, data.kind(10));
     assertArraysEquals(T_JUNIT, data.text(10, true));
   }
@@ -231,7 +231,7 @@ public final class UpdateTextTest extends DataUpdateTest {
   private static void insertText(final int par, final int pos, final byte[] val, final byte kind)
       throws IOException {
 
-    final Data data = context.data();
+    Data data = context.data();
     int pre = par;
     int k = data.kind(pre);
     if(pos == 0) {
@@ -0,0 +1,159 @@
+package org.basex.index;
+
+import static org.basex.data.DataText.*;
+import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.charset.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.query.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for incremental updates of the full-text index.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class FTUpdateTest extends AdvancedQueryTest {
+  /** Initializes a test. */
+  @Before
+  public void init() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x><a>apple pie</a><a>banana split</a></x>"));
+  }
+
+  /** Finishes a test. */
+  @After
+  public void finish() {
+    execute(new DropDB(NAME));
+    set(MainOptions.UPDINDEX, false);
+    set(MainOptions.FTINDEX, false);
+  }
+
+  /** Inserts, updates and deletes texts. */
+  @Test
+  public void update() {
+    query("insert node <a>apple tart</a> into /x", "");
+    query(_FT_SEARCH.args(NAME, "apple"), "apple pie\napple tart");
+
+    query("replace value of node /x/a[1] with 'cherry pie'", "");
+    query("delete node /x/a[2]", "");
+    check();
+    assertTrue(context.data().meta.dbfile(DATAFTX + 'u').exists());
+
+    // updates are persisted
+    execute(new Close());
+    execute(new Open(NAME));
+    check();
+
+    // updates are merged with the main index
+    execute(new Optimize());
+    check();
+    assertFalse(context.data().meta.dbfile(DATAFTX + 'u').exists());
+  }
+
+  /** Persists changes before the database is flushed. */
+  @Test
+  public void log() {
+    set(MainOptions.AUTOFLUSH, false);
+    try {
+      final IOFile file = context.data().meta.dbfile(DATAFTX + 'u');
+      query("insert node <a>apple tart</a> into /x", "");
+      assertTrue(file.exists());
+      final long size = file.length();
+      query("replace value of node /x/a[1] with 'cherry pie'", "");
+      query("delete node /x/a[2]", "");
+      assertTrue(file.length() > size);
+      check();
+    } finally {
+      set(MainOptions.AUTOFLUSH, true);
+    }
+    execute(new Close());
+    execute(new Open(NAME));
+    check();
+  }
+
+  /** Merges new entries with the main index. */
+  @Test
+  public void merge() {
+    query("insert node <a>pie apple pie</a> as first into /x", "");
+    query("insert node <a>apple</a> into /x", "");
+    query(_FT_SEARCH.args(NAME, "apple"), "pie apple pie\napple pie\napple");
+    query("/x/a[text() contains text 'pie apple'] ! string()", "pie apple pie");
+    query("count(/x/a[text() contains text 'pie' occurs exactly 2 times])", "1");
+  }
+
+  /** Replaces documents. */
+  @Test
+  public void replace() {
+    for(int i = 0; i < 5; i++) {
+      execute(new Replace("x.xml", "<x><a>cherry pie</a><a>banana</a></x>"));
+      execute(new Replace("x.xml", "<x><a>cherry pie</a><a>apple tart</a></x>"));
+    }
+    query(_FT_SEARCH.args(NAME, "banana"), "banana split");
+    query(_FT_SEARCH.args(NAME, "tart"), "apple tart");
+    query("count(//a[text() contains text 'pie'])", "2");
+    query(_DB_INFO.args(NAME) + "//ftindex/text()", "true");
+  }
+
+  /**
+   * Opens a database with a full-text index of an older version, which contains pre values.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void oldFormat() throws IOException {
+    // move nodes, and create an index with pre values
+    query("insert node <a>apple tart</a> as first into /x", "");
+    query("delete node /x/a[2]", "");
+    final MetaData meta = context.data().meta;
+    meta.updindex = false;
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+    meta.updindex = true;
+    meta.dirty = true;
+    final IOFile inf = meta.dbfile(DATAINF);
+    execute(new Close());
+
+    // assign older index version
+    final String old = new String(inf.read(), StandardCharsets.ISO_8859_1);
+    final String entry = IDBSTR + (char) ISTORAGE.length() + ISTORAGE;
+    assertTrue(old.contains(entry));
+    inf.write(old.replace(entry, IDBSTR + (char) 3 + "8.6").getBytes(StandardCharsets.ISO_8859_1));
+
+    // index is marked as outdated and ignored
+    execute(new Open(NAME));
+    assertTrue(context.data().meta.oldindex());
+    assertFalse(context.data().meta.ftindex);
+    query("/x/a[text() contains text 'apple'] ! string()", "apple tart");
+
+    // index is rebuilt
+    execute(new Optimize());
+    assertTrue(context.data().meta.ftindex);
+    query(_FT_SEARCH.args(NAME, "apple"), "apple tart");
+    query(_FT_SEARCH.args(NAME, "banana"), "banana split");
+    execute(new Close());
+    execute(new Open(NAME));
+    assertFalse(context.data().meta.oldindex());
+  }
+
+  /**
+   * Checks the results of index-based queries.
+   */
+  private static void check() {
+    query(_FT_SEARCH.args(NAME, "apple"), "apple tart");
+    query(_FT_SEARCH.args(NAME, "pie"), "cherry pie");
+    query(_FT_SEARCH.args(NAME, "banana"), "");
+    query(_FT_SEARCH.args(NAME, "ta.*", " map { 'wildcards': true() }"), "apple tart");
+    query(_FT_SEARCH.args(NAME, "chery", " map { 'fuzzy': true() }"), "cherry pie");
+    query("/x/a[text() contains text 'apple'] ! string()", "apple tart");
+    query(_DB_INFO.args(NAME) + "//ftindex/text()", "true");
+  }
+}
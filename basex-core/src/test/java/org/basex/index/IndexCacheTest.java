@@ -74,6 +74,17 @@ public final class IndexCacheTest {
     assertNull(cache.get(key));
   }
 
+  /** Test that the number of cached entries is bounded. */
+  @Test
+  public void testBounded() {
+    final int max = IndexCache.MAXSIZE << 4;
+    for(int i = 0; i < max << 1; ++i) cache.add(token("keyBounded" + i), i, i);
+    assertTrue(cache.size() <= max);
+    final byte[] key = token("keyBounded");
+    cache.add(key, 1, 2L);
+    assertCacheEntry(key, 1, 2L);
+  }
+
   /**
    * Test that new records can be continuously added without hitting
    * {@link OutOfMemoryError}.
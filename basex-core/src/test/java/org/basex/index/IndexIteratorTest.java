@@ -0,0 +1,178 @@
+package org.basex.index;
+
+import static org.basex.util.Token.*;
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.index.query.*;
+import org.basex.util.ft.*;
+import org.basex.util.list.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for iterating and skipping index results.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class IndexIteratorTest extends SandboxTest {
+  /** Query for creating the test document (70002 nodes). */
+  private static final String DOC = "<x>{ for $i in 1 to 10000 return "
+      + "<a b='{ $i mod 3 }' c='c{ $i mod 4 } d{ $i mod 7 }'>{ $i mod 5 }</a>, "
+      + "<a b='x'>x</a> }</x>";
+
+  /** Initializes the tests. */
+  @Before
+  public void init() {
+    set(MainOptions.TOKENINDEX, true);
+  }
+
+  /** Finishes the tests. */
+  @After
+  public void finish() {
+    set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
+    set(MainOptions.UPDINDEX, false);
+    set(MainOptions.MAINMEM, false);
+    set(MainOptions.SPLITSIZE, 0);
+    execute(new DropDB(NAME));
+  }
+
+  /** Skips results of value indexes. */
+  @Test
+  public void skip() {
+    for(final boolean updindex : new boolean[] { false, true }) {
+      set(MainOptions.UPDINDEX, updindex);
+      for(final int splitsize : new int[] { 0, 1 }) {
+        set(MainOptions.SPLITSIZE, splitsize);
+        execute(new CreateDB(NAME, query(DOC)));
+        final Data data = context.data();
+        for(int i = 0; i < 5; i++) {
+          skip(data, new StringToken(IndexType.TEXT, token(i)));
+        }
+        skip(data, new StringToken(IndexType.TEXT, token("x")));
+        skip(data, new StringToken(IndexType.ATTRIBUTE, token("2")));
+      }
+    }
+  }
+
+  /** Skips results of the full-text index (posting lists span several disk blocks). */
+  @Test
+  public void skipFT() {
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, query(DOC)));
+    final Data data = context.data();
+    for(final String term : new String[] { "0", "3", "x" }) {
+      final FTLexer lexer = new FTLexer(new FTOpt()).init(token(term));
+      lexer.nextToken();
+      skip(data, lexer);
+    }
+  }
+
+  /** Merges and intersects index results. */
+  @Test
+  public void merge() {
+    for(final boolean mainmem : new boolean[] { false, true }) {
+      set(MainOptions.MAINMEM, mainmem);
+      merge(false);
+      merge(true);
+    }
+  }
+
+  /** Merges the results of a main-memory database. */
+  @Test
+  public void mainMemUnion() {
+    set(MainOptions.MAINMEM, true);
+    execute(new CreateDB(NAME, "<t><a>x</a><a>y</a><a>x</a><a>y</a></t>"));
+    assertEquals("4", query("count(db:text('" + NAME + "', ('x', 'y')))"));
+    set(MainOptions.MAINMEM, false);
+    execute(new CreateDB(NAME, "<t><a>x</a><a>y</a><a>x</a><a>y</a></t>"));
+    assertEquals("4", query("count(db:text('" + NAME + "', ('x', 'y')))"));
+  }
+
+  /**
+   * Merges and intersects index results.
+   * @param updindex updatable index
+   */
+  private void merge(final boolean updindex) {
+    set(MainOptions.UPDINDEX, updindex);
+    execute(new CreateDB(NAME, query(DOC)));
+    final Data data = context.data();
+    final IndexToken c1 = new StringToken(IndexType.TOKEN, token("c1"));
+    final IndexToken c3 = new StringToken(IndexType.TOKEN, token("c3"));
+    final IndexToken d5 = new StringToken(IndexType.TOKEN, token("d5"));
+    final IndexToken t2 = new StringToken(IndexType.TEXT, token("2"));
+
+    final IntList union = pres(data, c1).add(pres(data, c3).finish()).sort();
+    assertArrayEquals(union.finish(), pres(IndexIterator.union(
+        data.iter(c3), data.iter(c1), IndexIterator.EMPTY)).finish());
+
+    final IntList inter = pres(data, c1), d = pres(data, d5);
+    final IntList result = new IntList();
+    for(int i = 0; i < inter.size(); i++) {
+      if(d.contains(inter.get(i))) result.add(inter.get(i));
+    }
+    assertArrayEquals(result.toArray(), pres(IndexIterator.intersect(
+        data.iter(d5), data.iter(c1))).finish());
+    assertArrayEquals(result.toArray(), pres(IndexIterator.intersect(
+        data.iter(c1), data.iter(d5), data.iter(c1))).finish());
+    assertEquals(0, pres(IndexIterator.intersect(data.iter(c1), data.iter(t2))).size());
+  }
+
+  /**
+   * Returns all pre values of the specified index token.
+   * @param data data reference
+   * @param token index token
+   * @return pre values
+   */
+  private static IntList pres(final Data data, final IndexToken token) {
+    return pres(data.iter(token));
+  }
+
+  /**
+   * Returns all pre values of the specified iterator.
+   * @param iter iterator
+   * @return pre values
+   */
+  private static IntList pres(final IndexIterator iter) {
+    final IntList pres = new IntList();
+    while(iter.more()) pres.add(iter.pre());
+    return pres;
+  }
+
+  /**
+   * Compares the results of skipping with the results of a full iteration.
+   * @param data data reference
+   * @param token index token
+   */
+  private static void skip(final Data data, final IndexToken token) {
+    // results must be returned in ascending order
+    final IntList pres = new IntList();
+    final IndexIterator all = data.iter(token);
+    while(all.more()) {
+      final int pre = all.pre();
+      if(!pres.isEmpty()) assertTrue(pres.get(pres.size() - 1) < pre);
+      pres.add(pre);
+    }
+    assertEquals(all.size(), pres.size());
+
+    for(final int step : new int[] { 1, 17, 333, 5000, 30000 }) {
+      final IndexIterator iter = data.iter(token);
+      int p = 0, target = 0;
+      while(true) {
+        target += step;
+        while(p < pres.size() && pres.get(p) < target) p++;
+        final boolean found = iter.skip(target);
+        assertEquals(p < pres.size(), found);
+        if(!found) break;
+        assertEquals(pres.get(p), iter.pre());
+        target = iter.pre();
+        p++;
+      }
+    }
+  }
+}
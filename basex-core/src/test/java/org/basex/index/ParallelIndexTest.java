@@ -0,0 +1,184 @@
+package org.basex.index;
+
+import static org.basex.util.Token.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.CmdIndex;
+import org.basex.data.*;
+import org.basex.index.query.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for building and accessing indexes with multiple threads, and for partial indexes.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelIndexTest extends SandboxTest {
+  /** Query for creating the test document for value indexes (250002 nodes). */
+  private static final String DOC = "<x>{ for $i in 1 to 50000 return "
+      + "<a b='{ $i mod 1000 } c{ $i mod 7 }' c='{ $i mod 11 } { $i mod 3 }' "
+      + "d='d{ $i mod 5000 } e'>"
+      + "{ $i mod 777 } x{ $i mod 13 }</a> }</x>";
+  /** Query for creating the test document for the full-text index (140002 nodes). */
+  private static final String FTDOC = "<x>{ for $i in 1 to 70000 return <a>{ "
+      + "string-join(for $j in 1 to 8 return (('cats', 'dogs', 'running', 'the')[$j mod 4 + 1], "
+      + "string($i * $j mod 997)), ' ') }</a> }</x>";
+
+  /** Initializes the tests. */
+  @Before
+  public void init() {
+    set(MainOptions.TOKENINDEX, true);
+  }
+
+  /** Finishes the tests. */
+  @After
+  public void finish() {
+    set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
+    set(MainOptions.STEMMING, false);
+    set(MainOptions.UPDINDEX, false);
+    set(MainOptions.SPLITSIZE, 0);
+    set(MainOptions.BUILDTHREADS, 1);
+    execute(new DropDB(NAME));
+  }
+
+  /** Value indexes. */
+  @Test
+  public void values() {
+    final String query = "string-join(("
+        + "for $t in index:texts('" + NAME + "') return $t || $t/@count,"
+        + "for $t in index:attributes('" + NAME + "') return $t || $t/@count,"
+        + "for $t in index:tokens('" + NAME + "') return $t || $t/@count,"
+        + "db:text('" + NAME + "', ('1', '776', '0 x0')) ! db:node-pre(.),"
+        + "db:attribute('" + NAME + "', ('1 c1', '999 c5', '3 0')) ! db:node-pre(.),"
+        + "db:token('" + NAME + "', ('c3', '500', 'e', 'd4711')) ! db:node-pre(.)"
+        + "), ' ')";
+
+    for(final boolean updindex : new boolean[] { false, true }) {
+      set(MainOptions.UPDINDEX, updindex);
+      set(MainOptions.SPLITSIZE, 0);
+      set(MainOptions.BUILDTHREADS, 1);
+      execute(new CreateDB(NAME, query(DOC)));
+      final String expected = query(query);
+
+      set(MainOptions.BUILDTHREADS, 4);
+      execute(new CreateDB(NAME, query(DOC)));
+      assertEquals(expected, query(query));
+
+      // enforce partial indexes
+      set(MainOptions.SPLITSIZE, 1);
+      execute(new CreateDB(NAME, query(DOC)));
+      assertEquals(expected, query(query));
+      execute(new CreateIndex(CmdIndex.TEXT));
+      assertEquals(expected, query(query));
+    }
+  }
+
+  /** Full-text index. */
+  @Test
+  public void fullText() {
+    set(MainOptions.FTINDEX, true);
+    set(MainOptions.STEMMING, true);
+    final String query = "string-join(("
+        + "for $t in ft:tokens('" + NAME + "') return $t || $t/@count,"
+        + "ft:search('" + NAME + "', ('run', 'cat', '996')) ! db:node-pre(.),"
+        + "ft:search('" + NAME + "', 'dogs 5 running 10', map { 'mode': 'phrase' })"
+        + " ! db:node-pre(.)"
+        + "), ' ')";
+
+    set(MainOptions.BUILDTHREADS, 1);
+    execute(new CreateDB(NAME, query(FTDOC)));
+    final String expected = query(query);
+
+    set(MainOptions.BUILDTHREADS, 4);
+    execute(new CreateDB(NAME, query(FTDOC)));
+    assertEquals(expected, query(query));
+
+    // enforce partial indexes
+    set(MainOptions.SPLITSIZE, 1);
+    execute(new CreateDB(NAME, query(FTDOC)));
+    assertEquals(expected, query(query));
+    set(MainOptions.BUILDTHREADS, 1);
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+    assertEquals(expected, query(query));
+  }
+
+  /** Partial indexes are registered. */
+  @Test
+  public void splits() {
+    final String info = context.splits.toString();
+    set(MainOptions.SPLITSIZE, 1);
+    execute(new CreateDB(NAME, query(DOC)));
+    final String splits = context.splits.toString();
+    assertNotEquals(info, splits);
+    assertTrue(execute(new Info()).contains(splits));
+  }
+
+  /**
+   * Parallel lookups in value indexes.
+   * @throws Exception exception
+   */
+  @Test
+  public void lookups() throws Exception {
+    for(final boolean updindex : new boolean[] { false, true }) {
+      set(MainOptions.UPDINDEX, updindex);
+      execute(new CreateDB(NAME, query(DOC)));
+      final Data data = context.data();
+      final String expected = lookups(data);
+
+      final ExecutorService pool = Executors.newFixedThreadPool(8);
+      try {
+        final ArrayList<Future<String>> futures = new ArrayList<>();
+        for(int t = 0; t < 8; t++) {
+          futures.add(pool.submit(new Callable<String>() {
+            @Override
+            public String call() {
+              return lookups(data);
+            }
+          }));
+        }
+        for(final Future<String> future : futures) assertEquals(expected, future.get());
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Performs lookups in the text and attribute index and returns the results.
+   * @param data data reference
+   * @return string with all pre values
+   */
+  private static String lookups(final Data data) {
+    final TokenBuilder tb = new TokenBuilder();
+    for(int i = 0; i < 777; i += 7) {
+      for(int j = 0; j < 13; j++) {
+        lookup(data, new StringToken(IndexType.TEXT, token(i + " x" + j)), tb);
+      }
+      lookup(data, new StringToken(IndexType.ATTRIBUTE, token("d" + i + " e")), tb);
+    }
+    lookup(data, new StringRange(IndexType.TEXT, token("1"), true, token("2"), false), tb);
+    return tb.toString();
+  }
+
+  /**
+   * Performs a single lookup.
+   * @param data data reference
+   * @param token index token
+   * @param tb token builder for the results
+   */
+  private static void lookup(final Data data, final IndexToken token, final TokenBuilder tb) {
+    final IndexIterator iter = data.iter(token);
+    tb.addInt(iter.size()).add(':');
+    while(iter.more()) tb.addInt(iter.pre()).add(',');
+  }
+}
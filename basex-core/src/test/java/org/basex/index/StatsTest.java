@@ -0,0 +1,70 @@
+package org.basex.index;
+
+import static org.basex.util.Token.*;
+import static org.junit.Assert.*;
+
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.index.stats.*;
+import org.basex.query.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for the histograms and distinct value counts of the statistics.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class StatsTest extends AdvancedQueryTest {
+  /** Creates a test database. */
+  @Before
+  public void init() {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 1000; i++) {
+      // skewed numbers: 90% of the values are located between 1 and 9
+      final int n = i % 10 == 0 ? 100 + i * 10 : i % 9 + 1;
+      sb.append("<n>").append(n).append("</n><s>s").append(i).append("</s>");
+    }
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+  }
+
+  /** Finishes a test. */
+  @After
+  public void finish() {
+    execute(new DropDB(NAME));
+  }
+
+  /** Estimates the number of values in a range. */
+  @Test
+  public void estimate() {
+    check();
+    execute(new Close());
+    execute(new Open(NAME));
+    check();
+  }
+
+  /** Queries with estimated index costs. */
+  @Test
+  public void queries() {
+    query("count(//n[text() >= 1 and text() <= 9])", "900");
+    query("count(//n[text() >= 1 and text() <= 9][. = ../s])", "0");
+    query("count(//s[text() = string(<_>s1</_>)])", "1");
+  }
+
+  /**
+   * Checks the statistics.
+   */
+  private static void check() {
+    final Data data = context.data();
+    final Stats n = data.elemNames.stats(data.elemNames.id(token("n")));
+    final int c = n.estimate(1, 9);
+    assertTrue("Estimate: " + c, c > 700 && c <= 1000);
+    assertEquals(0, n.estimate(-10, 0));
+    assertEquals(1000, n.estimate(0, 20000));
+
+    final Stats s = data.elemNames.stats(data.elemNames.id(token("s")));
+    final long d = s.distinct();
+    assertTrue("Distinct values: " + d, d > 900 && d < 1100);
+  }
+}
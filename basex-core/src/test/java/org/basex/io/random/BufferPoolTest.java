@@ -0,0 +1,195 @@
+package org.basex.io.random;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.regex.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for class {@link BufferPool}.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class BufferPoolTest extends SandboxTest {
+  /** Number of blocks written per file (exceeds the size of the pool). */
+  private static final int BLOCKS = 1 << 9;
+  /** Number of files (and threads) used for concurrent tests. */
+  private static final int FILES = 4;
+
+  /** Reduces the size of the buffer pool. */
+  @Before
+  public void init() {
+    BufferPool.size(1);
+  }
+
+  /** Restores the size of the buffer pool. */
+  @After
+  public void finish() {
+    BufferPool.size(context.soptions.get(StaticOptions.BUFFERPOOL));
+  }
+
+  /**
+   * Writes more blocks than fit into the pool. Dirty buffers must be written back when they
+   * are evicted, and their contents must be read again when they are requested.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void evict() throws IOException {
+    final long evictions = evictions();
+    final IOFile file = file(0);
+    try(DataAccess da = new DataAccess(file)) {
+      write(da, 0);
+      assertTrue(evictions() > evictions);
+      // evicted blocks have been written back, although the file has not been flushed yet
+      check(da, 0);
+    }
+    try(DataAccess da = new DataAccess(file)) {
+      check(da, 0);
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Checks that the pool shrinks if its maximum size is reduced.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void shrink() throws IOException {
+    BufferPool.size(4);
+    final IOFile file = file(0);
+    try(DataAccess da = new DataAccess(file)) {
+      write(da, 0);
+      check(da, 0);
+    } finally {
+      file.delete();
+    }
+    BufferPool.size(1);
+    assertTrue(BufferPool.info(), BufferPool.info().startsWith(
+        Performance.format(1 << 20) + " / " + Performance.format(1 << 20)));
+  }
+
+  /**
+   * Writes and reads several files concurrently.
+   * @throws Exception exception
+   */
+  @Test
+  public void concurrent() throws Exception {
+    final Throwable[] errors = new Throwable[FILES];
+    final Thread[] threads = new Thread[FILES];
+    for(int f = 0; f < FILES; f++) {
+      final int fl = f;
+      threads[f] = new Thread() {
+        @Override
+        public void run() {
+          final IOFile file = file(fl);
+          try {
+            try(DataAccess da = new DataAccess(file)) {
+              write(da, fl);
+              check(da, fl);
+              da.flush();
+              check(da, fl);
+            }
+            try(DataAccess da = new DataAccess(file)) {
+              check(da, fl);
+            }
+          } catch(final Throwable th) {
+            errors[fl] = th;
+          } finally {
+            file.delete();
+          }
+        }
+      };
+    }
+    for(final Thread th : threads) th.start();
+    for(final Thread th : threads) th.join();
+    for(final Throwable th : errors) {
+      if(th != null) throw new AssertionError(th);
+    }
+  }
+
+  /**
+   * Accesses a file after it has been closed.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void closed() throws IOException {
+    final IOFile file = file(0);
+    try {
+      final DataAccess da = new DataAccess(file);
+      write(da, 0);
+      da.close();
+      da.read4(0);
+      fail("Closed file was accessed.");
+    } catch(final RuntimeException ex) {
+      assertEquals("Buffers of a closed file are accessed.", ex.getMessage());
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Returns a temporary file.
+   * @param f file number
+   * @return file
+   */
+  private static IOFile file(final int f) {
+    return new IOFile(Prop.TMP, NAME + f + IO.BASEXSUFFIX);
+  }
+
+  /**
+   * Writes the test blocks.
+   * @param da data access
+   * @param f file number
+   */
+  private static void write(final DataAccess da, final int f) {
+    for(int b = 0; b < BLOCKS; b++) {
+      for(int i = 0; i < IO.BLOCKSIZE; i += 4) {
+        da.write4((long) b * IO.BLOCKSIZE + i, value(f, b, i));
+      }
+    }
+  }
+
+  /**
+   * Checks the test blocks.
+   * @param da data access
+   * @param f file number
+   */
+  private static void check(final DataAccess da, final int f) {
+    assertEquals((long) BLOCKS * IO.BLOCKSIZE, da.length());
+    for(int b = BLOCKS; --b >= 0;) {
+      for(int i = 0; i < IO.BLOCKSIZE; i += 4) {
+        assertEquals(value(f, b, i), da.read4((long) b * IO.BLOCKSIZE + i));
+      }
+    }
+  }
+
+  /**
+   * Returns the value for the specified file, block and offset.
+   * @param f file number
+   * @param b block
+   * @param i offset in the block
+   * @return value
+   */
+  private static int value(final int f, final int b, final int i) {
+    return f << 28 | b << 12 | i;
+  }
+
+  /**
+   * Returns the number of evictions.
+   * @return evictions
+   */
+  private static long evictions() {
+    final Matcher m = Pattern.compile("evictions: (\\d+)").matcher(BufferPool.info());
+    assertTrue(m.find());
+    return Long.parseLong(m.group(1));
+  }
+}
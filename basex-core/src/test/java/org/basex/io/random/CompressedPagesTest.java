@@ -0,0 +1,73 @@
+package org.basex.io.random;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for class {@link CompressedPages}.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class CompressedPagesTest extends SandboxTest {
+  /** Number of pages. */
+  private static final int PAGES = 64;
+  /** Number of update rounds. */
+  private static final int ROUNDS = 8;
+
+  /**
+   * Updates the same pages repeatedly. Pages grow in each round and are moved to other slots,
+   * and released slots must be reused.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void reuse() throws IOException {
+    final IOFile file = new IOFile(Prop.TMP, NAME + IO.BASEXSUFFIX);
+    final IOFile dir = new IOFile(Prop.TMP, NAME + 'c' + IO.BASEXSUFFIX);
+    try(RandomAccessFile raf = new RandomAccessFile(file.file(), "rw")) {
+      CompressedPages pages = new CompressedPages();
+      for(int r = 1; r <= ROUNDS; r++) {
+        // reopen directory in the middle of the updates
+        if(r == ROUNDS / 2) {
+          pages.write(dir);
+          pages = new CompressedPages(dir);
+        }
+        for(int p = 0; p < PAGES; p++) {
+          pages.write(raf.getChannel(), p, page(p, r));
+        }
+      }
+      for(int p = 0; p < PAGES; p++) {
+        final byte[] data = new byte[IO.BLOCKSIZE];
+        pages.read(raf.getChannel(), p, data);
+        assertArrayEquals(page(p, ROUNDS), data);
+      }
+      // file contains at most twice the space of the largest pages
+      final long max = (long) PAGES * (IO.BLOCKSIZE + 1);
+      assertTrue(raf.length() + " > " + 2 * max, raf.length() <= 2 * max);
+    } finally {
+      file.delete();
+      dir.delete();
+    }
+  }
+
+  /**
+   * Returns the contents of a page. The number of incompressible bytes grows with each round.
+   * @param p page
+   * @param r round
+   * @return page
+   */
+  private static byte[] page(final int p, final int r) {
+    final byte[] data = new byte[IO.BLOCKSIZE];
+    final Random rnd = new Random(p * ROUNDS + r);
+    for(int d = IO.BLOCKSIZE * r / ROUNDS; --d >= 0;) data[d] = (byte) rnd.nextInt();
+    return data;
+  }
+}
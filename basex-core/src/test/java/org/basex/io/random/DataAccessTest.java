@@ -199,6 +199,106 @@ public class DataAccessTest {
     assertEquals(STR, Token.string(da.readToken()));
   }
 
+  /** Test method for {@link DataAccess#readTokenAt(long)}. */
+  @Test
+  public final void testReadTokenAt() {
+    da.cursor(RANDOM_POS);
+    assertEquals(STR, Token.string(da.readTokenAt(0L)));
+    assertEquals(STR, Token.string(da.readTokenAt(BLOCK_BOUNDARY_POS)));
+    assertEquals(RANDOM_POS, da.cursor());
+
+    // unwritten data
+    da.writeToken(RANDOM_POS, Token.token(STR_LONG));
+    assertEquals(STR_LONG, Token.string(da.readTokenAt(RANDOM_POS)));
+    da.flush();
+    assertEquals(STR_LONG, Token.string(da.readTokenAt(RANDOM_POS)));
+  }
+
+  /** Test method for {@link DataAccess#readNumAt(long)}. */
+  @Test
+  public final void testReadNumAt() {
+    long off = STR_BIN.length + BYTE_BIN.length + LONG_BIN.length + INT_BIN.length;
+    assertEquals(CINT5, da.readNumAt(off));
+    off += CINT5_BIN.length;
+    assertEquals(CINT4, da.readNumAt(off));
+    off += CINT4_BIN.length;
+    assertEquals(CINT2, da.readNumAt(off));
+    off += CINT2_BIN.length;
+    assertEquals(CINT1, da.readNumAt(off));
+    assertEquals(0L, da.cursor());
+  }
+
+  /** Test method for {@link DataAccess#readTokenAt(long)} beyond the end of the file. */
+  @Test(expected = RuntimeException.class)
+  public final void testReadTokenAtOutOfRange() {
+    da.readTokenAt(da.length() + 1);
+  }
+
+  /** Test method for {@link DataAccess#readNumAt(long)} beyond the end of the file. */
+  @Test(expected = RuntimeException.class)
+  public final void testReadNumAtOutOfRange() {
+    da.readNumAt(da.length());
+  }
+
+  /**
+   * Concurrent test for {@link DataAccess#readTokenAt(long)}.
+   * @throws InterruptedException interrupted exception
+   */
+  @Test
+  public final void testReadTokenAtConcurrent() throws InterruptedException {
+    final boolean[] failed = { false };
+    final Thread[] threads = new Thread[8];
+    for(int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for(int i = 0; i < 1000; i++) {
+            final long pos = (i & 1) == 0 ? 0L : BLOCK_BOUNDARY_POS;
+            if(!STR.equals(Token.string(da.readTokenAt(pos)))) failed[0] = true;
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for(final Thread thread : threads) thread.join();
+    assertFalse(failed[0]);
+  }
+
+  /**
+   * Concurrent test for positional reads on a memory-mapped file.
+   * @throws Exception exception
+   */
+  @Test
+  public final void testMappedConcurrent() throws Exception {
+    final boolean[] failed = { false };
+    final long off = STR_BIN.length + BYTE_BIN.length + LONG_BIN.length;
+    try(DataAccess mapped = new DataAccess(file, true)) {
+      final Thread[] threads = new Thread[8];
+      for(int t = 0; t < threads.length; t++) {
+        threads[t] = new Thread() {
+          @Override
+          public void run() {
+            for(int i = 0; i < 1000; i++) {
+              final long pos = (i & 1) == 0 ? 0L : BLOCK_BOUNDARY_POS;
+              if(!STR.equals(Token.string(mapped.readToken(pos))) ||
+                  mapped.read1(STR_BIN.length) != BYTE || mapped.read4(off) != INT ||
+                  mapped.readNum(off + INT_BIN.length) != CINT5) failed[0] = true;
+            }
+          }
+        };
+        threads[t].start();
+      }
+      for(final Thread thread : threads) thread.join();
+
+      // cursor-based reads continue behind the last positional read
+      assertEquals(LONG, mapped.read5(STR_BIN.length + BYTE_BIN.length));
+      assertEquals(INT, mapped.read4());
+      assertEquals(CINT5, mapped.readNum());
+      assertEquals(CINT4, mapped.readNum());
+    }
+    assertFalse(failed[0]);
+  }
+
   /** Test method for {@link DataAccess#readBytes(long, int)}. */
   @Test
   public final void testReadBytesLongInt() {
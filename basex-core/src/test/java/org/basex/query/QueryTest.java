@@ -4,9 +4,11 @@ import static org.junit.Assert.*;
 
 import org.basex.*;
 import org.basex.core.cmd.*;
+import org.basex.data.*;
 import org.basex.query.func.fn.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
 import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
@@ -34,7 +36,7 @@ public abstract class QueryTest extends SandboxTest {
     for(final Object[] qu : queries) {
       final boolean correct = qu.length == 3;
       final String query = qu[correct ? 2 : 1].toString();
-      final Value cmp = correct ? (Value) qu[1] : null;
+      final Value cmp = correct ? expected((Value) qu[1]) : null;
 
       try(QueryProcessor qp = new QueryProcessor(query, context)) {
         final Value val = qp.value();
@@ -66,6 +68,20 @@ public abstract class QueryTest extends SandboxTest {
     if(fail != 0) fail(fail + " Errors. [E] = expected, [F] = found:\n" + sb.toString().trim());
   }
 
+  /**
+   * Binds expected database nodes to the currently opened database, which may have been
+   * recreated after the test queries were defined.
+   * @param value expected value
+   * @return value
+   */
+  private static Value expected(final Value value) {
+    final Data data = context.data();
+    if(data == null || value.data() == null || value.data() == data) return value;
+    final int[] pres = value instanceof DBNode ? new int[] { ((DBNode) value).pre() } :
+      ((DBNodeSeq) value).pres();
+    return DBNodeSeq.get(new IntList(pres), data, false, false);
+  }
+
   /**
    * Returns property details.
    * @return details
@@ -202,4 +202,17 @@ public final class RewritingsTest extends QueryPlanTest {
   public void nonDeterministic() {
     check("count((# basex:non-deterministic #) { <x/> })", "1", "exists(//FnCount)");
   }
+
+  /**
+   * Checks that non-grouping variables are aggregated if they are only counted or summed.
+   */
+  @Test
+  public void groupByAggregate() {
+    final String flwor = "for $i in 1 to 10 let $j := $i * 2 group by $k := $i mod 2 return ";
+    check(flwor + "count($i) + sum($j)", "55\n65",
+        "//GroupBy/@aggregate = 'count($i), sum($j)'");
+    check(flwor + "count($i) + sum($i)", "30\n35", "empty(//GroupBy/@aggregate)");
+    check(flwor + "($i, count($j))", "1\n3\n5\n7\n9\n5\n2\n4\n6\n8\n10\n5",
+        "//GroupBy/@aggregate = 'count($j)'");
+  }
 }
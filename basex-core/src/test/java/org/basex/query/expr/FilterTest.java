@@ -1,5 +1,7 @@
 package org.basex.query.expr;
 
+import static org.basex.query.QueryError.*;
+
 import org.basex.query.*;
 import org.junit.*;
 
@@ -292,4 +294,38 @@ public final class FilterTest extends AdvancedQueryTest {
     query("(<a/>,<b/>,<c/>)[position() > 2]", "<c/>");
     query("(<a/>,<b/>,<c/>)[position() = 2 to 3]", "<b/>\n<c/>");
   }
+
+  /**
+   * Filters and arithmetic operations on natively stored items.
+   */
+  @Test public void nativeItems() {
+    query("(1, 3, 5, 7)[. > 3]", "5\n7");
+    query("(1, 3, 5, 7)[. = 3]", "3");
+    query("(1, 3, 5, 7)[. = 3.0e0]", "3");
+    query("(1, 3, 5, 7)[. != 3]", "1\n5\n7");
+    query("(1, 3, 5, 7)[. le 3]", "1\n3");
+    query("(1, 3, 5, 7)[. > 7]", "");
+    query("(1e0, 2e0, xs:double('NaN'))[. != 2]", "1\nNaN");
+    query("(1e0, 2e0, xs:double('NaN'))[. = xs:double('NaN')]", "");
+    query("('a', 'b', 'c')[. >= 'b']", "b\nc");
+    query("('a', 'b', 'c')[. = 'b']", "b");
+
+    query("(1, 3, 5) ! (. + 1)", "2\n4\n6");
+    query("(1, 3, 5) ! (10 - .)", "9\n7\n5");
+    query("(1, 3, 5) ! (. * 2.5)", "2.5\n7.5\n12.5");
+    query("(1, 2, 4) ! (1 div .)", "1\n0.5\n0.25");
+    query("(1e0, 2e0) ! (. div 2)", "0.5\n1");
+    query("(1, 3, 5, 7)[. > 3] ! (. - 1)", "4\n6");
+    error("(9223372036854775807, 1) ! (. + 1)", RANGE_X);
+    error("(-9223372036854775807, 1) ! (. * 9223372036854775807)", RANGE_X);
+    query("(1, 3, 5) ! (. + 1) ! (. * position())", "2\n8\n18");
+    error("(9223372036854775807, 1) ! (. + 1) ! (. * position())", RANGE_X);
+
+    // maps are evaluated lazily
+    query("head((1 to 1000000000) ! (. + 1))", "2");
+    query("((1 to 1000000000) ! (. + 1))[1]", "2");
+    query("head(for $i in 1 to 1000000000 return $i * 2)", "2");
+    query("head((1 to 10) ! (. * 9223372036854775807))", "9223372036854775807");
+    query("((1 to 10) ! (. * 9223372036854775807))[1]", "9223372036854775807");
+  }
 }
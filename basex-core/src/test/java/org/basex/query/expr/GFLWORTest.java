@@ -1,8 +1,12 @@
 package org.basex.query.expr;
 
+import static org.basex.query.QueryError.*;
 import static org.junit.Assert.*;
 
+import org.basex.core.*;
 import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.seq.*;
 import org.junit.*;
 
 /**
@@ -30,4 +34,154 @@ public final class GFLWORTest extends AdvancedQueryTest {
   public void posOptimizationTest() {
     assertEquals("<a/>", query("for $a at $p in (<a/>,<b/>)/. where $p < 2 return $a"));
   }
+
+  /** Grouping with aggregated non-grouping variables. */
+  @Test
+  public void groupByAggrTest() {
+    final String flwor = "for $i in 1 to 100 group by $k := $i mod 3 return ";
+    assertEquals("34\n33\n33", query(flwor + "count($i)"));
+    assertEquals("1717\n1650\n1683", query(flwor + "sum($i)"));
+    assertEquals("1:34:1717\n2:33:1650\n0:33:1683",
+        query(flwor + "$k || ':' || count($i) || ':' || sum($i)"));
+    assertEquals("34\n33\n33", query(flwor + "let $c := count($i) where $c > 0 return $c"));
+    assertEquals("3", query("count(" + flwor + "function() { count($i) })"));
+
+    assertEquals("6", query("for $i in 1 to 3 let $s := 1 to $i " +
+        "group by $k := 1 return count($s)"));
+    assertEquals("1\n1", query("for $i in 1 to 4 let $e := if($i > 2) then $i else () " +
+        "group by $k := $i mod 2 return count($e)"));
+    assertEquals("0\nx", query("for $i in 1 to 2 let $e := () " +
+        "group by $k := $i mod 2 return if($k = 1) then sum($e) else sum($e, 'x')"));
+    assertEquals("3.5\n3", query("for $x in (<a>1</a>, <a>2.5</a>, <b>3</b>) " +
+        "group by $n := name($x) return sum($x)"));
+    assertEquals("PT3H", query("for $d in (xs:dayTimeDuration('PT1H'), " +
+        "xs:dayTimeDuration('PT2H')) group by $k := 1 return sum($d)"));
+    error("for $i in (1, 'a') group by $k := 1 return sum($i)", QueryError.SUMNUM_X_X);
+    // errors are only raised if the sum is requested
+    assertEquals("3\n0", query("for $x in (1, 'a', 2) let $y := $x " +
+        "group by $k := $x instance of xs:integer return if($k) then sum($y) else 0"));
+  }
+
+  /** Sorting with and without limits. */
+  @Test
+  public void orderByTest() {
+    final String[] flwors = {
+      "for $i in 1 to 100 order by $i mod 7, $i descending return $i",
+      "for $i in 1 to 100 order by string($i) return $i",
+      "for $i in 1 to 100 order by $i mod 3 return $i",
+      "for $i in 1 to 100 let $k := if($i mod 5 = 0) then () else $i div 3 " +
+        "order by $k empty greatest return $i",
+      "for $i in 1 to 100 order by ($i mod 4 * 1.5e0) descending empty least return $i",
+      "for $i in 1 to 100 order by $i mod 10 descending count $c return $c * 1000 + $i",
+      "for $i in 1 to 100 order by xs:untypedAtomic($i mod 9) descending, -$i return $i",
+      "for $i in 1 to 100 order by if($i mod 2 = 0) then $i else $i div 2 return $i",
+      "for $i in 1 to 100 order by if($i mod 3 = 0) then number('NaN') else -$i return $i",
+    };
+    for(final String flwor : flwors) {
+      final String[] results = query(flwor).split("\n");
+      assertEquals(100, results.length);
+      for(final int k : new int[] { 1, 5, 50, 200 }) {
+        final StringBuilder sb = new StringBuilder();
+        for(int r = 0; r < Math.min(k, 100); r++) sb.append(r == 0 ? "" : "\n").append(results[r]);
+        assertEquals(sb.toString(), query("(" + flwor + ")[position() <= " + k + ']'));
+        assertEquals(results[Math.min(k, 100) - 1],
+            query("(" + flwor + ")[" + Math.min(k, 100) + ']'));
+      }
+      assertEquals(results[0], query("head(" + flwor + ')'));
+      assertEquals(results[3] + '\n' + results[4], query("subsequence(" + flwor + ", 4, 2)"));
+    }
+    error("(for $i in (1, 'a', 2) order by $i return $i)[1]", QueryError.INVCAST_X_X_X);
+    query("subsequence(for $i in 1 to 5 order by $i return $i, 2, xs:double('INF'))",
+        "2\n3\n4\n5");
+    query("subsequence(for $i in 1 to 5 order by $i return $i, 4, 9223372036854775807)",
+        "4\n5");
+    query("for $i in (9007199254740993, 9007199254740992, 1e0) order by $i return string($i)",
+        "1\n9007199254740992\n9007199254740993");
+  }
+
+  /** Parallel evaluation of return expressions. */
+  @Test
+  public void parallelTest() {
+    final String[] flwors = {
+      "for $i in 1 to 1000 return $i * 2",
+      "for $i in 1 to 300 let $s := string($i) where ends-with($s, '1') return <a>{ $s }</a>",
+      "for $i in 1 to 200 for $j in 1 to 3 return ($i, $j, sum(for $k in 1 to $j return $k))",
+      "for $i in 1 to 100 group by $k := $i mod 7 order by $k return $k * count($i)",
+      "for $i in 1 to 50 return (position(), last(), .)",
+    };
+    for(final String flwor : flwors) {
+      final String query = "(1, 2) ! (" + flwor + ')';
+      final String result = query(query);
+      set(MainOptions.PARALLELFLWOR, true);
+      try {
+        assertEquals(result, query(query));
+      } finally {
+        set(MainOptions.PARALLELFLWOR, false);
+      }
+      assertEquals(result, query("(# db:parallelflwor true #) { " + query + " }"));
+    }
+
+    set(MainOptions.PARALLELFLWOR, true);
+    try {
+      assertEquals("true", query("let $d := current-dateTime() " +
+          "return every $b in (for $i in 1 to 100 return $d = current-dateTime()) satisfies $b"));
+      assertEquals("100", query("count(distinct-values(for $i in 1 to 100 return random:uuid()))"));
+      error("for $i in 1 to 1000 return if($i = 700) then error() else $i", QueryError.FUNERR1);
+      assertEquals("a601", query("try { for $i in 1 to 1000 return " +
+          "if($i > 600) then error(xs:QName('a' || $i)) else $i } catch * { $err:code }"));
+      // errors are raised when the result of the failing tuple is requested
+      assertEquals("1", query("head(for $i in (1, 0) return 1 div $i)"));
+      assertEquals("1", query("head(for $i in 1 to 1000 return " +
+          "if($i = 700) then error() else $i)"));
+      // constructed nodes are returned in document order
+      for(int r = 0; r < 5; r++) {
+        assertEquals("true", query("let $n := for $i in 1 to 5000 return text { $i } " +
+            "return every $p in 2 to count($n) satisfies $n[$p - 1] << $n[$p]"));
+      }
+      // static variables are evaluated before the workers are started
+      for(final String lazy : new String[] { "", "%basex:lazy " }) {
+        assertEquals("500500500", query("declare " + lazy + "variable $g := " +
+            "count((1 to 1000000)[. mod 2 = 0]); declare function local:f() { $g }; " +
+            "sum(for $i in 1 to 1000 return ($g + $i) * local:f() div $g)"));
+      }
+    } finally {
+      set(MainOptions.PARALLELFLWOR, false);
+    }
+  }
+
+  /**
+   * Arithmetic operations on natively stored items in FLWOR expressions.
+   * @throws QueryException query exception
+   */
+  @Test
+  public void nativeFLWOR() throws QueryException {
+    query("for $i in 1 to 3 return $i * 2", "2\n4\n6");
+    query("for $i in (1, 3, 5) return $i * 2", "2\n6\n10");
+    query("for $i in (1, 3, 5) return 1 - $i", "0\n-2\n-4");
+    query("for $i in (1e0, 2e0) return $i div 2", "0.5\n1");
+    query("for $i in (1, 2, 4) return 1 div $i", "1\n0.5\n0.25");
+    query("for $i in ('a', 'b') return 1 + string-length($i)", "2\n2");
+    query("for $i in (1, 'a') return try { $i + 1 } catch * { 0 }", "2\n0");
+    query("count(for $i in 1 to 1000000 return $i + 1)", "1000000");
+    query("sum(for $i in 1 to 1000 return $i - 1)", "499500");
+    error("for $i in (9223372036854775807, 1) return $i + 1", RANGE_X);
+    error("for $i in (1, 'a') return $i + 1", NONUMBER_X_X);
+
+    // results are natively stored
+    assertTrue(value("for $i in 1 to 3 return $i * 2") instanceof IntSeq);
+    assertTrue(value("for $i in (1e0, 2e0) return $i * 2") instanceof DblSeq);
+  }
+
+  /**
+   * Compiles a query and returns the materialized value of its main expression.
+   * @param query query
+   * @return value
+   * @throws QueryException query exception
+   */
+  private static Value value(final String query) throws QueryException {
+    try(QueryProcessor qp = new QueryProcessor(query, context)) {
+      qp.compile();
+      return qp.qc.value(qp.qc.root.expr);
+    }
+  }
 }
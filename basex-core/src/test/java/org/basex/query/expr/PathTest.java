@@ -248,4 +248,33 @@ public final class PathTest extends AdvancedQueryTest {
     execute(new Add("b.xml", "<b/>"));
     query(".[/a]", "<a/>");
   }
+
+  /**
+   * Descendant steps on large databases, which are evaluated by scanning the table.
+   */
+  @Test public void descendantScan() {
+    final StringBuilder sb = new StringBuilder("<x xmlns:p='p'>");
+    for(int i = 1; i <= 10000; i++) {
+      sb.append("<a id='").append(i).append("'><b>").append(i).append("</b>");
+      sb.append(i % 2 == 0 ? "<p:b/>" : "<!--c-->").append("</a>");
+    }
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+
+    query("count(//b)", 10000);
+    query("count(//*:b)", 15000);
+    query("count(//Q{p}b)", 5000);
+    query("count(//a)", 10000);
+    query("count(/descendant-or-self::x)", 1);
+    query("count(//text())", 10000);
+    query("count(//comment())", 5000);
+    query("count(//processing-instruction())", 0);
+    query("sum(//b[. > 9990])", 99955);
+    query("//a[@id = 5000]/b/text()", 5000);
+
+    // scan table with irregular page layout
+    query("delete node //a[@id < 2000]");
+    query("for $i in 1 to 100 return insert node <b>1</b> as first into //a[@id = 2000 + $i * 50]");
+    query("count(//b)", 8101);
+    query("sum(//b ! xs:integer(.))", 48006100);
+  }
 }
@@ -66,6 +66,37 @@ public final class FTIndexQueryTest extends FTData {
     assertQuery("Mix", "//mix[text() contains text 'A'][1]");
   }
 
+  /**
+   * Tests fuzzy and wildcard queries.
+   */
+  @Test
+  public void fuzzyWildcards() {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(final String word : ("house houses mouse hose horse hause haus häuser housing hous " +
+        "hoses housework houseboat müller miller mueller").split(" ")) {
+      sb.append("<w>").append(word).append("</w>");
+    }
+    init(sb.append("</x>").toString());
+
+    final String[] fuzzy = { "house", "houses", "hausen", "housework", "müller", "mouse",
+      "hxxse", "hos" };
+    try {
+      for(int err = 0; err <= 2; err++) {
+        set(MainOptions.LSERROR, err);
+        for(final String term : fuzzy) {
+          assertQuery("Fuzzy", "//w[text() contains text '" + term + "' using fuzzy]");
+        }
+      }
+    } finally {
+      set(MainOptions.LSERROR, 0);
+    }
+    final String[] wildcards = { "hous.*", "ho.se", "h.+se", "hou.{2,4}", ".*ouse", "m.ller",
+      "house.?", "housew.rk", "hou.e.*", "x.*" };
+    for(final String term : wildcards) {
+      assertQuery("Wildcards", "//w[text() contains text '" + term + "' using wildcards]");
+    }
+  }
+
   /**
    * Asserts that a query returns the same result with and without ft index.
    * @param name name of query
@@ -162,6 +162,8 @@ public final class JobsModuleTest extends AdvancedQueryTest {
       query(list + "/@user/string()", UserText.ADMIN);
       query(list + "/@state/string() = ('running', 'queued')", true);
       query(list + "/@duration/string() castable as xs:dayTimeDuration", "true");
+      query(list + "/@workers/string() castable as xs:integer", "true");
+      query(list + "/@tasks/string() castable as xs:integer", "true");
     } finally {
       query(_JOBS_STOP.args(id));
     }
@@ -85,11 +85,18 @@ public final class XQueryModuleTest extends AdvancedQueryTest {
     query(_XQUERY_FORK_JOIN.args("(function() { (1 to 10000000)[.=1] }, true#0)"), "1\ntrue");
     query(_XQUERY_FORK_JOIN.args("(true#0, function() { (1 to 10000000)[.=1] })"), "true\n1");
     query(_XQUERY_FORK_JOIN.args("()"), "");
+    query("deep-equal(" + _XQUERY_FORK_JOIN.args(" (1 to 100) ! (let $i := . return " +
+        "function() { $i })") + ", 1 to 100)", "true");
+    query("count(" + _XQUERY_FORK_JOIN.args(" (1 to 4) ! function() { " +
+        _XQUERY_FORK_JOIN.args(" (1 to 3) ! true#0") + " }") + ')', "12");
 
     // errors
     error(_XQUERY_FORK_JOIN.args(" count#1"), ZEROFUNCS_X_X);
     error(_XQUERY_FORK_JOIN.args(" 123"), ZEROFUNCS_X_X);
     error(_XQUERY_FORK_JOIN.args(" error#0"), FUNERR1);
+    query("try { " + _XQUERY_FORK_JOIN.args(" (1 to 10) ! (let $i := . return function() { " +
+        "if($i > 5) then error(xs:QName('e' || $i)) else $i })") + " } catch * { $err:code }",
+        "e6");
   }
 
   /** Test method. */
@@ -90,6 +90,23 @@ public final class FnTest extends AdvancedQueryTest {
     query("sum((), ())", "");
     query("sum(1, 'x')", 1);
     error("sum((), (1,2))", SEQFOUND_X);
+
+    query("sum((1, 3, 5))", "9");
+    query("sum((1.5e0, 2e0))", "3.5");
+    query("avg((1, 2, 4))", "2.333333333333333333");
+    query("avg((1e0, 2e0))", "1.5");
+    error("sum((9223372036854775807, 1))", RANGE_X);
+  }
+
+  /** Tests for the {@code min} and {@code max} functions. */
+  @Test
+  public void minMax() {
+    query("min((4, 2, 9))", "2");
+    query("max((4, 2, 9))", "9");
+    query("max((xs:byte(1), xs:byte(3))) instance of xs:byte", "true");
+    query("min((3e0, -1e0))", "-1");
+    query("max((1e0, xs:double('NaN'), 3e0))", "NaN");
+    query("min((1e0, xs:double('NaN'), 3e0))", "NaN");
   }
 
   /** Tests for the {@code static-base-uri} function. */
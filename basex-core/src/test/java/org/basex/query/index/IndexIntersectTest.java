@@ -0,0 +1,103 @@
+package org.basex.query.index;
+
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.*;
+import org.basex.query.ast.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.index.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests if the results of several index accesses are intersected and merged.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class IndexIntersectTest extends QueryPlanTest {
+  /** Query plan check: index accesses intersected on the level of pre values. */
+  private static final String SINGLE = "exists(//" + Util.className(ValueAccess.class) + '/' +
+      Util.className(ValueAccess.class) + ") and not(//" + Util.className(InterSect.class) + ')';
+  /** Query plan check: intersection of nodes. */
+  private static final String NODES = "exists(//" + Util.className(InterSect.class) + ')';
+
+  /**
+   * Initializes the tests.
+   */
+  @BeforeClass
+  public static void start() {
+    set(MainOptions.TOKENINDEX, true);
+    final TokenBuilder tb = new TokenBuilder("<xml>");
+    for(int i = 0; i < 3000; i++) {
+      tb.add("<item type='t").addInt(i % 3).add("' id='i").addInt(i % 10).add("' class='c");
+      tb.addInt(i % 2).add(" d").addInt(i % 5).add("'>").addInt(i % 7).add("</item>");
+    }
+    tb.add("<a><b>x</b><b>y</b></a><c>x<d/>y</c>");
+    tb.add("</xml>");
+    execute(new CreateDB(NAME, tb.toString()));
+  }
+
+  /**
+   * Finishes the tests.
+   */
+  @AfterClass
+  public static void finish() {
+    set(MainOptions.TOKENINDEX, false);
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Attributes of the same element are intersected as nodes.
+   */
+  @Test
+  public void attributes() {
+    check("count(//item[@type = 't1'][@id = 'i7'])", "100", NODES);
+    check("count(//item[@id = 'i7'][@type = 't1'][. = '4'])", "14", NODES);
+    check("count(//item[@id = 'i7' and @type = 't1'])", "100", NODES);
+    check("count(//item[@id = ('i1', 'i2')][@type = 't0'])", "200", NODES);
+  }
+
+  /**
+   * Index accesses on the same attribute are intersected on the level of pre values.
+   */
+  @Test
+  public void tokens() {
+    check("count(//item[contains-token(@class, 'c1')][contains-token(@class, 'd3')])", "300",
+        SINGLE);
+    check("count(//item[contains-token(@class, 'c1') and contains-token(@class, 'd3')])", "300",
+        SINGLE);
+    check("count(//@class[contains-token(., 'c0')][contains-token(., 'd1')])", "300",
+        SINGLE);
+    check("count(//item[contains-token(@class, 'c1')][contains-token(@class, 'd3')]"
+        + "[@id = 'i3'])", "300");
+  }
+
+  /**
+   * Results of different nodes must not be merged.
+   */
+  @Test
+  public void nodes() {
+    check("//a[b = 'x'][b = 'y']/name()", "a", NODES);
+    check("//c[text() = 'x'][text() = 'y']/name()", "c", NODES);
+    check("//b[text() = 'x'][text() = 'y']", "");
+  }
+
+  /**
+   * Checks the string representation of intersected index accesses.
+   * @throws Exception exception
+   */
+  @Test
+  public void string() throws Exception {
+    final String query = "//item[contains-token(@class, 'c1')][contains-token(@class, 'd3')]";
+    try(final QueryProcessor qp = new QueryProcessor(query, context)) {
+      qp.compile();
+      // following steps refer to the intersection
+      final String string = qp.qc.root.toString();
+      assertTrue(string, string.matches("^\\(db:token\\(.* intersect db:token\\(.*\\)\\)/.*"));
+    }
+  }
+}
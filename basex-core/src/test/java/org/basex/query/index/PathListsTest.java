@@ -0,0 +1,85 @@
+package org.basex.query.index;
+
+import static org.basex.data.DataText.*;
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.ast.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the evaluation of paths with the node lists of the path index.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class PathListsTest extends QueryPlanTest {
+  /** Query plan check: node lists are used. */
+  private static final String LISTS = "exists(//ListPath)";
+  /** Query plan check: node lists are not used. */
+  private static final String NOLISTS = "empty(//ListPath)";
+
+  /** Initializes a test. */
+  @Before
+  public void init() {
+    set(MainOptions.PATHLISTS, true);
+    execute(new CreateDB(NAME));
+    execute(new Add("a.xml", "<a><b id='1'><c>x</c></b><d><c>y</c></d></a>"));
+    execute(new Add("b.xml", "<a><b id='2'><c>z</c><b><c>w</c></b></b></a>"));
+    execute(new Optimize());
+  }
+
+  /** Finishes a test. */
+  @After
+  public void finish() {
+    execute(new DropDB(NAME));
+    set(MainOptions.PATHLISTS, false);
+  }
+
+  /** Evaluates paths with node lists. */
+  @Test
+  public void paths() {
+    check("//c ! string()", "x\ny\nz\nw", LISTS);
+    check("/a/b/c ! string()", "x\nz", LISTS);
+    check("//b/c ! string()", "x\nz\nw", LISTS);
+    check("//b//text() ! string()", "x\nz\nw", LISTS);
+    check("//@id ! string()", "1\n2", LISTS);
+    check("count(/a/*)", "3");
+    check("(//c)[3] ! string()", "z", LISTS);
+    check("//d/b", "");
+
+    // predicates and other axes
+    check("//b[c = 'x'] ! string()", "x", NOLISTS);
+    check("//c/.. ! name()", "b\nd\nb\nb", NOLISTS);
+  }
+
+  /** Checks that lists are only used if they are up-to-date. */
+  @Test
+  public void update() {
+    assertTrue(context.data().meta.dbfile(DATAPTL).exists());
+    execute(new Close());
+    execute(new Open(NAME));
+    check("//c ! string()", "x\ny\nz\nw", LISTS);
+
+    query("insert node <c>v</c> into /a/d");
+    check("//c ! string()", "x\ny\nv\nz\nw", NOLISTS);
+    assertFalse(context.data().meta.dbfile(DATAPTL).exists());
+
+    execute(new Optimize());
+    check("//c ! string()", "x\ny\nv\nz\nw", LISTS);
+
+    // disable lists
+    set(MainOptions.PATHLISTS, false);
+    execute(new Optimize());
+    check("//c ! string()", "x\ny\nv\nz\nw", NOLISTS);
+  }
+
+  /** Evaluates paths on single documents. */
+  @Test
+  public void docs() {
+    check("doc('" + NAME + "/a.xml')//c ! string()", "x\ny", NOLISTS);
+    check("for $d in db:open('" + NAME + "') return $d//c ! string()", "x\ny\nz\nw");
+  }
+}
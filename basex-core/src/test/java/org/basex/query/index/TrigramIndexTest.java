@@ -0,0 +1,116 @@
+package org.basex.query.index;
+
+import static org.basex.data.DataText.*;
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.index.*;
+import org.basex.query.ast.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the evaluation of substring searches with the trigram index.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class TrigramIndexTest extends QueryPlanTest {
+  /** Query plan check: trigram index is used. */
+  private static final String INDEX = "exists(//TrigramAccess)";
+  /** Query plan check: trigram index is not used. */
+  private static final String NOINDEX = "empty(//TrigramAccess)";
+
+  /** Initializes a test. */
+  @Before
+  public void init() {
+    set(MainOptions.TRIGRAMINDEX, true);
+    execute(new CreateDB(NAME, "<x>"
+        + "<a t='abcdef'>xyz abc</a>"
+        + "<a t='xabcx'>abcabc</a>"
+        + "<a t='bcdabc'>cabxabx</a>"
+        + "<a t='ab'>äöü</a>"
+        + "<b>abcd</b>"
+        + "</x>"));
+  }
+
+  /** Finishes a test. */
+  @After
+  public void finish() {
+    execute(new DropDB(NAME));
+    set(MainOptions.TRIGRAMINDEX, false);
+  }
+
+  /** Text nodes. */
+  @Test
+  public void text() {
+    check("//a[contains(text(), 'abc')] ! string()", "xyz abc\nabcabc", INDEX);
+    check("//a[contains(., 'abx')] ! string()", "cabxabx", INDEX);
+    check("//text()[contains(., 'abc')] ! string()", "xyz abc\nabcabc\nabcd", INDEX);
+    check("//a[starts-with(., 'abc')] ! string()", "abcabc", INDEX);
+    check("//a[ends-with(., 'abc')] ! string()", "xyz abc\nabcabc", INDEX);
+    check("//a[contains(., 'öü')] ! string()", "äöü", INDEX);
+    check("//*[contains(text(), 'abcd')] ! name()", "b", INDEX);
+    check("//a[contains(., 'cba')]", "", NOINDEX);
+    check("//a[contains(., 'abcx')]", "", INDEX);
+  }
+
+  /** Attribute values. */
+  @Test
+  public void attribute() {
+    check("//a[contains(@t, 'abc')] ! string(@t)", "abcdef\nxabcx\nbcdabc", INDEX);
+    check("//@t[starts-with(., 'abc')] ! string()", "abcdef", INDEX);
+    check("//a[ends-with(@t, 'abc')] ! string(@t)", "bcdabc", INDEX);
+    check("//a[contains(@t, 'ab')] ! string(@t)", "abcdef\nxabcx\nbcdabc\nab", NOINDEX);
+  }
+
+  /** Regular expressions. */
+  @Test
+  public void matches() {
+    check("//a[matches(., 'abc')] ! string()", "xyz abc\nabcabc", INDEX);
+    check("//a[matches(., '^abc')] ! string()", "abcabc", INDEX);
+    check("//a[matches(., 'abc$')] ! string()", "xyz abc\nabcabc", INDEX);
+    check("//a[matches(., 'ab.')] ! string()", "xyz abc\nabcabc\ncabxabx", NOINDEX);
+    check("//a[matches(., '^abcabc$')] ! string()", "abcabc", NOINDEX);
+    check("//a[matches(., 'ABC', 'i')] ! string()", "xyz abc\nabcabc", NOINDEX);
+  }
+
+  /** Partial indexes. */
+  @Test
+  public void splits() {
+    final String doc = "<x>{ (1 to 20000) ! <a t='{ . * 7 }'>abc{ . }xyz</a> }</x>";
+    final String query = "count(//a[contains(., '123')]), count(//a[contains(@t, '777')]), "
+        + "sum(//a[contains(., 'c19')] ! number(@t)), count(//a[contains(., 'xyz')])";
+    execute(new CreateDB(NAME, query(doc)));
+    final String expected = query(query);
+    try {
+      set(MainOptions.SPLITSIZE, 1);
+      final String info = context.splits.toString();
+      execute(new CreateDB(NAME, query(doc)));
+      assertNotEquals(info, context.splits.toString());
+      check(query, expected, INDEX);
+      assertFalse(context.data().meta.dbfile(DATATRI + "0t").exists());
+    } finally {
+      set(MainOptions.SPLITSIZE, 0);
+    }
+  }
+
+  /** Checks that the index is only used if it is up-to-date. */
+  @Test
+  public void update() {
+    assertTrue(context.data().meta.dbfile(DATATRI + 'l').exists());
+    execute(new Close());
+    execute(new Open(NAME));
+    check("//a[contains(., 'abc')] ! string()", "xyz abc\nabcabc", INDEX);
+
+    query("insert node <a>zabcz</a> into /x");
+    check("//a[contains(., 'abc')] ! string()", "xyz abc\nabcabc\nzabcz", NOINDEX);
+
+    execute(new Optimize());
+    check("//a[contains(., 'abc')] ! string()", "xyz abc\nabcabc\nzabcz", INDEX);
+
+    execute(new DropIndex(IndexType.TRIGRAM));
+    check("//a[contains(., 'abc')] ! string()", "xyz abc\nabcabc\nzabcz", NOINDEX);
+  }
+}
@@ -0,0 +1,110 @@
+package org.basex.query.index;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.CmdIndex;
+import org.basex.query.ast.*;
+import org.basex.query.expr.index.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests if numeric and date range queries are correctly evaluated with(out) the
+ * typed range index.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class TypedRangeTest extends QueryPlanTest {
+  /** Query plan check: index access. */
+  private static final String INDEX = "exists(//" + Util.className(RangeAccess.class) + ')';
+  /** Query plan check: no results, comparison has been removed. */
+  private static final String NONE = "not(//CmpR | //CmpG)";
+
+  /**
+   * Initializes the tests.
+   */
+  @BeforeClass
+  public static void start() {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add("<xml>");
+    for(int i = -500; i < 500; i++) {
+      tb.add("<n>").addInt(i).add("</n>");
+      tb.add("<d>").addExt(i / 4.0).add("</d>");
+      tb.add("<x v='").addInt(i * 3).add("'/>");
+    }
+    for(int m = 1; m <= 12; m++) {
+      for(int d = 1; d <= 28; d++) {
+        tb.add("<date>").addExt(String.format("2017-%02d-%02d", m, d)).add("</date>");
+      }
+    }
+    tb.add("</xml>");
+    execute(new CreateDB(NAME, tb.toString()));
+  }
+
+  /**
+   * Finishes the tests.
+   */
+  @AfterClass
+  public static void finish() {
+    set(MainOptions.RANGEINDEX, false);
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Numeric ranges with exclusive, negative and infinite limits.
+   */
+  @Test
+  public void numbers() {
+    test("count(//n[text() > 10 and text() < 20])", "9");
+    test("count(//n[text() >= -10 and text() < 10])", "20");
+    test("count(//n[text() < -490])", "10");
+    test("count(//n[text() > 490])", "9");
+    test("count(//n[text() > 1000])", "0", NONE);
+    test("count(//d[text() >= 1.5 and text() <= 2.5])", "5");
+    test("count(//d[text() > -1.5 and text() < 1.5])", "11");
+    test("count(//x[@v > -30 and @v <= 30])", "20");
+  }
+
+  /**
+   * Date ranges.
+   */
+  @Test
+  public void dates() {
+    test("count(//date[text() = xs:date('2017-03-04')])", "1");
+    test("count(//date[text() >= xs:date('2017-12-01')])", "28");
+    test("count(//date[text() > xs:date('2017-12-01')])", "27");
+    test("count(//date[text() < xs:date('2017-02-01')])", "28");
+    test("count(//date[text() <= xs:date('2017-02-01')])", "29");
+    test("count(//date[text() > xs:date('2017-01-28') and text() < xs:date('2017-03-01')])",
+        "28");
+    test("count(//date[text() = xs:date('2016-03-04')])", "0", NONE);
+  }
+
+  /**
+   * Tests a query with and without the typed range index.
+   * @param query query
+   * @param result expected result
+   */
+  private static void test(final String query, final String result) {
+    test(query, result, INDEX);
+  }
+
+  /**
+   * Tests a query with and without the typed range index.
+   * @param query query
+   * @param result expected result
+   * @param plan query plan check with index
+   */
+  private static void test(final String query, final String result, final String plan) {
+    set(MainOptions.RANGEINDEX, true);
+    execute(new CreateIndex(CmdIndex.TEXT));
+    execute(new CreateIndex(CmdIndex.ATTRIBUTE));
+    check(query, result, plan);
+    set(MainOptions.RANGEINDEX, false);
+    execute(new CreateIndex(CmdIndex.TEXT));
+    execute(new CreateIndex(CmdIndex.ATTRIBUTE));
+    check(query, result);
+  }
+}
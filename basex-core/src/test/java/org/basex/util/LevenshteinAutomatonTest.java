@@ -0,0 +1,96 @@
+package org.basex.util;
+
+import static org.basex.util.Token.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.basex.util.hash.*;
+import org.basex.util.similarity.*;
+import org.junit.*;
+
+/**
+ * Tests for the {@link LevenshteinAutomaton} implementation.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class LevenshteinAutomatonTest {
+  /** Characters of the generated tokens. */
+  private static final String CHARS = "abcdeAä";
+
+  /** Compares the results of the automaton with the Levenshtein implementation. */
+  @Test
+  public void similar() {
+    final Random rnd = new Random(1);
+    final byte[][] tokens = tokens(rnd, 5000);
+    final Levenshtein ls = new Levenshtein();
+    for(int i = 0; i < 200; i++) {
+      final byte[] search = random(rnd, 1 + rnd.nextInt(8));
+      for(int err = 0; err <= 2; err++) {
+        final LevenshteinAutomaton la = LevenshteinAutomaton.get(search, err);
+        if(la == null) continue;
+
+        byte[] dead = null;
+        for(final byte[] token : tokens) {
+          final boolean similar = ls.similar(token, search, err);
+          // tokens with a non-matching prefix must not be similar
+          if(dead != null && startsWith(token, dead)) {
+            assertFalse(string(token) + '/' + string(search), similar);
+            continue;
+          }
+          final int m = la.match(token);
+          assertEquals(string(token) + '/' + string(search), similar, m == 0);
+          dead = m > 0 ? Arrays.copyOf(token, m) : null;
+        }
+      }
+    }
+  }
+
+  /** Tokens that are shorter than the search token, or empty tokens. */
+  @Test
+  public void special() {
+    final LevenshteinAutomaton la = LevenshteinAutomaton.get(token("house"), 1);
+    assertNotEquals(0, la.match(EMPTY));
+    assertEquals(0, la.match(token("hous")));
+    assertEquals(0, la.match(token("house")));
+    assertEquals(0, la.match(token("houses")));
+    assertNotEquals(0, la.match(token("housing")));
+    assertEquals(0, la.match(token("HOUSE")));
+    assertNull(LevenshteinAutomaton.get(token("abc"), 0));
+    assertNull(LevenshteinAutomaton.get(EMPTY, 1));
+  }
+
+  /**
+   * Returns sorted random tokens.
+   * @param rnd random generator
+   * @param size number of tokens
+   * @return tokens
+   */
+  private static byte[][] tokens(final Random rnd, final int size) {
+    final TokenSet set = new TokenSet();
+    for(int i = 0; i < size; i++) set.add(random(rnd, 1 + rnd.nextInt(9)));
+    final byte[][] tokens = new byte[set.size()][];
+    int t = 0;
+    for(final byte[] token : set) tokens[t++] = token;
+    Arrays.sort(tokens, new Comparator<byte[]>() {
+      @Override
+      public int compare(final byte[] token1, final byte[] token2) {
+        return diff(token1, token2);
+      }
+    });
+    return tokens;
+  }
+
+  /**
+   * Returns a random token.
+   * @param rnd random generator
+   * @param length length
+   * @return token
+   */
+  private static byte[] random(final Random rnd, final int length) {
+    final TokenBuilder tb = new TokenBuilder();
+    for(int l = 0; l < length; l++) tb.add(CHARS.charAt(rnd.nextInt(CHARS.length())));
+    return tb.finish();
+  }
+}
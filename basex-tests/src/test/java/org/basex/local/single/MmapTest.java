@@ -0,0 +1,98 @@
+package org.basex.local.single;
+
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class compares the performance of memory-mapped and buffered database access.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class MmapTest extends SandboxTest {
+  /** Number of elements to be created. */
+  private static final int ELEMENTS = 500000;
+  /** Number of random accesses per query. */
+  private static final int ACCESSES = 200000;
+  /** Number of loops. */
+  private static final int LOOPS = 3;
+
+  /**
+   * Initializes the test databases.
+   */
+  @BeforeClass
+  public static void initDB() {
+    final String input = "<XML>{ for $i in 1 to " + ELEMENTS +
+        " return <SUB id='i{ $i }' n='{ $i mod 1000 }'>text{ $i }</SUB> }</XML>";
+    for(final boolean mmap : new boolean[] { false, true }) {
+      query("db:create('" + name(mmap) + "', " + input + ", 'input.xml', map { '" +
+          MainOptions.MMAP.name().toLowerCase(Locale.ENGLISH) + "': " + mmap + "() })");
+    }
+  }
+
+  /**
+   * Drops the test databases.
+   */
+  @AfterClass
+  public static void finishDB() {
+    for(final boolean mmap : new boolean[] { false, true }) execute(new DropDB(name(mmap)));
+  }
+
+  /**
+   * Accesses random nodes and their string values.
+   */
+  @Test
+  public void randomAccess() {
+    run("sum(for $i in 1 to " + ACCESSES + " let $p := random:integer(" + ELEMENTS * 3 +
+        ") + 1 return string-length(db:open-pre('%', $p)))");
+  }
+
+  /**
+   * Scans all attribute values.
+   */
+  @Test
+  public void attributeScan() {
+    run("count(db:open('%')//SUB[@n = '5'][ends-with(., '5')])");
+  }
+
+  /**
+   * Scans all text values.
+   */
+  @Test
+  public void textScan() {
+    run("count(db:open('%')//text()[contains(., '99')])");
+  }
+
+  /**
+   * Performs the specified query on both databases; performance measurements are output and
+   * the result is ignored.
+   * @param query query to be evaluated ("%" is replaced with the database name)
+   */
+  private static void run(final String query) {
+    Util.outln("Query: " + query);
+    for(final boolean mmap : new boolean[] { false, true }) {
+      final String qu = query.replace("%", name(mmap));
+      // warm up
+      query(qu);
+      final Performance p = new Performance();
+      for(int l = 0; l < LOOPS; l++) query(qu);
+      Util.outln("- " + MainOptions.MMAP.name() + ' ' + mmap + ": " + p.getTime(LOOPS));
+    }
+    Util.outln();
+  }
+
+  /**
+   * Returns the name of a test database.
+   * @param mmap memory mapping flag
+   * @return name
+   */
+  private static String name(final boolean mmap) {
+    return NAME + mmap;
+  }
+}
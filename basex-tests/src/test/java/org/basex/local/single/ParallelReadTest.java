@@ -0,0 +1,77 @@
+package org.basex.local.single;
+
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class measures the throughput of text lookups that are performed by multiple threads.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelReadTest extends SandboxTest {
+  /** Number of elements to be created. */
+  private static final int ELEMENTS = 500000;
+  /** Total number of text lookups. */
+  private static final int ACCESSES = 4000000;
+  /** Maximum number of threads. */
+  private static final int THREADS = 8;
+
+  /**
+   * Initializes the test database.
+   */
+  @BeforeClass
+  public static void initDB() {
+    query("db:create('" + NAME + "', <XML>{ for $i in 1 to " + ELEMENTS +
+        " return <SUB>text{ $i }</SUB> }</XML>, 'input.xml')");
+    execute(new Open(NAME));
+  }
+
+  /**
+   * Drops the test database.
+   */
+  @AfterClass
+  public static void finishDB() {
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Reads random text nodes with an increasing number of threads.
+   * @throws InterruptedException interrupted exception
+   */
+  @Test
+  public void texts() throws InterruptedException {
+    final Data data = context.data();
+    final int size = data.meta.size;
+
+    for(int tc = 1; tc <= THREADS; tc <<= 1) {
+      final Thread[] threads = new Thread[tc];
+      final int accesses = ACCESSES / tc;
+      final Performance perf = new Performance();
+      for(int t = 0; t < tc; t++) {
+        final Random rnd = new Random(t);
+        threads[t] = new Thread() {
+          @Override
+          public void run() {
+            long len = 0;
+            for(int a = 0; a < accesses; a++) {
+              final int pre = rnd.nextInt(size);
+              if(data.kind(pre) == Data.TEXT) len += data.text(pre, true).length;
+            }
+            if(len == 0) Util.errln("No texts found.");
+          }
+        };
+        threads[t].start();
+      }
+      for(final Thread thread : threads) thread.join();
+      final long ms = Math.max(1, perf.time() / 1000000);
+      Util.outln("- threads: " + tc + ", lookups/ms: " + (long) accesses * tc / ms);
+    }
+  }
+}
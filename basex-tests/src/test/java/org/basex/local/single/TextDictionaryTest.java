@@ -0,0 +1,107 @@
+package org.basex.local.single;
+
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class compares the size of the text and attribute value files and the lookup
+ * performance of values that have been compressed with and without text dictionary.
+ *
+ * @author BaseX Team 2005-17, BSD License
+ * @author Christian Gruen
+ */
+public final class TextDictionaryTest extends SandboxTest {
+  /** Number of elements to be created. */
+  private static final int ELEMENTS = 500000;
+  /** Number of random accesses per query. */
+  private static final int ACCESSES = 200000;
+  /** Number of loops. */
+  private static final int LOOPS = 3;
+
+  /**
+   * Initializes the test databases.
+   */
+  @BeforeClass
+  public static void initDB() {
+    final String input = "<XML>{ for $i in 1 to " + ELEMENTS +
+        " let $s := ('active', 'pending', 'closed')[$i mod 3 + 1]" +
+        " return <SUB id='urn:example:item:{ $i }' url='http://www.example.com/{ $i mod 1000 }'>" +
+        "Status of item { $i }: { $s } (updated 2017-05-{ $i mod 28 + 1 })</SUB> }</XML>";
+    for(final boolean dict : new boolean[] { false, true }) {
+      query("db:create('" + name(dict) + "', " + input + ", 'input.xml', map { '" +
+          MainOptions.TEXTDICTIONARY.name().toLowerCase(Locale.ENGLISH) + "': " + dict + "() })");
+      final MetaData meta = new MetaData(name(dict), context.options, context.soptions);
+      Util.outln(MainOptions.TEXTDICTIONARY.name() + ' ' + dict + ": " +
+          meta.dbfile(DataText.DATATXT).length() + " bytes (texts), " +
+          meta.dbfile(DataText.DATAATV).length() + " bytes (attribute values)");
+    }
+    Util.outln();
+  }
+
+  /**
+   * Drops the test databases.
+   */
+  @AfterClass
+  public static void finishDB() {
+    for(final boolean dict : new boolean[] { false, true }) execute(new DropDB(name(dict)));
+  }
+
+  /**
+   * Accesses random nodes and their string values.
+   */
+  @Test
+  public void randomAccess() {
+    run("sum(for $i in 1 to " + ACCESSES + " let $p := random:integer(" + ELEMENTS * 3 +
+        ") + 1 return string-length(db:open-pre('%', $p)))");
+  }
+
+  /**
+   * Scans all attribute values.
+   */
+  @Test
+  public void attributeScan() {
+    run("count(db:open('%')//@*[ends-with(., '99')])");
+  }
+
+  /**
+   * Scans all text values.
+   */
+  @Test
+  public void textScan() {
+    run("count(db:open('%')//text()[contains(., '99')])");
+  }
+
+  /**
+   * Performs the specified query on both databases; performance measurements are output and
+   * the result is ignored.
+   * @param query query to be evaluated ("%" is replaced with the database name)
+   */
+  private static void run(final String query) {
+    Util.outln("Query: " + query);
+    for(final boolean dict : new boolean[] { false, true }) {
+      final String qu = query.replace("%", name(dict));
+      // warm up
+      query(qu);
+      final Performance p = new Performance();
+      for(int l = 0; l < LOOPS; l++) query(qu);
+      Util.outln("- " + MainOptions.TEXTDICTIONARY.name() + ' ' + dict + ": " + p.getTime(LOOPS));
+    }
+    Util.outln();
+  }
+
+  /**
+   * Returns the name of a test database.
+   * @param dict dictionary flag
+   * @return name
+   */
+  private static String name(final boolean dict) {
+    return NAME + dict;
+  }
+}